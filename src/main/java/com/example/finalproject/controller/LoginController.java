@@ -1,5 +1,9 @@
 package com.example.finalproject.controller;
 
+import com.example.finalproject.model.AsyncData;
+import com.example.finalproject.model.Client;
+import com.example.finalproject.model.ClientRepository;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -40,19 +44,26 @@ public class LoginController {
             return;
         }
 
-        // 1. Try Manager Login
-        if (checkCredentials("src/main/resources/com/example/finalproject/data/managers.csv", id, pass, 0, 1)) {
-            switchScene(event, "/com/example/finalproject/Manager_Dashboard-view.fxml", "Manager Dashboard");
-            return;
-        }
-
-        // 2. Try Client Login
-        if (checkCredentials("src/main/resources/com/example/finalproject/data/clients.csv", id, pass, 0, 1)) {
-            switchScene(event, "/com/example/finalproject/moviepage-view.fxml", "Movies");
-            return;
-        }
+        // ASYNC: Read the credential files off the JavaFX thread, only the verdict comes back
+        Task<Boolean> managerCheck = AsyncData.submit(() ->
+                checkCredentials("src/main/resources/com/example/finalproject/data/managers.csv", id, pass, 0, 1));
+        managerCheck.setOnSucceeded(done -> {
+            // 1. Try Manager Login
+            if (managerCheck.getValue()) {
+                switchScene(event, "/com/example/finalproject/Manager_Dashboard-view.fxml", "Manager Dashboard");
+                return;
+            }
 
-        showAlert("Failed", "Invalid Credentials.");
+            // 2. Try Client Login
+            Task<Boolean> clientCheck = AsyncData.submit(() -> checkClientCredentials(id, pass));
+            clientCheck.setOnSucceeded(clientDone -> {
+                if (clientCheck.getValue()) {
+                    switchScene(event, "/com/example/finalproject/moviepage-view.fxml", "Movies");
+                } else {
+                    showAlert("Failed", "Invalid Credentials.");
+                }
+            });
+        });
     }
 
     @FXML
@@ -83,6 +94,16 @@ public class LoginController {
         return false;
     }
 
+    private boolean checkClientCredentials(String inputId, String inputPass) {
+        // Client IDs are numeric, so anything else cannot be a client
+        try {
+            Client client = ClientRepository.getInstance().findById(Integer.parseInt(inputId));
+            return client != null && client.getUserPassword().equals(inputPass);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
     private void switchScene(ActionEvent event, String fxml, String title) {
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource(fxml));
@@ -1,28 +1,28 @@
 package com.example.finalproject.controller;
 
 import com.example.finalproject.model.Movie;
-import javafx.collections.FXCollections;
+import com.example.finalproject.model.MovieRepository;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 
-import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
-import java.util.Scanner;
 
 /**
  * Controller class for the Manager Dashboard.
- * Handles navigation to specific management views (Movies, Rooms, Showtimes) and user sign-out.
+ * Handles navigation to specific management views (Movies, Rooms, Showtimes, Sales, Occupancy) and user sign-out.
  * Also displays a quick movie catalog overview for dashboard convenience.
  *
  * @author Rene
@@ -36,13 +36,12 @@ public class ManagerDashboardController implements Initializable {
     @FXML private TableColumn<Movie, String> colGenre;
     @FXML private TableColumn<Movie, String> colDuration;
 
-    // DATA: Observable list to hold movie data for quick display
-    private ObservableList<Movie> movieList = FXCollections.observableArrayList();
-    private final String MOVIES_CSV_PATH = "src/main/resources/com/example/finalproject/data/movies.csv";
+    // DATA: Shared observable list of the MovieRepository for quick display
+    private ObservableList<Movie> movieList;
 
     /**
      * INITIALIZATION: Called automatically when FXML loads.
-     * Sets up the quick movie overview table with data from CSV.
+     * Sets up the quick movie overview table with the cached movie data.
      *
      * @param url The location used to resolve relative paths
      * @param resourceBundle The resources used to localize the root object
@@ -52,11 +51,15 @@ public class ManagerDashboardController implements Initializable {
         // 1. Initialize table columns with Movie properties
         setupMovieTableColumns();
 
-        // 2. Load data from CSV
-        loadMoviesForDashboard();
-
-        // 3. Bind data to table
+        // 2. Bind the shared list right away; it fills in place once the background load is done
+        movieList = MovieRepository.getInstance().getItems();
         dashboardMovieTable.setItems(movieList);
+
+        // 3. ASYNC: Read the file off the JavaFX thread, show a loading state meanwhile
+        dashboardMovieTable.setPlaceholder(new Label("Loading movies..."));
+        Task<ObservableList<Movie>> load = MovieRepository.getInstance().loadAsync();
+        load.setOnSucceeded(e -> dashboardMovieTable.setPlaceholder(new Label("No movies yet.")));
+        load.setOnFailed(e -> dashboardMovieTable.setPlaceholder(new Label("Could not load movies.")));
     }
 
     /**
@@ -71,70 +74,6 @@ public class ManagerDashboardController implements Initializable {
         colDuration.setCellValueFactory(new PropertyValueFactory<>("duration"));
     }
 
-    /**
-     * DATA LOADING: Reads movies from CSV and populates the dashboard table.
-     * Provides a quick overview of all available movies for the manager.
-     */
-    private void loadMoviesForDashboard() {
-        try {
-            // CLEAR: Remove any existing data to prevent duplicates
-            movieList.clear();
-
-            File movieFile = new File(MOVIES_CSV_PATH);
-
-            // FILE CHECK: Ensure the movies.csv file exists
-            if (!movieFile.exists()) {
-                System.out.println("DASHBOARD: Movies file not found at " + MOVIES_CSV_PATH);
-                return;
-            }
-
-            // PARSING: Read and parse each line of the CSV file
-            Scanner scanner = new Scanner(movieFile);
-            int movieCount = 0;
-
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim();
-
-                // SKIP: Empty lines to avoid parsing errors
-                if (line.isEmpty()) continue;
-
-                // SPLIT: Parse comma-separated values
-                String[] parts = line.split(",");
-
-                // VALIDATION: Ensure we have all required movie data
-                if (parts.length >= 4) {
-                    try {
-                        // CREATE: New Movie object from CSV data
-                        Movie movie = new Movie(
-                            Integer.parseInt(parts[0].trim()),  // Movie ID
-                            parts[1].trim(),                     // Title
-                            parts[2].trim(),                     // Duration
-                            parts[3].trim()                      // Genre
-                        );
-
-                        // ADD: Movie to the observable list
-                        movieList.add(movie);
-                        movieCount++;
-                    } catch (NumberFormatException e) {
-                        // HANDLE: Invalid movie ID format
-                        System.out.println("DASHBOARD: Invalid movie ID in line: " + line);
-                    }
-                } else {
-                    // HANDLE: Incomplete movie data
-                    System.out.println("DASHBOARD: Incomplete movie data in line: " + line);
-                }
-            }
-
-            scanner.close();
-            System.out.println("DASHBOARD: Loaded " + movieCount + " movies for quick overview");
-
-        } catch (Exception e) {
-            // ERROR HANDLING: Log any file reading issues
-            System.err.println("DASHBOARD: Error loading movies for dashboard overview");
-            e.printStackTrace();
-        }
-    }
-
     /**
      * Navigates the user to the Movie Management view.
      *
@@ -168,6 +107,28 @@ public class ManagerDashboardController implements Initializable {
         switchScene(event, "/com/example/finalproject/Manager_ShowtimeSchedule-view.fxml", "Manage Showtimes");
     }
 
+    /**
+     * Navigates the user to the Sales Tracker view.
+     *
+     * @param event The action event triggered by the button click
+     * @throws IOException If the FXML file is not found
+     */
+    @FXML
+    public void onSalesTrackerClick(ActionEvent event) throws IOException {
+        switchScene(event, "/com/example/finalproject/Sales Tracker.fxml", "Sales Tracker");
+    }
+
+    /**
+     * Navigates the user to the Occupancy Heatmap view.
+     *
+     * @param event The action event triggered by the button click
+     * @throws IOException If the FXML file is not found
+     */
+    @FXML
+    public void onOccupancyClick(ActionEvent event) throws IOException {
+        switchScene(event, "/com/example/finalproject/Manager_OccupancyHeatmap-view.fxml", "Occupancy");
+    }
+
     /**
      * Signs the user out and returns to the Login view.
      *
@@ -1,8 +1,10 @@
 package com.example.finalproject.controller;
 
+import com.example.finalproject.model.AsyncData;
 import com.example.finalproject.model.Movie;
-import javafx.collections.FXCollections;
+import com.example.finalproject.model.MovieRepository;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -12,20 +14,16 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.ResourceBundle;
-import java.util.Scanner;
 
 /**
  * Controller for the Movie Catalog.
@@ -67,14 +65,10 @@ public class ManagerMovieCatalogController implements Initializable {
     // MODEL: In-memory list of data
     /**
      * Observable list that holds the movie data in memory.
-     * Changes to this list are automatically reflected in the TableView.
+     * Shared with every other screen through the MovieRepository, so changes
+     * made by the popup form are automatically reflected in the TableView.
      */
-    private ObservableList<Movie> movieList = FXCollections.observableArrayList();
-    
-    /**
-     * Path to the CSV file containing movie data.
-     */
-    private final String CSV_PATH = "src/main/resources/com/example/finalproject/data/movies.csv";
+    private ObservableList<Movie> movieList;
 
     /**
      * SETUP: Runs automatically. Links the Table Columns to the Movie Class fields.
@@ -94,11 +88,15 @@ public class ManagerMovieCatalogController implements Initializable {
         colDuration.setCellValueFactory(new PropertyValueFactory<>("duration"));
         colGenre.setCellValueFactory(new PropertyValueFactory<>("genre"));
 
-        // Read the data from the persistence layer (CSV)
-        loadMovies();
-        
-        // Assign the populated data list to the table view for display
+        // Bind the shared list right away; it fills in place once the background load is done
+        movieList = MovieRepository.getInstance().getItems();
         movieTable.setItems(movieList);
+
+        // ASYNC: Read the file off the JavaFX thread, show a loading state meanwhile
+        movieTable.setPlaceholder(new Label("Loading movies..."));
+        Task<ObservableList<Movie>> load = MovieRepository.getInstance().loadAsync();
+        load.setOnSucceeded(e -> movieTable.setPlaceholder(new Label("No movies yet.")));
+        load.setOnFailed(e -> movieTable.setPlaceholder(new Label("Could not load movies.")));
     }
 
     /**
@@ -126,7 +124,7 @@ public class ManagerMovieCatalogController implements Initializable {
      * DELETE: Logic to remove data.
      * 1. Check selection.
      * 2. Confirm with user.
-     * 3. Perform "Delete from File" operation.
+     * 3. Ask the repository to delete it (the shared list and the file are both updated).
      */
     @FXML
     public void onDeleteClick(ActionEvent event) {
@@ -140,41 +138,12 @@ public class ManagerMovieCatalogController implements Initializable {
         confirm.showAndWait();
 
         if (confirm.getResult() == ButtonType.YES) {
-            deleteMovieFromFile(selected.getMovieID());
-            loadMovies(); // Refresh the table to show it's gone
-        }
-    }
-
-    /**
-     * LOGIC: Simple Deletion from CSV.
-     * We cannot just "erase" a line in a text file.
-     * Instead, we read EVERYTHING into memory, excluding the one we want to delete,
-     * and then write EVERYTHING back to the file.
-     */
-    private void deleteMovieFromFile(int idToDelete) {
-        List<String> lines = new ArrayList<>();
-        try {
-            Scanner scanner = new Scanner(new File(CSV_PATH));
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                if (line.trim().isEmpty()) continue;
-                
-                // Check ID (first item in CSV)
-                int currentId = Integer.parseInt(line.split(",")[0]);
-                
-                // If it's NOT the one we are deleting, keep it.
-                if (currentId != idToDelete) {
-                    lines.add(line);
-                }
-            }
-            scanner.close();
-
-            // Overwrite the file with the new list
-            FileWriter writer = new FileWriter(CSV_PATH, false);
-            for (String l : lines) writer.write(l + "\n");
-            writer.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+            // ASYNC: The file is written in the background, the table follows when it is done
+            Task<Boolean> delete = AsyncData.submit(() -> MovieRepository.getInstance().delete(selected.getMovieID()));
+            delete.setOnFailed(e -> {
+                delete.getException().printStackTrace();
+                showAlert("Error", "Could not delete movie.");
+            });
         }
     }
 
@@ -195,56 +164,11 @@ public class ManagerMovieCatalogController implements Initializable {
             stage.setScene(new Scene(root));
             stage.initModality(Modality.WINDOW_MODAL); // Block clicking the background window
             stage.initOwner(((Node) event.getSource()).getScene().getWindow());
-            stage.showAndWait(); // Wait here until popup closes
-
-            loadMovies(); // Refresh table when they come back
+            stage.showAndWait(); // Wait here until popup closes, the shared list is already up to date
 
         } catch (IOException e) { e.printStackTrace(); }
     }
 
-    /**
-     * Standard CSV Loading logic (Scanner -> Split -> Object -> List)
-     * Reads the "movies.csv" file line by line, parses the comma-separated values,
-     * creates Movie objects, and adds them to the observable list.
-     */
-    private void loadMovies() {
-        // Clear existing data to prevent duplicates
-        movieList.clear();
-        try {
-            // Define the file path to the data source
-            File file = new File(CSV_PATH);
-            
-            // Initialize Scanner to read the file
-            Scanner scanner = new Scanner(file);
-            
-            // Iterate through the file as long as there is another line of text
-            while (scanner.hasNextLine()) {
-                String rawLine = scanner.nextLine();
-                
-                // Skip processing if the line is empty or whitespace only
-                if (rawLine.trim().isEmpty()) continue;
-                
-                // Split the CSV line into an array of strings using the comma delimiter
-                String[] parts = rawLine.split(",");
-                
-                // Parse the string data into the appropriate data types for the Movie object
-                int id = Integer.parseInt(parts[0]);
-                String title = parts[1];
-                String duration = parts[2];
-                String genre = parts[3];
-                
-                // Instantiate a new Movie object and add it to the memory list
-                movieList.add(new Movie(id, title, duration, genre));
-            }
-            // Close the scanner to release system resources
-            scanner.close();
-        } catch (Exception e) {
-            // Handle any errors during file reading or parsing
-            System.out.println("ERROR: An error occurred while loading movie data.");
-            e.printStackTrace();
-        }
-    }
-
     /**
      * Handles the "Dashboard" button click event.
      * Loads the dashboard FXML view and switches the current scene to it.
@@ -1,7 +1,11 @@
 package com.example.finalproject.controller;
 
+import com.example.finalproject.model.AsyncData;
 import com.example.finalproject.model.Movie;
+import com.example.finalproject.model.MovieRepository;
+import com.example.finalproject.model.StaleRecordException;
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -11,14 +15,8 @@ import javafx.scene.control.ComboBox;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.ResourceBundle;
-import java.util.Scanner;
 
 /**
  * Controller for Add/Edit Movie Popup.
@@ -32,7 +30,6 @@ public class ManagerMovieFormController implements Initializable {
     @FXML private ComboBox<String> genreCombo;
 
     private Movie existingMovie; // If null = Add Mode. If set = Edit Mode.
-    private final String CSV_PATH = "src/main/resources/com/example/finalproject/data/movies.csv";
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -63,35 +60,29 @@ public class ManagerMovieFormController implements Initializable {
             return;
         }
 
-        try {
-            List<String> allLines = readAllLines();
-            
+        // ASYNC: Allocate the id and write the file in the background, close when it is done
+        MovieRepository repository = MovieRepository.getInstance();
+        Task<Void> save = AsyncData.submit(() -> {
             if (existingMovie == null) {
                 // --- ADD MODE ---
-                int newId = generateId(allLines);
-                Movie newMovie = new Movie(newId, title, duration + " minutes", genre);
-                allLines.add(newMovie.toCSV());
+                repository.save(new Movie(repository.nextId(), title, duration + " minutes", genre));
             } else {
                 // --- EDIT MODE ---
-                // Find line with matching ID and replace it
-                for (int i = 0; i < allLines.size(); i++) {
-                    String[] parts = allLines.get(i).split(",");
-                    if (Integer.parseInt(parts[0]) == existingMovie.getMovieID()) {
-                        // Keep same ID, update details
-                        Movie updated = new Movie(existingMovie.getMovieID(), title, duration + " minutes", genre);
-                        allLines.set(i, updated.toCSV());
-                        break;
-                    }
-                }
+                // Keep same ID and the version we started from, so a conflicting edit is detected
+                repository.save(new Movie(existingMovie.getMovieID(), title, duration + " minutes", genre,
+                        existingMovie.getVersion()));
             }
-
-            writeLines(allLines);
-            closeWindow(event);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert("Error", "Could not save movie.");
-        }
+            return null;
+        });
+        save.setOnSucceeded(e -> closeWindow(event));
+        save.setOnFailed(e -> {
+            if (save.getException() instanceof StaleRecordException conflict) {
+                showAlert("Conflict", conflict.getMessage());
+            } else {
+                save.getException().printStackTrace();
+                showAlert("Error", "Could not save movie.");
+            }
+        });
     }
 
     @FXML
@@ -101,34 +92,6 @@ public class ManagerMovieFormController implements Initializable {
 
     // --- HELPER METHODS ---
 
-    private List<String> readAllLines() throws IOException {
-        List<String> lines = new ArrayList<>();
-        File file = new File(CSV_PATH);
-        if (!file.exists()) return lines;
-        Scanner scanner = new Scanner(file);
-        while (scanner.hasNextLine()) {
-            String line = scanner.nextLine();
-            if (!line.trim().isEmpty()) lines.add(line);
-        }
-        scanner.close();
-        return lines;
-    }
-
-    private void writeLines(List<String> lines) throws IOException {
-        FileWriter writer = new FileWriter(CSV_PATH, false); // Overwrite
-        for (String line : lines) writer.write(line + "\n");
-        writer.close();
-    }
-
-    private int generateId(List<String> lines) {
-        int max = 0;
-        for (String line : lines) {
-            int id = Integer.parseInt(line.split(",")[0]);
-            if (id > max) max = id;
-        }
-        return max + 1;
-    }
-
     private void closeWindow(ActionEvent event) {
         ((Stage) ((Node) event.getSource()).getScene().getWindow()).close();
     }
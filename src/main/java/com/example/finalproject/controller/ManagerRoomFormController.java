@@ -1,6 +1,10 @@
 package com.example.finalproject.controller;
 
+import com.example.finalproject.model.AsyncData;
 import com.example.finalproject.model.Room;
+import com.example.finalproject.model.RoomRepository;
+import com.example.finalproject.model.StaleRecordException;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
@@ -8,12 +12,6 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
-
 /**
  * Controller for Add/Edit Room Popup.
  *
@@ -25,7 +23,6 @@ public class ManagerRoomFormController {
     @FXML private TextField capacityField;
 
     private Room existingRoom;
-    private final String CSV_PATH = "src/main/resources/com/example/finalproject/data/rooms.csv";
 
     public void setRoomData(Room room) {
         this.existingRoom = room;
@@ -43,31 +40,35 @@ public class ManagerRoomFormController {
             return;
         }
 
+        int capacity;
         try {
-            int capacity = Integer.parseInt(capStr);
-            List<String> lines = readAllLines();
+            capacity = Integer.parseInt(capStr);
+        } catch (NumberFormatException e) {
+            showAlert("Error", "Capacity must be a number.");
+            return;
+        }
 
+        // ASYNC: Write in the background, close when it is done
+        RoomRepository repository = RoomRepository.getInstance();
+        Task<Void> save = AsyncData.submit(() -> {
             if (existingRoom == null) {
                 // Add
-                int newId = generateId(lines);
-                Room newRoom = new Room(newId, name, capacity);
-                lines.add(newRoom.toCSV());
+                repository.save(new Room(repository.nextId(), name, capacity));
             } else {
                 // Edit
-                for (int i = 0; i < lines.size(); i++) {
-                    if (Integer.parseInt(lines.get(i).split(",")[0]) == existingRoom.getRoomID()) {
-                        Room updated = new Room(existingRoom.getRoomID(), name, capacity);
-                        lines.set(i, updated.toCSV());
-                        break;
-                    }
-                }
+                repository.save(new Room(existingRoom.getRoomID(), name, capacity, existingRoom.getVersion()));
             }
-
-            writeLines(lines);
-            closeWindow(event);
-        } catch (NumberFormatException e) {
-            showAlert("Error", "Capacity must be a number.");
-        } catch (Exception e) { e.printStackTrace(); }
+            return null;
+        });
+        save.setOnSucceeded(e -> closeWindow(event));
+        save.setOnFailed(e -> {
+            if (save.getException() instanceof StaleRecordException conflict) {
+                showAlert("Conflict", conflict.getMessage());
+            } else {
+                save.getException().printStackTrace();
+                showAlert("Error", "Could not save room.");
+            }
+        });
     }
 
     @FXML
@@ -75,34 +76,6 @@ public class ManagerRoomFormController {
         closeWindow(event);
     }
 
-    private List<String> readAllLines() throws Exception {
-        List<String> lines = new ArrayList<>();
-        File file = new File(CSV_PATH);
-        if (!file.exists()) return lines;
-        Scanner scanner = new Scanner(file);
-        while (scanner.hasNextLine()) {
-            String l = scanner.nextLine();
-            if (!l.trim().isEmpty()) lines.add(l);
-        }
-        scanner.close();
-        return lines;
-    }
-
-    private void writeLines(List<String> lines) throws Exception {
-        FileWriter writer = new FileWriter(CSV_PATH, false);
-        for (String l : lines) writer.write(l + "\n");
-        writer.close();
-    }
-
-    private int generateId(List<String> lines) {
-        int max = 0;
-        for (String l : lines) {
-            int id = Integer.parseInt(l.split(",")[0]);
-            if (id > max) max = id;
-        }
-        return max + 1;
-    }
-
     private void closeWindow(ActionEvent event) {
         ((Stage) ((Node) event.getSource()).getScene().getWindow()).close();
     }
@@ -1,8 +1,10 @@
 package com.example.finalproject.controller;
 
+import com.example.finalproject.model.AsyncData;
 import com.example.finalproject.model.Room;
-import javafx.collections.FXCollections;
+import com.example.finalproject.model.RoomRepository;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -12,39 +14,32 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.ResourceBundle;
-import java.util.Scanner;
 
 /**
  * Controller class for the Room Management view.
  * Handles the logic for displaying the list of theater rooms and their capacities.
- * Reads data from "rooms.csv" and populates the TableView.
+ * Displays the shared room list of the RoomRepository in the TableView.
  *
  * @author Rene
  */
 public class ManagerRoomManagementController implements Initializable {
 
-    // CONSTANT: Path to the CSV file
-    private static final String CSV_PATH = "src/main/resources/com/example/finalproject/data/rooms.csv";
-
     @FXML private TableView<Room> roomTable;
     @FXML private TableColumn<Room, Integer> colRoomId;
     @FXML private TableColumn<Room, String> colRoomName;
     @FXML private TableColumn<Room, Integer> colCapacity;
 
-    private ObservableList<Room> roomList = FXCollections.observableArrayList();
+    private ObservableList<Room> roomList;
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -53,44 +48,15 @@ public class ManagerRoomManagementController implements Initializable {
         colRoomName.setCellValueFactory(new PropertyValueFactory<>("roomName"));
         colCapacity.setCellValueFactory(new PropertyValueFactory<>("capacity"));
 
-        // LOAD: Fetch data from CSV
-        loadRooms();
-
-        // DISPLAY: Set items to table
+        // DISPLAY: Bind the shared list right away; it fills in place once loaded
+        roomList = RoomRepository.getInstance().getItems();
         roomTable.setItems(roomList);
-    }
 
-    /**
-     * Standard CSV Loading logic (Scanner -> Split -> Object -> List)
-     * Reads the "rooms.csv" file line by line, parses the comma-separated values,
-     * creates Room objects, and adds them to the observable list.
-     */
-    private void loadRooms() {
-        roomList.clear();
-        try {
-            File file = new File(CSV_PATH);
-            Scanner scanner = new Scanner(file);
-
-            while (scanner.hasNextLine()) {
-                String rawLine = scanner.nextLine();
-                if (rawLine.trim().isEmpty()) continue;
-
-                String[] parts = rawLine.split(",");
-                
-                // VALIDATION: Ensure we have enough parts
-                if (parts.length >= 3) {
-                    int id = Integer.parseInt(parts[0].trim());
-                    String name = parts[1].trim();
-                    int capacity = Integer.parseInt(parts[2].trim());
-
-                    roomList.add(new Room(id, name, capacity));
-                }
-            }
-            scanner.close();
-        } catch (Exception e) {
-            System.out.println("ERROR: An error occurred while loading room data.");
-            e.printStackTrace();
-        }
+        // LOAD: Read the file off the JavaFX thread, show a loading state meanwhile
+        roomTable.setPlaceholder(new Label("Loading rooms..."));
+        Task<ObservableList<Room>> load = RoomRepository.getInstance().loadAsync();
+        load.setOnSucceeded(e -> roomTable.setPlaceholder(new Label("No rooms yet.")));
+        load.setOnFailed(e -> roomTable.setPlaceholder(new Label("Could not load rooms.")));
     }
 
     @FXML
@@ -118,8 +84,12 @@ public class ManagerRoomManagementController implements Initializable {
         confirm.showAndWait();
 
         if (confirm.getResult() == ButtonType.YES) {
-            deleteRoomFromFile(selectedRoom.getRoomID());
-            loadRooms(); // Refresh the table to show it's gone
+            // ASYNC: The file is written in the background, the table follows when it is done
+            Task<Boolean> delete = AsyncData.submit(() -> RoomRepository.getInstance().delete(selectedRoom.getRoomID()));
+            delete.setOnFailed(e -> {
+                delete.getException().printStackTrace();
+                showAlert("Error", "Could not delete room.");
+            });
         }
     }
 
@@ -164,32 +134,6 @@ public class ManagerRoomManagementController implements Initializable {
         alert.showAndWait();
     }
     
-    /**
-     * LOGIC: Simple Deletion from CSV.
-     */
-    private void deleteRoomFromFile(int idToDelete) {
-        List<String> lines = new ArrayList<>();
-        try {
-            Scanner scanner = new Scanner(new File(CSV_PATH));
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                if (line.trim().isEmpty()) continue;
-                
-                int currentId = Integer.parseInt(line.split(",")[0]);
-                if (currentId != idToDelete) {
-                    lines.add(line);
-                }
-            }
-            scanner.close();
-
-            FileWriter writer = new FileWriter(CSV_PATH, false);
-            for (String l : lines) writer.write(l + "\n");
-            writer.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-    
     /**
      * HELPER: Handles opening the Room Form Popup Window.
      */
@@ -207,8 +151,6 @@ public class ManagerRoomManagementController implements Initializable {
             stage.initModality(Modality.WINDOW_MODAL);
             stage.initOwner(((Node) event.getSource()).getScene().getWindow());
             stage.showAndWait();
-
-            loadRooms();
         } catch (IOException e) {
             e.printStackTrace();
         }
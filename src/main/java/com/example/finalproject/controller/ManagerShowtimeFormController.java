@@ -1,7 +1,15 @@
 package com.example.finalproject.controller;
 
+import com.example.finalproject.model.AsyncData;
+import com.example.finalproject.model.Movie;
+import com.example.finalproject.model.MovieRepository;
+import com.example.finalproject.model.Room;
+import com.example.finalproject.model.RoomRepository;
 import com.example.finalproject.model.Showtime;
-import javafx.collections.FXCollections;
+import com.example.finalproject.model.ShowtimeRepository;
+import com.example.finalproject.model.StaleRecordException;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -12,14 +20,9 @@ import javafx.scene.control.DatePicker;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.net.URL;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.ResourceBundle;
-import java.util.Scanner;
 
 /**
  * Controller for Add/Edit Showtime Popup.
@@ -34,25 +37,27 @@ public class ManagerShowtimeFormController implements Initializable {
     @FXML private TextField timeField;
 
     private Showtime existingShowtime;
-    private final String CSV_PATH = "src/main/resources/com/example/finalproject/data/showtimes.csv";
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        loadOptions("src/main/resources/com/example/finalproject/data/movies.csv", movieCombo);
-        loadOptions("src/main/resources/com/example/finalproject/data/rooms.csv", roomCombo);
+        loadOptions();
     }
 
     public void setShowtimeData(Showtime st) {
         this.existingShowtime = st;
         timeField.setText(st.getTime());
         datePicker.setValue(LocalDate.parse(st.getDate()));
-        
-        // Select correct movie/room in combo
+        selectCurrent();
+    }
+
+    // Select correct movie/room in combo (again once the options have loaded)
+    private void selectCurrent() {
+        if (existingShowtime == null) return;
         for (String item : movieCombo.getItems()) {
-            if (item.startsWith(st.getMovieID() + ":")) movieCombo.setValue(item);
+            if (item.startsWith(existingShowtime.getMovieID() + ":")) movieCombo.setValue(item);
         }
         for (String item : roomCombo.getItems()) {
-            if (item.startsWith(st.getRoomID() + ":")) roomCombo.setValue(item);
+            if (item.startsWith(existingShowtime.getRoomID() + ":")) roomCombo.setValue(item);
         }
     }
 
@@ -63,34 +68,33 @@ public class ManagerShowtimeFormController implements Initializable {
             return;
         }
 
-        try {
-            int movieId = Integer.parseInt(movieCombo.getValue().split(":")[0]);
-            int roomId = Integer.parseInt(roomCombo.getValue().split(":")[0]);
-            String date = datePicker.getValue().toString();
-            String time = timeField.getText();
-
-            List<String> lines = readAllLines();
+        int movieId = Integer.parseInt(movieCombo.getValue().split(":")[0]);
+        int roomId = Integer.parseInt(roomCombo.getValue().split(":")[0]);
+        String date = datePicker.getValue().toString();
+        String time = timeField.getText();
 
+        // ASYNC: Write in the background, close when it is done
+        ShowtimeRepository repository = ShowtimeRepository.getInstance();
+        Task<Void> save = AsyncData.submit(() -> {
             if (existingShowtime == null) {
                 // Add
-                int newId = generateId(lines);
-                Showtime st = new Showtime(newId, date, time, movieId, roomId);
-                lines.add(st.toCSV());
+                repository.save(new Showtime(repository.nextId(), date, time, movieId, roomId));
             } else {
                 // Edit
-                for (int i = 0; i < lines.size(); i++) {
-                    if (Integer.parseInt(lines.get(i).split(",")[0]) == existingShowtime.getShowtimeID()) {
-                        Showtime st = new Showtime(existingShowtime.getShowtimeID(), date, time, movieId, roomId);
-                        lines.set(i, st.toCSV());
-                        break;
-                    }
-                }
+                repository.save(new Showtime(existingShowtime.getShowtimeID(), date, time, movieId, roomId,
+                        existingShowtime.getVersion()));
             }
-
-            writeLines(lines);
-            closeWindow(event);
-
-        } catch (Exception e) { e.printStackTrace(); }
+            return null;
+        });
+        save.setOnSucceeded(e -> closeWindow(event));
+        save.setOnFailed(e -> {
+            if (save.getException() instanceof StaleRecordException conflict) {
+                showAlert("Conflict", conflict.getMessage());
+            } else {
+                save.getException().printStackTrace();
+                showAlert("Error", "Could not save showtime. " + save.getException().getMessage());
+            }
+        });
     }
 
     @FXML
@@ -98,47 +102,22 @@ public class ManagerShowtimeFormController implements Initializable {
         closeWindow(event);
     }
 
-    // Reuse helper methods logic
-    private void loadOptions(String path, ComboBox<String> combo) {
-        try {
-            Scanner s = new Scanner(new File(path));
-            while (s.hasNextLine()) {
-                String l = s.nextLine();
-                if (!l.trim().isEmpty()) {
-                    String[] p = l.split(",");
-                    combo.getItems().add(p[0] + ": " + p[1]);
-                }
+    // Fill the combos from the cached repositories, loading them in the background if needed
+    private void loadOptions() {
+        Task<ObservableList<Movie>> movies = MovieRepository.getInstance().loadAsync();
+        movies.setOnSucceeded(e -> {
+            for (Movie m : movies.getValue()) {
+                movieCombo.getItems().add(m.getMovieID() + ": " + m.getTitle());
             }
-            s.close();
-        } catch (Exception e) {}
-    }
-
-    private List<String> readAllLines() throws Exception {
-        List<String> lines = new ArrayList<>();
-        File f = new File(CSV_PATH);
-        if(!f.exists()) return lines;
-        Scanner s = new Scanner(f);
-        while(s.hasNextLine()) {
-            String l = s.nextLine();
-            if(!l.trim().isEmpty()) lines.add(l);
-        }
-        s.close();
-        return lines;
-    }
-
-    private void writeLines(List<String> lines) throws Exception {
-        FileWriter w = new FileWriter(CSV_PATH, false);
-        for(String l : lines) w.write(l+"\n");
-        w.close();
-    }
-
-    private int generateId(List<String> lines) {
-        int max = 0;
-        for (String l : lines) {
-            int id = Integer.parseInt(l.split(",")[0]);
-            if (id > max) max = id;
-        }
-        return max + 1;
+            selectCurrent();
+        });
+        Task<ObservableList<Room>> rooms = RoomRepository.getInstance().loadAsync();
+        rooms.setOnSucceeded(e -> {
+            for (Room r : rooms.getValue()) {
+                roomCombo.getItems().add(r.getRoomID() + ": " + r.getRoomName());
+            }
+            selectCurrent();
+        });
     }
 
     private void closeWindow(ActionEvent event) {
@@ -1,8 +1,10 @@
 package com.example.finalproject.controller;
 
+import com.example.finalproject.model.AsyncData;
 import com.example.finalproject.model.Showtime;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.example.finalproject.model.ShowtimePager;
+import com.example.finalproject.model.ShowtimeRepository;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -11,41 +13,43 @@ import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalDate;
 import java.util.ResourceBundle;
-import java.util.Scanner;
 
 /**
  * Controller class for the Showtime Schedule view.
  * Manages the display of upcoming showtimes.
- * Reads data from "showtimes.csv" and displays it in a table.
+ * Shows one page of the schedule at a time, by date range, so the screen opens
+ * equally fast however long the history of the ShowtimeRepository is.
  *
  * @author Rene
  */
 public class ManagerShowtimeScheduleController implements Initializable {
 
-    // CONSTANT: Path to the CSV file
-    private static final String CSV_PATH = "src/main/resources/com/example/finalproject/data/showtimes.csv";
-
     @FXML private TableView<Showtime> showtimeTable;
     @FXML private TableColumn<Showtime, String> colDate;
     @FXML private TableColumn<Showtime, String> colTime;
     @FXML private TableColumn<Showtime, Integer> colMovieId;
     @FXML private TableColumn<Showtime, Integer> colRoomId;
+    @FXML private DatePicker fromPicker;
+    @FXML private DatePicker toPicker;
+    @FXML private Label pageLabel;
+    @FXML private Button prevPageButton;
+    @FXML private Button nextPageButton;
 
-    private ObservableList<Showtime> showtimeList = FXCollections.observableArrayList();
+    private ShowtimePager pager;
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -55,43 +59,62 @@ public class ManagerShowtimeScheduleController implements Initializable {
         colMovieId.setCellValueFactory(new PropertyValueFactory<>("movieID"));
         colRoomId.setCellValueFactory(new PropertyValueFactory<>("roomID"));
 
-        loadShowtimes();
-
-        // Link the ObservableList to the table
-        showtimeTable.setItems(showtimeList);
+        // PAGING: The table only ever holds the page being viewed
+        pager = new ShowtimePager(ShowtimeRepository.getInstance(), ShowtimePager.DEFAULT_PAGE_SIZE);
+        showtimeTable.setItems(pager.getRows());
+        pager.setOnPageShown(this::updatePageControls);
+        pager.setOnFailed(() -> showtimeTable.setPlaceholder(new Label("Could not load showtimes.")));
+
+        // ASYNC: Pages are fetched off the JavaFX thread, show a loading state meanwhile
+        showtimeTable.setPlaceholder(new Label("Loading showtimes..."));
+        prevPageButton.setDisable(true);
+        nextPageButton.setDisable(true);
+
+        // PRUNING: Start at the active months; picking an earlier date reads the archived ones
+        Task<String> activeFrom = AsyncData.submit(() -> ShowtimeRepository.getInstance().getActiveFrom());
+        activeFrom.setOnSucceeded(e -> {
+            if (activeFrom.getValue() == null) {
+                applyRange();
+            } else {
+                fromPicker.setValue(LocalDate.parse(activeFrom.getValue())); // fires onRangeChange
+            }
+        });
+        activeFrom.setOnFailed(e -> applyRange());
     }
 
     /**
-     * Standard CSV loading logic
+     * Applies the date range of the From/To pickers; an empty picker leaves that side open.
      */
-    private void loadShowtimes() {
-        showtimeList.clear();
-        try {
-            File file = new File(CSV_PATH);
-            Scanner scanner = new Scanner(file);
+    @FXML
+    public void onRangeChange(ActionEvent event) {
+        applyRange();
+    }
 
-            while (scanner.hasNextLine()) {
-                String rawLine = scanner.nextLine();
-                if (rawLine.trim().isEmpty()) continue;
+    private void applyRange() {
+        LocalDate from = fromPicker.getValue();
+        LocalDate to = toPicker.getValue();
+        LocalDate today = LocalDate.now();
+        // Open at today's showtimes when the range contains today
+        boolean containsToday = (from == null || !from.isAfter(today)) && (to == null || !to.isBefore(today));
+        pager.setRange(from, to, containsToday ? today : null);
+    }
 
-                String[] parts = rawLine.split(",");
+    @FXML
+    public void onPrevPageClick(ActionEvent event) {
+        pager.previous();
+    }
 
-                // Validation
-                if (parts.length >= 5) {
-                    int showtimeID = Integer.parseInt(parts[0].trim());
-                    String date = parts[1].trim();
-                    String time = parts[2].trim();
-                    int movieID = Integer.parseInt(parts[3].trim());
-                    int roomID = Integer.parseInt(parts[4].trim());
+    @FXML
+    public void onNextPageClick(ActionEvent event) {
+        pager.next();
+    }
 
-                    showtimeList.add(new Showtime(showtimeID, date, time, movieID, roomID));
-                }
-            }
-            scanner.close();
-        } catch (Exception e) {
-            System.out.println("ERROR: Failed to load showtime data.");
-            e.printStackTrace();
-        }
+    private void updatePageControls() {
+        ShowtimeRepository.Page page = pager.getCurrent();
+        pageLabel.setText("Page " + (page.index() + 1) + " of " + page.count() + " (" + page.total() + " showtimes)");
+        prevPageButton.setDisable(page.index() == 0);
+        nextPageButton.setDisable(page.index() + 1 >= page.count());
+        showtimeTable.setPlaceholder(new Label("No showtimes in this range."));
     }
 
     @FXML
@@ -119,8 +142,12 @@ public class ManagerShowtimeScheduleController implements Initializable {
         confirm.showAndWait();
 
         if (confirm.getResult() == ButtonType.YES) {
-            deleteShowtimeFromFile(selectedShowtime);
-            loadShowtimes(); // Refresh the table
+            // ASYNC: The month file is written in the background, the table follows when it is done
+            Task<Boolean> delete = AsyncData.submit(() -> ShowtimeRepository.getInstance().delete(selectedShowtime.getShowtimeID()));
+            delete.setOnFailed(e -> {
+                delete.getException().printStackTrace();
+                showAlert("Error", "Could not delete showtime.");
+            });
         }
     }
 
@@ -165,40 +192,6 @@ public class ManagerShowtimeScheduleController implements Initializable {
         alert.showAndWait();
     }
     
-    /**
-     * LOGIC: Simple Deletion from CSV using showtime ID.
-     */
-    private void deleteShowtimeFromFile(Showtime showtimeToDelete) {
-        List<String> lines = new ArrayList<>();
-        try {
-            Scanner scanner = new Scanner(new File(CSV_PATH));
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                if (line.trim().isEmpty()) continue;
-                
-                String[] parts = line.split(",");
-                if (parts.length >= 5) {
-                    // CSV format: showtimeID,date,time,movieID,roomID
-                    int csvShowtimeID = Integer.parseInt(parts[0].trim());
-                    
-                    // Only keep lines that don't match the showtime ID to delete
-                    if (csvShowtimeID != showtimeToDelete.getShowtimeID()) {
-                        lines.add(line);
-                    }
-                } else {
-                    lines.add(line); // Keep malformed lines
-                }
-            }
-            scanner.close();
-
-            FileWriter writer = new FileWriter(CSV_PATH, false);
-            for (String l : lines) writer.write(l + "\n");
-            writer.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-    
     /**
      * HELPER: Handles opening the Showtime Form Popup Window.
      */
@@ -216,8 +209,6 @@ public class ManagerShowtimeScheduleController implements Initializable {
             stage.initModality(Modality.WINDOW_MODAL);
             stage.initOwner(((Node) event.getSource()).getScene().getWindow());
             stage.showAndWait();
-
-            loadShowtimes();
         } catch (IOException e) {
             e.printStackTrace();
         }
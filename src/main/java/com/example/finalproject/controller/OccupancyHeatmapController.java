@@ -0,0 +1,224 @@
+package com.example.finalproject.controller;
+
+import com.example.finalproject.model.AsyncData;
+import com.example.finalproject.model.FrameCoalescer;
+import com.example.finalproject.model.Room;
+import com.example.finalproject.model.RoomOccupancy;
+import com.example.finalproject.model.RoomRepository;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.GridPane;
+import javafx.scene.text.Text;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Controller for the Occupancy Heatmap screen.
+ * <p>
+ * Shows how full the showtimes of one room (or of all rooms) are for every
+ * hour of the week: a grid of 7 days by 24 hours, each cell coloured from
+ * green (empty seats) to red (full) by the share of the seats sold, with the
+ * showtimes, sold-out count and spread in its tooltip. Hours without a
+ * showtime stay grey. It tells the manager which slots of which room to
+ * schedule more or fewer showtimes in.
+ * <p>
+ * The figures come from the {@link RoomOccupancy} counters, which follow
+ * every sale, cancellation and schedule change, archived months included, so
+ * the grid opens at once and never reads the tickets.
+ * <p>
+ * LIVE: Changed rooms are collected by a {@link FrameCoalescer}; the grid is
+ * redrawn at most once per frame, and only if the room on screen changed.
+ *
+ * @author Rene
+ */
+public class OccupancyHeatmapController {
+
+    private static final String[] DAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+    private static final double CELL_SIZE = 30;
+
+    /**
+     * Room shown: "All rooms", then one entry per room.
+     */
+    @FXML
+    private ComboBox<String> roomCombo;
+
+    /**
+     * Grid of the heatmap; filled in code, one label per hour of the week.
+     */
+    @FXML
+    private GridPane heatmapGrid;
+
+    /**
+     * Occupancy of the room over the whole week.
+     */
+    @FXML
+    private Text summaryText;
+
+    private final Label[] cells = new Label[RoomOccupancy.HOURS_PER_WEEK];
+
+    /**
+     * Room id of each entry of the combo box.
+     */
+    private final List<Integer> roomIds = new ArrayList<>();
+    private int shownRoom = RoomOccupancy.ALL_ROOMS;
+
+    private final RoomOccupancy occupancy = RoomOccupancy.getInstance();
+
+    // LIVE: Rooms changed since the last frame; the value is unused
+    private final FrameCoalescer<Integer, Boolean> changedRooms = new FrameCoalescer<>(this::applyChanges);
+
+    /**
+     * Kept in a field: the occupancy counters only hold a weak reference to it.
+     */
+    private final Consumer<Set<Integer>> onOccupancyChanged = rooms -> {
+        for (int room : rooms) changedRooms.put(room, Boolean.TRUE);
+    };
+
+    /**
+     * Builds the empty grid, lists the rooms and loads the counters in the background.
+     */
+    @FXML
+    private void initialize() {
+        buildGrid();
+        roomCombo.getItems().add("All rooms");
+        roomIds.add(RoomOccupancy.ALL_ROOMS);
+        roomCombo.getSelectionModel().select(0);
+
+        Task<ObservableList<Room>> rooms = RoomRepository.getInstance().loadAsync();
+        rooms.setOnSucceeded(e -> {
+            for (Room room : rooms.getValue()) {
+                roomCombo.getItems().add(room.getRoomName() + " (" + room.getCapacity() + " seats)");
+                roomIds.add(room.getRoomID());
+            }
+        });
+
+        occupancy.addChangeListener(onOccupancyChanged);
+        summaryText.setText("Loading occupancy...");
+        Task<Void> load = AsyncData.submit(() -> {
+            occupancy.refresh();
+            return null;
+        });
+        load.setOnSucceeded(e -> showRoom());
+        load.setOnFailed(e -> {
+            summaryText.setText("Could not load occupancy.");
+            showError("Error loading occupancy", load.getException().getMessage());
+        });
+    }
+
+    /**
+     * Adds the hour and day headers and one empty cell per hour of the week.
+     */
+    private void buildGrid() {
+        for (int hour = 0; hour < 24; hour++) {
+            heatmapGrid.add(new Label(String.valueOf(hour)), hour + 1, 0);
+        }
+        for (int day = 0; day < DAYS.length; day++) {
+            heatmapGrid.add(new Label(DAYS[day]), 0, day + 1);
+            for (int hour = 0; hour < 24; hour++) {
+                Label cell = new Label();
+                cell.setPrefSize(CELL_SIZE, CELL_SIZE);
+                cell.setMinSize(CELL_SIZE, CELL_SIZE);
+                cell.setTooltip(new Tooltip());
+                cells[day * 24 + hour] = cell;
+                heatmapGrid.add(cell, hour + 1, day + 1);
+            }
+        }
+    }
+
+    /**
+     * Handles the choice of a room.
+     */
+    @FXML
+    private void onRoomChange() {
+        int index = roomCombo.getSelectionModel().getSelectedIndex();
+        if (index < 0 || index >= roomIds.size()) return;
+        shownRoom = roomIds.get(index);
+        showRoom();
+    }
+
+    /**
+     * Runs once per frame with the rooms changed since the previous one.
+     *
+     * @param changed changed room ids
+     */
+    private void applyChanges(Map<Integer, Boolean> changed) {
+        if (changed.containsKey(shownRoom)) showRoom();
+    }
+
+    /**
+     * Reads the counters of the room on screen into the grid and the summary.
+     */
+    private void showRoom() {
+        for (RoomOccupancy.Cell cell : occupancy.heatmap(shownRoom)) {
+            Label label = cells[cell.hourOfWeek()];
+            label.getTooltip().setText(describe(cell));
+            if (cell.showtimes() == 0) {
+                label.setText("");
+                label.setStyle("-fx-background-color: #ecf0f1; -fx-alignment: center;");
+                continue;
+            }
+            double load = Math.min(1, cell.loadFactor());
+            label.setText(Math.round(load * 100) + "%");
+            // Hue 120 (green) for empty seats down to 0 (red) for a full room
+            label.setStyle(String.format(Locale.ROOT,
+                    "-fx-background-color: hsb(%.0f, 70%%, 90%%); -fx-alignment: center; -fx-font-size: 10px;",
+                    120 * (1 - load)));
+        }
+        RoomOccupancy.Cell week = occupancy.week(shownRoom);
+        summaryText.setText(week.showtimes() == 0 ? "No showtimes scheduled."
+                : String.format("%,d of %,d seats sold (%.0f%%) over %,d showtimes, %,d sold out.",
+                week.seatsSold(), week.seatsOffered(), week.loadFactor() * 100, week.showtimes(), week.soldOut()));
+    }
+
+    private static String describe(RoomOccupancy.Cell cell) {
+        String slot = String.format("%s %02d:00-%02d:00", DAYS[cell.hourOfWeek() / 24], cell.hour(), cell.hour() + 1);
+        if (cell.showtimes() == 0) return slot + "\nNo showtimes";
+        return String.format("%s%n%d showtimes, %d sold out%n%,d of %,d seats sold (%.0f%%)%n"
+                        + "A showtime is %.0f%% full on average (spread %.0f%%)",
+                slot, cell.showtimes(), cell.soldOut(), cell.seatsSold(), cell.seatsOffered(),
+                cell.loadFactor() * 100, cell.meanLoad() * 100, cell.loadSpread() * 100);
+    }
+
+    /**
+     * Returns to the Manager Dashboard.
+     *
+     * @param event the action event triggered by the button click
+     * @throws IOException if the dashboard FXML cannot be loaded
+     */
+    @FXML
+    private void onDashboardClick(ActionEvent event) throws IOException {
+        changedRooms.stop();
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/finalproject/Manager_Dashboard-view.fxml"));
+        ((Stage) ((Node) event.getSource()).getScene().getWindow()).setScene(new Scene(loader.load()));
+    }
+
+    /**
+     * Shows an error dialog.
+     *
+     * @param title   dialog title
+     * @param message error message
+     */
+    private void showError(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message == null ? "An unknown error occurred." : message);
+        alert.showAndWait();
+    }
+}
@@ -1,31 +1,79 @@
 package com.example.finalproject.controller;
 
+import com.example.finalproject.model.AsyncData;
+import com.example.finalproject.model.FrameCoalescer;
+import com.example.finalproject.model.Movie;
+import com.example.finalproject.model.MovieRepository;
+import com.example.finalproject.model.Room;
+import com.example.finalproject.model.RoomRepository;
+import com.example.finalproject.model.SalesAggregator;
+import com.example.finalproject.model.SalesReport;
+import com.example.finalproject.model.Showtime;
+import com.example.finalproject.model.ShowtimeRepository;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.text.Text;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
- * Controller for the Sales Tracker screen (Showtime performance).
+ * Controller for the Sales Tracker screen.
  * <p>
- * This controller is responsible for displaying ticket sales grouped by
- * showtime. Each row in the table represents a specific showtime and
- * contains:
+ * This controller displays ticket sales grouped by showtime, by showroom
+ * or by movie, depending on the selected view. Each row contains:
  * <ul>
- *     <li>Movie name</li>
- *     <li>Showtime (date and time)</li>
+ *     <li>Movie name (or showroom name)</li>
+ *     <li>Showtime (date and time), or the number of showtimes with sales</li>
  *     <li>Tickets sold</li>
- *     <li>Ticket price</li>
- *     <li>Total revenue (tickets * price)</li>
+ *     <li>Average ticket price</li>
+ *     <li>Total revenue</li>
  * </ul>
  * <p>
- * The top summary cards display the total number of tickets sold and
- * the total revenue for all listed showtimes.
+ * The figures come from the {@link SalesAggregator}, which keeps running
+ * totals of the ticket ledger, so every view opens at once however many
+ * tickets were sold. The
+ * showtime view lists the showtimes of the loaded (active) months; sales of
+ * archived months are summed up in one "Earlier months" row.
+ * <p>
+ * LIVE: While sales come in, the aggregator posts the new totals of the
+ * showtimes, rooms and movies they changed. They are applied to the rows'
+ * properties in place, once per frame through a {@link FrameCoalescer}, so
+ * the table ticks along with the sales without rebuilding it and without
+ * one JavaFX task per sale, however many are sold per second.
+ * <p>
+ * The top summary cards display the tickets sold and the revenue of the
+ * chosen date range (this month at first), compared with the period of the
+ * same length just before it. In the showroom and movie views, selecting a
+ * row narrows the cards to that room or movie. Every range costs the same
+ * constant-time lookup, however long it is. "Export Report" writes a full
+ * report of the range to a CSV file, read from the whole ticket ledger in
+ * parallel by {@link SalesReport}.
  * <p>
  * This class acts as the Controller in the MVC structure, coordinating
  * between the JavaFX view and the underlying sales data.
@@ -37,38 +85,71 @@ public class SalesTrackerController {
     // ===== FXML: Top summary texts =====
 
     /**
-     * Text node displaying the monthly revenue value.
+     * Text node displaying the revenue of the date range.
+     */
+    @FXML
+    private Text revenueText;
+
+    /**
+     * Text node displaying the tickets sold in the date range.
      */
     @FXML
-    private Text monthlyRevenueText;
+    private Text ticketsText;
 
     /**
-     * Text node displaying the monthly ticket sales value.
+     * Text node comparing the revenue with the previous period.
      */
     @FXML
-    private Text monthlyTicketsText;
+    private Text revenueChangeText;
+
+    /**
+     * Text node comparing the tickets sold with the previous period.
+     */
+    @FXML
+    private Text ticketsChangeText;
+
+    /**
+     * Title of the summary: overall, or the selected room or movie.
+     */
+    @FXML
+    private Text summaryTitleText;
+
+    // ===== FXML: Date range =====
+
+    /**
+     * Quick ranges ("Last 7 days", "Last year", ...) that fill in the pickers.
+     */
+    @FXML
+    private ComboBox<String> rangeCombo;
+
+    /**
+     * First day of the range (empty: from the first sale).
+     */
+    @FXML
+    private DatePicker fromPicker;
+
+    /**
+     * Last day of the range, included (empty: up to now).
+     */
+    @FXML
+    private DatePicker toPicker;
 
     // ===== FXML: Buttons =====
 
     /**
-     * Button that represents the "Showtime" performance view.
-     * This is the main view implemented in this controller.
+     * Button for the showtime view (sales per showtime), shown first.
      */
     @FXML
     private Button showtimeButton;
 
     /**
-     * Button for the showroom view.
-     * In this implementation, it simply informs the user that
-     * this part is handled by another team member.
+     * Button for the showroom view (sales per room).
      */
     @FXML
     private Button showroomButton;
 
     /**
-     * Button for the movie view.
-     * In this implementation, it simply informs the user that
-     * this part is handled by another team member.
+     * Button for the movie view (sales per movie).
      */
     @FXML
     private Button movieButton;
@@ -112,21 +193,109 @@ public class SalesTrackerController {
     private TableColumn<ShowtimeRow, Double> revenueColumn;
 
     /**
-     * Observable list backing the TableView with showtime rows.
+     * Observable list backing the TableView with the rows of the current view.
      */
     private final ObservableList<ShowtimeRow> showtimeRows = FXCollections.observableArrayList();
 
+    /**
+     * Groupings the table can show.
+     */
+    private enum View { SHOWTIME, SHOWROOM, MOVIE }
+
+    private static final String THIS_MONTH = "This month";
+    private static final String LAST_7_DAYS = "Last 7 days";
+    private static final String LAST_30_DAYS = "Last 30 days";
+    private static final String THIS_YEAR = "This year";
+    private static final String LAST_YEAR = "Last year";
+    private static final String ALL_TIME = "All time";
+
+    /**
+     * Totals of the summary cards, looked up off the JavaFX thread.
+     *
+     * @param current  totals of the date range
+     * @param previous totals of the period of the same length before it (null for an open range)
+     * @param days     length of the range in days
+     */
+    private record Summary(SalesAggregator.Period current, SalesAggregator.Period previous, long days) {
+    }
+
+    private final SalesAggregator sales = SalesAggregator.getInstance();
+
+    /**
+     * Key of a row for the live updates; the same id means something else in each view.
+     */
+    private record RowKey(View view, int id) {
+    }
+
+    /**
+     * New totals of a row and the ledger offset they were read up to.
+     */
+    private record LiveTotals(SalesAggregator.Totals totals, long asOf) {
+
+        static LiveTotals newer(LiveTotals a, LiveTotals b) {
+            return b.asOf() >= a.asOf() ? b : a;
+        }
+    }
+
+    /**
+     * View currently displayed. Read by the thread posting live updates.
+     */
+    private volatile View currentView = View.SHOWTIME;
+
+    /**
+     * Rows of the current view by showtime, room or movie id.
+     */
+    private final Map<Integer, ShowtimeRow> rowsByKey = new HashMap<>();
+
+    /**
+     * LIVE: New totals from the aggregator, applied to the rows once per frame.
+     */
+    private final FrameCoalescer<RowKey, LiveTotals> liveRows =
+            new FrameCoalescer<>(this::applyLiveChanges);
+
+    /**
+     * Number of the latest load; older loads finishing late are ignored.
+     */
+    private long latestLoad;
+
+    /**
+     * Number of the latest load that finished, to start at most one reload at a time.
+     */
+    private long finishedLoad;
+
+    /**
+     * Number of the latest summary lookup, likewise.
+     */
+    private long latestSummary;
+
+    /**
+     * True while a quick range fills in the pickers, so they do not clear it.
+     */
+    private boolean applyingPreset;
+
+    /**
+     * Posts the changes of each read of the ledger for the next frame.
+     * Strongly held here because the aggregator only keeps a weak reference.
+     */
+    private final Consumer<SalesAggregator.Changes> onSalesChanged = this::postChanges;
+
     /**
      * Initializes the controller after the FXML has been loaded.
      * <p>
-     * Sets up the table columns, loads sample data and updates
-     * the top summary values.
+     * Sets up the table columns and the date range, subscribes to sales
+     * updates and loads the showtime view.
      */
     @FXML
     public void initialize() {
         setupColumns();
-        loadSampleData();
-        updateSummary();
+        rangeCombo.getItems().setAll(THIS_MONTH, LAST_7_DAYS, LAST_30_DAYS, THIS_YEAR, LAST_YEAR, ALL_TIME);
+        applyingPreset = true; // the summary is shown once the first view is loaded
+        rangeCombo.setValue(THIS_MONTH);
+        setRange(THIS_MONTH);
+        applyingPreset = false;
+        salesTable.getSelectionModel().selectedItemProperty().addListener((obs, old, row) -> refreshSummary());
+        sales.addChangeListener(onSalesChanged);
+        showView(View.SHOWTIME);
     }
 
     /**
@@ -150,101 +319,367 @@ public class SalesTrackerController {
     }
 
     /**
-     * Loads example showtime rows into the table.
-     * <p>
-     * In a complete application, this method would load data
-     * from the domain model (showtimes and tickets).
-     */
-    private void loadSampleData() {
-        // Example showtimes: movie, showtimeText, ticketsSold, ticketPrice
-        addShowtime("Avengers", "2025-12-01 18:00", 40, 12.50);
-        addShowtime("Avengers", "2025-12-01 21:00", 30, 12.50);
-        addShowtime("Moana 2", "2025-12-02 17:00", 25, 11.00);
-        addShowtime("Moana 2", "2025-12-02 20:00", 18, 11.00);
-        addShowtime("Dune 3", "2025-12-03 19:30", 35, 13.75);
+     * Switches the table to another grouping and loads it.
+     *
+     * @param view grouping to show
+     */
+    private void showView(View view) {
+        currentView = view;
+        showtimeButton.setDefaultButton(view == View.SHOWTIME);
+        showroomButton.setDefaultButton(view == View.SHOWROOM);
+        movieButton.setDefaultButton(view == View.MOVIE);
+        movieNameColumn.setText(view == View.SHOWROOM ? "Showroom" : "Movie Name");
+        showtimeColumn.setText(view == View.SHOWTIME ? "Showtime" : "Showtimes");
+        ticketPriceColumn.setText(view == View.SHOWTIME ? "Ticket Price" : "Avg. Price");
+        showtimeRows.clear();
+        salesTable.setPlaceholder(new Label("Loading sales..."));
+        loadView();
+    }
+
+    /**
+     * ASYNC: Catches up with the ticket ledger and builds the rows of the
+     * current view off the JavaFX thread, then shows them.
+     */
+    private void loadView() {
+        View view = currentView;
+        long load = ++latestLoad;
+        Task<List<ShowtimeRow>> task = AsyncData.submit(() -> {
+            sales.refresh();
+            return buildRows(view);
+        });
+        task.setOnSucceeded(e -> {
+            if (load != latestLoad) return; // another view or a newer sale was asked for meanwhile
+            finishedLoad = load;
+            ShowtimeRow selected = salesTable.getSelectionModel().getSelectedItem();
+            showtimeRows.setAll(task.getValue());
+            rowsByKey.clear();
+            for (ShowtimeRow row : showtimeRows) rowsByKey.put(row.getKey(), row);
+            salesTable.setPlaceholder(new Label("No tickets sold yet."));
+            if (selected != null) {
+                // Keep the room or movie the cards are narrowed to across live updates
+                for (ShowtimeRow row : showtimeRows) {
+                    if (row.getKey() == selected.getKey()) salesTable.getSelectionModel().select(row);
+                }
+            }
+            refreshSummary();
+        });
+        task.setOnFailed(e -> {
+            if (load != latestLoad) return;
+            finishedLoad = load;
+            salesTable.setPlaceholder(new Label("Could not load sales."));
+            showError("Error loading sales", task.getException().getMessage());
+        });
     }
 
     /**
-     * Helper method to create and add a new {@link ShowtimeRow}.
+     * Runs on the aggregator's thread: marks the rows of the current view
+     * changed by a read of the ledger. Cheap; nothing is drawn here.
      *
-     * @param movieName   name of the movie
-     * @param showtime    showtime description (date and time)
-     * @param ticketsSold number of tickets sold
-     * @param ticketPrice price per ticket
-     */
-    private void addShowtime(String movieName,
-                             String showtime,
-                             int ticketsSold,
-                             double ticketPrice) {
-        double revenue = ticketsSold * ticketPrice;
-        ShowtimeRow row = new ShowtimeRow(movieName, showtime, ticketsSold, ticketPrice, revenue);
-        showtimeRows.add(row);
+     * @param changes new totals of what changed
+     */
+    private void postChanges(SalesAggregator.Changes changes) {
+        View view = currentView;
+        List<SalesAggregator.Totals> changed = switch (view) {
+            case SHOWTIME -> changes.showtimes();
+            case SHOWROOM -> changes.rooms();
+            case MOVIE -> changes.movies();
+        };
+        for (SalesAggregator.Totals totals : changed) {
+            liveRows.put(new RowKey(view, totals.key()), new LiveTotals(totals, changes.offset()), LiveTotals::newer);
+        }
     }
 
     /**
-     * Handles the click on the "Showtime" button.
-     * <p>
-     * Since this screen already displays performance by showtime,
-     * this method simply refreshes the summary values.
+     * Runs once per frame with the rows changed since the previous one:
+     * updates their cells in place, then the summary cards.
+     *
+     * @param changed latest totals per row
+     */
+    private void applyLiveChanges(Map<RowKey, LiveTotals> changed) {
+        boolean newRows = false;
+        for (Map.Entry<RowKey, LiveTotals> change : changed.entrySet()) {
+            if (change.getKey().view() != currentView) continue; // posted just before the view was switched
+            ShowtimeRow row = rowsByKey.get(change.getKey().id());
+            if (row == null) {
+                newRows = true;
+            } else {
+                row.update(change.getValue().totals(), change.getValue().asOf(), currentView != View.SHOWTIME);
+            }
+        }
+        if (newRows && finishedLoad == latestLoad) {
+            loadView(); // a first sale of a showtime, room or movie: it needs its name and place
+        } else {
+            refreshSummary();
+        }
+    }
+
+    /**
+     * Turns the totals of one view into table rows.
+     *
+     * @param view grouping to build
+     * @return rows, sorted for display
+     */
+    private List<ShowtimeRow> buildRows(View view) {
+        List<ShowtimeRow> rows = new ArrayList<>();
+        // Stamped with its ledger offset, so live changes read before it are not applied over it
+        SalesAggregator.Changes current = sales.current();
+        long asOf = current.offset();
+        switch (view) {
+            case SHOWTIME -> {
+                record Sold(Showtime showtime, SalesAggregator.Totals totals) {
+                }
+                ShowtimeRepository showtimes = ShowtimeRepository.getInstance();
+                List<Sold> sold = new ArrayList<>();
+                long earlierTickets = 0;
+                long earlierCents = 0;
+                for (SalesAggregator.Totals totals : current.showtimes()) {
+                    // Only the loaded months are looked up; archived ones are not read for this screen
+                    Showtime showtime = showtimes.findById(totals.key());
+                    if (showtime == null) {
+                        earlierTickets += totals.tickets();
+                        earlierCents += totals.revenueCents();
+                    } else {
+                        sold.add(new Sold(showtime, totals));
+                    }
+                }
+                sold.sort(Comparator.comparing((Sold s) -> s.showtime().getDate())
+                        .thenComparing(s -> s.showtime().getTime()));
+                for (Sold s : sold) {
+                    rows.add(toRow(movieTitle(s.showtime().getMovieID()),
+                            s.showtime().getDate() + " " + s.showtime().getTime(), s.totals(), asOf));
+                }
+                if (earlierTickets > 0) {
+                    rows.add(toRow("Earlier months", "-",
+                            new SalesAggregator.Totals(-1, earlierTickets, earlierCents, 0), asOf));
+                }
+            }
+            case SHOWROOM -> {
+                for (SalesAggregator.Totals totals : byRevenue(current.rooms())) {
+                    rows.add(toRow(roomName(totals.key()), String.valueOf(totals.showtimes()), totals, asOf));
+                }
+            }
+            case MOVIE -> {
+                for (SalesAggregator.Totals totals : byRevenue(current.movies())) {
+                    rows.add(toRow(movieTitle(totals.key()), String.valueOf(totals.showtimes()), totals, asOf));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static List<SalesAggregator.Totals> byRevenue(List<SalesAggregator.Totals> totals) {
+        totals.sort(Comparator.comparingLong(SalesAggregator.Totals::revenueCents).reversed());
+        return totals;
+    }
+
+    private static ShowtimeRow toRow(String name, String detail, SalesAggregator.Totals totals, long asOf) {
+        ShowtimeRow row = new ShowtimeRow(totals.key(), name, detail, (int) totals.tickets(), totals.averagePrice(), totals.revenue());
+        row.asOf = asOf;
+        return row;
+    }
+
+    private static String movieTitle(int movieId) {
+        Movie movie = MovieRepository.getInstance().findById(movieId);
+        return movie == null ? "Movie #" + movieId : movie.getTitle();
+    }
+
+    private static String roomName(int roomId) {
+        Room room = RoomRepository.getInstance().findById(roomId);
+        return room == null ? "Room #" + roomId : room.getRoomName();
+    }
+
+    /**
+     * Handles the click on the "Showtime" button: shows sales per showtime.
      */
     @FXML
     private void onShowtimeView() {
-        // In this implementation, the view is always "by showtime".
-        // We simply recalculate totals to ensure everything is up to date.
-        updateSummary();
+        showView(View.SHOWTIME);
     }
 
     /**
-     * Handles the click on the "Showroom" button.
-     * <p>
-     * This controller is responsible only for the showtime table.
-     * When this button is clicked, an informational dialog is shown
-     * to indicate that this part is implemented elsewhere.
+     * Handles the click on the "Showroom" button: shows sales per room.
      */
     @FXML
     private void onShowroomView() {
-        showInfo("Not implemented in this view",
-                "The showroom performance view is handled by another part of the application.");
+        showView(View.SHOWROOM);
     }
 
     /**
-     * Handles the click on the "Movie" button.
-     * <p>
-     * This controller is responsible only for the showtime table.
-     * When this button is clicked, an informational dialog is shown
-     * to indicate that this part is implemented elsewhere.
+     * Handles the click on the "Movie" button: shows sales per movie.
      */
     @FXML
     private void onMovieView() {
-        showInfo("Not implemented in this view",
-                "The movie performance view is handled by another part of the application.");
+        showView(View.MOVIE);
     }
 
     /**
-     * Recalculates the top summary for total tickets and revenue
-     * based on the current table rows.
-     * <p>
-     * Any unexpected error will be caught and shown as an alert,
-     * so that the UI does not crash.
+     * Handles the "Dashboard" button click event.
+     * Loads the dashboard FXML view and switches the current scene to it.
+     *
+     * @param event The ActionEvent triggered by clicking the button
+     * @throws IOException If the FXML file cannot be loaded
      */
-    private void updateSummary() {
-        try {
-            int totalTickets = 0;
-            double totalRevenue = 0.0;
+    @FXML
+    private void onDashboardClick(ActionEvent event) throws IOException {
+        liveRows.stop();
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/finalproject/Manager_Dashboard-view.fxml"));
+        ((Stage) ((Node) event.getSource()).getScene().getWindow()).setScene(new Scene(loader.load()));
+    }
 
-            for (ShowtimeRow row : showtimeRows) {
-                totalTickets += row.getTicketsSold();
-                totalRevenue += row.getRevenue();
-            }
+    /**
+     * Handles the choice of a quick range: fills in the pickers and updates the summary.
+     */
+    @FXML
+    private void onRangePreset() {
+        String preset = rangeCombo.getValue();
+        if (preset == null || applyingPreset) return; // null: cleared after the pickers were changed by hand
+        applyingPreset = true;
+        setRange(preset);
+        applyingPreset = false;
+        refreshSummary();
+    }
 
-            monthlyTicketsText.setText(totalTickets + " Tickets");
-            monthlyRevenueText.setText(String.format("$%,.2f", totalRevenue));
+    /**
+     * Handles a change of either date picker; an empty picker leaves that side open.
+     */
+    @FXML
+    private void onRangeChange() {
+        if (applyingPreset) return;
+        rangeCombo.setValue(null); // a hand-picked range no longer matches the quick range
+        refreshSummary();
+    }
 
-        } catch (Exception ex) {
-            showError("Error calculating summary", ex.getMessage());
+    /**
+     * Fills in the pickers with a quick range.
+     *
+     * @param preset one of the quick ranges
+     */
+    private void setRange(String preset) {
+        LocalDate today = LocalDate.now();
+        switch (preset) {
+            case THIS_MONTH -> setRange(today.withDayOfMonth(1), today);
+            case LAST_7_DAYS -> setRange(today.minusDays(6), today);
+            case LAST_30_DAYS -> setRange(today.minusDays(29), today);
+            case THIS_YEAR -> setRange(today.withDayOfYear(1), today);
+            case LAST_YEAR -> setRange(today.minusYears(1).withDayOfYear(1), today.withDayOfYear(1).minusDays(1));
+            default -> setRange(null, null);
         }
     }
 
+    private void setRange(LocalDate from, LocalDate to) {
+        fromPicker.setValue(from);
+        toPicker.setValue(to);
+    }
+
+    /**
+     * ASYNC: Looks up the totals of the date range and of the period before
+     * it for the cinema, or for the selected room or movie, then shows them
+     * in the summary cards. Each lookup is O(1) in the {@link SalesAggregator}.
+     */
+    private void refreshSummary() {
+        ShowtimeRow selected = salesTable.getSelectionModel().getSelectedItem();
+        int movieId = selected != null && currentView == View.MOVIE ? selected.getKey() : SalesAggregator.ANY;
+        int roomId = selected != null && currentView == View.SHOWROOM ? selected.getKey() : SalesAggregator.ANY;
+        summaryTitleText.setText(movieId == SalesAggregator.ANY && roomId == SalesAggregator.ANY
+                ? "Overall Performance Summary"
+                : "Performance Summary: " + selected.movieNameProperty().get());
+
+        LocalDateTime start = rangeStart();
+        LocalDateTime end = rangeEnd();
+        long load = ++latestSummary;
+        Task<Summary> task = AsyncData.submit(() -> {
+            SalesAggregator.Period current = sales.between(start, end, movieId, roomId);
+            if (start == null) return new Summary(current, null, 0);
+            // The period of the same length just before, e.g. the 7 days before the last 7 days
+            LocalDateTime until = end != null ? end : LocalDate.now().plusDays(1).atStartOfDay();
+            long days = Math.max(1, ChronoUnit.DAYS.between(start, until));
+            return new Summary(current, sales.between(start.minusDays(days), start, movieId, roomId), days);
+        });
+        task.setOnSucceeded(e -> {
+            if (load != latestSummary) return;
+            updateSummary(task.getValue());
+        });
+        task.setOnFailed(e -> {
+            if (load != latestSummary) return;
+            showError("Error calculating summary", task.getException().getMessage());
+        });
+    }
+
+    /**
+     * Returns the first moment of the picked range, or null if open.
+     */
+    private LocalDateTime rangeStart() {
+        LocalDate from = fromPicker.getValue();
+        return from == null ? null : from.atStartOfDay();
+    }
+
+    /**
+     * Returns the end of the picked range (the day after the "to" day), or null if open.
+     */
+    private LocalDateTime rangeEnd() {
+        LocalDate to = toPicker.getValue();
+        return to == null ? null : to.plusDays(1).atStartOfDay();
+    }
+
+    /**
+     * Handles the "Export Report" button: writes the sales of the picked range
+     * per month, movie and room to a CSV file chosen by the manager.
+     * <p>
+     * ASYNC: The report reads the whole ticket ledger (in parallel), so it
+     * runs off the JavaFX thread.
+     *
+     * @param event The ActionEvent triggered by clicking the button
+     */
+    @FXML
+    private void onExportReportClick(ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Sales Report");
+        chooser.setInitialFileName("sales-report.csv");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showSaveDialog(((Node) event.getSource()).getScene().getWindow());
+        if (file == null) return;
+
+        LocalDateTime start = rangeStart();
+        LocalDateTime end = rangeEnd();
+        Task<SalesReport.Report> export = AsyncData.submit(() -> {
+            SalesReport.Report report = SalesReport.compute(start, end);
+            report.writeCsv(file.toPath());
+            return report;
+        });
+        export.setOnSucceeded(e -> {
+            SalesReport.Report report = export.getValue();
+            String message = String.format("%,d tickets, $%,.2f, %.0f%% of seats filled, written to %s.",
+                    report.tickets(), report.revenue(), report.occupancy().loadFactor() * 100, file.getName());
+            if (report.damagedAt() >= 0) {
+                message += "\nThe ticket ledger is damaged at byte " + report.damagedAt()
+                        + "; sales after it are not included.";
+            }
+            showInfo("Report exported", message);
+        });
+        export.setOnFailed(e -> showError("Error exporting report", export.getException().getMessage()));
+    }
+
+    /**
+     * Shows the tickets sold and the revenue of the date range in the top
+     * summary cards, with their change since the previous period.
+     *
+     * @param summary totals of the range and of the period before it
+     */
+    private void updateSummary(Summary summary) {
+        SalesAggregator.Period current = summary.current();
+        SalesAggregator.Period previous = summary.previous();
+        ticketsText.setText(current.tickets() + " Tickets");
+        revenueText.setText(String.format("$%,.2f", current.revenue()));
+        ticketsChangeText.setText(previous == null ? "" : change(current.tickets(), previous.tickets(), summary.days()));
+        revenueChangeText.setText(previous == null ? "" : change(current.revenueCents(), previous.revenueCents(), summary.days()));
+    }
+
+    private static String change(long now, long before, long days) {
+        String period = days == 1 ? "previous day" : "previous " + days + " days";
+        if (before == 0) return now == 0 ? "No sales in the " + period : "None in the " + period;
+        return String.format("%+.0f%% vs. %s", (now - before) * 100.0 / before, period);
+    }
+
     /**
      * Shows an informational dialog with the given title and message.
      *
@@ -279,30 +714,40 @@ public class SalesTrackerController {
      * Row model representing a single showtime's performance.
      * <p>
      * This class stores the values that are displayed in the table:
-     * movie name, showtime, tickets sold, ticket price, and revenue.
+     * movie name, showtime, tickets sold, ticket price, and revenue,
+     * and the id of the showtime, room or movie the row is about.
      */
     public static class ShowtimeRow {
 
+        private final int key;
         private final StringProperty movieName = new SimpleStringProperty();
         private final StringProperty showtime = new SimpleStringProperty();
         private final IntegerProperty ticketsSold = new SimpleIntegerProperty();
         private final DoubleProperty ticketPrice = new SimpleDoubleProperty();
         private final DoubleProperty revenue = new SimpleDoubleProperty();
 
+        /**
+         * Ledger offset of the totals shown.
+         */
+        private long asOf;
+
         /**
          * Creates a new showtime row with the given values.
          *
+         * @param key         id of the showtime, room or movie
          * @param movieName   name of the movie
          * @param showtime    showtime description (date and time)
          * @param ticketsSold number of tickets sold
          * @param ticketPrice ticket price
          * @param revenue     total revenue (ticketsSold * ticketPrice)
          */
-        public ShowtimeRow(String movieName,
+        public ShowtimeRow(int key,
+                           String movieName,
                            String showtime,
                            int ticketsSold,
                            double ticketPrice,
                            double revenue) {
+            this.key = key;
             this.movieName.set(movieName);
             this.showtime.set(showtime);
             this.ticketsSold.set(ticketsSold);
@@ -330,6 +775,28 @@ public class SalesTrackerController {
             return revenue;
         }
 
+        /**
+         * Shows new totals of the row. Totals read from the ledger before the
+         * ones shown (posted before the row was loaded) are ignored; the
+         * ticket count alone cannot tell, since cancellations lower it.
+         *
+         * @param totals         new totals
+         * @param asOf           ledger offset they were read up to
+         * @param showtimeCounts true if the second column counts showtimes
+         */
+        void update(SalesAggregator.Totals totals, long asOf, boolean showtimeCounts) {
+            if (asOf < this.asOf) return;
+            this.asOf = asOf;
+            ticketsSold.set((int) totals.tickets());
+            ticketPrice.set(totals.averagePrice());
+            revenue.set(totals.revenue());
+            if (showtimeCounts) showtime.set(String.valueOf(totals.showtimes()));
+        }
+
+        public int getKey() {
+            return key;
+        }
+
         public int getTicketsSold() {
             return ticketsSold.get();
         }
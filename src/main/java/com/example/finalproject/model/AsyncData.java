@@ -0,0 +1,46 @@
+package com.example.finalproject.model;
+
+import javafx.concurrent.Task;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs data-directory work off the JavaFX Application Thread.
+ * <p>
+ * Every load, save and delete started from a screen goes through here: the
+ * work runs on its own virtual thread (blocking on a file or an fsync costs
+ * no platform thread), and the returned {@link Task} reports success or
+ * failure back on the JavaFX thread through its usual handlers.
+ *
+ * @author Rene
+ */
+public final class AsyncData {
+
+    /**
+     * One cheap virtual thread per task; nothing to size or shut down.
+     */
+    private static final ExecutorService IO = Executors.newVirtualThreadPerTaskExecutor();
+
+    private AsyncData() {
+    }
+
+    /**
+     * Starts a piece of blocking data work in the background.
+     *
+     * @param work the work, e.g. {@code () -> repository.save(movie)}
+     * @param <V>  result type
+     * @return the running task; attach {@code setOnSucceeded}/{@code setOnFailed} right away
+     */
+    public static <V> Task<V> submit(Callable<V> work) {
+        Task<V> task = new Task<>() {
+            @Override
+            protected V call() throws Exception {
+                return work.call();
+            }
+        };
+        IO.execute(task);
+        return task;
+    }
+}
@@ -0,0 +1,350 @@
+package com.example.finalproject.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, versioned, column-oriented binary copy of a CSV file, used to
+ * start the application without parsing text.
+ * <p>
+ * FORMAT:
+ * <pre>
+ * int   magic ("GVSB")      short version
+ * long  source CSV size     long  source CSV last-modified time
+ * int   row count           int   column count
+ * per column: byte type, then
+ *   INT    : row count ints (ids, foreign keys, capacities)
+ *   STRING : dictionary size, dictionary entries (UTF), row count int codes
+ *   DATE   : row count epoch days, then exceptions
+ *   TIME   : row count seconds of day, then exceptions
+ * </pre>
+ * Date and time values that do not survive the round trip to an epoch value
+ * (free text typed in a form) are stored as exceptions: a count followed by
+ * {@code (row, raw text)} pairs. The source size and time stamp make a
+ * snapshot that no longer matches its CSV file stale, in which case
+ * {@link #read} returns null and the caller falls back to the CSV file.
+ *
+ * @author Rene
+ */
+public final class BinarySnapshot {
+
+    private static final int MAGIC = 0x47565342; // "GVSB"
+    private static final short VERSION = 2;
+
+    private static final byte INT = 1;
+    private static final byte STRING = 2;
+    private static final byte DATE = 3;
+    private static final byte TIME = 4;
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Returns the snapshot path that goes with a CSV file ("movies.csv" -> "movies.bin").
+     *
+     * @param csvPath path of the CSV file
+     * @return path of its snapshot
+     */
+    public static Path snapshotPathFor(Path csvPath) {
+        String name = csvPath.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return csvPath.resolveSibling((dot < 0 ? name : name.substring(0, dot)) + ".bin");
+    }
+
+    /**
+     * Writes a snapshot describing the current state of a CSV file.
+     *
+     * @param snapshotPath where to write the snapshot
+     * @param csvPath      CSV file the snapshot was built from
+     * @param columns      filled column writer
+     * @throws IOException if the snapshot could not be written
+     */
+    public static void write(Path snapshotPath, Path csvPath, Writer columns) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(Files.size(csvPath));
+        out.writeLong(Files.getLastModifiedTime(csvPath).toMillis());
+        out.writeInt(columns.rows);
+        out.writeInt(columns.columnCount);
+        out.write(columns.body.toByteArray());
+        out.flush();
+        DurableWriter.getInstance().replace(snapshotPath, bytes.toByteArray());
+    }
+
+    /**
+     * Opens a snapshot if it exists and still matches its CSV file.
+     *
+     * @param snapshotPath path of the snapshot
+     * @param csvPath      CSV file the snapshot must match
+     * @return a reader positioned on the first column, or null if absent, stale or unreadable
+     */
+    public static Reader read(Path snapshotPath, Path csvPath) {
+        try {
+            if (!Files.exists(snapshotPath) || !Files.exists(csvPath)) return null;
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(snapshotPath)));
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) return null;
+            if (in.readLong() != Files.size(csvPath)) return null;
+            if (in.readLong() != Files.getLastModifiedTime(csvPath).toMillis()) return null;
+            int rows = in.readInt();
+            if (rows < 0) return null;
+            in.readInt(); // column count, checked column by column
+            return new Reader(in, rows);
+        } catch (IOException e) {
+            System.out.println("SNAPSHOT: Ignoring unreadable snapshot " + snapshotPath);
+            return null;
+        }
+    }
+
+    /**
+     * Builds the columns of a snapshot, in the order the reader will ask for them.
+     */
+    public static final class Writer {
+        private final int rows;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(body);
+        private int columnCount;
+
+        /**
+         * Creates a writer for a given number of rows.
+         *
+         * @param rows number of records
+         */
+        public Writer(int rows) {
+            this.rows = rows;
+        }
+
+        /**
+         * Adds a column of ints (ids, foreign keys, capacities).
+         *
+         * @param values one value per row
+         * @return this writer
+         * @throws IOException never in practice (in-memory stream)
+         */
+        public Writer intColumn(int[] values) throws IOException {
+            begin(INT, values.length);
+            for (int value : values) out.writeInt(value);
+            return this;
+        }
+
+        /**
+         * Adds a dictionary-encoded column of strings (titles, genres, names).
+         *
+         * @param values one value per row
+         * @return this writer
+         * @throws IOException never in practice (in-memory stream)
+         */
+        public Writer stringColumn(String[] values) throws IOException {
+            begin(STRING, values.length);
+            Map<String, Integer> codes = new HashMap<>();
+            List<String> dictionary = new ArrayList<>();
+            int[] encoded = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                Integer code = codes.get(values[i]);
+                if (code == null) {
+                    code = dictionary.size();
+                    codes.put(values[i], code);
+                    dictionary.add(values[i]);
+                }
+                encoded[i] = code;
+            }
+            out.writeInt(dictionary.size());
+            for (String entry : dictionary) out.writeUTF(entry);
+            for (int code : encoded) out.writeInt(code);
+            return this;
+        }
+
+        /**
+         * Adds a column of ISO dates ("2024-12-01") stored as epoch days.
+         *
+         * @param values one value per row
+         * @return this writer
+         * @throws IOException never in practice (in-memory stream)
+         */
+        public Writer dateColumn(String[] values) throws IOException {
+            begin(DATE, values.length);
+            List<Integer> exceptions = new ArrayList<>();
+            for (int i = 0; i < values.length; i++) {
+                int epochDay = 0;
+                try {
+                    LocalDate date = LocalDate.parse(values[i]);
+                    if (date.toString().equals(values[i])) {
+                        epochDay = (int) date.toEpochDay();
+                    } else {
+                        exceptions.add(i);
+                    }
+                } catch (DateTimeParseException e) {
+                    exceptions.add(i);
+                }
+                out.writeInt(epochDay);
+            }
+            writeExceptions(values, exceptions);
+            return this;
+        }
+
+        /**
+         * Adds a column of ISO times ("14:00") stored as seconds of the day.
+         *
+         * @param values one value per row
+         * @return this writer
+         * @throws IOException never in practice (in-memory stream)
+         */
+        public Writer timeColumn(String[] values) throws IOException {
+            begin(TIME, values.length);
+            List<Integer> exceptions = new ArrayList<>();
+            for (int i = 0; i < values.length; i++) {
+                int secondOfDay = 0;
+                try {
+                    LocalTime time = LocalTime.parse(values[i]);
+                    if (time.toString().equals(values[i])) {
+                        secondOfDay = time.toSecondOfDay();
+                    } else {
+                        exceptions.add(i);
+                    }
+                } catch (DateTimeParseException e) {
+                    exceptions.add(i);
+                }
+                out.writeInt(secondOfDay);
+            }
+            writeExceptions(values, exceptions);
+            return this;
+        }
+
+        private void begin(byte type, int length) throws IOException {
+            if (length != rows) throw new IllegalArgumentException("Column has " + length + " rows, expected " + rows);
+            out.writeByte(type);
+            columnCount++;
+        }
+
+        private void writeExceptions(String[] values, List<Integer> exceptions) throws IOException {
+            out.writeInt(exceptions.size());
+            for (int row : exceptions) {
+                out.writeInt(row);
+                out.writeUTF(values[row]);
+            }
+        }
+    }
+
+    /**
+     * Reads the columns of a snapshot, in the order they were written.
+     */
+    public static final class Reader {
+        private final DataInputStream in;
+        private final int rows;
+
+        private Reader(DataInputStream in, int rows) {
+            this.in = in;
+            this.rows = rows;
+        }
+
+        /**
+         * Returns the number of records in the snapshot.
+         *
+         * @return row count
+         */
+        public int rows() {
+            return rows;
+        }
+
+        /**
+         * Reads the next column as ints.
+         *
+         * @return one value per row
+         * @throws IOException if the next column is not an int column
+         */
+        public int[] intColumn() throws IOException {
+            expect(INT);
+            return readInts();
+        }
+
+        /**
+         * Reads the next column as dictionary-encoded strings.
+         *
+         * @return one value per row (equal values share one String instance)
+         * @throws IOException if the next column is not a string column
+         */
+        public String[] stringColumn() throws IOException {
+            expect(STRING);
+            String[] dictionary = new String[in.readInt()];
+            for (int i = 0; i < dictionary.length; i++) dictionary[i] = in.readUTF();
+            int[] codes = readInts();
+            String[] values = new String[rows];
+            for (int i = 0; i < rows; i++) values[i] = dictionary[codes[i]];
+            return values;
+        }
+
+        /**
+         * Reads the next column as ISO dates.
+         *
+         * @return one value per row (equal dates share one String instance)
+         * @throws IOException if the next column is not a date column
+         */
+        public String[] dateColumn() throws IOException {
+            expect(DATE);
+            int[] epochDays = readInts();
+            Map<Integer, String> formatted = new HashMap<>();
+            String[] values = new String[rows];
+            for (int i = 0; i < rows; i++) {
+                values[i] = formatted.computeIfAbsent(epochDays[i], day -> LocalDate.ofEpochDay(day).toString());
+            }
+            readExceptions(values);
+            return values;
+        }
+
+        /**
+         * Reads the next column as ISO times.
+         *
+         * @return one value per row (equal times share one String instance)
+         * @throws IOException if the next column is not a time column
+         */
+        public String[] timeColumn() throws IOException {
+            expect(TIME);
+            int[] secondsOfDay = readInts();
+            Map<Integer, String> formatted = new HashMap<>();
+            String[] values = new String[rows];
+            for (int i = 0; i < rows; i++) {
+                values[i] = formatted.computeIfAbsent(secondsOfDay[i], second -> LocalTime.ofSecondOfDay(second).toString());
+            }
+            readExceptions(values);
+            return values;
+        }
+
+        private void expect(byte type) throws IOException {
+            byte actual = in.readByte();
+            if (actual != type) throw new IOException("Expected column type " + type + " but found " + actual);
+        }
+
+        /**
+         * Reads a block of row count ints in one go rather than one stream call per value.
+         */
+        private int[] readInts() throws IOException {
+            if ((long) rows * Integer.BYTES > in.available()) throw new IOException("Truncated column of " + rows + " rows");
+            byte[] bytes = new byte[rows * Integer.BYTES];
+            in.readFully(bytes);
+            int[] values = new int[rows];
+            ByteBuffer.wrap(bytes).asIntBuffer().get(values); // big-endian, as DataOutputStream wrote them
+            return values;
+        }
+
+        private void readExceptions(String[] values) throws IOException {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                values[in.readInt()] = in.readUTF();
+            }
+        }
+    }
+}
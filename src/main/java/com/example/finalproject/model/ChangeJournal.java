@@ -0,0 +1,112 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Change log of a CSV file, as written by older versions of the application
+ * next to "showtimes.csv".
+ * <p>
+ * Each insert, edit or delete was appended as one small record:
+ * <ul>
+ *     <li>{@code U,<crc>,<csv line>} for an insert or update (upsert by id)</li>
+ *     <li>{@code D,<crc>,<id>} for a delete</li>
+ * </ul>
+ * where {@code <crc>} is the CRC32C of the rest of the line, as 8 hex digits.
+ * The monthly partitions of {@link PartitionedCsvStorage} (whose files already
+ * append every edit) replaced it; the log is only read once more, replayed on
+ * top of the CSV file when that file is split into months.
+ * <p>
+ * A crash mid-append can leave a torn last line, which may still start with
+ * {@code U,} but lack its last fields. Such a line has no newline and its
+ * checksum does not match, so the replay drops it instead of parsing a short
+ * record.
+ *
+ * @author Rene
+ */
+public class ChangeJournal {
+
+    /**
+     * Prefix of an insert/update record.
+     */
+    private static final String UPSERT = "U,";
+
+    /**
+     * Prefix of a delete record.
+     */
+    private static final String DELETE = "D,";
+
+    /**
+     * Length of the hex checksum that follows the prefix.
+     */
+    private static final int CHECKSUM_DIGITS = 8;
+
+    /**
+     * Path of the log file.
+     */
+    private final Path logPath;
+
+    /**
+     * Creates the reader of a log stored at the given path.
+     *
+     * @param logPath path of the log file
+     */
+    public ChangeJournal(String logPath) {
+        this.logPath = Paths.get(logPath);
+    }
+
+    /**
+     * Replays every record of the log, in order.
+     *
+     * @param onUpsert receives the CSV line of each insert/update
+     * @param onDelete receives the id of each delete
+     * @throws IOException if the log exists but could not be read
+     */
+    public void replay(Consumer<String> onUpsert, IntConsumer onDelete) throws IOException {
+        if (!Files.exists(logPath)) return;
+        String log = Files.readString(logPath, StandardCharsets.UTF_8);
+        // A last line without its newline was torn by a crash mid-append
+        int end = log.lastIndexOf('\n') + 1;
+        if (end < log.length()) {
+            System.out.println("JOURNAL: Dropping torn last record of " + logPath + ": " + log.substring(end));
+        }
+        for (String line : log.substring(0, end).split("\n")) {
+            if (line.isEmpty()) continue;
+            String body = bodyOf(line);
+            if (body == null) {
+                System.out.println("JOURNAL: Skipping malformed record in " + logPath + ": " + line);
+            } else if (line.startsWith(UPSERT)) {
+                onUpsert.accept(body);
+            } else {
+                try {
+                    onDelete.accept(Integer.parseInt(body.trim()));
+                } catch (NumberFormatException e) {
+                    System.out.println("JOURNAL: Skipping malformed record in " + logPath + ": " + line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the body of a record line, or null if its prefix or checksum is wrong.
+     */
+    private static String bodyOf(String line) {
+        if (!line.startsWith(UPSERT) && !line.startsWith(DELETE)) return null;
+        int start = UPSERT.length();
+        if (line.length() < start + CHECKSUM_DIGITS + 1 || line.charAt(start + CHECKSUM_DIGITS) != ',') return null;
+        String body = line.substring(start + CHECKSUM_DIGITS + 1);
+        return line.startsWith(checksumOf(body), start) ? body : null;
+    }
+
+    private static String checksumOf(String body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return String.format("%08x", crc.getValue());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-wide repository of client accounts, backed by "clients.csv".
+ * CSV format: userID,password,name,email
+ *
+ * @author Rene
+ */
+public class ClientRepository extends CsvRepository<Client> {
+
+    /**
+     * SINGLETON: One shared instance so every screen sees the same cached list.
+     */
+    private static final ClientRepository INSTANCE = new ClientRepository();
+
+    private ClientRepository() {
+        super("clients.csv");
+    }
+
+    /**
+     * Returns the shared client repository.
+     *
+     * @return repository instance
+     */
+    public static ClientRepository getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    protected Client parse(CsvRow row) {
+        return new Client(row.getInt(0), row.getString(1), row.getString(2), row.getString(3));
+    }
+
+    @Override
+    protected int idOf(Client client) {
+        return client.getUserID();
+    }
+
+    @Override
+    protected String toCSV(Client client) {
+        // Client.toCSV() already ends with a newline, the repository adds its own
+        return client.toCSV().trim();
+    }
+
+    @Override
+    protected void writeColumns(BinarySnapshot.Writer out, List<Client> clients) throws IOException {
+        int[] ids = new int[clients.size()];
+        String[] passwords = new String[clients.size()];
+        String[] names = new String[clients.size()];
+        String[] emails = new String[clients.size()];
+        for (int i = 0; i < clients.size(); i++) {
+            Client client = clients.get(i);
+            ids[i] = client.getUserID();
+            passwords[i] = client.getUserPassword();
+            names[i] = client.getName();
+            emails[i] = client.getEmail();
+        }
+        out.intColumn(ids).stringColumn(passwords).stringColumn(names).stringColumn(emails);
+    }
+
+    @Override
+    protected List<Client> readColumns(BinarySnapshot.Reader in) throws IOException {
+        int[] ids = in.intColumn();
+        String[] passwords = in.stringColumn();
+        String[] names = in.stringColumn();
+        String[] emails = in.stringColumn();
+        List<Client> clients = new ArrayList<>(in.rows());
+        for (int i = 0; i < in.rows(); i++) {
+            clients.add(new Client(ids[i], passwords[i], names[i], emails[i]));
+        }
+        return clients;
+    }
+
+    @Override
+    protected JdbcStorage.Column[] columns() {
+        return new JdbcStorage.Column[]{
+                new JdbcStorage.Column("CLIENT_ID", true, false),
+                new JdbcStorage.Column("PASSWORD", false, false),
+                new JdbcStorage.Column("NAME", false, false),
+                new JdbcStorage.Column("EMAIL", false, false)
+        };
+    }
+}
@@ -0,0 +1,896 @@
+package com.example.finalproject.model;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Base class for the process-wide, in-memory repositories of the data directory.
+ * <p>
+ * Each repository reads its CSV file exactly once, keeps the records in an
+ * id-indexed cache and hands out one shared {@link ObservableList} that every
+ * controller binds to. Saves and deletes are write-through: the cache is
+ * updated and the record is stored right after, so a warm cache never has to
+ * go back to the disk to render a screen.
+ * <p>
+ * THREADING: The cache is the source of truth and may be touched from any
+ * thread; the shared list belongs to the JavaFX thread. Every change marks the
+ * affected ids dirty and one {@link Platform#runLater} brings the list up to
+ * date, applying all changes gathered since the previous one as a single batch.
+ * Screens load with {@link #loadAsync()} and save through {@link AsyncData}, so
+ * no file is read or written on the JavaFX thread. The shared list is only
+ * kept once a screen asks for it; screens that page through the records
+ * instead (the showtime schedule) register a change listener.
+ * <p>
+ * Where the records live is decided by the {@link StorageBackend} selected at
+ * startup: the CSV files ({@link CsvStorage}, the default, or one file per
+ * month with {@link PartitionedCsvStorage}) or an embedded database
+ * ({@link JdbcStorage}). Either way a record travels as its CSV line.
+ * Backends that need it (the monthly partitions, to archive finished months)
+ * are also compacted periodically by a background thread.
+ * <p>
+ * LIVE RELOAD: The {@link DataDirectoryWatcher} reports changes to the files
+ * of the backend. Changes written by this repository are recognised by their
+ * size and time stamp and ignored; anything else (another terminal, an edit by
+ * hand) is re-read on the watcher thread and only the added, changed and
+ * removed rows reach the shared list, so selections and scroll positions survive.
+ * <p>
+ * TERMINALS: Several instances of the application may share one data
+ * directory. Loads run under the shared side of a {@link DataLock} and every
+ * commit under its exclusive side; a commit first catches up with what other
+ * terminals wrote, then checks the {@link Versioned} stamp of the record, so a
+ * conflicting edit fails with a {@link StaleRecordException} instead of
+ * overwriting the other terminal's change.
+ * <p>
+ * OOP Principle: Abstraction (subclasses only describe how one record is
+ * parsed and formatted) and Generics (one implementation for every entity).
+ *
+ * @param <T> type of record stored in the repository
+ * @author Rene
+ */
+public abstract class CsvRepository<T> {
+
+    /**
+     * Folder that contains every CSV file used by the application.
+     */
+    public static final String DATA_DIR = "src/main/resources/com/example/finalproject/data/";
+
+    /**
+     * Seconds between two background compactions of a repository whose backend asks for them.
+     */
+    private static final long COMPACTION_INTERVAL_SECONDS = 30;
+
+    /**
+     * Shared daemon thread that runs the background compactions of all repositories.
+     */
+    private static final ScheduledExecutorService COMPACTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "csv-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Folder of this repository's files, {@link #DATA_DIR} outside tests.
+     */
+    private final String dataDir;
+
+    /**
+     * Path to the CSV file backing this repository.
+     */
+    private final String csvPath;
+
+    /**
+     * Runs the publications on the JavaFX thread ({@link Platform#runLater} outside tests).
+     */
+    private final Executor fxThread;
+
+    /**
+     * Storage the records are loaded from and written to.
+     */
+    private final StorageBackend<T> backend;
+
+    /**
+     * Id-indexed cache of all records, kept in file order.
+     */
+    private final Map<Integer, T> cache = new LinkedHashMap<>();
+
+    /**
+     * Shared list handed to the views. Mirrors the cache; only changed on the JavaFX thread.
+     */
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+
+    /**
+     * id -> record currently shown in {@link #items}. JavaFX thread only.
+     */
+    private final Map<Integer, T> listed = new HashMap<>();
+
+    /**
+     * Ids changed in the cache since the list was last published.
+     */
+    private final Set<Integer> dirty = new LinkedHashSet<>();
+
+    /**
+     * True when the whole list must be rebuilt (after a full load).
+     */
+    private boolean allDirty;
+
+    /**
+     * True once a screen asked for the shared list; until then it is left empty.
+     */
+    private volatile boolean mirrored;
+
+    /**
+     * Notified on the JavaFX thread after each publication. JavaFX thread only.
+     */
+    private final List<WeakReference<Runnable>> listeners = new ArrayList<>();
+
+    /**
+     * True while a publication is queued on the JavaFX thread.
+     */
+    private boolean publishScheduled;
+
+    /**
+     * True once the records have been read into the cache.
+     */
+    private boolean loaded;
+
+    /**
+     * Persistent id allocator, created on first load.
+     */
+    private volatile IdSequence sequence;
+
+    /**
+     * Size and time stamp of the backend's files as last loaded or written by this repository.
+     */
+    private String lastSignature = "";
+
+    /**
+     * Coordinates readers and writers of this repository's files across terminals.
+     */
+    private final DataLock lock;
+
+    /**
+     * Creates a repository backed by a file of the data directory.
+     *
+     * @param fileName name of the CSV file inside {@link #DATA_DIR}
+     */
+    protected CsvRepository(String fileName) {
+        this(DATA_DIR, fileName, DataDirectoryWatcher.getInstance(), Platform::runLater);
+    }
+
+    /**
+     * Creates a repository backed by a file of another data directory.
+     *
+     * @param dataDir  folder of the files, ending in "/"
+     * @param fileName name of the CSV file inside {@code dataDir}
+     * @param watcher  watcher of {@code dataDir}
+     * @param fxThread runs the publications of the shared list
+     */
+    CsvRepository(String dataDir, String fileName, DataDirectoryWatcher watcher, Executor fxThread) {
+        this.dataDir = dataDir;
+        this.csvPath = dataDir + fileName;
+        this.fxThread = fxThread;
+        this.lock = new DataLock(basePath() + ".lock");
+        StorageBackend<T> files = fileBackend(fileName);
+        // The database is filled from the files the first time it is used
+        this.backend = StorageBackend.jdbcSelected() ? new JdbcStorage<>(this, fileName, columns(), files) : files;
+        if (backend.compactsInBackground()) {
+            COMPACTOR.scheduleWithFixedDelay(this::compactQuietly,
+                    COMPACTION_INTERVAL_SECONDS, COMPACTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+        for (String watched : backend.watchedFiles()) {
+            watcher.watch(watched, this::refreshFromDisk);
+        }
+    }
+
+    /**
+     * Builds one record from a CSV line. Only the fields that need a String
+     * should be materialised with {@link CsvRow#getString(int)}.
+     *
+     * @param row fields of one line, only valid during the call
+     * @return the parsed record
+     * @throws NumberFormatException if a numeric field is invalid
+     * @throws ArrayIndexOutOfBoundsException if the line has too few fields
+     */
+    protected abstract T parse(CsvRow row);
+
+    /**
+     * Returns the primary key of a record.
+     *
+     * @param item record
+     * @return unique id of the record
+     */
+    protected abstract int idOf(T item);
+
+    /**
+     * Formats a record as one CSV line, without the trailing newline.
+     *
+     * @param item record
+     * @return CSV representation
+     */
+    protected abstract String toCSV(T item);
+
+    /**
+     * Writes the records as columns of a binary snapshot.
+     *
+     * @param out     column writer sized for the records
+     * @param records records in file order
+     * @throws IOException if a column could not be written
+     */
+    protected abstract void writeColumns(BinarySnapshot.Writer out, List<T> records) throws IOException;
+
+    /**
+     * Rebuilds the records from the columns written by {@link #writeColumns}.
+     *
+     * @param in column reader
+     * @return records in file order
+     * @throws IOException if the snapshot does not have the expected columns
+     */
+    protected abstract List<T> readColumns(BinarySnapshot.Reader in) throws IOException;
+
+    /**
+     * Describes the CSV fields as table columns for the {@link JdbcStorage} backend.
+     *
+     * @return columns in CSV field order, primary key first
+     */
+    protected abstract JdbcStorage.Column[] columns();
+
+    /**
+     * Creates the file storage of this repository. Called from the constructor,
+     * so an override must not use fields of the subclass.
+     *
+     * @param fileName name of the CSV file inside {@link #getDataDir()}
+     * @return the storage used for the CSV backend (and to fill a new database)
+     */
+    protected StorageBackend<T> fileBackend(String fileName) {
+        return new CsvStorage<>(this, fileName);
+    }
+
+    /**
+     * INDEX HOOK: Called whenever a record enters, changes in or leaves the
+     * cache, with the monitor held, so a subclass can keep a secondary index
+     * up to date. Cached records are never modified in place; a change always
+     * replaces the record with a new instance.
+     *
+     * @param before record cached until now, or null if it is new
+     * @param after  record cached from now on, or null if it was removed
+     */
+    protected void cacheChanged(T before, T after) {
+    }
+
+    /**
+     * INDEX HOOK: Called before a full load empties the cache.
+     */
+    protected void cacheCleared() {
+    }
+
+    /**
+     * Returns the folder of this repository's files.
+     *
+     * @return data directory, ending in "/"
+     */
+    String getDataDir() {
+        return dataDir;
+    }
+
+    /**
+     * Returns the path of the CSV file backing this repository.
+     *
+     * @return file path
+     */
+    public String getCsvPath() {
+        return csvPath;
+    }
+
+    /**
+     * Returns the shared list of all records, loading the file on first use.
+     * The same list instance is returned on every call, so views bound to it
+     * are refreshed automatically by {@link #save} and {@link #delete}.
+     * Blocks until loaded; screens should prefer {@link #loadAsync()}.
+     *
+     * @return shared observable list
+     */
+    public synchronized ObservableList<T> getAll() {
+        mirrored = true;
+        ensureLoaded();
+        if (Platform.isFxApplicationThread()) {
+            publish(); // callers expect the rows right away
+        } else {
+            schedulePublish();
+        }
+        return items;
+    }
+
+    /**
+     * Returns the shared list without loading anything. It is empty until a
+     * load completes, then fills in place.
+     *
+     * @return shared observable list
+     */
+    public ObservableList<T> getItems() {
+        if (!mirrored) {
+            mirrored = true;
+            fxThread.execute(this::publish);
+        }
+        return items;
+    }
+
+    /**
+     * ASYNC LOAD: Reads the records on a background thread. The shared list is
+     * filled on the JavaFX thread before the task reports success.
+     *
+     * @return the running load; its value is the shared list
+     */
+    public Task<ObservableList<T>> loadAsync() {
+        mirrored = true;
+        return AsyncData.submit(() -> {
+            synchronized (this) {
+                ensureLoaded();
+                schedulePublish();
+            }
+            return items;
+        });
+    }
+
+    /**
+     * Registers code to run on the JavaFX thread whenever records were loaded,
+     * saved, deleted or reloaded, once per batch of changes. The listener is
+     * held weakly: keep a reference to it for as long as it should be called.
+     *
+     * @param listener code to run after each batch of changes
+     */
+    public void addChangeListener(Runnable listener) {
+        listeners.add(new WeakReference<>(listener));
+    }
+
+    /**
+     * Looks up a record by its id without touching the disk.
+     *
+     * @param id primary key
+     * @return the record, or null if there is none
+     */
+    public synchronized T findById(int id) {
+        ensureLoaded();
+        return cache.get(id);
+    }
+
+    /**
+     * Allocates a new id from the persistent {@link IdSequence} of this entity.
+     * No scan of the data is needed, and two forms saving at once never get the same id.
+     *
+     * @return id to use for a new record
+     * @throws IOException if a new block of ids could not be reserved
+     */
+    public int nextId() throws IOException {
+        IdSequence current = sequence;
+        if (current == null) {
+            synchronized (this) {
+                ensureLoaded();
+                current = sequence;
+            }
+        }
+        return Math.toIntExact(current.next());
+    }
+
+    /**
+     * CREATE / UPDATE: Inserts the record, or replaces the record with the same id,
+     * then stores it in the backend. The cache is rolled back if the write fails.
+     *
+     * @param item record to store
+     * @throws IOException if the file could not be written
+     */
+    public synchronized void save(T item) throws IOException {
+        ensureLoaded();
+        lock.exclusive(() -> {
+            catchUp();
+            commitSave(item);
+            return null;
+        });
+    }
+
+    private void commitSave(T item) throws IOException {
+        int id = idOf(item);
+        T previous = cache.get(id);
+        int oldVersion = 0;
+        if (item instanceof Versioned stamped) {
+            // OPTIMISTIC CHECK: The edit must start from the version that is stored now
+            oldVersion = stamped.getVersion();
+            int storedVersion = previous instanceof Versioned current ? current.getVersion() : 0;
+            if (previous == null && oldVersion != 0) {
+                throw new StaleRecordException("Record " + id + " was deleted by another terminal.");
+            }
+            if (previous != null && previous != item && oldVersion != storedVersion) {
+                throw new StaleRecordException("Record " + id + " was changed by another terminal. Reopen it and try again.");
+            }
+            stamped.setVersion(storedVersion + 1);
+        }
+        putCached(id, item);
+        String before = diskSignature();
+        try {
+            backend.upsert(item);
+            if (backend.needsCompaction()) backend.compact(cache.values());
+            recordOwnWrite(before);
+        } catch (IOException e) {
+            // ROLLBACK: Keep memory consistent with what is on disk
+            if (item instanceof Versioned stamped) stamped.setVersion(oldVersion);
+            if (previous == null) {
+                removeCached(id);
+            } else {
+                putCached(id, previous);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * DELETE: Removes the record with the given id, then removes it from the backend.
+     *
+     * @param id primary key of the record to remove
+     * @return true if a record was removed
+     * @throws IOException if the file could not be written
+     */
+    public synchronized boolean delete(int id) throws IOException {
+        ensureLoaded();
+        return lock.exclusive(() -> {
+            catchUp();
+            return commitDelete(id);
+        });
+    }
+
+    private boolean commitDelete(int id) throws IOException {
+        T removed = removeCached(id);
+        if (removed == null) return false;
+        String before = diskSignature();
+        try {
+            backend.delete(id);
+            if (backend.needsCompaction()) backend.compact(cache.values());
+            recordOwnWrite(before);
+        } catch (IOException e) {
+            putCached(id, removed);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * COMPACTION: Lets the backend fold pending changes into its main storage
+     * (e.g. archive finished months, drop blanked lines). Does nothing when there is nothing to reclaim.
+     *
+     * @throws IOException if the storage could not be written
+     */
+    public synchronized void compact() throws IOException {
+        if (!loaded) return;
+        lock.exclusive(() -> {
+            // Never fold a stale cache over another terminal's changes; the watcher reloads first
+            String before = diskSignature();
+            if (!before.equals(lastSignature)) return null;
+            if (backend.compact(cache.values())) recordOwnWrite(before);
+            return null;
+        });
+    }
+
+    /**
+     * INDEXED QUERY: Returns the records whose column lies in {@code [from, to]}.
+     * Uses the backend's index when it has one, otherwise scans the cache.
+     *
+     * @param column  column name as declared in {@link #columns()}
+     * @param from    lowest value, inclusive
+     * @param to      highest value, inclusive
+     * @param matches the same condition evaluated on a cached record
+     * @return matching records in id order (storage order when scanning)
+     */
+    protected synchronized List<T> findWhere(String column, Object from, Object to, Predicate<T> matches) {
+        ensureLoaded();
+        try {
+            List<Integer> ids = backend.findIds(column, from, to);
+            if (ids != null) {
+                List<T> result = new ArrayList<>(ids.size());
+                for (int id : ids) {
+                    T item = cache.get(id);
+                    if (item != null) result.add(item);
+                }
+                return result;
+            }
+        } catch (IOException e) {
+            System.err.println("REPOSITORY: Index query failed on " + csvPath + ", scanning instead");
+            e.printStackTrace();
+        }
+        List<T> result = new ArrayList<>();
+        for (T item : cache.values()) {
+            if (matches.test(item)) result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * PRUNING: Makes sure the records dated in {@code [from, to]} are cached,
+     * reading the partitions that the first load left out. Caller holds the monitor.
+     *
+     * @param from first ISO date, inclusive, or null for no lower bound
+     * @param to   last ISO date, inclusive, or null for no upper bound
+     */
+    protected final void loadRange(String from, String to) {
+        ensureLoaded();
+        Map<Integer, T> extra = new LinkedHashMap<>();
+        try {
+            lock.shared(() -> {
+                backend.loadRange(from, to, extra);
+                return null;
+            });
+        } catch (IOException e) {
+            System.err.println("REPOSITORY: Error loading " + from + " to " + to + " of " + csvPath);
+            e.printStackTrace();
+        }
+        for (Map.Entry<Integer, T> entry : extra.entrySet()) {
+            if (!cache.containsKey(entry.getKey())) putCached(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns the first date the cache holds without {@link #loadRange}, or null if it holds everything.
+     *
+     * @return first ISO date of the active records, or null
+     */
+    public synchronized String getActiveFrom() {
+        ensureLoaded();
+        return backend.activeFrom();
+    }
+
+    /**
+     * Hands over the records the cache does not hold (archived months no date
+     * range has reached), without caching them, for views over the whole history.
+     *
+     * @param action receives each record
+     * @throws IOException if the storage could not be read
+     */
+    public synchronized void forEachUnloaded(Consumer<T> action) throws IOException {
+        ensureLoaded();
+        lock.shared(() -> {
+            backend.forEachUnloaded(action);
+            return null;
+        });
+    }
+
+    /**
+     * Drops the cache and reads the file again on next access.
+     */
+    public synchronized void invalidate() {
+        loaded = false;
+    }
+
+    /**
+     * Reads the CSV file into the cache if it has not been read yet. Caller holds the monitor.
+     */
+    protected final void ensureLoaded() {
+        if (loaded) return;
+        cacheCleared();
+        cache.clear();
+        try {
+            lock.shared(() -> {
+                backend.load(cache);
+                lastSignature = diskSignature(); // after the load, which may rebuild or migrate files
+                return null;
+            });
+        } catch (IOException e) {
+            System.err.println("REPOSITORY: Error loading " + csvPath);
+            e.printStackTrace();
+        }
+        for (T item : cache.values()) cacheChanged(null, item);
+        allDirty = true;
+        schedulePublish();
+        advanceSequence();
+        loaded = true;
+    }
+
+    /**
+     * SEQUENCE: Never hand out an id that is already in the data.
+     */
+    private void advanceSequence() {
+        int maxId = backend.highestUnloadedId();
+        for (int id : cache.keySet()) maxId = Math.max(maxId, id);
+        if (sequence == null) {
+            sequence = new IdSequence(basePath() + ".seq", maxId + 1L, lock);
+        } else {
+            sequence.advanceTo(maxId + 1L);
+        }
+    }
+
+    /**
+     * LIVE RELOAD: Called by the watcher thread when a file of the backend changed.
+     * Re-reads the records off the UI thread, then hands the diff to the JavaFX thread.
+     */
+    private void refreshFromDisk() {
+        String signature;
+        synchronized (this) {
+            if (!loaded) return;
+            signature = diskSignature();
+            if (signature.equals(lastSignature)) return; // our own write
+        }
+        Map<Integer, T> fresh = new LinkedHashMap<>();
+        try {
+            lock.shared(() -> {
+                backend.reload(fresh);
+                return null;
+            });
+        } catch (IOException e) {
+            System.err.println("REPOSITORY: Error reloading " + csvPath);
+            e.printStackTrace();
+            return;
+        }
+        applyRefresh(fresh, signature);
+    }
+
+    /**
+     * Applies only the rows that differ between the cache and a fresh read of the files.
+     *
+     * @param fresh     records as read from the disk
+     * @param signature file signature the records were read at
+     */
+    private synchronized void applyRefresh(Map<Integer, T> fresh, String signature) {
+        // STALE: The files changed again since the read; the next event brings a newer copy
+        if (!loaded || !signature.equals(diskSignature())) return;
+        backend.reopen();
+        applyDiff(fresh);
+        lastSignature = signature;
+    }
+
+    /**
+     * CATCH-UP: Before a commit, applies whatever other terminals committed since
+     * this repository last read or wrote its files. Runs under the exclusive lock.
+     *
+     * @throws IOException if the files could not be read
+     */
+    private void catchUp() throws IOException {
+        String signature = diskSignature();
+        if (signature.equals(lastSignature)) return;
+        backend.reopen();
+        Map<Integer, T> fresh = new LinkedHashMap<>();
+        backend.reload(fresh);
+        applyDiff(fresh);
+        lastSignature = signature;
+    }
+
+    /**
+     * Applies only the rows that differ between the cache and a fresh read of the files.
+     *
+     * @param fresh records as read from the disk
+     */
+    private void applyDiff(Map<Integer, T> fresh) {
+        Iterator<Map.Entry<Integer, T>> it = cache.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, T> entry = it.next();
+            if (!fresh.containsKey(entry.getKey())) {
+                it.remove();
+                cacheChanged(entry.getValue(), null);
+                markDirty(entry.getKey());
+            }
+        }
+
+        for (Map.Entry<Integer, T> entry : fresh.entrySet()) {
+            T current = cache.get(entry.getKey());
+            T updated = entry.getValue();
+            if (current != null && toCSV(current).equals(toCSV(updated))) continue;
+            putCached(entry.getKey(), updated);
+        }
+        advanceSequence();
+    }
+
+    /**
+     * Remembers the files as written by this repository, unless someone else
+     * changed them before our write (that change still has to be reloaded).
+     *
+     * @param before signature taken just before the write
+     */
+    private void recordOwnWrite(String before) {
+        if (before.equals(lastSignature)) lastSignature = diskSignature();
+    }
+
+    /**
+     * Returns the size and time stamp of every file of the backend.
+     */
+    private String diskSignature() {
+        StringBuilder signature = new StringBuilder();
+        for (String watched : backend.watchedFiles()) {
+            signature.append(fileSignature(Paths.get(dataDir + watched))).append('|');
+        }
+        return signature.toString();
+    }
+
+    private static String fileSignature(Path path) {
+        try {
+            if (Files.isDirectory(path)) {
+                // A watched folder changes whenever one of its files does
+                StringBuilder signature = new StringBuilder();
+                try (Stream<Path> files = Files.list(path)) {
+                    for (Path file : files.sorted().toList()) {
+                        signature.append(file.getFileName()).append('=').append(fileSignature(file)).append(';');
+                    }
+                }
+                return signature.toString();
+            }
+            return Files.size(path) + "@" + Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return "missing";
+        }
+    }
+
+    /**
+     * Returns the path of the CSV file without its extension, shared by the ".seq" and ".lock" files.
+     */
+    private String basePath() {
+        return csvPath.substring(0, csvPath.lastIndexOf('.'));
+    }
+
+    /**
+     * Reads an optional trailing version column, so files written before the
+     * column existed still load (as version 0).
+     *
+     * @param row   fields of one line
+     * @param index position of the version column
+     * @return version stamp, or 0 if the line has no such column
+     */
+    protected static int versionAt(CsvRow row, int index) {
+        return index < row.fieldCount() ? row.getInt(index) : 0;
+    }
+
+    /**
+     * Parses one line of text (e.g. from a compressed archive) and stores the record in the map.
+     */
+    void putLine(Map<Integer, T> target, String line) {
+        if (line.trim().isEmpty()) return;
+        putRow(target, CsvRow.of(line));
+    }
+
+    /**
+     * Parses one CSV row and stores the record in the map, skipping malformed rows.
+     */
+    void putRow(Map<Integer, T> target, CsvRow row) {
+        try {
+            T item = parse(row);
+            target.put(idOf(item), item);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("REPOSITORY: Skipping malformed line in " + csvPath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs {@link #compact()} from the background thread, logging instead of throwing.
+     */
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException e) {
+            System.err.println("REPOSITORY: Error compacting " + csvPath);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stores a record in the cache and queues it for publication. Caller holds the monitor.
+     */
+    private void putCached(int id, T item) {
+        cacheChanged(cache.put(id, item), item);
+        markDirty(id);
+    }
+
+    /**
+     * Drops a record from the cache and queues it for publication. Caller holds the monitor.
+     *
+     * @return the removed record, or null if there was none
+     */
+    private T removeCached(int id) {
+        T removed = cache.remove(id);
+        if (removed == null) return null;
+        cacheChanged(removed, null);
+        markDirty(id);
+        return removed;
+    }
+
+    /**
+     * Queues a changed id for the next publication. Caller holds the monitor.
+     */
+    private void markDirty(int id) {
+        dirty.add(id);
+        schedulePublish();
+    }
+
+    private void schedulePublish() {
+        if (publishScheduled) return;
+        publishScheduled = true;
+        fxThread.execute(this::publish);
+    }
+
+    /**
+     * PUBLICATION: Brings the shared list in line with the cache, applying every
+     * change gathered since the previous run as one batch, then notifies the
+     * change listeners. JavaFX thread only.
+     */
+    private void publish() {
+        List<T> all = null;
+        Map<Integer, T> changes = new LinkedHashMap<>();
+        boolean changed;
+        boolean mirror = mirrored;
+        synchronized (this) {
+            publishScheduled = false;
+            changed = allDirty || !dirty.isEmpty();
+            if (!mirror) {
+                // Nobody shows the whole list; rebuild it once someone asks for it
+                allDirty = allDirty || !dirty.isEmpty();
+                dirty.clear();
+            } else {
+                if (allDirty) {
+                    all = new ArrayList<>(cache.values());
+                } else {
+                    for (int id : dirty) changes.put(id, cache.get(id));
+                }
+                allDirty = false;
+                dirty.clear();
+            }
+        }
+        if (mirror) applyToList(all, changes);
+        if (changed) notifyListeners();
+    }
+
+    private void applyToList(List<T> all, Map<Integer, T> changes) {
+        if (all != null) {
+            listed.clear();
+            for (T item : all) listed.put(idOf(item), item);
+            items.setAll(all);
+            return;
+        }
+        Set<T> removed = new HashSet<>();
+        List<T> added = new ArrayList<>();
+        for (Map.Entry<Integer, T> change : changes.entrySet()) {
+            T shown = listed.get(change.getKey());
+            T current = change.getValue();
+            if (shown == current) continue;
+            if (current == null) {
+                removed.add(shown);
+                listed.remove(change.getKey());
+            } else if (shown == null) {
+                added.add(current);
+                listed.put(change.getKey(), current);
+            } else {
+                items.set(items.indexOf(shown), current);
+                listed.put(change.getKey(), current);
+            }
+        }
+        if (!removed.isEmpty()) items.removeAll(removed);
+        if (!added.isEmpty()) items.addAll(added);
+    }
+
+    private void notifyListeners() {
+        Iterator<WeakReference<Runnable>> it = listeners.iterator();
+        while (it.hasNext()) {
+            Runnable listener = it.next().get();
+            if (listener == null) {
+                it.remove(); // its screen is gone
+            } else {
+                listener.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.finalproject.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One line of a CSV file, seen as a set of field slices over a byte buffer.
+ * <p>
+ * Nothing is copied when the row is created: fields are only turned into
+ * Strings when {@link #getString(int)} is called, and {@link #getInt(int)}
+ * parses digits straight from the buffer. A row is reused by
+ * {@link MappedCsvReader} for every line, so it must not be kept after the
+ * handler returns.
+ *
+ * @author Rene
+ */
+public final class CsvRow {
+
+    /**
+     * Maximum number of fields on one line. Our widest file has five columns.
+     */
+    private static final int MAX_FIELDS = 16;
+
+    private ByteBuffer buffer;
+    private long fileOffset;
+    private int length;
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+    private int fieldCount;
+
+    /**
+     * Scratch array used to copy string fields out of the buffer.
+     */
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Creates an empty row. Rows are filled by {@link #reset}.
+     */
+    CsvRow() {
+    }
+
+    /**
+     * Builds a standalone row from a line of text, e.g. a journal record.
+     *
+     * @param line CSV line without the trailing newline
+     * @return parsed row
+     */
+    public static CsvRow of(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        CsvRow row = new CsvRow();
+        row.reset(ByteBuffer.wrap(bytes), 0, bytes.length, 0);
+        return row;
+    }
+
+    /**
+     * Points the row at the bytes [start, end) of a buffer and finds the commas.
+     *
+     * @param buffer buffer holding the line
+     * @param start  index of the first byte of the line
+     * @param end    index just past the last byte of the line (newline excluded)
+     * @param base   position of the buffer inside the file
+     */
+    void reset(ByteBuffer buffer, int start, int end, long base) {
+        this.buffer = buffer;
+        this.fileOffset = base + start;
+        this.length = end - start;
+        if (end > start && buffer.get(end - 1) == '\r') end--;
+        fieldCount = 0;
+        int fieldStart = start;
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == ',') {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        addField(fieldStart, end);
+    }
+
+    /**
+     * Returns the number of fields on this line.
+     *
+     * @return field count
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Returns the byte position of the start of this line inside its file.
+     *
+     * @return file offset
+     */
+    public long offset() {
+        return fileOffset;
+    }
+
+    /**
+     * Returns the length of this line in bytes, without the newline.
+     *
+     * @return line length
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns true if the line only contains whitespace.
+     *
+     * @return true for a blank line
+     */
+    public boolean isBlank() {
+        return fieldCount == 1 && trimmedStart(0) == ends[0];
+    }
+
+    /**
+     * Parses an integer field in place, ignoring surrounding spaces.
+     *
+     * @param index field index
+     * @return parsed value
+     * @throws NumberFormatException if the field is not a valid integer
+     * @throws ArrayIndexOutOfBoundsException if the line has too few fields
+     */
+    public int getInt(int index) {
+        long value = getLong(index);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Integer out of range: " + getString(index));
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a long field in place, ignoring surrounding spaces.
+     *
+     * @param index field index
+     * @return parsed value
+     * @throws NumberFormatException if the field is not a valid integer
+     * @throws ArrayIndexOutOfBoundsException if the line has too few fields
+     */
+    public long getLong(int index) {
+        int i = trimmedStart(index);
+        int end = trimmedEnd(index);
+        if (i >= end) throw new NumberFormatException("Empty numeric field");
+        boolean negative = buffer.get(i) == '-';
+        if (negative && ++i == end) throw new NumberFormatException("Lone minus sign");
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("Invalid number: " + getString(index));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Materialises a field as a trimmed String.
+     *
+     * @param index field index
+     * @return field value
+     * @throws ArrayIndexOutOfBoundsException if the line has too few fields
+     */
+    public String getString(int index) {
+        int start = trimmedStart(index);
+        int length = Math.max(0, trimmedEnd(index) - start);
+        if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == MAX_FIELDS) return; // extra columns are ignored
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private int trimmedStart(int index) {
+        checkIndex(index);
+        int i = starts[index];
+        while (i < ends[index] && (buffer.get(i) & 0xFF) <= ' ') i++;
+        return i;
+    }
+
+    private int trimmedEnd(int index) {
+        checkIndex(index);
+        int i = ends[index];
+        while (i > starts[index] && (buffer.get(i - 1) & 0xFF) <= ' ') i--;
+        return i;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new ArrayIndexOutOfBoundsException("Field " + index + " missing, line has " + fieldCount);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CSV-file {@link StorageBackend}, in the format the application always used.
+ * <p>
+ * The file is kept as an {@link IndexedCsvFile}: an edit or delete only touches
+ * the affected line and one index entry, and the file is compacted once
+ * deleted lines take more room than live ones.
+ * <p>
+ * After every compaction (and after any load that had to parse the CSV text)
+ * a {@link BinarySnapshot} of the file is written next to it, and startup
+ * reads that snapshot instead of the CSV file whenever it is still current.
+ *
+ * @param <T> type of record stored
+ * @author Rene
+ */
+public class CsvStorage<T> implements StorageBackend<T> {
+
+    /**
+     * Repository that knows how to parse and format the records.
+     */
+    private final CsvRepository<T> owner;
+
+    private final String fileName;
+    private final String csvPath;
+
+    /**
+     * The CSV file with its primary-key offset index.
+     */
+    private final IndexedCsvFile store;
+
+    /**
+     * Creates the CSV storage of a repository.
+     *
+     * @param owner    repository providing parse/format
+     * @param fileName name of the CSV file inside the repository's data directory
+     */
+    public CsvStorage(CsvRepository<T> owner, String fileName) {
+        this.owner = owner;
+        this.fileName = fileName;
+        this.csvPath = owner.getDataDir() + fileName;
+        this.store = new IndexedCsvFile(csvPath);
+    }
+
+    @Override
+    public void load(Map<Integer, T> target) throws IOException {
+        readRecords(target, true);
+        store.open();
+    }
+
+    @Override
+    public void reload(Map<Integer, T> target) {
+        readRecords(target, false);
+    }
+
+    @Override
+    public void upsert(T item) throws IOException {
+        store.put(owner.idOf(item), owner.toCSV(item));
+    }
+
+    @Override
+    public void delete(int id) throws IOException {
+        store.remove(id);
+    }
+
+    @Override
+    public boolean needsCompaction() {
+        return store.needsCompaction();
+    }
+
+    /**
+     * COMPACTION: Rewrites the file once deleted lines outweigh live ones.
+     * Does nothing when there is nothing to reclaim.
+     */
+    @Override
+    public boolean compact(Collection<T> records) throws IOException {
+        if (!store.needsCompaction()) return false;
+        writeAll(records);
+        return true;
+    }
+
+    @Override
+    public List<String> watchedFiles() {
+        return List.of(fileName);
+    }
+
+    @Override
+    public void reopen() {
+        store.reopen();
+    }
+
+    /**
+     * The CSV file has no secondary index; the repository scans its cache instead.
+     */
+    @Override
+    public List<Integer> findIds(String column, Object from, Object to) {
+        return null;
+    }
+
+    /**
+     * Reads every record: the binary snapshot or the CSV file.
+     *
+     * @param target        map receiving the records, in file order
+     * @param writeSnapshot true to write a fresh snapshot when the CSV file had to be parsed
+     */
+    private void readRecords(Map<Integer, T> target, boolean writeSnapshot) {
+        try {
+            // FAST PATH: Binary snapshot, if it still matches the CSV file
+            if (!loadSnapshot(target)) {
+                MappedCsvReader.read(Paths.get(csvPath), row -> owner.putRow(target, row));
+                if (writeSnapshot) writeSnapshot(target.values());
+            }
+        } catch (IOException e) {
+            System.err.println("REPOSITORY: Error loading " + csvPath);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Rewrites the whole CSV file through the crash-safe {@link DurableWriter}
+     * and rebuilds its index.
+     *
+     * @throws IOException if the file could not be written
+     */
+    private void writeAll(Collection<T> records) throws IOException {
+        List<String> lines = new ArrayList<>(records.size());
+        for (T item : records) lines.add(owner.toCSV(item));
+        store.rewrite(lines);
+        writeSnapshot(records);
+    }
+
+    /**
+     * Fills a map from the binary snapshot.
+     *
+     * @return false if there is no usable snapshot and the CSV file must be parsed
+     */
+    private boolean loadSnapshot(Map<Integer, T> target) {
+        BinarySnapshot.Reader reader = BinarySnapshot.read(snapshotPath(), Paths.get(csvPath));
+        if (reader == null) return false;
+        try {
+            for (T item : owner.readColumns(reader)) target.put(owner.idOf(item), item);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("SNAPSHOT: Falling back to " + csvPath + ": " + e.getMessage());
+            target.clear();
+            return false;
+        }
+    }
+
+    /**
+     * Writes a binary snapshot of the records, which must match the CSV file at this point.
+     * A failure only costs a slower next startup, so it is logged and ignored.
+     */
+    private void writeSnapshot(Collection<T> current) {
+        Path csv = Paths.get(csvPath);
+        try {
+            if (!Files.exists(csv)) return;
+            List<T> records = new ArrayList<>(current);
+            BinarySnapshot.Writer writer = new BinarySnapshot.Writer(records.size());
+            owner.writeColumns(writer, records);
+            BinarySnapshot.write(snapshotPath(), csv, writer);
+        } catch (IOException e) {
+            System.err.println("SNAPSHOT: Could not write snapshot of " + csvPath);
+            e.printStackTrace();
+        }
+    }
+
+    private Path snapshotPath() {
+        return BinarySnapshot.snapshotPathFor(Paths.get(csvPath));
+    }
+}
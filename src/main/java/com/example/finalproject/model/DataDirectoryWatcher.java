@@ -0,0 +1,189 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the data directory and tells the repositories when one of their
+ * files changed, whether another terminal or this process wrote it.
+ * <p>
+ * Events are debounced: after the first event the watcher keeps collecting
+ * for {@link #DEBOUNCE_MILLIS} so that an atomic rename, a line append and an
+ * index append produce one notification per file, not three.
+ * <p>
+ * A subdirectory of the data directory (e.g. the monthly showtime partitions)
+ * is watched by registering its name with a trailing slash ("showtimes/"); its
+ * listeners hear about every file inside it. A subdirectory that does not
+ * exist yet is picked up as soon as it is created.
+ *
+ * @author Rene
+ */
+public final class DataDirectoryWatcher {
+
+    /**
+     * How long to keep gathering events before notifying listeners.
+     */
+    private static final long DEBOUNCE_MILLIS = 50;
+
+    private static final DataDirectoryWatcher INSTANCE = new DataDirectoryWatcher(Paths.get(CsvRepository.DATA_DIR));
+
+    /**
+     * File name (e.g. "movies.csv") or directory name ("showtimes/") -> callbacks to run when it changes.
+     */
+    private final Map<String, List<Runnable>> listeners = new ConcurrentHashMap<>();
+
+    private final Path root;
+
+    private boolean started;
+
+    /**
+     * Open while the watcher thread runs; null if live reload is disabled.
+     */
+    private WatchService service;
+
+    /**
+     * Creates a watcher of a data directory; the application shares {@link #getInstance()}.
+     *
+     * @param root directory to watch
+     */
+    DataDirectoryWatcher(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the shared watcher.
+     *
+     * @return watcher instance
+     */
+    public static DataDirectoryWatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a callback for a file of the data directory, starting the watcher if needed.
+     * Callbacks run on the watcher thread, never on the JavaFX Application Thread.
+     *
+     * @param fileName name of the file inside the watched directory, or of a subdirectory ending in "/"
+     * @param onChange callback to run after the file changed
+     */
+    public void watch(String fileName, Runnable onChange) {
+        listeners.computeIfAbsent(fileName, name -> new CopyOnWriteArrayList<>()).add(onChange);
+        start();
+        if (fileName.endsWith("/")) register(root.resolve(fileName));
+    }
+
+    /**
+     * Stops watching; the watcher thread ends and no listener is called again.
+     */
+    synchronized void close() {
+        started = true;
+        if (service == null) return;
+        try {
+            service.close();
+        } catch (IOException e) {
+            System.err.println("WATCHER: Could not stop watching " + root);
+            e.printStackTrace();
+        }
+    }
+
+    private synchronized void start() {
+        if (started) return;
+        started = true;
+        if (!Files.isDirectory(root)) {
+            System.out.println("WATCHER: Data directory not found, live reload disabled: " + root);
+            return;
+        }
+        try {
+            service = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            System.err.println("WATCHER: Could not watch " + root);
+            e.printStackTrace();
+            return;
+        }
+        register(root);
+        Thread thread = new Thread(this::run, "data-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Starts watching a directory if it exists; a missing subdirectory is registered once created.
+     */
+    private synchronized void register(Path dir) {
+        if (service == null || !Files.isDirectory(dir)) return;
+        try {
+            dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            System.err.println("WATCHER: Could not watch " + dir);
+            e.printStackTrace();
+        }
+    }
+
+    private void run() {
+        try (WatchService watched = service) {
+            while (true) {
+                Set<String> changed = new LinkedHashSet<>();
+                WatchKey key = watched.take();
+                // DEBOUNCE: Keep draining until the directory is quiet
+                while (key != null) {
+                    Path dir = (Path) key.watchable();
+                    String prefix = dir.equals(root) ? "" : root.relativize(dir) + "/";
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (!(event.context() instanceof Path path)) continue;
+                        String name = prefix + path;
+                        changed.add(name);
+                        // A watched subdirectory appeared (or was swapped in by a rename)
+                        if (listeners.containsKey(name + "/")) {
+                            register(dir.resolve(path));
+                            changed.add(name + "/");
+                        }
+                    }
+                    if (!key.reset() && dir.equals(root)) return;
+                    key = watched.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                notifyListeners(changed);
+            }
+        } catch (IOException e) {
+            System.err.println("WATCHER: Could not watch " + root);
+            e.printStackTrace();
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void notifyListeners(Set<String> changed) {
+        // A directory listener runs once per batch, however many of its files changed
+        Set<String> targets = new LinkedHashSet<>();
+        for (String name : changed) {
+            targets.add(name);
+            int slash = name.lastIndexOf('/');
+            if (slash >= 0) targets.add(name.substring(0, slash + 1));
+        }
+        for (String name : targets) {
+            for (Runnable listener : listeners.getOrDefault(name, List.of())) {
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    System.err.println("WATCHER: Listener failed for " + name);
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
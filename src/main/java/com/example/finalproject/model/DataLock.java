@@ -0,0 +1,140 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read/write lock shared by every terminal that runs against the same data directory.
+ * <p>
+ * Across processes it is a {@link FileLock} on a small ".lock" file: readers
+ * take a shared lock, so they never block each other, and a writer takes the
+ * exclusive lock only around its commit. Inside one process a
+ * {@link ReentrantReadWriteLock} guards the file lock, because the JVM allows
+ * only one lock per file and process; the first local reader takes the shared
+ * file lock and the last one releases it.
+ * <p>
+ * The locks are advisory: they coordinate the terminals of this application,
+ * not other programs editing the files.
+ *
+ * @author Rene
+ */
+public final class DataLock {
+
+    /**
+     * Work done while holding the lock.
+     *
+     * @param <R> result type
+     */
+    @FunctionalInterface
+    public interface Section<R> {
+        /**
+         * Runs the section.
+         *
+         * @return result of the section
+         * @throws IOException if the section failed
+         */
+        R run() throws IOException;
+    }
+
+    private final Path lockPath;
+    private final ReentrantReadWriteLock local = new ReentrantReadWriteLock();
+
+    /**
+     * Guards the shared file lock and the number of local readers holding it.
+     */
+    private final Object sharedMonitor = new Object();
+    private FileLock sharedLock;
+    private int sharedHolders;
+
+    private FileChannel channel;
+
+    /**
+     * Creates the lock stored at the given path. The file is created on first use.
+     *
+     * @param lockPath path of the ".lock" file
+     */
+    public DataLock(String lockPath) {
+        this.lockPath = Paths.get(lockPath);
+    }
+
+    /**
+     * READ: Runs a section while no terminal is committing.
+     *
+     * @param section work to do
+     * @param <R>     result type
+     * @return result of the section
+     * @throws IOException if the lock could not be taken or the section failed
+     */
+    public <R> R shared(Section<R> section) throws IOException {
+        if (local.isWriteLockedByCurrentThread()) return section.run(); // already exclusive
+        local.readLock().lock();
+        try {
+            acquireShared();
+            try {
+                return section.run();
+            } finally {
+                releaseShared();
+            }
+        } finally {
+            local.readLock().unlock();
+        }
+    }
+
+    /**
+     * COMMIT: Runs a section while no other thread or terminal reads or writes.
+     * Keep the section short; it blocks every reader of the data directory.
+     *
+     * @param section work to do
+     * @param <R>     result type
+     * @return result of the section
+     * @throws IOException if the lock could not be taken or the section failed
+     */
+    public <R> R exclusive(Section<R> section) throws IOException {
+        if (local.isWriteLockedByCurrentThread()) return section.run();
+        if (local.getReadHoldCount() > 0) {
+            throw new IllegalStateException("A shared data lock cannot be upgraded to an exclusive one");
+        }
+        local.writeLock().lock();
+        try {
+            FileLock lock = channel().lock(0, Long.MAX_VALUE, false);
+            try {
+                return section.run();
+            } finally {
+                lock.release();
+            }
+        } finally {
+            local.writeLock().unlock();
+        }
+    }
+
+    private void acquireShared() throws IOException {
+        synchronized (sharedMonitor) {
+            if (sharedHolders == 0) {
+                sharedLock = channel().lock(0, Long.MAX_VALUE, true);
+            }
+            sharedHolders++;
+        }
+    }
+
+    private void releaseShared() throws IOException {
+        synchronized (sharedMonitor) {
+            if (--sharedHolders == 0) {
+                sharedLock.release();
+                sharedLock = null;
+            }
+        }
+    }
+
+    private synchronized FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(lockPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        return channel;
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Door-scan index: checks an e-ticket code at the entrance and marks it used,
+ * in constant time. The tickets are kept off the Java heap, so a large index
+ * costs the garbage collector nothing; a scan only allocates short-lived
+ * scratch (none for the hash of a code that is not minted).
+ * <p>
+ * TABLE: An open-addressing hash table with linear probing, kept off-heap in
+ * a {@link MemorySegment} so that hundreds of thousands of tickets cost the
+ * garbage collector nothing. Each slot is two longs: the ticket key (0 for an
+ * empty slot) and the time it was used (0 while unused). Admitting a ticket
+ * is one CAS of that time from 0 to now, so two doors scanning the same
+ * ticket at once can never both let it in.
+ * <p>
+ * KEYS: Codes minted by {@link ETicketCodes} are keyed by their id. Any other
+ * code, including one that looks minted but fails its check characters, is
+ * keyed by a 64-bit hash of its text with the top bit set, so it can never
+ * clash with a minted id: a foreign code of the same length is still
+ * admitted, and a mistyped one is simply not found.
+ * <p>
+ * FAST REJECT: A Bloom filter (also off-heap, 4 bits set per ticket) answers
+ * "certainly not sold here" for most unknown codes without probing the table.
+ * <p>
+ * The index lives in memory for one door session: used marks are not saved.
+ *
+ * @author Rene
+ */
+public final class DoorScanIndex implements AutoCloseable {
+
+    /**
+     * Outcome of a scan.
+     */
+    public enum Result {
+        /**
+         * Valid and not used before; now marked used.
+         */
+        ADMITTED,
+        /**
+         * Valid but already used.
+         */
+        ALREADY_USED,
+        /**
+         * Mistyped, forged or sold for another showtime.
+         */
+        UNKNOWN
+    }
+
+    private static final VarHandle LONG = ValueLayout.JAVA_LONG.varHandle();
+
+    private static final long SLOT_BYTES = 16;
+    private static final long USED_AT = 8;
+
+    /**
+     * Bloom filter bits per ticket and hashes per key (about 0.2% false positives).
+     */
+    private static final int BLOOM_BITS_PER_KEY = 16;
+    private static final int BLOOM_HASHES = 4;
+
+    /**
+     * The table is never filled above this, so probes stay short.
+     */
+    private static final double MAX_LOAD = 0.5;
+
+    private final Arena arena = Arena.ofShared();
+    private final MemorySegment table;
+    private final MemorySegment bloom;
+    private final long slotMask;
+    private final long bloomMask;
+    private final int maxTickets;
+    private final AtomicInteger tickets = new AtomicInteger();
+
+    /**
+     * Creates an empty index.
+     *
+     * @param maxTickets most tickets the index will hold
+     */
+    public DoorScanIndex(int maxTickets) {
+        this.maxTickets = Math.max(1, maxTickets);
+        long slots = Long.highestOneBit((long) Math.ceil(this.maxTickets / MAX_LOAD) * 2 - 1);
+        long bloomBits = Math.max(64, Long.highestOneBit((long) this.maxTickets * BLOOM_BITS_PER_KEY * 2 - 1));
+        this.slotMask = slots - 1;
+        this.bloomMask = bloomBits - 1;
+        this.table = arena.allocate(slots * SLOT_BYTES, Long.BYTES); // zeroed: every slot empty
+        this.bloom = arena.allocate(bloomBits / 8, Long.BYTES);
+    }
+
+    /**
+     * Builds the index of every ticket sold for a showtime and not cancelled,
+     * from the {@link TicketLedger}.
+     *
+     * @param showtimeId showtime at the door
+     * @param doorSales  room for tickets sold at the door after opening
+     * @return the filled index
+     * @throws IOException if the ledger could not be read
+     */
+    public static DoorScanIndex forShowtime(int showtimeId, int doorSales) throws IOException {
+        Set<String> codes = new LinkedHashSet<>();
+        TicketLedger.getInstance().replay(entry -> {
+            if (entry.showtimeId() != showtimeId) return;
+            if (entry.cancellation()) {
+                codes.remove(entry.eTicketCode());
+            } else {
+                codes.add(entry.eTicketCode());
+            }
+        });
+        DoorScanIndex index = new DoorScanIndex(codes.size() + doorSales);
+        index.addAll(codes);
+        return index;
+    }
+
+    /**
+     * Adds a ticket that may be admitted.
+     *
+     * @param code e-ticket code
+     * @return false if the code was already in the index
+     * @throws IllegalArgumentException if the code is empty
+     * @throws IllegalStateException    if the index already holds {@code maxTickets} other tickets
+     */
+    public boolean add(String code) {
+        long key = keyOf(code);
+        if (key == 0) {
+            throw new IllegalArgumentException("E-ticket code cannot be empty.");
+        }
+        // CAPACITY: A ticket is counted before its slot is taken, so the table never passes MAX_LOAD
+        if (tickets.incrementAndGet() > maxTickets) {
+            tickets.decrementAndGet();
+            if (find(key) >= 0) return false;
+            throw new IllegalStateException("The door index is full (" + maxTickets + " tickets).");
+        }
+        long hash = mix(key);
+        addToBloom(hash); // before the key is visible, so a scan never misses it in the filter
+        for (long probe = 0; probe <= slotMask; probe++) {
+            long offset = ((hash + probe) & slotMask) * SLOT_BYTES;
+            long seen = (long) LONG.getAcquire(table, offset);
+            if (seen == key) {
+                tickets.decrementAndGet();
+                return false;
+            }
+            if (seen == 0) {
+                if (!LONG.compareAndSet(table, offset, 0L, key)) {
+                    probe--; // another door took this slot first; look at it again
+                    continue;
+                }
+                return true;
+            }
+        }
+        throw new IllegalStateException("The door index is full (" + maxTickets + " tickets).");
+    }
+
+    /**
+     * Adds several tickets.
+     *
+     * @param codes e-ticket codes
+     */
+    public void addAll(Collection<String> codes) {
+        for (String code : codes) add(code);
+    }
+
+    /**
+     * Checks a code and, if it is valid and unused, marks it used.
+     *
+     * @param code e-ticket code as scanned or typed
+     * @return whether to let the holder in
+     */
+    public Result scan(String code) {
+        long offset = find(keyOf(code));
+        if (offset < 0) return Result.UNKNOWN;
+        boolean first = LONG.compareAndSet(table, offset + USED_AT, 0L, System.currentTimeMillis());
+        return first ? Result.ADMITTED : Result.ALREADY_USED;
+    }
+
+    /**
+     * Returns when a ticket was let in.
+     *
+     * @param code e-ticket code
+     * @return time of admission, or null if unknown or not used yet
+     */
+    public Instant usedAt(String code) {
+        long offset = find(keyOf(code));
+        if (offset < 0) return null;
+        long millis = (long) LONG.getAcquire(table, offset + USED_AT);
+        return millis == 0 ? null : Instant.ofEpochMilli(millis);
+    }
+
+    /**
+     * Frees the off-heap memory; the index cannot be used afterwards.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Returns the offset of the slot of a key, or -1 if it is not in the index.
+     */
+    private long find(long key) {
+        if (key == 0) return -1;
+        long hash = mix(key);
+        if (!mightContain(hash)) return -1;
+        for (long probe = 0; probe <= slotMask; probe++) {
+            long offset = ((hash + probe) & slotMask) * SLOT_BYTES;
+            long seen = (long) LONG.getAcquire(table, offset);
+            if (seen == key) return offset;
+            if (seen == 0) return -1;
+        }
+        return -1;
+    }
+
+    private void addToBloom(long hash) {
+        long step = (hash >>> 32) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = (hash + i * step) & bloomMask;
+            LONG.getAndBitwiseOr(bloom, (bit >>> 6) * Long.BYTES, 1L << bit);
+        }
+    }
+
+    private boolean mightContain(long hash) {
+        long step = (hash >>> 32) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = (hash + i * step) & bloomMask;
+            long word = (long) LONG.getAcquire(bloom, (bit >>> 6) * Long.BYTES);
+            if ((word & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the table key of a code, or 0 if there is no code to hash.
+     */
+    private static long keyOf(String code) {
+        if (code == null || code.isBlank()) return 0;
+        String trimmed = code.trim(); // the same string unless there is something to trim
+        if (looksMinted(trimmed)) {
+            try {
+                return ETicketCodes.parse(trimmed);
+            } catch (IllegalArgumentException e) {
+                // Not one of ours, or mistyped: keyed by its text like any other code
+            }
+        }
+        // FNV-1a of the characters; the top bit keeps it apart from minted ids
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < trimmed.length(); i++) {
+            hash = (hash ^ trimmed.charAt(i)) * 0x100000001b3L;
+        }
+        return hash | Long.MIN_VALUE;
+    }
+
+    /**
+     * Minted codes have 15 characters besides dashes and spaces (typed codes may lack the dashes).
+     */
+    private static boolean looksMinted(String code) {
+        int characters = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c != '-' && c != ' ') characters++;
+        }
+        return characters == 15;
+    }
+
+    /**
+     * Spreads the bits of a key (MurmurHash3 finalizer).
+     */
+    private static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb53a5a7e92cbL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared crash-safe writer for every file of the data directory.
+ * <p>
+ * A whole-file write never truncates the live file: the new content goes to
+ * a temporary file next to it, is fsynced, and is then renamed over the old
+ * file in one atomic step, so a crash leaves either the old or the new file
+ * behind, never a half-written one.
+ * <p>
+ * GROUP COMMIT: Writes arriving within {@link #COMMIT_WINDOW_MILLIS} are
+ * committed together by one background thread. Several rewrites of the same
+ * file in one window collapse into a single write of the latest content, and
+ * appends to the same log share a single fsync. Callers block until their
+ * own write is durable: a failure only fails the writes to that file.
+ * <p>
+ * ORDER: Writes to one file are applied in the order they were made, so an
+ * append made after a rewrite is never lost under it. Writes to different
+ * files in one batch were made concurrently (a caller only returns once its
+ * write is durable), so no caller can tell their order apart.
+ *
+ * @author Rene
+ */
+public final class DurableWriter {
+
+    /**
+     * How long the committer waits to gather more writes before committing.
+     */
+    private static final long COMMIT_WINDOW_MILLIS = 10;
+
+    private static final DurableWriter INSTANCE = new DurableWriter();
+
+    /**
+     * One write of the next commit: a rewrite of a file, or appends to it.
+     * Writes of the same kind to the same file in a row join the same operation.
+     */
+    private static final class Operation {
+        final Path target;
+        final boolean append;
+        final StringBuilder lines = new StringBuilder();
+        byte[] content;
+
+        /**
+         * Completed when this operation is durable; shared by the callers that joined it.
+         */
+        final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        Operation(Path target, boolean append) {
+            this.target = target;
+            this.append = append;
+        }
+    }
+
+    /**
+     * Operations waiting for the next commit, in the order they were made.
+     */
+    private List<Operation> pending = new ArrayList<>();
+
+    /**
+     * Latest pending operation of each file, which the next write to it may join.
+     */
+    private final Map<Path, Operation> latest = new HashMap<>();
+
+    private boolean commitScheduled;
+
+    private final ScheduledExecutorService committer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "durable-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private DurableWriter() {
+    }
+
+    /**
+     * Returns the shared writer.
+     *
+     * @return writer instance
+     */
+    public static DurableWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Atomically replaces the content of a file with the given lines.
+     *
+     * @param target file to replace
+     * @param lines  new content, one entry per line (newlines are added)
+     * @throws IOException if the batch could not be committed
+     */
+    public void replace(Path target, List<String> lines) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (String line : lines) content.append(line).append('\n');
+        replace(target, content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Atomically replaces the content of a file with the given bytes.
+     *
+     * @param target  file to replace
+     * @param content new content (not copied, must not be modified afterwards)
+     * @throws IOException if the batch could not be committed
+     */
+    public void replace(Path target, byte[] content) throws IOException {
+        CompletableFuture<Void> durable;
+        synchronized (this) {
+            Operation operation = operationFor(target, false);
+            operation.content = content; // the latest content wins
+            durable = operation.durable;
+        }
+        await(durable);
+    }
+
+    /**
+     * Appends one line to a file and fsyncs it.
+     *
+     * @param target file to append to, created if missing
+     * @param line   line to append (a newline is added)
+     * @throws IOException if the batch could not be committed
+     */
+    public void append(Path target, String line) throws IOException {
+        CompletableFuture<Void> durable;
+        synchronized (this) {
+            Operation operation = operationFor(target, true);
+            operation.lines.append(line).append('\n');
+            durable = operation.durable;
+        }
+        await(durable);
+    }
+
+    /**
+     * Returns the pending operation a write joins: the file's latest one if it
+     * is of the same kind, else a new one at the end. Schedules a commit if
+     * none is pending. Caller holds the monitor.
+     */
+    private Operation operationFor(Path target, boolean append) {
+        Operation operation = latest.get(target);
+        if (operation == null || operation.append != append) {
+            operation = new Operation(target, append);
+            pending.add(operation);
+            latest.put(target, operation);
+        }
+        if (!commitScheduled) {
+            commitScheduled = true;
+            committer.schedule(this::commit, COMMIT_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return operation;
+    }
+
+    /**
+     * COMMIT: Runs the pending operations in order, releasing the callers of each as it is durable.
+     */
+    private void commit() {
+        List<Operation> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new ArrayList<>();
+            latest.clear();
+            commitScheduled = false;
+        }
+        for (Operation operation : batch) {
+            try {
+                if (operation.append) {
+                    appendAndSync(operation.target, operation.lines.toString());
+                } else {
+                    replaceAtomically(operation.target, operation.content);
+                }
+                operation.durable.complete(null);
+            } catch (IOException | RuntimeException e) {
+                operation.durable.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static void appendAndSync(Path target, String text) throws IOException {
+        try (FileChannel channel = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            writeFully(channel, ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+        }
+    }
+
+    private static void replaceAtomically(Path target, byte[] content) throws IOException {
+        // 1. Write the full content to a temp file in the same folder and fsync it
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, ByteBuffer.wrap(content));
+            channel.force(true);
+        }
+
+        // 2. Swap it in with a single rename
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // 3. Make the rename itself durable (not supported on every platform)
+        Path dir = target.toAbsolutePath().getParent();
+        try (FileChannel dirChannel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            dirChannel.force(true);
+        } catch (IOException ignored) {
+            // Windows cannot open a directory as a channel; the rename is still atomic
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    private static void await(CompletableFuture<Void> durable) throws IOException {
+        try {
+            durable.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            throw new IOException("Commit failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for commit");
+        }
+    }
+}
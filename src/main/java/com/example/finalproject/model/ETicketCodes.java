@@ -0,0 +1,300 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Mints unique, self-checking e-ticket codes without any coordination
+ * between terminals or threads.
+ * <p>
+ * LAYOUT: A code is a 63-bit number, Snowflake style:
+ * <pre>
+ *   41 bits  milliseconds since 2024-01-01 (good until 2093)
+ *    8 bits  terminal (0-255)
+ *    4 bits  stripe (0-15), picked by the calling thread
+ *   10 bits  sequence within the millisecond
+ * </pre>
+ * Each stripe advances its own (millisecond, sequence) counter with one CAS,
+ * so threads on different stripes never touch the same memory and no lock is
+ * ever taken: 16 stripes of 1024 codes per millisecond each. When a stripe
+ * runs out of sequence numbers it moves on to the next millisecond early
+ * instead of waiting (it only runs ahead of the clock above a million codes a
+ * second), and a clock set back never makes it reuse a value.
+ * <p>
+ * TERMINAL: Each running terminal claims a free id once at startup with a
+ * file lock on "terminal-&lt;id&gt;.lock" in the data directory (or takes the
+ * "finalproject.terminal" system property), so codes of two terminals can
+ * never collide.
+ * <p>
+ * TEXT: The number is written as 13 Crockford base-32 characters followed by
+ * two check characters, in groups of five ("0K3XN-4D2QW-8ZRJ7"). Reading a
+ * code ignores case and dashes, and a mistyped character (or most swaps of
+ * two neighbours) fails the check instead of matching another ticket.
+ *
+ * @author Rene
+ */
+public final class ETicketCodes {
+
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int SEQUENCE_BITS = 10;
+    private static final int STRIPE_BITS = 4;
+    private static final int TERMINAL_BITS = 8;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int MAX_TERMINALS = 1 << TERMINAL_BITS;
+
+    /**
+     * Longs between two stripes' counters, so each sits on its own cache line.
+     */
+    private static final int PADDING = 8;
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final int DATA_CHARS = 13;
+    private static final int CODE_CHARS = DATA_CHARS + 2;
+
+    /**
+     * SINGLETON: One generator per terminal; it holds the terminal's claim.
+     * Created on first use, so reading or checking a code never claims a terminal.
+     */
+    private static final class Shared {
+        static final ETicketCodes INSTANCE = new ETicketCodes();
+    }
+
+    private final int terminal;
+
+    /**
+     * (milliseconds << SEQUENCE_BITS | sequence) of the last code of each stripe.
+     */
+    private final AtomicLongArray stripes = new AtomicLongArray(STRIPES * PADDING);
+
+    /**
+     * Kept open for the life of the terminal; closing it would free the id.
+     */
+    @SuppressWarnings("unused")
+    private FileLock terminalClaim;
+
+    private ETicketCodes() {
+        this.terminal = claimTerminal();
+    }
+
+    /**
+     * Creates a generator for a given terminal id, without claiming it.
+     * The application uses {@link #getInstance()}; this is for tests.
+     *
+     * @param terminal terminal id, 0-255
+     */
+    ETicketCodes(int terminal) {
+        this.terminal = checkTerminal(terminal);
+    }
+
+    /**
+     * Returns the shared code generator.
+     *
+     * @return generator instance
+     */
+    public static ETicketCodes getInstance() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Returns the id this terminal puts in its codes.
+     *
+     * @return terminal id, 0-255
+     */
+    public int getTerminal() {
+        return terminal;
+    }
+
+    /**
+     * Mints a new code.
+     *
+     * @return e-ticket code, e.g. "0K3XN-4D2QW-8ZRJ7"
+     */
+    public String next() {
+        return format(nextId());
+    }
+
+    /**
+     * Mints a new code as a number.
+     *
+     * @return unique positive id
+     */
+    public long nextId() {
+        int stripe = (int) (Thread.currentThread().threadId() & (STRIPES - 1));
+        int slot = stripe * PADDING;
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long last = stripes.get(slot);
+            // Next sequence number, or the start of the current millisecond if the clock moved on
+            long next = Math.max(last + 1, now);
+            if (stripes.compareAndSet(slot, last, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                long sequence = next & ((1 << SEQUENCE_BITS) - 1);
+                return millis << (TERMINAL_BITS + STRIPE_BITS + SEQUENCE_BITS)
+                        | (long) terminal << (STRIPE_BITS + SEQUENCE_BITS)
+                        | (long) stripe << SEQUENCE_BITS
+                        | sequence;
+            }
+        }
+    }
+
+    /**
+     * Writes an id as a code with its check characters.
+     *
+     * @param id id from {@link #nextId()}
+     * @return code in groups of five
+     */
+    public static String format(long id) {
+        int[] digits = new int[CODE_CHARS];
+        long rest = id;
+        for (int i = DATA_CHARS - 1; i >= 0; i--) {
+            digits[i] = (int) (rest & 31);
+            rest >>>= 5;
+        }
+        digits[DATA_CHARS] = luhnCheck(digits);
+        digits[DATA_CHARS + 1] = weightedCheck(digits);
+        StringBuilder code = new StringBuilder(CODE_CHARS + 2);
+        for (int i = 0; i < CODE_CHARS; i++) {
+            if (i > 0 && i % 5 == 0) code.append('-');
+            code.append(ALPHABET.charAt(digits[i]));
+        }
+        return code.toString();
+    }
+
+    /**
+     * Reads a code back into its id.
+     *
+     * @param code code as printed or typed (case and dashes do not matter)
+     * @return the id
+     * @throws IllegalArgumentException if the code is malformed or fails its check
+     */
+    public static long parse(String code) {
+        if (code == null) {
+            throw new IllegalArgumentException("E-ticket code cannot be empty.");
+        }
+        int[] digits = new int[CODE_CHARS];
+        int count = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '-' || c == ' ') continue;
+            int digit = digitOf(c);
+            if (digit < 0 || count == CODE_CHARS) {
+                throw new IllegalArgumentException("\"" + code + "\" is not an e-ticket code.");
+            }
+            digits[count++] = digit;
+        }
+        if (count != CODE_CHARS || digits[0] > 7) { // 13 characters carry 65 bits; the top two are unused
+            throw new IllegalArgumentException("\"" + code + "\" is not an e-ticket code.");
+        }
+        if (digits[DATA_CHARS] != luhnCheck(digits) || digits[DATA_CHARS + 1] != weightedCheck(digits)) {
+            throw new IllegalArgumentException("E-ticket code \"" + code + "\" fails its check; it was probably mistyped.");
+        }
+        long id = 0;
+        for (int i = 0; i < DATA_CHARS; i++) id = (id << 5) | digits[i];
+        return id;
+    }
+
+    /**
+     * Returns true if a code is well formed and passes its check.
+     *
+     * @param code code to check
+     * @return true if valid
+     */
+    public static boolean isValid(String code) {
+        try {
+            parse(code);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns when a code was minted.
+     *
+     * @param id id of the code
+     * @return minting time, to the millisecond
+     */
+    public static Instant issuedAt(long id) {
+        return Instant.ofEpochMilli((id >>> (TERMINAL_BITS + STRIPE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+
+    /**
+     * Returns the terminal that minted a code.
+     *
+     * @param id id of the code
+     * @return terminal id
+     */
+    public static int terminalOf(long id) {
+        return (int) (id >>> (STRIPE_BITS + SEQUENCE_BITS)) & (MAX_TERMINALS - 1);
+    }
+
+    /**
+     * Luhn mod 32 over the data characters: catches any single wrong character
+     * and most swaps of neighbours.
+     */
+    private static int luhnCheck(int[] digits) {
+        int sum = 0;
+        for (int i = DATA_CHARS - 1, factor = 2; i >= 0; i--, factor = 3 - factor) {
+            int product = digits[i] * factor;
+            sum += product / 32 + product % 32;
+        }
+        return (32 - sum % 32) % 32;
+    }
+
+    /**
+     * Sum of the data characters with odd position weights, mod 32.
+     */
+    private static int weightedCheck(int[] digits) {
+        int sum = 0;
+        for (int i = 0; i < DATA_CHARS; i++) sum += digits[i] * (2 * i + 1);
+        return sum & 31;
+    }
+
+    private static int digitOf(char c) {
+        char upper = Character.toUpperCase(c);
+        if (upper == 'O') return 0;
+        if (upper == 'I' || upper == 'L') return 1;
+        return ALPHABET.indexOf(upper);
+    }
+
+    private static int checkTerminal(int id) {
+        if (id < 0 || id >= MAX_TERMINALS) {
+            throw new IllegalArgumentException("Terminal id must be between 0 and " + (MAX_TERMINALS - 1) + ".");
+        }
+        return id;
+    }
+
+    /**
+     * Claims the lowest terminal id no other running terminal holds.
+     */
+    private int claimTerminal() {
+        String configured = System.getProperty("finalproject.terminal");
+        if (configured != null) {
+            return checkTerminal(Integer.parseInt(configured.trim()));
+        }
+        for (int id = 0; id < MAX_TERMINALS; id++) {
+            Path path = Paths.get(CsvRepository.DATA_DIR, "terminal-" + id + ".lock");
+            try {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                FileLock lock = channel.tryLock();
+                if (lock != null) {
+                    terminalClaim = lock;
+                    System.out.println("TERMINAL: Minting e-ticket codes as terminal " + id);
+                    return id;
+                }
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not claim a terminal id in " + CsvRepository.DATA_DIR, e);
+            }
+        }
+        throw new IllegalStateException("All " + MAX_TERMINALS + " terminal ids are in use.");
+    }
+}
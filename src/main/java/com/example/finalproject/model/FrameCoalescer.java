@@ -0,0 +1,159 @@
+package com.example.finalproject.model;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Hands values from background threads to the JavaFX thread at most once
+ * per frame, however often they change.
+ * <p>
+ * DIRTY FLAGS: Each key (e.g. a table row) has one pending slot; a newer
+ * value replaces the one not yet shown, so a row updated a thousand times
+ * between two frames is redrawn once, with its latest value.
+ * <p>
+ * PULSE: The pending values are applied from an {@link AnimationTimer}, i.e.
+ * in step with the frames the screen draws anyway, instead of one
+ * {@code Platform.runLater} per update. The timer only runs while there is
+ * something to apply: the first update after a quiet frame starts it, and it
+ * stops after a frame with nothing to do, so an idle screen costs nothing.
+ *
+ * @param <K> key of what changed
+ * @param <V> its new value
+ * @author Rene
+ */
+public final class FrameCoalescer<K, V> {
+
+    /**
+     * Calls a frame handler once per frame while started.
+     */
+    interface Pulse {
+
+        /**
+         * Starts the frames. Safe from any thread.
+         */
+        void start();
+
+        /**
+         * Stops the frames. Called on the thread the frames run on.
+         */
+        void stop();
+    }
+
+    private final Map<K, V> pending = new ConcurrentHashMap<>();
+    private final Consumer<Map<K, V>> apply;
+    private final Pulse timer;
+
+    /**
+     * True while the timer runs or is about to start.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean stopped;
+
+    /**
+     * Creates a coalescer.
+     *
+     * @param apply runs on the JavaFX thread, once per frame with pending values, with all of them
+     */
+    public FrameCoalescer(Consumer<Map<K, V>> apply) {
+        this(apply, FrameCoalescer::animationPulse);
+    }
+
+    /**
+     * Creates a coalescer driven by another source of frames.
+     *
+     * @param apply runs once per frame with pending values, with all of them
+     * @param pulse makes the pulse that calls the given frame handler
+     */
+    FrameCoalescer(Consumer<Map<K, V>> apply, Function<Runnable, Pulse> pulse) {
+        this.apply = apply;
+        this.timer = pulse.apply(this::flush);
+    }
+
+    /**
+     * Marks a key changed. Safe from any thread.
+     *
+     * @param key   what changed
+     * @param value its new value; replaces one not applied yet
+     */
+    public void put(K key, V value) {
+        put(key, value, (pendingValue, newValue) -> newValue);
+    }
+
+    /**
+     * Marks a key changed, keeping the newer of its pending value and the new
+     * one, for values that may be posted out of order. Safe from any thread.
+     *
+     * @param key   what changed
+     * @param value its new value
+     * @param newer returns whichever of the pending value and the new one to keep
+     */
+    public void put(K key, V value, BinaryOperator<V> newer) {
+        if (stopped) return;
+        pending.merge(key, value, newer);
+        if (scheduled.compareAndSet(false, true)) {
+            timer.start(); // once per quiet-to-busy change, not per update
+        }
+    }
+
+    /**
+     * Stops applying values, e.g. when the screen is left. Call on the JavaFX thread.
+     */
+    public void stop() {
+        stopped = true;
+        timer.stop();
+        pending.clear();
+    }
+
+    /**
+     * Applies what changed since the last frame; stops the timer after a quiet frame.
+     */
+    private void flush() {
+        if (stopped) {
+            timer.stop();
+            return;
+        }
+        if (pending.isEmpty()) {
+            scheduled.set(false);
+            // An update may have arrived just before the flag was cleared; it saw the timer running
+            if (pending.isEmpty() || !scheduled.compareAndSet(false, true)) timer.stop();
+            return;
+        }
+        Map<K, V> batch = new HashMap<>();
+        for (K key : pending.keySet()) {
+            V value = pending.remove(key);
+            if (value != null) batch.put(key, value);
+        }
+        apply.accept(batch);
+    }
+
+    /**
+     * The frames of the JavaFX scene graph, started from the JavaFX thread.
+     */
+    private static Pulse animationPulse(Runnable frame) {
+        AnimationTimer timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                frame.run();
+            }
+        };
+        return new Pulse() {
+            @Override
+            public void start() {
+                Platform.runLater(timer::start);
+            }
+
+            @Override
+            public void stop() {
+                timer.stop();
+            }
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent id allocator for one entity.
+ * <p>
+ * Ids are handed out from an {@link AtomicLong} with a compare-and-set, so
+ * concurrent inserts never get the same id and never scan the data file.
+ * The allocator reserves ids in blocks of {@link #BLOCK_SIZE}: the end of the
+ * current block is written to a small ".seq" file before any id of the block
+ * is used, and a restart continues after the last reserved block. Ids of an
+ * unfinished block are skipped, never reused.
+ * <p>
+ * Blocks are reserved under the exclusive {@link DataLock} of the repository
+ * and always start after the limit found in the file, so terminals sharing a
+ * data directory get disjoint blocks.
+ *
+ * @author Rene
+ */
+public class IdSequence {
+
+    /**
+     * Number of ids reserved by one write of the sequence file.
+     */
+    private static final long BLOCK_SIZE = 100;
+
+    private final Path sequencePath;
+    private final DataLock lock;
+
+    /**
+     * Next id to hand out.
+     */
+    private final AtomicLong next = new AtomicLong();
+
+    /**
+     * First id that is NOT covered by the persisted reservation.
+     */
+    private volatile long reservedLimit;
+
+    /**
+     * Lowest id the next block may start at, for ids seen beyond the current block.
+     */
+    private long floorHint;
+
+    /**
+     * Opens the sequence stored at the given path.
+     *
+     * @param sequencePath path of the ".seq" file
+     * @param floor        lowest id that may be handed out (highest existing id + 1)
+     * @param lock         lock of the repository the ids belong to
+     */
+    public IdSequence(String sequencePath, long floor, DataLock lock) {
+        this.sequencePath = Paths.get(sequencePath);
+        this.lock = lock;
+        long persisted = readLimit();
+        long start = Math.max(Math.max(persisted, floor), 1);
+        next.set(start);
+        reservedLimit = persisted;
+    }
+
+    /**
+     * Allocates the next id. Lock-free except when a new block must be reserved.
+     *
+     * @return a never-used id
+     * @throws IOException if a new block could not be persisted
+     */
+    public long next() throws IOException {
+        while (true) {
+            long id = next.get();
+            if (id < reservedLimit) {
+                if (next.compareAndSet(id, id + 1)) return id;
+            } else {
+                reserveBlock();
+            }
+        }
+    }
+
+    /**
+     * Moves the sequence past ids that appeared in the data file from elsewhere.
+     * Ids beyond the current block (typically another terminal's block) do not
+     * burn the rest of this block; the next block simply starts above them.
+     *
+     * @param floor lowest id that may be handed out from now on
+     */
+    public synchronized void advanceTo(long floor) {
+        if (floor >= reservedLimit) {
+            floorHint = Math.max(floorHint, floor);
+            return;
+        }
+        long current;
+        do {
+            current = next.get();
+            if (current >= floor) return;
+        } while (!next.compareAndSet(current, floor));
+    }
+
+    /**
+     * SLOW PATH: Persists a new block end, once per {@link #BLOCK_SIZE} ids.
+     */
+    private void reserveBlock() throws IOException {
+        // Data lock first, then this monitor: the same order as a commit that advances the sequence
+        lock.exclusive(() -> {
+            synchronized (this) {
+                if (next.get() < reservedLimit) return null; // another thread already reserved
+                // Another terminal may have reserved ids since we last looked
+                long start = Math.max(Math.max(next.get(), readLimit()), floorHint);
+                long limit = start + BLOCK_SIZE;
+                DurableWriter.getInstance().replace(sequencePath, List.of(Long.toString(limit)));
+                next.accumulateAndGet(start, Math::max);
+                reservedLimit = limit;
+                return null;
+            }
+        });
+    }
+
+    private long readLimit() {
+        try {
+            if (!Files.exists(sequencePath)) return 0;
+            return Long.parseLong(Files.readString(sequencePath, StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("SEQUENCE: Ignoring unreadable " + sequencePath);
+            return 0;
+        }
+    }
+}
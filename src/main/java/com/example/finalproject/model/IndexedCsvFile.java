@@ -0,0 +1,276 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A CSV file with a persisted primary-key index, so that one record can be
+ * read, replaced or deleted without scanning or rewriting the whole file.
+ * <p>
+ * TOMBSTONES: A deleted record is overwritten in place with spaces of the
+ * same length. Every CSV reader of the project already skips blank lines, so
+ * the file stays a valid CSV. An edit appends the new version at the end of
+ * the file and then blanks the old one (if we crash in between, the later
+ * line wins on reload).
+ * <p>
+ * INDEX: "&lt;file&gt;.idx" is an append-only text log of
+ * {@code id,offset,length,csvSize} entries; a negative offset means deleted.
+ * The last entry records the CSV size it was written for, so an index that
+ * does not match its CSV file (edited by hand, older version) is detected and
+ * rebuilt with one scan. When blanked bytes outweigh live ones the owner
+ * compacts the file with {@link #rewrite}.
+ *
+ * @author Rene
+ */
+public class IndexedCsvFile {
+
+    /**
+     * Dead bytes below this size are never worth a compaction.
+     */
+    private static final long MIN_COMPACTION_BYTES = 4096;
+
+    private final Path csvPath;
+    private final Path indexPath;
+
+    /**
+     * id -> {offset, length} of the live line of each record.
+     */
+    private final Map<Integer, long[]> index = new HashMap<>();
+
+    private long liveBytes;
+    private long deadBytes;
+    private boolean open;
+
+    /**
+     * Creates the store for a CSV file; the index lives next to it.
+     *
+     * @param csvPath path of the CSV file
+     */
+    public IndexedCsvFile(String csvPath) {
+        this.csvPath = Paths.get(csvPath);
+        this.indexPath = Paths.get(csvPath + ".idx");
+    }
+
+    /**
+     * Loads the index, rebuilding it from the CSV file if it is missing or stale.
+     *
+     * @throws IOException if the files could not be read
+     */
+    public synchronized void open() throws IOException {
+        if (open) return;
+        long csvSize = Files.exists(csvPath) ? Files.size(csvPath) : 0;
+        if (!loadIndex(csvSize)) {
+            rebuildIndex();
+        }
+        open = true;
+    }
+
+    /**
+     * Forgets the loaded index so that the next access reloads (or rebuilds) it,
+     * e.g. after another process changed the CSV file.
+     */
+    public synchronized void reopen() {
+        open = false;
+    }
+
+    /**
+     * O(1) LOOKUP: Reads the current CSV line of a record straight from its offset.
+     *
+     * @param id primary key
+     * @return the CSV line, or null if there is no such record
+     * @throws IOException if the file could not be read
+     */
+    public synchronized String read(int id) throws IOException {
+        open();
+        long[] entry = index.get(id);
+        if (entry == null) return null;
+        ByteBuffer buffer = ByteBuffer.allocate((int) entry[1]);
+        try (FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, entry[0] + buffer.position()) < 0) break;
+            }
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Returns true if a record with this id is stored.
+     *
+     * @param id primary key
+     * @return true if present
+     * @throws IOException if the index could not be loaded
+     */
+    public synchronized boolean contains(int id) throws IOException {
+        open();
+        return index.containsKey(id);
+    }
+
+    /**
+     * INSERT / UPDATE: Appends the new line, then blanks the previous version if any.
+     *
+     * @param id      primary key
+     * @param csvLine full CSV line of the record
+     * @throws IOException if the file could not be written
+     */
+    public synchronized void put(int id, String csvLine) throws IOException {
+        open();
+        byte[] bytes = (csvLine + "\n").getBytes(StandardCharsets.UTF_8);
+        long offset;
+        try (FileChannel channel = FileChannel.open(csvPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            offset = channel.size();
+            if (offset > 0 && !endsWithNewline(channel, offset)) {
+                writeAt(channel, offset, new byte[]{'\n'});
+                offset++;
+            }
+            writeAt(channel, offset, bytes);
+            channel.force(false);
+            long[] previous = index.get(id);
+            if (previous != null) blank(channel, previous);
+        }
+        long[] previous = index.put(id, new long[]{offset, bytes.length - 1});
+        if (previous != null) {
+            liveBytes -= previous[1];
+            deadBytes += previous[1];
+        }
+        liveBytes += bytes.length - 1;
+        appendIndexEntry(id, offset, bytes.length - 1);
+    }
+
+    /**
+     * DELETE: Blanks the line of a record in place.
+     *
+     * @param id primary key
+     * @return true if a record was removed
+     * @throws IOException if the file could not be written
+     */
+    public synchronized boolean remove(int id) throws IOException {
+        open();
+        long[] previous = index.get(id);
+        if (previous == null) return false;
+        try (FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.WRITE)) {
+            blank(channel, previous);
+        }
+        index.remove(id);
+        liveBytes -= previous[1];
+        deadBytes += previous[1];
+        appendIndexEntry(id, -1, 0);
+        return true;
+    }
+
+    /**
+     * Returns true when blanked records take more space than live ones.
+     *
+     * @return true if {@link #rewrite} is worth running
+     */
+    public synchronized boolean needsCompaction() {
+        return deadBytes > MIN_COMPACTION_BYTES && deadBytes > liveBytes;
+    }
+
+    /**
+     * COMPACTION: Atomically replaces the file with the given lines and rebuilds the index.
+     *
+     * @param lines every live CSV line, in order
+     * @throws IOException if the files could not be written
+     */
+    public synchronized void rewrite(List<String> lines) throws IOException {
+        DurableWriter.getInstance().replace(csvPath, lines);
+        rebuildIndex();
+        open = true;
+    }
+
+    /**
+     * Scans the CSV file once and writes a fresh index for it.
+     */
+    private void rebuildIndex() throws IOException {
+        index.clear();
+        liveBytes = 0;
+        deadBytes = 0;
+        List<String> entries = new ArrayList<>();
+        long csvSize = Files.exists(csvPath) ? Files.size(csvPath) : 0;
+        MappedCsvReader.read(csvPath, row -> {
+            try {
+                int id = row.getInt(0);
+                long[] previous = index.put(id, new long[]{row.offset(), row.length()});
+                if (previous != null) liveBytes -= previous[1];
+                liveBytes += row.length();
+                entries.add(id + "," + row.offset() + "," + row.length() + "," + csvSize);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                // Malformed lines are not indexed; the repository reports them
+            }
+        });
+        // Everything that is not a live line or its newline is blank space
+        deadBytes = Math.max(0, csvSize - liveBytes - index.size());
+        entries.add("-1,-1,0," + csvSize); // marks the index as complete for this CSV size
+        DurableWriter.getInstance().replace(indexPath, entries);
+    }
+
+    /**
+     * Replays the index log.
+     *
+     * @return false if the index is missing, malformed or does not match the CSV size
+     */
+    private boolean loadIndex(long csvSize) throws IOException {
+        index.clear();
+        liveBytes = 0;
+        deadBytes = 0;
+        if (!Files.exists(indexPath)) return false;
+        long lastCsvSize = -1;
+        for (String line : Files.readAllLines(indexPath, StandardCharsets.UTF_8)) {
+            String[] parts = line.split(",");
+            if (parts.length < 4) return false;
+            try {
+                int id = Integer.parseInt(parts[0]);
+                long offset = Long.parseLong(parts[1]);
+                int length = Integer.parseInt(parts[2]);
+                lastCsvSize = Long.parseLong(parts[3]);
+                if (id < 0 && offset < 0) continue; // completion marker
+                long[] previous = offset < 0 ? index.remove(id) : index.put(id, new long[]{offset, length});
+                if (previous != null) {
+                    liveBytes -= previous[1];
+                    deadBytes += previous[1];
+                }
+                if (offset >= 0) liveBytes += length;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return lastCsvSize == csvSize;
+    }
+
+    private void appendIndexEntry(int id, long offset, int length) throws IOException {
+        long csvSize = Files.size(csvPath);
+        DurableWriter.getInstance().append(indexPath, id + "," + offset + "," + length + "," + csvSize);
+    }
+
+    private static void blank(FileChannel channel, long[] entry) throws IOException {
+        byte[] spaces = new byte[(int) entry[1]];
+        Arrays.fill(spaces, (byte) ' ');
+        writeAt(channel, entry[0], spaces);
+        channel.force(false);
+    }
+
+    private static boolean endsWithNewline(FileChannel channel, long size) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        return last.get(0) == '\n';
+    }
+
+    private static void writeAt(FileChannel channel, long position, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
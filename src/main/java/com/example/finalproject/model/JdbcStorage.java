@@ -0,0 +1,284 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The embedded-database {@link StorageBackend}: one table per entity in a
+ * single H2 database file of the data directory ("grandview.mv.db").
+ * <p>
+ * Every CSV field of a record becomes one column, so the repositories keep
+ * using their CSV line as the record format. Columns flagged as indexed get a
+ * B-tree index, which lets {@link #findIds} answer range queries (showtimes of
+ * a date range, of a room, of a movie) without a full scan.
+ * <p>
+ * MIGRATION: When a table is created it is filled once from the CSV storage
+ * of the same entity (all its files, archived ones included), so switching a
+ * data directory to this backend keeps its data.
+ * <p>
+ * The database runs with {@code AUTO_SERVER=TRUE}, so several terminals can
+ * open the same file at once. The URL can be overridden with
+ * {@code -Dgrandview.jdbc.url=...}.
+ *
+ * @param <T> type of record stored
+ * @author Rene
+ */
+public class JdbcStorage<T> implements StorageBackend<T> {
+
+    /**
+     * Name of the database inside {@link CsvRepository#DATA_DIR} (H2 adds ".mv.db").
+     */
+    private static final String DATABASE_NAME = "grandview";
+
+    /**
+     * Connection shared by every table of the process, opened on first use.
+     */
+    private static Connection connection;
+
+    /**
+     * One column of a table, in CSV field order. The first column is the primary key.
+     *
+     * @param name    SQL column name
+     * @param numeric true for an INT column, false for VARCHAR
+     * @param indexed true to create a secondary index on the column
+     */
+    public record Column(String name, boolean numeric, boolean indexed) {
+    }
+
+    private final CsvRepository<T> owner;
+    private final String table;
+    private final String csvFileName;
+    private final Column[] columns;
+    private final String columnList;
+
+    /**
+     * CSV storage a new table is filled from.
+     */
+    private final StorageBackend<T> importSource;
+    private boolean created;
+
+    /**
+     * Creates the database storage of a repository.
+     *
+     * @param owner       repository providing parse/format
+     * @param csvFileName  CSV file the table is named after
+     * @param columns      columns in CSV field order, primary key first
+     * @param importSource CSV storage a new table is filled from
+     */
+    public JdbcStorage(CsvRepository<T> owner, String csvFileName, Column[] columns, StorageBackend<T> importSource) {
+        this.owner = owner;
+        this.importSource = importSource;
+        this.csvFileName = csvFileName;
+        this.table = csvFileName.substring(0, csvFileName.lastIndexOf('.')).toUpperCase();
+        this.columns = columns.clone();
+        StringBuilder list = new StringBuilder();
+        for (Column column : columns) {
+            if (!list.isEmpty()) list.append(", ");
+            list.append(column.name());
+        }
+        this.columnList = list.toString();
+    }
+
+    @Override
+    public synchronized void load(Map<Integer, T> target) throws IOException {
+        reload(target);
+    }
+
+    @Override
+    public synchronized void reload(Map<Integer, T> target) throws IOException {
+        try {
+            ensureTable();
+            try (Statement statement = connection().createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT " + columnList + " FROM " + table + " ORDER BY " + columns[0].name())) {
+                StringBuilder line = new StringBuilder();
+                while (rs.next()) {
+                    // The CSV line stays the record format of the repositories
+                    line.setLength(0);
+                    for (int i = 0; i < columns.length; i++) {
+                        if (i > 0) line.append(',');
+                        line.append(rs.getString(i + 1));
+                    }
+                    owner.putLine(target, line.toString());
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("JDBC: Could not read " + table, e);
+        }
+    }
+
+    @Override
+    public synchronized void upsert(T item) throws IOException {
+        try {
+            ensureTable();
+            try (PreparedStatement statement = connection().prepareStatement(
+                    "MERGE INTO " + table + " (" + columnList + ") KEY (" + columns[0].name() + ") VALUES (" + placeholders() + ")")) {
+                bind(statement, owner.toCSV(item));
+                statement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new IOException("JDBC: Could not save into " + table, e);
+        }
+    }
+
+    @Override
+    public synchronized void delete(int id) throws IOException {
+        try {
+            ensureTable();
+            try (PreparedStatement statement = connection().prepareStatement(
+                    "DELETE FROM " + table + " WHERE " + columns[0].name() + " = ?")) {
+                statement.setInt(1, id);
+                statement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new IOException("JDBC: Could not delete from " + table, e);
+        }
+    }
+
+    /**
+     * The database reclaims its own space.
+     */
+    @Override
+    public boolean needsCompaction() {
+        return false;
+    }
+
+    @Override
+    public boolean compact(Collection<T> records) {
+        return false;
+    }
+
+    @Override
+    public List<String> watchedFiles() {
+        return List.of(DATABASE_NAME + ".mv.db");
+    }
+
+    @Override
+    public void reopen() {
+        // Nothing cached outside the database
+    }
+
+    @Override
+    public synchronized List<Integer> findIds(String column, Object from, Object to) throws IOException {
+        Column indexed = null;
+        for (Column candidate : columns) {
+            if (candidate.name().equalsIgnoreCase(column)) indexed = candidate;
+        }
+        if (indexed == null) throw new IllegalArgumentException("Unknown column " + column + " in " + table);
+        try {
+            ensureTable();
+            try (PreparedStatement statement = connection().prepareStatement(
+                    "SELECT " + columns[0].name() + " FROM " + table + " WHERE " + indexed.name()
+                            + " BETWEEN ? AND ? ORDER BY " + columns[0].name())) {
+                statement.setObject(1, from);
+                statement.setObject(2, to);
+                List<Integer> ids = new ArrayList<>();
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) ids.add(rs.getInt(1));
+                }
+                return ids;
+            }
+        } catch (SQLException e) {
+            throw new IOException("JDBC: Query on " + table + "." + column + " failed", e);
+        }
+    }
+
+    /**
+     * Creates the table and its indexes on first use, importing the CSV file if the table is new.
+     */
+    private void ensureTable() throws SQLException, IOException {
+        if (created) return;
+        Connection db = connection();
+        boolean exists;
+        try (ResultSet rs = db.getMetaData().getTables(null, null, table, null)) {
+            exists = rs.next();
+        }
+        if (!exists) {
+            StringBuilder ddl = new StringBuilder("CREATE TABLE " + table + " (");
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) ddl.append(", ");
+                ddl.append(columns[i].name()).append(columns[i].numeric() ? " INT DEFAULT 0" : " VARCHAR(255)");
+                if (i == 0) ddl.append(" PRIMARY KEY");
+            }
+            ddl.append(')');
+            try (Statement statement = db.createStatement()) {
+                statement.execute(ddl.toString());
+                for (Column column : columns) {
+                    if (!column.indexed()) continue;
+                    statement.execute("CREATE INDEX IF NOT EXISTS " + table + "_" + column.name()
+                            + " ON " + table + " (" + column.name() + ")");
+                }
+            }
+            importCsv(db);
+        } else {
+            // Tables created by an older version may lack newer columns (e.g. VERSION)
+            try (Statement statement = db.createStatement()) {
+                for (Column column : columns) {
+                    statement.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS " + column.name()
+                            + (column.numeric() ? " INT DEFAULT 0" : " VARCHAR(255) DEFAULT ''"));
+                }
+            }
+        }
+        created = true;
+    }
+
+    /**
+     * MIGRATION: Copies the records of the CSV storage into the new table in one batch.
+     */
+    private void importCsv(Connection db) throws SQLException, IOException {
+        Map<Integer, T> records = new LinkedHashMap<>();
+        importSource.load(records);
+        importSource.loadRange(null, null, records);
+        try (PreparedStatement statement = db.prepareStatement(
+                "MERGE INTO " + table + " (" + columnList + ") KEY (" + columns[0].name() + ") VALUES (" + placeholders() + ")")) {
+            for (T item : records.values()) {
+                bind(statement, owner.toCSV(item));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        System.out.println("JDBC: Imported " + records.size() + " rows of " + csvFileName + " into " + table);
+    }
+
+    /**
+     * Binds the fields of a CSV line to the columns of a statement.
+     */
+    private void bind(PreparedStatement statement, String csvLine) throws SQLException {
+        CsvRow row = CsvRow.of(csvLine);
+        for (int i = 0; i < columns.length; i++) {
+            if (i >= row.fieldCount()) {
+                // Trailing columns missing from older CSV lines (e.g. VERSION) get their default
+                if (columns[i].numeric()) statement.setInt(i + 1, 0);
+                else statement.setString(i + 1, "");
+            } else if (columns[i].numeric()) {
+                statement.setInt(i + 1, row.getInt(i));
+            } else {
+                statement.setString(i + 1, row.getString(i));
+            }
+        }
+    }
+
+    private String placeholders() {
+        return "?" + ", ?".repeat(columns.length - 1);
+    }
+
+    private static synchronized Connection connection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            String url = System.getProperty("grandview.jdbc.url",
+                    "jdbc:h2:file:" + Paths.get(CsvRepository.DATA_DIR, DATABASE_NAME).toAbsolutePath() + ";AUTO_SERVER=TRUE");
+            connection = DriverManager.getConnection(url);
+            System.out.println("JDBC: Connected to " + url);
+        }
+        return connection;
+    }
+}
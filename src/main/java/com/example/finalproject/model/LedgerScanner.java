@@ -0,0 +1,212 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads one byte range of the {@link TicketLedger} into {@link SalesColumns},
+ * so that several scanners can read the ledger in parallel.
+ * <p>
+ * RESYNC: A range starts at an arbitrary byte, usually inside a record. The
+ * scanner moves forward to the first offset holding a complete record whose
+ * checksum matches and which is followed by another one (or by the end), so
+ * a few payload bytes that happen to look like a header are never taken for
+ * a record. Each scanner reads the records that start inside its range; the
+ * last one may end past it. Together, the ranges read every record once.
+ * <p>
+ * Reads use positional reads of a shared {@link FileChannel} into a window
+ * owned by the scanner: nothing is decoded into objects, and the ledger can
+ * grow while it is read (only the bytes up to the size taken at the start
+ * are read).
+ * <p>
+ * Not thread-safe: one scanner per thread.
+ *
+ * @author Rene
+ */
+final class LedgerScanner {
+
+    private static final int WINDOW_BYTES = 256 * 1024;
+
+    /**
+     * Result of {@link #check} for a record that runs past the end (a torn last write).
+     */
+    private static final int TORN = -2;
+    private static final int DAMAGED = -1;
+
+    private final FileChannel channel;
+    private final long end;
+    private final byte[] window = new byte[WINDOW_BYTES + TicketLedger.HEADER_BYTES + TicketLedger.MAX_PAYLOAD_BYTES];
+    private final ByteBuffer windowBuffer = ByteBuffer.wrap(window);
+    private final CRC32C crc = new CRC32C();
+    private long windowStart;
+    private int windowLength;
+
+    /**
+     * Creates a scanner over the first {@code end} bytes of the ledger.
+     *
+     * @param channel ledger opened for reading, shared by the scanners
+     * @param end     ledger size when the report started
+     */
+    LedgerScanner(FileChannel channel, long end) {
+        this.channel = channel;
+        this.end = end;
+    }
+
+    /**
+     * Decodes the sales and cancellations whose records start in a byte range
+     * and whose sale was made in a time range, handing the columns to {@code sink} each time
+     * they are full, and once more at the end.
+     *
+     * @param from     first byte of the range
+     * @param to       end of the range, exclusive
+     * @param fromTime first purchase time to keep, in {@link SalesColumns#pack} form
+     * @param toTime   end of the purchase times to keep, exclusive
+     * @param columns  columns to fill (cleared after each hand-over)
+     * @param sink     receives the filled columns
+     * @return offset of a damaged or torn record, which ends the readable ledger, or -1
+     * @throws IOException if the ledger could not be read
+     */
+    long scan(long from, long to, long fromTime, long toTime,
+              SalesColumns columns, Consumer<SalesColumns> sink) throws IOException {
+        long damagedAt = -1;
+        long offset = from == 0 ? 0 : firstRecordAt(from, to);
+        while (offset < to) {
+            int length = check(offset);
+            if (length < 0) {
+                damagedAt = offset;
+                break;
+            }
+            decode(offset, fromTime, toTime, columns);
+            if (columns.isFull()) {
+                sink.accept(columns);
+                columns.clear();
+            }
+            offset += TicketLedger.HEADER_BYTES + length;
+        }
+        if (columns.size > 0) {
+            sink.accept(columns);
+            columns.clear();
+        }
+        return damagedAt;
+    }
+
+    /**
+     * Returns the first record boundary in a range, or {@code to} if no record starts in it.
+     */
+    private long firstRecordAt(long from, long to) throws IOException {
+        for (long offset = from; offset < to; offset++) {
+            int length = check(offset);
+            if (length < 0) continue;
+            long next = offset + TicketLedger.HEADER_BYTES + length;
+            if (next == end || check(next) != DAMAGED) return offset;
+        }
+        return to;
+    }
+
+    /**
+     * Checks the record at an offset.
+     *
+     * @return its payload length, {@link #TORN} if it runs past the end, or {@link #DAMAGED}
+     */
+    private int check(long offset) throws IOException {
+        if (!load(offset, TicketLedger.HEADER_BYTES + 1)) return TORN;
+        int at = (int) (offset - windowStart);
+        int length = readInt(at);
+        int checksum = readInt(at + 4);
+        byte kind = window[at + TicketLedger.HEADER_BYTES];
+        if (length <= 0 || length > TicketLedger.MAX_PAYLOAD_BYTES
+                || kind != TicketLedger.SALE && kind != TicketLedger.CANCELLATION) {
+            return DAMAGED;
+        }
+        if (!load(offset, TicketLedger.HEADER_BYTES + length)) return TORN;
+        at = (int) (offset - windowStart);
+        crc.reset();
+        crc.update(window, at + TicketLedger.HEADER_BYTES, length);
+        return (int) crc.getValue() == checksum ? length : DAMAGED;
+    }
+
+    /**
+     * Adds the sale or cancellation of a checked record to the columns if the
+     * sale was made in the time range.
+     */
+    private void decode(long offset, long fromTime, long toTime, SalesColumns columns) {
+        int at = (int) (offset - windowStart) + TicketLedger.HEADER_BYTES;
+        boolean cancellation = window[at] == TicketLedger.CANCELLATION;
+        at += 1 + 4; // kind, client id
+        int showtimeId = readInt(at);
+        int movieId = readInt(at + 4);
+        int roomId = readInt(at + 8);
+        at += 12;
+        at += 2 + readUnsignedShort(at); // seat
+        int timeLength = readUnsignedShort(at);
+        long purchased = parseTime(at + 2, timeLength);
+        at += 2 + timeLength;
+        at += 2 + readUnsignedShort(at); // e-ticket code
+        long priceCents = readLong(at);
+        if (purchased < fromTime || purchased >= toTime) return;
+
+        int row = columns.size++;
+        columns.showtimeId[row] = showtimeId;
+        columns.movieId[row] = movieId;
+        columns.roomId[row] = roomId;
+        columns.tickets[row] = cancellation ? -1 : 1;
+        columns.priceCents[row] = cancellation ? -priceCents : priceCents;
+        columns.purchased[row] = purchased;
+    }
+
+    /**
+     * Reads "yyyy-MM-ddTHH:mm..." (LocalDateTime.toString) without building a String.
+     */
+    private long parseTime(int at, int length) {
+        if (length < 16 || window[at + 4] != '-') {
+            // Years beyond 9999 or before 0; never written by a real terminal
+            LocalDateTime time = LocalDateTime.parse(new String(window, at, length, StandardCharsets.UTF_8));
+            return SalesColumns.pack(time.getYear(), time.getMonthValue(), time.getDayOfMonth(),
+                    time.getHour(), time.getMinute());
+        }
+        return SalesColumns.pack(digits(at, 4), digits(at + 5, 2), digits(at + 8, 2),
+                digits(at + 11, 2), digits(at + 14, 2));
+    }
+
+    private int digits(int at, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) value = value * 10 + (window[at + i] - '0');
+        return value;
+    }
+
+    /**
+     * Makes sure the window holds {@code need} bytes from {@code offset}.
+     *
+     * @return false if the ledger ends before
+     */
+    private boolean load(long offset, int need) throws IOException {
+        if (offset + need > end) return false;
+        if (offset >= windowStart && offset + need <= windowStart + windowLength) return true;
+        windowBuffer.clear();
+        windowBuffer.limit((int) Math.min(window.length, end - offset));
+        while (windowBuffer.position() < need) {
+            if (channel.read(windowBuffer, offset + windowBuffer.position()) < 0) return false;
+        }
+        windowStart = offset;
+        windowLength = windowBuffer.position();
+        return true;
+    }
+
+    private int readInt(int at) {
+        return (window[at] & 0xff) << 24 | (window[at + 1] & 0xff) << 16
+                | (window[at + 2] & 0xff) << 8 | (window[at + 3] & 0xff);
+    }
+
+    private int readUnsignedShort(int at) {
+        return (window[at] & 0xff) << 8 | (window[at + 1] & 0xff);
+    }
+
+    private long readLong(int at) {
+        return (long) readInt(at) << 32 | (readInt(at + 4) & 0xffffffffL);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Zero-copy CSV reader for the files of the data directory.
+ * <p>
+ * The file is memory-mapped with {@link FileChannel#map} and every line is
+ * handed to the caller as a {@link CsvRow} that slices the mapped bytes, so
+ * there is no Scanner, no regex split and no String per line or per field.
+ * Files bigger than one mapping window are mapped in consecutive windows
+ * that always end on a line boundary.
+ *
+ * @author Rene
+ */
+public final class MappedCsvReader {
+
+    /**
+     * Largest region mapped at once (a MappedByteBuffer is indexed by int).
+     */
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private MappedCsvReader() {
+    }
+
+    /**
+     * Reads every non-blank line of a file, in order.
+     *
+     * @param path    file to read; a missing file is treated as empty
+     * @param handler receives one reused row per line
+     * @throws IOException if the file could not be mapped
+     */
+    public static void read(Path path, Consumer<CsvRow> handler) throws IOException {
+        if (!Files.exists(path)) return;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            CsvRow row = new CsvRow();
+            while (position < size) {
+                long length = Math.min(WINDOW_SIZE, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean lastWindow = position + length == size;
+                int consumed = readLines(buffer, position, (int) length, lastWindow, row, handler);
+                if (consumed == 0) {
+                    throw new IOException("Line longer than " + WINDOW_SIZE + " bytes in " + path);
+                }
+                position += consumed;
+            }
+        }
+    }
+
+    /**
+     * Reads the complete lines of one mapped window.
+     *
+     * @return number of bytes consumed (up to and including the last newline)
+     */
+    private static int readLines(MappedByteBuffer buffer, long base, int length, boolean lastWindow,
+                                 CsvRow row, Consumer<CsvRow> handler) {
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(i) == '\n') {
+                emit(buffer, base, lineStart, i, row, handler);
+                lineStart = i + 1;
+            }
+        }
+        if (lastWindow && lineStart < length) {
+            // Last line of the file without a trailing newline
+            emit(buffer, base, lineStart, length, row, handler);
+            return length;
+        }
+        return lineStart;
+    }
+
+    private static void emit(MappedByteBuffer buffer, long base, int start, int end,
+                             CsvRow row, Consumer<CsvRow> handler) {
+        row.reset(buffer, start, end, base);
+        if (!row.isBlank()) handler.accept(row);
+    }
+}
@@ -7,12 +7,14 @@ package com.example.finalproject.model;
 // I also added a new folder data in resources which contain all data we gonna use
 
 // ENCAPSULATION: I created this class to represent a Movie with proper data hiding
-public class Movie {
+public class Movie implements Versioned {
     // ENCAPSULATION: I used private fields to protect the movie data from direct access
     private int movieID;
     private String title;
     private String duration;
     private String genre;
+    // CONCURRENCY: I keep a version stamp so two terminals can't overwrite each other's edits
+    private int version;
     
     // CONSTRUCTOR: I created a constructor to initialize all movie properties at once
     public Movie(int movieID, String title, String duration, String genre) {
@@ -22,6 +24,12 @@ public class Movie {
         this.duration = duration;
         this.genre = genre;
     }
+
+    // CONSTRUCTOR: I use this one when the version stamp is known (loading, editing)
+    public Movie(int movieID, String title, String duration, String genre, int version) {
+        this(movieID, title, duration, genre);
+        this.version = version;
+    }
     
     // ENCAPSULATION: I provide getters for controlled access to private fields
     public int getMovieID() {
@@ -61,11 +69,21 @@ public class Movie {
     public void setGenre(String genre) {
         this.genre = genre;
     }
+
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(int version) {
+        this.version = version;
+    }
     
     // DATA PERSISTENCE: I provide a method to convert the movie to CSV format for file storage
     public String toCSV() {
-        // I format the movie data as CSV: movieID,title,duration,genre
+        // I format the movie data as CSV: movieID,title,duration,genre,version
         // This allows easy saving and loading from CSV files
-        return movieID + "," + title + "," + duration + "," + genre;
+        return movieID + "," + title + "," + duration + "," + genre + "," + version;
     }
 }
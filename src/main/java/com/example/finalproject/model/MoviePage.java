@@ -5,6 +5,7 @@ import com.example.finalproject.model.Room;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a scheduled showing of a specific movie in a specific room.
@@ -43,9 +44,9 @@ public class MoviePage {
     private LocalTime startTime;
 
     /**
-     * Number of tickets sold for this showtime.
+     * Number of tickets sold for this showtime; atomic so concurrent sales cannot overbook.
      */
-    private int ticketsSold;
+    private final AtomicInteger ticketsSold = new AtomicInteger();
 
     /**
      * Creates a new Showtime instance with no tickets sold yet.
@@ -68,7 +69,6 @@ public class MoviePage {
         setRoom(room);
         setDate(date);
         setStartTime(startTime);
-        this.ticketsSold = 0;
     }
 
     /**
@@ -187,7 +187,7 @@ public class MoviePage {
      * @return tickets sold
      */
     public int getTicketsSold() {
-        return ticketsSold;
+        return ticketsSold.get();
     }
 
     /**
@@ -200,20 +200,38 @@ public class MoviePage {
         if (ticketsSold < 0) {
             throw new IllegalArgumentException("Tickets sold cannot be negative.");
         }
-        this.ticketsSold = ticketsSold;
+        this.ticketsSold.set(ticketsSold);
     }
 
     /**
-     * Increases the tickets sold count by the given positive amount.
+     * Returns the share of the room's seats sold for this showtime.
+     *
+     * @return load factor, from 0 (empty) to 1 (full); 0 for a room without seats
+     */
+    public double getLoadFactor() {
+        int capacity = room.getCapacity();
+        return capacity <= 0 ? 0 : (double) ticketsSold.get() / capacity;
+    }
+
+    /**
+     * Increases the tickets sold count by the given positive amount,
+     * unless that would sell more tickets than the room has seats.
      *
      * @param amount number of tickets to add, must be greater than 0
      * @throws IllegalArgumentException if amount is less than or equal to 0
+     * @throws IllegalStateException    if not enough seats are left
      */
     public void addTickets(int amount) {
         if (amount <= 0) {
             throw new IllegalArgumentException("Ticket amount must be positive.");
         }
-        this.ticketsSold += amount;
+        while (true) {
+            int sold = ticketsSold.get();
+            if (sold + amount > room.getCapacity()) {
+                throw new IllegalStateException("Only " + (room.getCapacity() - sold) + " seats are left.");
+            }
+            if (ticketsSold.compareAndSet(sold, sold + amount)) return;
+        }
     }
 }
 
@@ -0,0 +1,90 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-wide repository of movies, backed by "movies.csv".
+ * CSV format: movieID,title,duration,genre,version (files without the version column load as version 0)
+ *
+ * @author Rene
+ */
+public class MovieRepository extends CsvRepository<Movie> {
+
+    /**
+     * SINGLETON: One shared instance so every screen sees the same cached list.
+     */
+    private static final MovieRepository INSTANCE = new MovieRepository();
+
+    private MovieRepository() {
+        super("movies.csv");
+    }
+
+    /**
+     * Returns the shared movie repository.
+     *
+     * @return repository instance
+     */
+    public static MovieRepository getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    protected Movie parse(CsvRow row) {
+        return new Movie(row.getInt(0), row.getString(1), row.getString(2), row.getString(3), versionAt(row, 4));
+    }
+
+    @Override
+    protected int idOf(Movie movie) {
+        return movie.getMovieID();
+    }
+
+    @Override
+    protected String toCSV(Movie movie) {
+        return movie.toCSV();
+    }
+
+    @Override
+    protected void writeColumns(BinarySnapshot.Writer out, List<Movie> movies) throws IOException {
+        int[] ids = new int[movies.size()];
+        String[] titles = new String[movies.size()];
+        String[] durations = new String[movies.size()];
+        String[] genres = new String[movies.size()];
+        int[] versions = new int[movies.size()];
+        for (int i = 0; i < movies.size(); i++) {
+            Movie movie = movies.get(i);
+            ids[i] = movie.getMovieID();
+            titles[i] = movie.getTitle();
+            durations[i] = movie.getDuration();
+            genres[i] = movie.getGenre();
+            versions[i] = movie.getVersion();
+        }
+        out.intColumn(ids).stringColumn(titles).stringColumn(durations).stringColumn(genres).intColumn(versions);
+    }
+
+    @Override
+    protected List<Movie> readColumns(BinarySnapshot.Reader in) throws IOException {
+        int[] ids = in.intColumn();
+        String[] titles = in.stringColumn();
+        String[] durations = in.stringColumn();
+        String[] genres = in.stringColumn();
+        int[] versions = in.intColumn();
+        List<Movie> movies = new ArrayList<>(in.rows());
+        for (int i = 0; i < in.rows(); i++) {
+            movies.add(new Movie(ids[i], titles[i], durations[i], genres[i], versions[i]));
+        }
+        return movies;
+    }
+
+    @Override
+    protected JdbcStorage.Column[] columns() {
+        return new JdbcStorage.Column[]{
+                new JdbcStorage.Column("MOVIE_ID", true, false),
+                new JdbcStorage.Column("TITLE", false, false),
+                new JdbcStorage.Column("DURATION", false, false),
+                new JdbcStorage.Column("GENRE", false, false),
+                new JdbcStorage.Column("VERSION", true, false)
+        };
+    }
+}
@@ -0,0 +1,457 @@
+package com.example.finalproject.model;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A CSV {@link StorageBackend} split into one file per month of a date field,
+ * e.g. "showtimes/2024-12.csv".
+ * <p>
+ * PARTITIONS: Each month is an {@link IndexedCsvFile}, so a change only
+ * touches the file of its month (two when a record moves to another month).
+ * <p>
+ * PRUNING: {@link #load} only reads the active months: the current one, the
+ * future and any month not archived yet. An archived month is read by
+ * {@link #loadRange} once a date-bounded query reaches it, and only that month.
+ * <p>
+ * ARCHIVAL: {@link #compact} runs in the background and moves every finished
+ * month (before the current one) into a gzip-compressed, read-only
+ * "2024-12.csv.gz". Records of an archived month can be read but not changed.
+ * <p>
+ * MIGRATION: A data directory without the folder is split into months from
+ * the single CSV file (and its journal) on first load, in a staging folder
+ * that is renamed into place. The single file is left where it is, unread
+ * from then on: it is the seed data of a fresh checkout.
+ *
+ * @param <T> type of record stored
+ * @author Rene
+ */
+public class PartitionedCsvStorage<T> implements StorageBackend<T> {
+
+    private static final String ACTIVE_SUFFIX = ".csv";
+    private static final String ARCHIVE_SUFFIX = ".csv.gz";
+
+    /**
+     * Holds the highest id of all archives, so ids are never reused while the archives stay unread.
+     */
+    private static final String ARCHIVE_IDS = "archive.ids";
+
+    /**
+     * Partition of records whose date is not ISO; it is never archived.
+     */
+    private static final String UNDATED = "undated";
+
+    private final CsvRepository<T> owner;
+    private final String dirName;
+    private final Path dir;
+    private final String legacyFileName;
+    private final String legacyJournalFileName;
+
+    /**
+     * ISO date ("2024-12-01") of a record, which decides its month.
+     */
+    private final Function<T, String> dateOf;
+
+    /**
+     * month ("2024-12") -> file of an active month.
+     */
+    private final Map<String, IndexedCsvFile> active = new TreeMap<>();
+
+    /**
+     * Months archived on disk.
+     */
+    private final Set<String> archived = new TreeSet<>();
+
+    /**
+     * Archived months whose records were read anyway (by {@link #loadRange}, or cached when archived).
+     */
+    private final Set<String> attached = new HashSet<>();
+
+    /**
+     * id -> month of every record read.
+     */
+    private final Map<Integer, String> monthOf = new HashMap<>();
+
+    private int highestArchivedId;
+
+    /**
+     * Creates the partitioned storage of a repository.
+     *
+     * @param owner                 repository providing parse/format
+     * @param dirName               folder of the partitions inside the repository's data directory
+     * @param legacyFileName        single CSV file to migrate from, if present
+     * @param legacyJournalFileName change log of the single file, or null
+     * @param dateOf                ISO date of a record
+     */
+    public PartitionedCsvStorage(CsvRepository<T> owner, String dirName, String legacyFileName,
+                                 String legacyJournalFileName, Function<T, String> dateOf) {
+        this.owner = owner;
+        this.dirName = dirName;
+        this.dir = Paths.get(owner.getDataDir(), dirName);
+        this.legacyFileName = legacyFileName;
+        this.legacyJournalFileName = legacyJournalFileName;
+        this.dateOf = dateOf;
+    }
+
+    @Override
+    public synchronized void load(Map<Integer, T> target) throws IOException {
+        migrate();
+        scan();
+        attached.clear();
+        monthOf.clear();
+        for (Map.Entry<String, IndexedCsvFile> partition : active.entrySet()) {
+            readActive(partition.getKey(), target);
+            partition.getValue().open();
+        }
+    }
+
+    @Override
+    public synchronized void reload(Map<Integer, T> target) throws IOException {
+        scan();
+        monthOf.clear();
+        for (String month : active.keySet()) readActive(month, target);
+        for (String month : archived) {
+            if (attached.contains(month)) readArchive(month, target);
+        }
+    }
+
+    @Override
+    public synchronized void upsert(T item) throws IOException {
+        int id = owner.idOf(item);
+        String month = monthKey(dateOf.apply(item));
+        String previous = monthOf.get(id);
+        checkWritable(month);
+        if (previous != null) checkWritable(previous);
+        // The new line goes in first: after a crash the record is in both months and the newer version wins
+        partition(month).put(id, owner.toCSV(item));
+        if (previous != null && !previous.equals(month)) {
+            IndexedCsvFile old = active.get(previous);
+            if (old != null) old.remove(id);
+        }
+        monthOf.put(id, month);
+    }
+
+    @Override
+    public synchronized void delete(int id) throws IOException {
+        String month = monthOf.get(id);
+        if (month == null) return;
+        checkWritable(month);
+        IndexedCsvFile partition = active.get(month);
+        if (partition != null) partition.remove(id);
+        monthOf.remove(id);
+    }
+
+    @Override
+    public synchronized boolean needsCompaction() {
+        for (IndexedCsvFile partition : active.values()) {
+            if (partition.needsCompaction()) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean compactsInBackground() {
+        return true;
+    }
+
+    /**
+     * ARCHIVAL: Compresses every finished month into its read-only archive,
+     * then compacts the active months that have more dead lines than live ones.
+     */
+    @Override
+    public synchronized boolean compact(Collection<T> records) throws IOException {
+        Map<String, List<String>> linesByMonth = new HashMap<>();
+        for (T item : records) {
+            String month = monthOf.get(owner.idOf(item));
+            if (month != null) linesByMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(owner.toCSV(item));
+        }
+        String current = YearMonth.now().toString();
+        boolean wrote = false;
+        for (Map.Entry<String, IndexedCsvFile> partition : new ArrayList<>(active.entrySet())) {
+            String month = partition.getKey();
+            List<String> lines = linesByMonth.getOrDefault(month, List.of());
+            if (!month.equals(UNDATED) && month.compareTo(current) < 0) {
+                archive(month, lines);
+                wrote = true;
+            } else if (partition.getValue().needsCompaction()) {
+                partition.getValue().rewrite(lines);
+                wrote = true;
+            }
+        }
+        return wrote;
+    }
+
+    /**
+     * The whole folder is watched, so months created by another terminal are seen too.
+     */
+    @Override
+    public List<String> watchedFiles() {
+        return List.of(dirName + "/");
+    }
+
+    @Override
+    public synchronized void reopen() {
+        for (IndexedCsvFile partition : active.values()) partition.reopen();
+    }
+
+    /**
+     * Partitions are pruned by date only; other queries scan the cache.
+     */
+    @Override
+    public List<Integer> findIds(String column, Object from, Object to) {
+        return null;
+    }
+
+    @Override
+    public synchronized void loadRange(String from, String to, Map<Integer, T> target) throws IOException {
+        String fromMonth = from == null ? null : monthKey(from);
+        String toMonth = to == null ? null : monthKey(to);
+        for (String month : archived) {
+            if (fromMonth != null && month.compareTo(fromMonth) < 0) continue;
+            if (toMonth != null && month.compareTo(toMonth) > 0) break;
+            if (attached.add(month)) readArchive(month, target);
+        }
+    }
+
+    @Override
+    public synchronized void forEachUnloaded(Consumer<T> action) throws IOException {
+        Map<Integer, T> unloaded = new LinkedHashMap<>();
+        for (String month : archived) {
+            if (attached.contains(month)) continue;
+            Map<Integer, T> records = readArchiveRecords(month);
+            for (Map.Entry<Integer, T> entry : records.entrySet()) {
+                if (isNewer(unloaded.get(entry.getKey()), entry.getValue())) continue;
+                unloaded.put(entry.getKey(), entry.getValue());
+            }
+        }
+        unloaded.values().forEach(action);
+    }
+
+    @Override
+    public synchronized int highestUnloadedId() {
+        return highestArchivedId;
+    }
+
+    @Override
+    public synchronized String activeFrom() {
+        if (archived.isEmpty()) return null;
+        String first = YearMonth.now().toString();
+        for (String month : active.keySet()) {
+            if (!month.equals(UNDATED) && month.compareTo(first) < 0) first = month;
+        }
+        return first + "-01";
+    }
+
+    /**
+     * Lists the partition files, keeping the open file of every month still active.
+     */
+    private void scan() throws IOException {
+        Set<String> activeMonths = new HashSet<>();
+        archived.clear();
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(ARCHIVE_SUFFIX)) {
+                        archived.add(name.substring(0, name.length() - ARCHIVE_SUFFIX.length()));
+                    } else if (name.endsWith(ACTIVE_SUFFIX)) {
+                        activeMonths.add(name.substring(0, name.length() - ACTIVE_SUFFIX.length()));
+                    }
+                }
+            }
+        }
+        active.keySet().retainAll(activeMonths);
+        for (String month : activeMonths) partition(month);
+        highestArchivedId = readHighestArchivedId();
+    }
+
+    /**
+     * Reads the highest id of the archives; if the file is unreadable, finds it in the archives themselves.
+     */
+    private int readHighestArchivedId() throws IOException {
+        Path ids = dir.resolve(ARCHIVE_IDS);
+        try {
+            return Files.exists(ids) ? Integer.parseInt(Files.readString(ids, StandardCharsets.UTF_8).trim()) : 0;
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("PARTITION: Ignoring unreadable " + ids + ", reading the archives instead");
+        }
+        // Never hand out an archived id again: the slow way, once
+        int highest = 0;
+        for (String month : archived) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(dir.resolve(month + ARCHIVE_SUFFIX))), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    try {
+                        highest = Math.max(highest, CsvRow.of(line).getInt(0));
+                    } catch (RuntimeException malformed) {
+                        // not a record; the load skips it too
+                    }
+                }
+            }
+        }
+        return highest;
+    }
+
+    private IndexedCsvFile partition(String month) {
+        return active.computeIfAbsent(month, m -> new IndexedCsvFile(dir.resolve(m + ACTIVE_SUFFIX).toString()));
+    }
+
+    private void readActive(String month, Map<Integer, T> target) throws IOException {
+        Map<Integer, T> records = new LinkedHashMap<>();
+        MappedCsvReader.read(dir.resolve(month + ACTIVE_SUFFIX), row -> owner.putRow(records, row));
+        merge(month, records, target);
+    }
+
+    private void readArchive(String month, Map<Integer, T> target) throws IOException {
+        merge(month, readArchiveRecords(month), target);
+    }
+
+    private Map<Integer, T> readArchiveRecords(String month) throws IOException {
+        Map<Integer, T> records = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(dir.resolve(month + ARCHIVE_SUFFIX))), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) owner.putLine(records, line);
+        }
+        return records;
+    }
+
+    /**
+     * Adds the records of one month, keeping the newer version of a record found in two months.
+     */
+    private void merge(String month, Map<Integer, T> records, Map<Integer, T> target) {
+        for (Map.Entry<Integer, T> entry : records.entrySet()) {
+            if (isNewer(target.get(entry.getKey()), entry.getValue())) continue;
+            target.put(entry.getKey(), entry.getValue());
+            monthOf.put(entry.getKey(), month);
+        }
+    }
+
+    /**
+     * Returns true if a record already read is a newer version than one found in another month.
+     */
+    private static boolean isNewer(Object kept, Object found) {
+        return kept instanceof Versioned a && found instanceof Versioned b && a.getVersion() > b.getVersion();
+    }
+
+    private void archive(String month, List<String> lines) throws IOException {
+        int highest = highestArchivedId;
+        for (String line : lines) highest = Math.max(highest, CsvRow.of(line).getInt(0));
+        if (highest > highestArchivedId) {
+            DurableWriter.getInstance().replace(dir.resolve(ARCHIVE_IDS), List.of(String.valueOf(highest)));
+            highestArchivedId = highest;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer out = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            for (String line : lines) out.write(line + "\n");
+        }
+        DurableWriter.getInstance().replace(dir.resolve(month + ARCHIVE_SUFFIX), bytes.toByteArray());
+        Files.deleteIfExists(dir.resolve(month + ACTIVE_SUFFIX));
+        Files.deleteIfExists(dir.resolve(month + ACTIVE_SUFFIX + ".idx"));
+        active.remove(month);
+        archived.add(month);
+        attached.add(month); // its records stay in the cache
+        System.out.println("PARTITION: Archived " + dirName + "/" + month + " (" + lines.size() + " rows)");
+    }
+
+    private void checkWritable(String month) throws IOException {
+        if (archived.contains(month)) {
+            throw new IOException(month + " is archived; its records can no longer be changed.");
+        }
+    }
+
+    /**
+     * MIGRATION: Splits the single CSV file (plus its journal) into monthly partitions.
+     */
+    private void migrate() throws IOException {
+        Path legacy = Paths.get(owner.getDataDir(), legacyFileName);
+        if (Files.isDirectory(dir)) {
+            retireLegacy(legacy); // a migration may have stopped after the rename
+            return;
+        }
+        Map<Integer, T> records = new LinkedHashMap<>();
+        MappedCsvReader.read(legacy, row -> owner.putRow(records, row));
+        if (legacyJournalFileName != null) {
+            new ChangeJournal(owner.getDataDir() + legacyJournalFileName)
+                    .replay(line -> owner.putLine(records, line), records::remove);
+        }
+        Map<String, List<String>> linesByMonth = new TreeMap<>();
+        for (T item : records.values()) {
+            linesByMonth.computeIfAbsent(monthKey(dateOf.apply(item)), m -> new ArrayList<>()).add(owner.toCSV(item));
+        }
+
+        Path staging = Paths.get(owner.getDataDir(), dirName + ".tmp");
+        deleteTree(staging);
+        Files.createDirectories(staging);
+        for (Map.Entry<String, List<String>> month : linesByMonth.entrySet()) {
+            DurableWriter.getInstance().replace(staging.resolve(month.getKey() + ACTIVE_SUFFIX), month.getValue());
+        }
+        try {
+            Files.move(staging, dir, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            deleteTree(staging); // another terminal migrated first
+            return;
+        }
+        retireLegacy(legacy);
+        System.out.println("PARTITION: Migrated " + records.size() + " rows of " + legacyFileName
+                + " into " + linesByMonth.size() + " monthly files in " + dirName + "/");
+    }
+
+    /**
+     * Deletes what was derived from the single file; the file itself stays.
+     */
+    private void retireLegacy(Path legacy) throws IOException {
+        Files.deleteIfExists(legacy.resolveSibling(legacyFileName + ".idx"));
+        Files.deleteIfExists(BinarySnapshot.snapshotPathFor(legacy));
+        if (legacyJournalFileName != null) Files.deleteIfExists(Paths.get(owner.getDataDir(), legacyJournalFileName));
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) return;
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) Files.delete(path);
+        }
+    }
+
+    /**
+     * Returns the month ("2024-12") of an ISO date, or {@link #UNDATED}.
+     */
+    private static String monthKey(String date) {
+        if (date == null || date.length() < 7) return UNDATED;
+        try {
+            return YearMonth.parse(date.substring(0, 7)).toString();
+        } catch (DateTimeParseException e) {
+            return UNDATED;
+        }
+    }
+}
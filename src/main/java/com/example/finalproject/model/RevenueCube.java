@@ -0,0 +1,231 @@
+package com.example.finalproject.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rollup of tickets and revenue per hour of sale, for every movie, every room,
+ * every (movie, room) pair and the whole cinema.
+ * <p>
+ * PREFIX SUMS: Each of these series keeps the running total of its hours, so
+ * the total of any period is the running total at its end minus the one at
+ * its start: two array reads, whether the period is an afternoon or a year.
+ * Days and months are runs of whole hours and are read the same way.
+ * <p>
+ * A sale adds to the running totals from its hour on, which for a sale of the
+ * current hour is the last entry only; a sale dated earlier costs the hours
+ * after it once. A cancellation is dated like the sale it takes back and
+ * subtracts from the same hours.
+ * <p>
+ * Not thread-safe: owned and guarded by the {@link SalesAggregator}.
+ *
+ * @author Rene
+ */
+final class RevenueCube {
+
+    /**
+     * Movie or room id meaning "all of them".
+     */
+    static final int ANY = -1;
+
+    /**
+     * Hour 0 of every series.
+     */
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    /**
+     * Running totals of one movie/room combination, from its first to its last hour with sales.
+     */
+    private static final class Series {
+        int firstHour;
+        int hours;
+        // [i] = sold in hours firstHour .. firstHour + i - 1, for i = 0 .. hours
+        long[] tickets = new long[16];
+        long[] cents = new long[16];
+
+        void add(int hour, int count, long priceCents) {
+            if (hours == 0) {
+                firstHour = hour;
+                hours = 1;
+            } else if (hour < firstHour) {
+                int shift = firstHour - hour;
+                ensureCapacity(hours + shift + 1);
+                // Earlier hours had nothing sold: their running totals are 0
+                System.arraycopy(tickets, 1, tickets, 1 + shift, hours);
+                System.arraycopy(cents, 1, cents, 1 + shift, hours);
+                Arrays.fill(tickets, 1, 1 + shift, 0);
+                Arrays.fill(cents, 1, 1 + shift, 0);
+                firstHour = hour;
+                hours += shift;
+            } else if (hour >= firstHour + hours) {
+                int grown = hour - firstHour + 1;
+                ensureCapacity(grown + 1);
+                // Hours without sales carry the running total on
+                Arrays.fill(tickets, hours + 1, grown + 1, tickets[hours]);
+                Arrays.fill(cents, hours + 1, grown + 1, cents[hours]);
+                hours = grown;
+            }
+            for (int i = hour - firstHour + 1; i <= hours; i++) {
+                tickets[i] += count;
+                cents[i] += priceCents;
+            }
+        }
+
+        /**
+         * Returns true if the totals changed in the hour of index i (cancellations may leave no net tickets).
+         */
+        boolean soldIn(int i) {
+            return tickets[i] != tickets[i - 1] || cents[i] != cents[i - 1];
+        }
+
+        /**
+         * Returns the index of the running total of everything sold before an hour.
+         */
+        int indexBefore(int hour) {
+            return Math.clamp((long) hour - firstHour, 0, hours);
+        }
+
+        private void ensureCapacity(int size) {
+            if (size <= tickets.length) return;
+            int capacity = Math.max(size, tickets.length * 2);
+            tickets = Arrays.copyOf(tickets, capacity);
+            cents = Arrays.copyOf(cents, capacity);
+        }
+    }
+
+    /**
+     * (movie id, room id) -> series; either id may be {@link #ANY}.
+     */
+    private final Map<Long, Series> series = new HashMap<>();
+
+    /**
+     * Adds one sale, or takes one back.
+     *
+     * @param purchased  time of the sale
+     * @param movieId    movie of its showtime (-1 if unknown)
+     * @param roomId     room of its showtime (-1 if unknown)
+     * @param tickets    1 for a sale, -1 for a cancellation
+     * @param priceCents price paid, in cents; negative for a refund
+     */
+    void add(LocalDateTime purchased, int movieId, int roomId, int tickets, long priceCents) {
+        int hour = hourOf(purchased);
+        seriesOf(ANY, ANY).add(hour, tickets, priceCents);
+        if (movieId != ANY) seriesOf(movieId, ANY).add(hour, tickets, priceCents);
+        if (roomId != ANY) seriesOf(ANY, roomId).add(hour, tickets, priceCents);
+        if (movieId != ANY && roomId != ANY) seriesOf(movieId, roomId).add(hour, tickets, priceCents);
+    }
+
+    /**
+     * Returns the tickets and revenue sold between two hours, in O(1).
+     *
+     * @param fromHour first hour, inclusive
+     * @param toHour   last hour, exclusive
+     * @param movieId  movie, or {@link #ANY}
+     * @param roomId   room, or {@link #ANY}
+     * @return {tickets, cents}
+     */
+    long[] sum(int fromHour, int toHour, int movieId, int roomId) {
+        Series s = series.get(key(movieId, roomId));
+        if (s == null || toHour <= fromHour) return new long[2];
+        int from = s.indexBefore(fromHour);
+        int to = s.indexBefore(toHour);
+        return new long[]{s.tickets[to] - s.tickets[from], s.cents[to] - s.cents[from]};
+    }
+
+    /**
+     * Returns the hour of the cube a time falls in.
+     *
+     * @param time a time, or null for the start (or end) of all sales
+     * @param end  true if a null time stands for the end
+     * @return hour index
+     */
+    static int hourOf(LocalDateTime time, boolean end) {
+        if (time == null) return end ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+        return hourOf(time);
+    }
+
+    private static int hourOf(LocalDateTime time) {
+        return Math.toIntExact(Math.floorDiv(ChronoUnit.MINUTES.between(EPOCH, time), 60));
+    }
+
+    private Series seriesOf(int movieId, int roomId) {
+        return series.computeIfAbsent(key(movieId, roomId), k -> new Series());
+    }
+
+    private static long key(int movieId, int roomId) {
+        return (long) movieId << 32 | (roomId & 0xffffffffL);
+    }
+
+    /**
+     * Saves the cube (for the {@link SalesAggregator} checkpoint).
+     *
+     * @param out checkpoint being written
+     * @throws IOException if writing fails
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(series.size());
+        for (Map.Entry<Long, Series> entry : series.entrySet()) {
+            Series s = entry.getValue();
+            out.writeLong(entry.getKey());
+            out.writeInt(s.firstHour);
+            out.writeInt(s.hours);
+            // Only the hours with sales; most hours of a movie or a room have none
+            int sold = 0;
+            for (int i = 1; i <= s.hours; i++) {
+                if (s.soldIn(i)) sold++;
+            }
+            out.writeInt(sold);
+            for (int i = 1; i <= s.hours; i++) {
+                if (!s.soldIn(i)) continue;
+                out.writeInt(i);
+                out.writeInt((int) (s.tickets[i] - s.tickets[i - 1]));
+                out.writeLong(s.cents[i] - s.cents[i - 1]);
+            }
+        }
+    }
+
+    /**
+     * Loads a cube saved by {@link #write}, replacing the current content.
+     *
+     * @param in checkpoint being read
+     * @throws IOException if reading fails
+     */
+    void read(DataInputStream in) throws IOException {
+        series.clear();
+        int count = in.readInt();
+        for (int n = 0; n < count; n++) {
+            long key = in.readLong();
+            Series s = new Series();
+            s.firstHour = in.readInt();
+            s.hours = in.readInt();
+            s.ensureCapacity(s.hours + 1);
+            int sold = in.readInt();
+            int filled = 0;
+            for (int k = 0; k < sold; k++) {
+                int i = in.readInt();
+                // Hours since the last one with sales carry its running total
+                Arrays.fill(s.tickets, filled + 1, i, s.tickets[filled]);
+                Arrays.fill(s.cents, filled + 1, i, s.cents[filled]);
+                s.tickets[i] = s.tickets[i - 1] + in.readInt();
+                s.cents[i] = s.cents[i - 1] + in.readLong();
+                filled = i;
+            }
+            Arrays.fill(s.tickets, filled + 1, s.hours + 1, s.tickets[filled]);
+            Arrays.fill(s.cents, filled + 1, s.hours + 1, s.cents[filled]);
+            series.put(key, s);
+        }
+    }
+
+    /**
+     * Empties the cube.
+     */
+    void clear() {
+        series.clear();
+    }
+}
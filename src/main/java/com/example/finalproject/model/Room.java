@@ -7,11 +7,13 @@ package com.example.finalproject.model;
 // I also added a new folder data in resources which contain all data we gonna use
 
 // ENCAPSULATION: I created this class to represent a theater room with proper data protection
-public class Room {
+public class Room implements Versioned {
     // ENCAPSULATION: I used private fields to control access to room data
     private int roomID;
     private String roomName;
     private int capacity;
+    // CONCURRENCY: I keep a version stamp so two terminals can't overwrite each other's edits
+    private int version;
     
     // CONSTRUCTOR: I created a constructor to initialize all room properties
     public Room(int roomID, String roomName, int capacity) {
@@ -20,6 +22,12 @@ public class Room {
         this.roomName = roomName;
         this.capacity = capacity;
     }
+
+    // CONSTRUCTOR: I use this one when the version stamp is known (loading, editing)
+    public Room(int roomID, String roomName, int capacity, int version) {
+        this(roomID, roomName, capacity);
+        this.version = version;
+    }
     
     // ENCAPSULATION: I provide getters for controlled read access to private fields
     public int getRoomID() {
@@ -49,11 +57,21 @@ public class Room {
     public void setCapacity(int capacity) {
         this.capacity = capacity;
     }
+
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(int version) {
+        this.version = version;
+    }
     
     // DATA PERSISTENCE: I provide a method to convert room data to CSV format
     public String toCSV() {
-        // I format the room data as CSV: roomID,roomName,capacity
+        // I format the room data as CSV: roomID,roomName,capacity,version
         // This makes it easy to save and load room information from files
-        return roomID + "," + roomName + "," + capacity;
+        return roomID + "," + roomName + "," + capacity + "," + version;
     }
 }
@@ -0,0 +1,496 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * How full each room is, per hour of the week (Monday 0:00 to Sunday 23:00):
+ * the seats sold against the seats offered by the showtimes starting in that
+ * hour, for the manager's occupancy heatmap.
+ * <p>
+ * INCREMENTAL: Every (room, hour of week) cell keeps running counters: the
+ * showtimes, their seats sold and offered, the sum of their load factors and
+ * of its squares (for the mean and spread), and the showtimes sold out. Each
+ * showtime remembers what it added; a sale, a cancellation, a rescheduled
+ * showtime or a resized room takes that back and adds the new figures, so a
+ * cell is never recomputed from the tickets or the schedule.
+ * <p>
+ * Load factors are kept in millionths, so all counters are exact integers and
+ * taking a showtime back leaves no rounding behind however often it changes.
+ * <p>
+ * SOURCES: The schedule and the rooms come from the cache hooks of
+ * {@link ShowtimeRepository} and {@link RoomRepository}; tickets sold, net of
+ * cancellations, from the changes posted by the {@link SalesAggregator},
+ * which reads both from the {@link TicketLedger}.
+ * <p>
+ * HISTORY: Every showtime counts, archived months included. The months the
+ * schedule cache holds arrive through its hooks. The archived ones, which it
+ * only reads when a date range reaches them, are read once by the first
+ * {@link #refresh}, straight from the archives and without caching them, and
+ * are kept when the cache is read again, since archives never change. So the
+ * heatmap depends neither on what was browsed nor on when the program started.
+ * <p>
+ * Thread-safe. Never calls a repository while holding its own lock, since
+ * the repositories call in while holding theirs.
+ *
+ * @author Rene
+ */
+public class RoomOccupancy {
+
+    /**
+     * Room id meaning "all rooms".
+     */
+    public static final int ALL_ROOMS = -1;
+
+    /**
+     * Cells per room: 7 days of 24 hours.
+     */
+    public static final int HOURS_PER_WEEK = 7 * 24;
+
+    /**
+     * Load factor of a full room, in the millionths the counters use.
+     */
+    private static final long FULL = 1_000_000;
+
+    /**
+     * SINGLETON: One set of counters, fed by the shared repositories and aggregator.
+     */
+    private static final RoomOccupancy INSTANCE = new RoomOccupancy(SalesAggregator::getInstance);
+
+    /**
+     * Occupancy of one hour of the week.
+     *
+     * @param hourOfWeek   0 for Monday 0:00 to 167 for Sunday 23:00
+     * @param showtimes    showtimes starting in that hour
+     * @param seatsSold    tickets sold for them
+     * @param seatsOffered seats of their rooms
+     * @param meanLoad     average load factor of a showtime (each counts the same, whatever the room)
+     * @param loadSpread   standard deviation of those load factors
+     * @param soldOut      showtimes with every seat sold
+     */
+    public record Cell(int hourOfWeek, int showtimes, long seatsSold, long seatsOffered,
+                       double meanLoad, double loadSpread, int soldOut) {
+
+        /**
+         * Returns the share of the seats offered that were sold (big rooms weigh more).
+         *
+         * @return load factor, 0 if no seats were offered
+         */
+        public double loadFactor() {
+            return seatsOffered == 0 ? 0 : (double) seatsSold / seatsOffered;
+        }
+
+        /**
+         * Returns the day of the cell.
+         *
+         * @return day of week
+         */
+        public DayOfWeek day() {
+            return DayOfWeek.of(hourOfWeek / 24 + 1);
+        }
+
+        /**
+         * Returns the hour of day of the cell.
+         *
+         * @return hour, 0-23
+         */
+        public int hour() {
+            return hourOfWeek % 24;
+        }
+    }
+
+    /**
+     * Running counters of one cell.
+     */
+    private static final class Counters {
+        int showtimes;
+        long seatsSold;
+        long seatsOffered;
+        long loadSum;     // millionths
+        long loadSquares; // millionths squared
+        int soldOut;
+
+        void add(Slot slot, int sign) {
+            // An oversold showtime (seats added by hand, say) is simply full
+            long load = Math.min(slot.countedSold, slot.countedCapacity) * FULL / slot.countedCapacity;
+            showtimes += sign;
+            seatsSold += sign * slot.countedSold;
+            seatsOffered += sign * slot.countedCapacity;
+            loadSum += sign * load;
+            loadSquares += sign * load * load;
+            if (slot.countedSold >= slot.countedCapacity) soldOut += sign;
+        }
+
+        Cell toCell(int hourOfWeek) {
+            if (showtimes == 0) return new Cell(hourOfWeek, 0, 0, 0, 0, 0, 0);
+            double mean = (double) loadSum / showtimes;
+            double variance = Math.max(0, (double) loadSquares / showtimes - mean * mean);
+            return new Cell(hourOfWeek, showtimes, seatsSold, seatsOffered,
+                    mean / FULL, Math.sqrt(variance) / FULL, soldOut);
+        }
+    }
+
+    /**
+     * One showtime: where it is scheduled, what it sold, and what it added to its cell.
+     */
+    private static final class Slot {
+        int roomId = ALL_ROOMS;
+        int hourOfWeek = -1;
+        long sold;     // from the aggregator, net of cancellations
+        long soldAsOf; // ledger offset of those totals
+        // Added to the cells of (roomId, hourOfWeek) and of all rooms; capacity 0 when not counted
+        long countedSold;
+        int countedCapacity;
+        // Read from the archives rather than the cache, so kept when the cache is read again
+        boolean archived;
+    }
+
+    private final Supplier<SalesAggregator> sales;
+
+    private final Map<Integer, Slot> slots = new HashMap<>();
+    private final Map<Integer, Set<Integer>> showtimesByRoom = new HashMap<>();
+    private final Map<Integer, Integer> capacityOfRoom = new HashMap<>();
+
+    /**
+     * room id (or {@link #ALL_ROOMS}) -> one counter per hour of the week.
+     */
+    private final Map<Integer, Counters[]> cells = new HashMap<>();
+
+    private final List<WeakReference<Consumer<Set<Integer>>>> listeners = new ArrayList<>();
+
+    /**
+     * Strong reference for the aggregator, which only keeps a weak one.
+     */
+    private final Consumer<SalesAggregator.Changes> salesListener = this::onSales;
+    private boolean following;
+
+    /**
+     * True once the archived showtimes were read (until the schedule is read again).
+     */
+    private boolean seeded;
+
+    /**
+     * Creates empty counters; the application uses {@link #getInstance()}.
+     *
+     * @param sales aggregator to take the tickets sold from
+     */
+    RoomOccupancy(Supplier<SalesAggregator> sales) {
+        this.sales = sales;
+    }
+
+    /**
+     * Returns the shared occupancy counters.
+     *
+     * @return occupancy instance
+     */
+    public static RoomOccupancy getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Catches up: loads the rooms and the active months if no screen has yet
+     * (their rows arrive through the cache hooks), the first time reads the
+     * archived showtimes, then follows the sales ({@link #followSales}).
+     * Costs as much as the showtimes, never the tickets.
+     *
+     * @throws IOException if the schedule archives or the ticket ledger could not be read
+     */
+    public void refresh() throws IOException {
+        RoomRepository.getInstance().getActiveFrom();
+        ShowtimeRepository showtimes = ShowtimeRepository.getInstance();
+        showtimes.getActiveFrom();
+        boolean seed;
+        synchronized (this) {
+            seed = !seeded;
+        }
+        if (seed) {
+            showtimes.forEachUnloaded(this::showtimeArchived);
+            synchronized (this) {
+                seeded = true;
+            }
+        }
+        followSales();
+    }
+
+    /**
+     * Reads the new sales, and the first time, takes the tickets sold per
+     * showtime from the aggregator and follows its changes from then on.
+     *
+     * @throws IOException if the ticket ledger could not be read
+     */
+    void followSales() throws IOException {
+        SalesAggregator sales = this.sales.get();
+        boolean first;
+        synchronized (this) {
+            first = !following;
+            following = true;
+        }
+        if (first) sales.addChangeListener(salesListener);
+        sales.refresh();
+        if (first) onSales(sales.current());
+    }
+
+    /**
+     * Registers code to run after counters changed, with the ids of the rooms
+     * whose cells changed (and {@link #ALL_ROOMS}). It runs on the thread that
+     * made the change; screens hand it to the JavaFX thread. Only a weak
+     * reference is kept, so the owner must hold on to the listener.
+     *
+     * @param listener receives the changed room ids
+     */
+    public synchronized void addChangeListener(Consumer<Set<Integer>> listener) {
+        listeners.add(new WeakReference<>(listener));
+    }
+
+    /**
+     * Returns the heatmap of a room.
+     *
+     * @param roomId room id, or {@link #ALL_ROOMS}
+     * @return one cell per hour of the week, Monday 0:00 first
+     */
+    public synchronized List<Cell> heatmap(int roomId) {
+        Counters[] week = cells.get(roomId);
+        List<Cell> heatmap = new ArrayList<>(HOURS_PER_WEEK);
+        for (int hour = 0; hour < HOURS_PER_WEEK; hour++) {
+            heatmap.add(week == null ? new Counters().toCell(hour) : week[hour].toCell(hour));
+        }
+        return heatmap;
+    }
+
+    /**
+     * Returns the occupancy of a room over the whole week.
+     *
+     * @param roomId room id, or {@link #ALL_ROOMS}
+     * @return totals of its cells; the hour of week is -1
+     */
+    public synchronized Cell week(int roomId) {
+        Counters total = new Counters();
+        Counters[] week = cells.get(roomId);
+        if (week != null) {
+            for (Counters hour : week) {
+                total.showtimes += hour.showtimes;
+                total.seatsSold += hour.seatsSold;
+                total.seatsOffered += hour.seatsOffered;
+                total.loadSum += hour.loadSum;
+                total.loadSquares += hour.loadSquares;
+                total.soldOut += hour.soldOut;
+            }
+        }
+        return total.toCell(-1);
+    }
+
+    /**
+     * INDEX HOOK from {@link ShowtimeRepository}: a showtime was added, changed or removed.
+     *
+     * @param before showtime cached until now, or null
+     * @param after  showtime cached from now on, or null
+     */
+    void showtimeChanged(Showtime before, Showtime after) {
+        Showtime showtime = after != null ? after : before;
+        Set<Integer> changed;
+        synchronized (this) {
+            Slot slot = slots.computeIfAbsent(showtime.getShowtimeID(), id -> new Slot());
+            changed = unplace(showtime.getShowtimeID(), slot);
+            if (after != null) changed.addAll(place(slot, after));
+        }
+        notifyListeners(changed);
+    }
+
+    /**
+     * HISTORY: a showtime of an archived month, read by {@link #refresh} and
+     * not by the schedule cache. Left to the cache hooks if they placed it already.
+     *
+     * @param showtime archived showtime
+     */
+    void showtimeArchived(Showtime showtime) {
+        Set<Integer> changed;
+        synchronized (this) {
+            Slot slot = slots.computeIfAbsent(showtime.getShowtimeID(), id -> new Slot());
+            if (slot.hourOfWeek >= 0) return;
+            slot.archived = true;
+            changed = place(slot, showtime);
+        }
+        notifyListeners(changed);
+    }
+
+    /**
+     * INDEX HOOK from {@link ShowtimeRepository}: the schedule is about to be read again.
+     * Archived showtimes stay; months archived since they were read are read again by the next {@link #refresh}.
+     */
+    void scheduleCleared() {
+        Set<Integer> changed = new HashSet<>();
+        synchronized (this) {
+            for (Map.Entry<Integer, Slot> entry : slots.entrySet()) {
+                if (!entry.getValue().archived) changed.addAll(unplace(entry.getKey(), entry.getValue()));
+            }
+            seeded = false;
+        }
+        notifyListeners(changed);
+    }
+
+    /**
+     * INDEX HOOK from {@link RoomRepository}: a room was added, changed or removed.
+     *
+     * @param before room cached until now, or null
+     * @param after  room cached from now on, or null
+     */
+    void roomChanged(Room before, Room after) {
+        int roomId = (after != null ? after : before).getRoomID();
+        Set<Integer> changed = new HashSet<>();
+        synchronized (this) {
+            if (after == null) {
+                capacityOfRoom.remove(roomId);
+            } else {
+                capacityOfRoom.put(roomId, after.getCapacity());
+            }
+            // Only the showtimes of this room are counted again, each from its own counters
+            for (int showtimeId : showtimesByRoom.getOrDefault(roomId, Set.of())) {
+                changed.addAll(recount(slots.get(showtimeId)));
+            }
+        }
+        notifyListeners(changed);
+    }
+
+    /**
+     * INDEX HOOK from {@link RoomRepository}: the rooms are about to be read again.
+     */
+    void roomsCleared() {
+        Set<Integer> changed = new HashSet<>();
+        synchronized (this) {
+            capacityOfRoom.clear();
+            for (Slot slot : slots.values()) changed.addAll(recount(slot));
+        }
+        notifyListeners(changed);
+    }
+
+    /**
+     * Runs on the aggregator's thread: applies the new ticket counts of the changed showtimes.
+     */
+    private void onSales(SalesAggregator.Changes changes) {
+        Set<Integer> changed = new HashSet<>();
+        synchronized (this) {
+            for (SalesAggregator.Totals totals : changes.showtimes()) {
+                Slot slot = slots.computeIfAbsent(totals.key(), id -> new Slot());
+                // An older read of the ledger arriving late changes nothing
+                if (changes.offset() <= slot.soldAsOf) continue;
+                slot.sold = totals.tickets();
+                slot.soldAsOf = changes.offset();
+                changed.addAll(recount(slot));
+            }
+        }
+        notifyListeners(changed);
+    }
+
+    /**
+     * Takes back what a showtime added to its cells and adds its current figures.
+     * Caller holds the lock.
+     *
+     * @return rooms whose cells changed
+     */
+    private Set<Integer> recount(Slot slot) {
+        Set<Integer> changed = new HashSet<>();
+        if (slot.countedCapacity > 0) {
+            count(slot, -1);
+            changed.add(slot.roomId);
+            changed.add(ALL_ROOMS);
+        }
+        Integer capacity = capacityOfRoom.get(slot.roomId);
+        if (slot.hourOfWeek < 0 || capacity == null || capacity <= 0) {
+            slot.countedCapacity = 0; // not scheduled, or its room is unknown
+            return changed;
+        }
+        slot.countedSold = Math.max(0, slot.sold);
+        slot.countedCapacity = capacity;
+        count(slot, 1);
+        changed.add(slot.roomId);
+        changed.add(ALL_ROOMS);
+        return changed;
+    }
+
+    private void count(Slot slot, int sign) {
+        weekOf(slot.roomId)[slot.hourOfWeek].add(slot, sign);
+        weekOf(ALL_ROOMS)[slot.hourOfWeek].add(slot, sign);
+    }
+
+    /**
+     * Puts a showtime in the cell of its room and hour. Caller holds the lock.
+     *
+     * @return rooms whose cells changed
+     */
+    private Set<Integer> place(Slot slot, Showtime showtime) {
+        slot.roomId = showtime.getRoomID();
+        slot.hourOfWeek = hourOfWeek(showtime);
+        showtimesByRoom.computeIfAbsent(slot.roomId, room -> new HashSet<>()).add(showtime.getShowtimeID());
+        return recount(slot);
+    }
+
+    /**
+     * Takes a showtime out of the schedule, keeping its ticket counts. Caller holds the lock.
+     *
+     * @return rooms whose cells changed
+     */
+    private Set<Integer> unplace(int showtimeId, Slot slot) {
+        Set<Integer> changed = new HashSet<>();
+        if (slot.countedCapacity > 0) {
+            count(slot, -1);
+            slot.countedCapacity = 0;
+            changed.add(slot.roomId);
+            changed.add(ALL_ROOMS);
+        }
+        Set<Integer> ofRoom = showtimesByRoom.get(slot.roomId);
+        if (ofRoom != null) ofRoom.remove(showtimeId);
+        slot.roomId = ALL_ROOMS;
+        slot.hourOfWeek = -1;
+        return changed;
+    }
+
+    private Counters[] weekOf(int roomId) {
+        return cells.computeIfAbsent(roomId, id -> {
+            Counters[] week = new Counters[HOURS_PER_WEEK];
+            for (int hour = 0; hour < HOURS_PER_WEEK; hour++) week[hour] = new Counters();
+            return week;
+        });
+    }
+
+    /**
+     * Returns the hour of the week a showtime starts in, or -1 if its date or time cannot be read.
+     */
+    private static int hourOfWeek(Showtime showtime) {
+        try {
+            DayOfWeek day = LocalDate.parse(showtime.getDate()).getDayOfWeek();
+            return (day.getValue() - 1) * 24 + LocalTime.parse(showtime.getTime()).getHour();
+        } catch (DateTimeParseException | NullPointerException e) {
+            return -1;
+        }
+    }
+
+    private void notifyListeners(Set<Integer> rooms) {
+        if (rooms.isEmpty()) return;
+        List<Consumer<Set<Integer>>> live = new ArrayList<>();
+        synchronized (this) {
+            Iterator<WeakReference<Consumer<Set<Integer>>>> it = listeners.iterator();
+            while (it.hasNext()) {
+                Consumer<Set<Integer>> listener = it.next().get();
+                if (listener == null) {
+                    it.remove(); // its screen is gone
+                } else {
+                    live.add(listener);
+                }
+            }
+        }
+        for (Consumer<Set<Integer>> listener : live) listener.accept(rooms);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Process-wide repository of theater rooms, backed by "rooms.csv".
+ * CSV format: roomID,roomName,capacity,version (files without the version column load as version 0)
+ * <p>
+ * Room capacities are handed to {@link RoomOccupancy} as rooms are loaded and edited.
+ *
+ * @author Rene
+ */
+public class RoomRepository extends CsvRepository<Room> {
+
+    /**
+     * SINGLETON: One shared instance so every screen sees the same cached list.
+     */
+    private static final RoomRepository INSTANCE = new RoomRepository();
+
+    private RoomRepository() {
+        super("rooms.csv");
+    }
+
+    /**
+     * Creates a room repository over another data directory.
+     *
+     * @param dataDir  folder of "rooms.csv", ending in "/"
+     * @param watcher  watcher of {@code dataDir}
+     * @param fxThread runs the publications of the shared list
+     */
+    RoomRepository(String dataDir, DataDirectoryWatcher watcher, Executor fxThread) {
+        super(dataDir, "rooms.csv", watcher, fxThread);
+    }
+
+    /**
+     * Returns the shared room repository.
+     *
+     * @return repository instance
+     */
+    public static RoomRepository getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    protected Room parse(CsvRow row) {
+        return new Room(row.getInt(0), row.getString(1), row.getInt(2), versionAt(row, 3));
+    }
+
+    @Override
+    protected int idOf(Room room) {
+        return room.getRoomID();
+    }
+
+    @Override
+    protected void cacheChanged(Room before, Room after) {
+        RoomOccupancy.getInstance().roomChanged(before, after);
+    }
+
+    @Override
+    protected void cacheCleared() {
+        RoomOccupancy.getInstance().roomsCleared();
+    }
+
+    @Override
+    protected String toCSV(Room room) {
+        return room.toCSV();
+    }
+
+    @Override
+    protected void writeColumns(BinarySnapshot.Writer out, List<Room> rooms) throws IOException {
+        int[] ids = new int[rooms.size()];
+        String[] names = new String[rooms.size()];
+        int[] capacities = new int[rooms.size()];
+        int[] versions = new int[rooms.size()];
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            ids[i] = room.getRoomID();
+            names[i] = room.getRoomName();
+            capacities[i] = room.getCapacity();
+            versions[i] = room.getVersion();
+        }
+        out.intColumn(ids).stringColumn(names).intColumn(capacities).intColumn(versions);
+    }
+
+    @Override
+    protected List<Room> readColumns(BinarySnapshot.Reader in) throws IOException {
+        int[] ids = in.intColumn();
+        String[] names = in.stringColumn();
+        int[] capacities = in.intColumn();
+        int[] versions = in.intColumn();
+        List<Room> rooms = new ArrayList<>(in.rows());
+        for (int i = 0; i < in.rows(); i++) {
+            rooms.add(new Room(ids[i], names[i], capacities[i], versions[i]));
+        }
+        return rooms;
+    }
+
+    @Override
+    protected JdbcStorage.Column[] columns() {
+        return new JdbcStorage.Column[]{
+                new JdbcStorage.Column("ROOM_ID", true, false),
+                new JdbcStorage.Column("ROOM_NAME", false, false),
+                new JdbcStorage.Column("CAPACITY", true, false),
+                new JdbcStorage.Column("VERSION", true, false)
+        };
+    }
+}
@@ -0,0 +1,477 @@
+package com.example.finalproject.model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Ticket sales totals per showtime, per room and per movie, and a rollup of
+ * them by hour of sale, kept up to date from the {@link TicketLedger}.
+ * <p>
+ * MATERIALISED VIEWS: Each view is a small map of running totals (tickets,
+ * revenue in cents, showtimes with sales). A sale adds to one entry of each
+ * view and a cancellation takes it back, so reading a view costs as much as
+ * the number of showtimes, rooms or movies, never the number of tickets.
+ * <p>
+ * DATE RANGES: The {@link RevenueCube} answers "tickets and revenue between
+ * two dates" for the cinema, a movie, a room or both in O(1), so a manager
+ * can compare any two periods without a scan of the ledger.
+ * <p>
+ * INCREMENTAL: The aggregator remembers how far into the ledger it has read.
+ * After each batch of sales of this terminal, and on {@link #refresh}, it
+ * reads only what was appended since (sales of other terminals included),
+ * and tells its listeners which showtimes, rooms and movies changed, with
+ * their new totals, so a screen can update just those rows.
+ * <p>
+ * CHECKPOINT: The views and their ledger offset are saved to
+ * "sales-views.bin" every {@link #CHECKPOINT_BYTES} bytes of ledger, so a
+ * restart reads the checkpoint and the few sales after it instead of the
+ * whole ledger.
+ *
+ * @author Rene
+ */
+public class SalesAggregator {
+
+    /**
+     * Ledger bytes (about 15 000 sales) read between two checkpoints.
+     */
+    private static final long CHECKPOINT_BYTES = 1 << 20;
+
+    private static final int CHECKPOINT_MAGIC = 0x53414c32; // "SAL2"; older checkpoints lack the cube
+
+    /**
+     * Movie or room id meaning "all of them", in {@link #between} and {@link #series}.
+     */
+    public static final int ANY = RevenueCube.ANY;
+
+    /**
+     * SINGLETON: One set of views per process, fed by the shared ledger.
+     */
+    private static final SalesAggregator INSTANCE = new SalesAggregator(TicketLedger.getInstance(),
+            CsvRepository.DATA_DIR + "sales-views.bin");
+
+    /**
+     * Totals of one showtime, room, movie or month.
+     *
+     * @param key          showtime, room or movie id
+     * @param tickets      tickets sold, net of cancellations
+     * @param revenueCents revenue, in cents, net of refunds
+     * @param showtimes    showtimes with at least one sale (1 in the showtime view)
+     */
+    public record Totals(int key, long tickets, long revenueCents, int showtimes) {
+
+        /**
+         * Returns the revenue.
+         *
+         * @return revenue in currency units
+         */
+        public double revenue() {
+            return revenueCents / 100.0;
+        }
+
+        /**
+         * Returns the average price paid per ticket.
+         *
+         * @return average price, 0 without sales
+         */
+        public double averagePrice() {
+            return tickets == 0 ? 0 : revenueCents / 100.0 / tickets;
+        }
+    }
+
+    /**
+     * Tickets and revenue of a period.
+     *
+     * @param start        first moment of the period (null if open)
+     * @param end          end of the period, exclusive (null if open)
+     * @param tickets      tickets sold
+     * @param revenueCents revenue, in cents
+     */
+    public record Period(LocalDateTime start, LocalDateTime end, long tickets, long revenueCents) {
+
+        /**
+         * Returns the revenue.
+         *
+         * @return revenue in currency units
+         */
+        public double revenue() {
+            return revenueCents / 100.0;
+        }
+    }
+
+    /**
+     * Bucket sizes of {@link #series}.
+     */
+    public enum Rollup {
+        HOUR(ChronoUnit.HOURS), DAY(ChronoUnit.DAYS), MONTH(ChronoUnit.MONTHS);
+
+        private final ChronoUnit unit;
+
+        Rollup(ChronoUnit unit) {
+            this.unit = unit;
+        }
+    }
+
+    /**
+     * New totals of the entries changed by one read of the ledger.
+     * <p>
+     * Listeners are called outside the aggregator's lock, so two reads may
+     * deliver their changes in either order; a receiver keeps the totals
+     * with the highest offset. Totals can go down (cancellations), so their
+     * size says nothing about which is newer.
+     *
+     * @param showtimes changed showtimes
+     * @param rooms     changed rooms
+     * @param movies    changed movies
+     * @param offset    ledger offset the totals were read up to
+     */
+    public record Changes(List<Totals> showtimes, List<Totals> rooms, List<Totals> movies, long offset) {
+    }
+
+    /**
+     * Running totals of one entry of a view.
+     */
+    private static final class Tally {
+        long tickets;
+        long cents;
+        int showtimes;
+    }
+
+    private final Path checkpointPath;
+    private final TicketLedger ledger;
+
+    private final Map<Integer, Tally> byShowtime = new HashMap<>();
+    private final Map<Integer, Tally> byRoom = new HashMap<>();
+    private final Map<Integer, Tally> byMovie = new HashMap<>();
+    private final RevenueCube cube = new RevenueCube();
+
+    /**
+     * Room and movie of each showtime, as recorded with its first sale.
+     */
+    private final Map<Integer, int[]> placeOfShowtime = new HashMap<>();
+
+    /**
+     * Keys changed since the last notification.
+     */
+    private final Set<Integer> changedShowtimes = new HashSet<>();
+    private final Set<Integer> changedRooms = new HashSet<>();
+    private final Set<Integer> changedMovies = new HashSet<>();
+
+    private final List<WeakReference<Consumer<Changes>>> listeners = new ArrayList<>();
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    /**
+     * True once the views were first read; until then sales are not followed.
+     */
+    private volatile boolean loaded;
+    private long offset;
+    private long checkpointOffset;
+
+    /**
+     * Creates an aggregator of a ledger; the application uses {@link #getInstance()}.
+     *
+     * @param ledger         ledger to follow
+     * @param checkpointPath file of the saved views
+     */
+    SalesAggregator(TicketLedger ledger, String checkpointPath) {
+        this.ledger = ledger;
+        this.checkpointPath = Paths.get(checkpointPath);
+        ledger.addListener(this::onSalesWritten);
+    }
+
+    /**
+     * Returns the shared sales aggregator.
+     *
+     * @return aggregator instance
+     */
+    public static SalesAggregator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers code to run after the totals changed. It runs on a background
+     * thread, once per read of the ledger (which may hold many sales); screens
+     * hand the changes to the JavaFX thread. Only a weak reference is kept, so
+     * the owner must hold on to the listener.
+     *
+     * @param listener receives the new totals of what changed
+     */
+    public synchronized void addChangeListener(Consumer<Changes> listener) {
+        listeners.add(new WeakReference<>(listener));
+    }
+
+    /**
+     * Reads the sales appended to the ledger since the last read (the
+     * checkpoint, or the whole ledger, the first time).
+     *
+     * @throws IOException if the ledger could not be read
+     */
+    public void refresh() throws IOException {
+        Changes changes = null;
+        synchronized (this) {
+            if (!loaded) {
+                readCheckpoint();
+                loaded = true;
+            }
+            // Each sale moves the offset past it, so a read failing halfway is resumed, not counted twice
+            ledger.replayFrom(offset, this::add);
+            if (!changedShowtimes.isEmpty()) changes = drainChanges();
+            if (offset - checkpointOffset >= CHECKPOINT_BYTES) writeCheckpoint();
+        }
+        if (changes != null) notifyListeners(changes);
+    }
+
+    /**
+     * Returns the totals of every showtime, room and movie with sales, in one
+     * go with the ledger offset they were read up to, for a receiver of the
+     * {@link Changes} that starts from all of them.
+     *
+     * @return every entry of each view, stamped like the changes
+     */
+    public synchronized Changes current() {
+        return new Changes(snapshot(byShowtime), snapshot(byRoom), snapshot(byMovie), offset);
+    }
+
+    /**
+     * Returns the totals of every showtime with sales.
+     *
+     * @return one entry per showtime
+     */
+    public synchronized List<Totals> byShowtime() {
+        return snapshot(byShowtime);
+    }
+
+    /**
+     * Returns the totals of every room with sales.
+     *
+     * @return one entry per room; its showtime count is the showtimes with sales
+     */
+    public synchronized List<Totals> byRoom() {
+        return snapshot(byRoom);
+    }
+
+    /**
+     * Returns the totals of every movie with sales.
+     *
+     * @return one entry per movie; its showtime count is the showtimes with sales
+     */
+    public synchronized List<Totals> byMovie() {
+        return snapshot(byMovie);
+    }
+
+    /**
+     * Returns the tickets and revenue of the sales made during a period.
+     * Times are rounded down to the hour. Constant time, whatever the period.
+     *
+     * @param start   first moment, inclusive (null for the first sale)
+     * @param end     end, exclusive (null for after the last sale)
+     * @param movieId movie, or {@link #ANY}
+     * @param roomId  room, or {@link #ANY}
+     * @return totals of the period
+     */
+    public synchronized Period between(LocalDateTime start, LocalDateTime end, int movieId, int roomId) {
+        long[] sum = cube.sum(RevenueCube.hourOf(start, false), RevenueCube.hourOf(end, true), movieId, roomId);
+        return new Period(start, end, sum[0], sum[1]);
+    }
+
+    /**
+     * Returns the tickets and revenue of each hour, day or month of a period,
+     * e.g. for a chart. Each bucket costs O(1).
+     *
+     * @param start   start of the first bucket
+     * @param end     end of the period, exclusive; the last bucket may be cut short
+     * @param rollup  bucket size
+     * @param movieId movie, or {@link #ANY}
+     * @param roomId  room, or {@link #ANY}
+     * @return one period per bucket, in order
+     */
+    public synchronized List<Period> series(LocalDateTime start, LocalDateTime end, Rollup rollup,
+                                            int movieId, int roomId) {
+        List<Period> buckets = new ArrayList<>();
+        for (LocalDateTime from = start; from.isBefore(end); ) {
+            LocalDateTime to = from.plus(1, rollup.unit);
+            if (to.isAfter(end)) to = end;
+            long[] sum = cube.sum(RevenueCube.hourOf(from, false), RevenueCube.hourOf(to, true), movieId, roomId);
+            buckets.add(new Period(from, to, sum[0], sum[1]));
+            from = to;
+        }
+        return buckets;
+    }
+
+    /**
+     * Runs on the ledger's writer thread: hands the read of the new sales to a
+     * virtual thread, one at a time; batches written meanwhile are read together.
+     */
+    private void onSalesWritten() {
+        if (!loaded || !refreshQueued.compareAndSet(false, true)) return;
+        Thread.ofVirtual().name("sales-aggregator").start(() -> {
+            refreshQueued.set(false); // batches written from now on need another read
+            try {
+                refresh();
+            } catch (IOException e) {
+                System.err.println("SALES: Could not read new sales from the ticket ledger");
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Adds one sale (or takes back a cancelled one) in every view and moves the offset past it.
+     */
+    private void add(TicketLedger.Entry sale, long end) {
+        int[] place = placeOfShowtime.get(sale.showtimeId());
+        boolean firstSale = place == null;
+        if (firstSale) {
+            place = new int[]{sale.roomId(), sale.movieId()};
+            placeOfShowtime.put(sale.showtimeId(), place);
+        }
+        count(byShowtime, sale.showtimeId(), sale, firstSale);
+        count(byRoom, place[0], sale, firstSale);
+        count(byMovie, place[1], sale, firstSale);
+        changedShowtimes.add(sale.showtimeId());
+        changedRooms.add(place[0]);
+        changedMovies.add(place[1]);
+        cube.add(sale.purchased(), place[1], place[0], sale.tickets(), sale.revenueCents());
+        offset = end;
+    }
+
+    private static void count(Map<Integer, Tally> view, int key, TicketLedger.Entry sale, boolean newShowtime) {
+        Tally tally = view.computeIfAbsent(key, k -> new Tally());
+        if (newShowtime) tally.showtimes++;
+        tally.tickets += sale.tickets();
+        tally.cents += sale.revenueCents();
+    }
+
+    /**
+     * Returns the new totals of the keys changed since the last call, and forgets them.
+     */
+    private Changes drainChanges() {
+        Changes changes = new Changes(snapshot(byShowtime, changedShowtimes), snapshot(byRoom, changedRooms),
+                snapshot(byMovie, changedMovies), offset);
+        changedShowtimes.clear();
+        changedRooms.clear();
+        changedMovies.clear();
+        return changes;
+    }
+
+    private static List<Totals> snapshot(Map<Integer, Tally> view, Set<Integer> keys) {
+        List<Totals> totals = new ArrayList<>(keys.size());
+        for (int key : keys) {
+            Tally tally = view.get(key);
+            totals.add(new Totals(key, tally.tickets, tally.cents, tally.showtimes));
+        }
+        return totals;
+    }
+
+    private static List<Totals> snapshot(Map<Integer, Tally> view) {
+        List<Totals> totals = new ArrayList<>(view.size());
+        for (Map.Entry<Integer, Tally> entry : view.entrySet()) {
+            Tally tally = entry.getValue();
+            totals.add(new Totals(entry.getKey(), tally.tickets, tally.cents, tally.showtimes));
+        }
+        return totals;
+    }
+
+    private void notifyListeners(Changes changes) {
+        List<Consumer<Changes>> live = new ArrayList<>();
+        synchronized (this) {
+            Iterator<WeakReference<Consumer<Changes>>> it = listeners.iterator();
+            while (it.hasNext()) {
+                Consumer<Changes> listener = it.next().get();
+                if (listener == null) {
+                    it.remove(); // its screen is gone
+                } else {
+                    live.add(listener);
+                }
+            }
+        }
+        for (Consumer<Changes> listener : live) listener.accept(changes);
+    }
+
+    /**
+     * Loads the saved views, unless the ledger no longer reaches their offset (replaced or cut).
+     */
+    private void readCheckpoint() {
+        if (!Files.exists(checkpointPath)) return;
+        try (InputStream file = Files.newInputStream(checkpointPath);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+            if (in.readInt() != CHECKPOINT_MAGIC) return;
+            long savedOffset = in.readLong();
+            if (savedOffset > ledger.size()) {
+                System.out.println("SALES: " + checkpointPath + " is ahead of the ticket ledger; reading the whole ledger");
+                return;
+            }
+            int places = in.readInt();
+            for (int i = 0; i < places; i++) {
+                placeOfShowtime.put(in.readInt(), new int[]{in.readInt(), in.readInt()});
+            }
+            for (Map<Integer, Tally> view : List.of(byShowtime, byRoom, byMovie)) readView(in, view);
+            cube.read(in);
+            offset = savedOffset;
+            checkpointOffset = savedOffset;
+        } catch (IOException | RuntimeException e) {
+            // A damaged checkpoint (cut short, or with impossible sizes) only costs one full read of the ledger
+            System.out.println("SALES: Ignoring unreadable " + checkpointPath);
+            for (Map<Integer, ?> view : List.of(placeOfShowtime, byShowtime, byRoom, byMovie)) view.clear();
+            cube.clear();
+        }
+    }
+
+    private void writeCheckpoint() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeLong(offset);
+            out.writeInt(placeOfShowtime.size());
+            for (Map.Entry<Integer, int[]> entry : placeOfShowtime.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeInt(entry.getValue()[0]);
+                out.writeInt(entry.getValue()[1]);
+            }
+            for (Map<Integer, Tally> view : List.of(byShowtime, byRoom, byMovie)) writeView(out, view);
+            cube.write(out);
+        }
+        DurableWriter.getInstance().replace(checkpointPath, bytes.toByteArray());
+        checkpointOffset = offset;
+    }
+
+    private static void writeView(DataOutputStream out, Map<Integer, Tally> view) throws IOException {
+        out.writeInt(view.size());
+        for (Map.Entry<Integer, Tally> entry : view.entrySet()) {
+            out.writeInt(entry.getKey());
+            out.writeLong(entry.getValue().tickets);
+            out.writeLong(entry.getValue().cents);
+            out.writeInt(entry.getValue().showtimes);
+        }
+    }
+
+    private static void readView(DataInputStream in, Map<Integer, Tally> view) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            Tally tally = new Tally();
+            int key = in.readInt();
+            tally.tickets = in.readLong();
+            tally.cents = in.readLong();
+            tally.showtimes = in.readInt();
+            view.put(key, tally);
+        }
+    }
+}
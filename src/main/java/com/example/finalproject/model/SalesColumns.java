@@ -0,0 +1,82 @@
+package com.example.finalproject.model;
+
+/**
+ * A chunk of ticket sales and cancellations decoded from the ledger into
+ * primitive columns.
+ * <p>
+ * COLUMNS: One array per field instead of one object per sale, so a chunk
+ * of thousands of sales is a handful of allocations made once per reader,
+ * and aggregating it is a tight loop over plain arrays. A reader fills the
+ * chunk, hands it to the aggregation, clears it and fills it again.
+ *
+ * @author Rene
+ */
+final class SalesColumns {
+
+    /**
+     * Sales per chunk: small enough to stay in the CPU caches.
+     */
+    static final int CAPACITY = 8192;
+
+    final int[] showtimeId = new int[CAPACITY];
+    final int[] movieId = new int[CAPACITY];
+    final int[] roomId = new int[CAPACITY];
+
+    /**
+     * 1 for a sale, -1 for a cancellation.
+     */
+    final int[] tickets = new int[CAPACITY];
+
+    /**
+     * Price of the ticket, negated for a cancellation (a refund).
+     */
+    final long[] priceCents = new long[CAPACITY];
+
+    /**
+     * Purchase time as the number yyyyMMddHHmm (e.g. 202512011830), so times compare as longs.
+     */
+    final long[] purchased = new long[CAPACITY];
+
+    int size;
+
+    /**
+     * Returns true if no more sales fit.
+     *
+     * @return true when full
+     */
+    boolean isFull() {
+        return size == CAPACITY;
+    }
+
+    /**
+     * Empties the chunk for reuse.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the yyyyMMddHHmm number of a time, in the form of {@link #purchased}.
+     *
+     * @param year   year
+     * @param month  month, 1-12
+     * @param day    day of month
+     * @param hour   hour of day
+     * @param minute minute
+     * @return the packed time
+     */
+    static long pack(int year, int month, int day, int hour, int minute) {
+        return (((year * 100L + month) * 100 + day) * 100 + hour) * 100 + minute;
+    }
+
+    /**
+     * Returns the month of a packed time as year * 12 + month - 1.
+     *
+     * @param packed time from {@link #pack}
+     * @return month index
+     */
+    static int monthOf(long packed) {
+        long yearMonth = packed / 1_000_000;
+        return (int) (yearMonth / 100 * 12 + yearMonth % 100 - 1);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.finalproject.model;
+
+/**
+ * Reductions over columns of sales and showtimes: tickets, revenue and
+ * occupancy.
+ * <p>
+ * Two implementations give identical results: {@link ScalarSalesKernel}, a
+ * plain loop that runs everywhere, and {@link VectorSalesKernel}, which uses
+ * the CPU's SIMD lanes through the incubating Vector API. All sums are exact
+ * integer sums, so adding in another order never changes a result.
+ *
+ * @author Rene
+ */
+interface SalesKernel {
+
+    /**
+     * Sums tickets and revenue over rows of {@link SalesColumns}.
+     *
+     * @param tickets    1 per sale, -1 per cancellation
+     * @param priceCents prices in cents, negative for cancellations
+     * @param length     number of rows to read
+     * @return {tickets, revenue in cents}
+     */
+    long[] sum(int[] tickets, long[] priceCents, int length);
+
+    /**
+     * Sums the seats sold and offered over showtimes, and counts the
+     * showtimes filled to at least a given percentage and those sold out.
+     *
+     * @param sold     seats sold per showtime
+     * @param capacity seats of the room per showtime
+     * @param length   number of rows to read
+     * @param percent  fill level to count, e.g. 80
+     * @return {seats sold, seats offered, showtimes with sold * 100 &gt;= capacity * percent,
+     * showtimes with sold &gt;= capacity}
+     */
+    long[] occupancy(int[] sold, int[] capacity, int length, int percent);
+
+    /**
+     * Returns the vector kernel if the Vector API is available and the CPU
+     * has SIMD lanes for it, else the scalar one. The system property
+     * "finalproject.scalar" forces the scalar kernel.
+     *
+     * @return the kernel to use
+     */
+    static SalesKernel load() {
+        if (Boolean.getBoolean("finalproject.scalar")
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return new ScalarSalesKernel();
+        }
+        try {
+            // Loaded by name: without the module, even linking VectorSalesKernel would fail
+            return (SalesKernel) Class.forName("com.example.finalproject.model.VectorSalesKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Includes a CPU without SIMD lanes, which VectorSalesKernel refuses
+            return new ScalarSalesKernel();
+        }
+    }
+}
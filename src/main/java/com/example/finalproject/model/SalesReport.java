@@ -0,0 +1,436 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+/**
+ * Batch report over the whole ticket history, e.g. for year-end or audit
+ * reports: tickets and revenue per showtime, movie, room and month of sale.
+ * <p>
+ * FORK/JOIN: The ledger is split into byte ranges, halved until each is
+ * small enough, and the ranges are read in parallel on a {@link ForkJoinPool}.
+ * Each range is decoded by its own {@link LedgerScanner} into primitive
+ * {@link SalesColumns} and summed into a partial result; partial results are
+ * merged pairwise on the way back up. Nothing is shared while reading, so the
+ * report scales with the cores until the disk is the limit.
+ * <p>
+ * SIMD: The totals of each chunk and the occupancy of the showtimes are
+ * reduced by a {@link SalesKernel}: on the CPU's vector lanes when the JVM
+ * runs with {@code --add-modules jdk.incubator.vector}, in plain loops
+ * otherwise, with the same results. The launcher leaves the module out: once
+ * warm, the JIT vectorises the plain loops about as well (see
+ * SalesKernelBenchmark), and the vector kernel takes longer to warm up.
+ * <p>
+ * Unlike the {@link SalesAggregator}, which follows the ledger as it grows,
+ * a report reads everything again: use it for periods the running totals do
+ * not keep (per showtime for a given year) or to check them.
+ *
+ * @author Rene
+ */
+public final class SalesReport {
+
+    /**
+     * Ranges are split until they are this small (about 45 000 sales).
+     */
+    private static final long SEGMENT_BYTES = 4L << 20;
+
+    /**
+     * Fill level from which a showtime counts as busy.
+     */
+    private static final int BUSY_PERCENT = 80;
+
+    private static final SalesKernel KERNEL = SalesKernel.load();
+
+    private SalesReport() {
+    }
+
+    /**
+     * Totals of a report.
+     *
+     * @param start        first moment covered (null: from the first sale)
+     * @param end          end of the period, exclusive (null: up to the report)
+     * @param tickets      tickets sold, net of cancellations
+     * @param revenueCents revenue, in cents
+     * @param byShowtime   per showtime, by id
+     * @param byMovie      per movie, by revenue; showtime counts are showtimes with sales
+     * @param byRoom       per room, by revenue; likewise
+     * @param byMonth      per month of sale, in order
+     * @param occupancy    seats sold against seats offered, over the showtimes with sales
+     * @param damagedAt    offset of a damaged record that ended the readable ledger, or -1
+     */
+    public record Report(LocalDateTime start, LocalDateTime end, long tickets, long revenueCents,
+                         List<SalesAggregator.Totals> byShowtime,
+                         List<SalesAggregator.Totals> byMovie,
+                         List<SalesAggregator.Totals> byRoom,
+                         List<SalesAggregator.Period> byMonth,
+                         Occupancy occupancy,
+                         long damagedAt) {
+
+        /**
+         * Returns the revenue.
+         *
+         * @return revenue in currency units
+         */
+        public double revenue() {
+            return revenueCents / 100.0;
+        }
+
+        /**
+         * Writes the report as CSV: totals, then one section per month, movie and room.
+         *
+         * @param file file to write
+         * @throws IOException if writing fails
+         */
+        public void writeCsv(Path file) throws IOException {
+            List<String> lines = new ArrayList<>();
+            lines.add("Sales report," + (start == null ? "first sale" : start) + "," + (end == null ? "now" : end));
+            lines.add("Tickets," + tickets);
+            lines.add("Revenue," + String.format(Locale.ROOT, "%.2f", revenue()));
+            lines.add("Occupancy," + String.format(Locale.ROOT, "%.1f%%", occupancy.loadFactor() * 100));
+            lines.add("Busy showtimes (" + BUSY_PERCENT + "%+)," + occupancy.busy() + "," + occupancy.showtimes());
+            lines.add("Sold-out showtimes," + occupancy.soldOut() + "," + occupancy.showtimes());
+            lines.add("");
+            lines.add("Month,Tickets,Revenue");
+            for (SalesAggregator.Period month : byMonth) {
+                lines.add(YearMonth.from(month.start()) + "," + month.tickets() + "," + String.format(Locale.ROOT, "%.2f", month.revenue()));
+            }
+            lines.add("");
+            lines.add("Movie ID,Title,Showtimes,Tickets,Revenue");
+            for (SalesAggregator.Totals movie : byMovie) {
+                Movie found = MovieRepository.getInstance().findById(movie.key());
+                lines.add(csvLine(movie, found == null ? "" : found.getTitle()));
+            }
+            lines.add("");
+            lines.add("Room ID,Name,Showtimes,Tickets,Revenue");
+            for (SalesAggregator.Totals room : byRoom) {
+                Room found = RoomRepository.getInstance().findById(room.key());
+                lines.add(csvLine(room, found == null ? "" : found.getRoomName()));
+            }
+            Files.write(file, lines);
+        }
+
+        private static String csvLine(SalesAggregator.Totals totals, String name) {
+            String quoted = "\"" + name.replace("\"", "\"\"") + "\"";
+            return totals.key() + "," + quoted + "," + totals.showtimes() + "," + totals.tickets() + ","
+                    + String.format(Locale.ROOT, "%.2f", totals.revenue());
+        }
+    }
+
+    /**
+     * How full the showtimes of a report were. Showtimes whose room is no
+     * longer known are left out; tickets of a showtime sold outside the
+     * period are not counted.
+     *
+     * @param seatsSold    tickets sold for the showtimes
+     * @param seatsOffered seats of their rooms
+     * @param showtimes    showtimes counted
+     * @param busy         showtimes filled to at least 80%
+     * @param soldOut      showtimes with every seat sold
+     */
+    public record Occupancy(long seatsSold, long seatsOffered, int showtimes, int busy, int soldOut) {
+
+        /**
+         * Returns the share of the seats offered that were sold.
+         *
+         * @return load factor, 0 if no seats were offered
+         */
+        public double loadFactor() {
+            return seatsOffered == 0 ? 0 : (double) seatsSold / seatsOffered;
+        }
+    }
+
+    /**
+     * Reads the ledger on the common fork/join pool.
+     *
+     * @param start first moment to count (null: from the first sale)
+     * @param end   end of the period, exclusive (null: everything sold so far)
+     * @return the report; times are compared to the minute
+     * @throws IOException if the ledger could not be read
+     */
+    public static Report compute(LocalDateTime start, LocalDateTime end) throws IOException {
+        return compute(start, end, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reads the ledger on a given pool (e.g. one with fewer threads, to leave cores to the sellers).
+     *
+     * @param start first moment to count (null: from the first sale)
+     * @param end   end of the period, exclusive (null: everything sold so far)
+     * @param pool  pool to read on
+     * @return the report
+     * @throws IOException if the ledger could not be read
+     */
+    public static Report compute(LocalDateTime start, LocalDateTime end, ForkJoinPool pool) throws IOException {
+        return compute(TicketLedger.getInstance(), id -> RoomRepository.getInstance().findById(id),
+                start, end, pool, SEGMENT_BYTES);
+    }
+
+    /**
+     * Reads a ledger in ranges of a given size.
+     *
+     * @param ledger       ledger to read
+     * @param rooms        room of an id, or null if unknown
+     * @param start        first moment to count (null: from the first sale)
+     * @param end          end of the period, exclusive (null: everything sold so far)
+     * @param pool         pool to read on
+     * @param segmentBytes ranges are split until they are this small
+     * @return the report
+     * @throws IOException if the ledger could not be read
+     */
+    static Report compute(TicketLedger ledger, IntFunction<Room> rooms, LocalDateTime start, LocalDateTime end,
+                          ForkJoinPool pool, long segmentBytes) throws IOException {
+        Path path = ledger.getPath();
+        long fromTime = start == null ? Long.MIN_VALUE : pack(start);
+        long toTime = end == null ? Long.MAX_VALUE : pack(end);
+        Partial total;
+        if (!Files.exists(path)) {
+            total = new Partial();
+        } else {
+            // Taken under the ledger's lock: a batch being appended is left out, not taken for damage
+            long size = ledger.size();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                total = pool.invoke(new Segment(channel, size, 0, size, fromTime, toTime, segmentBytes));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return total.toReport(start, end, rooms);
+    }
+
+    private static long pack(LocalDateTime time) {
+        return SalesColumns.pack(time.getYear(), time.getMonthValue(), time.getDayOfMonth(),
+                time.getHour(), time.getMinute());
+    }
+
+    /**
+     * A byte range of the ledger: split in two, or read directly when small.
+     */
+    private static final class Segment extends RecursiveTask<Partial> {
+
+        private final FileChannel channel;
+        private final long size;
+        private final long from;
+        private final long to;
+        private final long fromTime;
+        private final long toTime;
+        private final long segmentBytes;
+
+        Segment(FileChannel channel, long size, long from, long to, long fromTime, long toTime, long segmentBytes) {
+            this.channel = channel;
+            this.size = size;
+            this.from = from;
+            this.to = to;
+            this.fromTime = fromTime;
+            this.toTime = toTime;
+            this.segmentBytes = segmentBytes;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from > segmentBytes) {
+                long middle = from + (to - from) / 2;
+                Segment left = new Segment(channel, size, from, middle, fromTime, toTime, segmentBytes);
+                left.fork();
+                Partial right = new Segment(channel, size, middle, to, fromTime, toTime, segmentBytes).compute();
+                return left.join().merge(right);
+            }
+            Partial partial = new Partial();
+            try {
+                partial.damagedAt = new LedgerScanner(channel, size)
+                        .scan(from, to, fromTime, toTime, new SalesColumns(), partial::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return partial;
+        }
+    }
+
+    /**
+     * Sums of one range of the ledger, by showtime id and by month of sale.
+     * Movie and room totals are derived from the showtimes at the end.
+     * <p>
+     * The per-showtime arrays only span the ids seen in the range, from
+     * {@code base} on: a range covers a few weeks of sales, hence a narrow
+     * band of showtimes, so a merge walks that band instead of every id.
+     */
+    private static final class Partial {
+        int base;
+        long[] tickets = new long[0];
+        long[] cents = new long[0];
+        int[] movie = new int[0];
+        int[] room = new int[0];
+        final Map<Integer, long[]> months = new HashMap<>();
+        long totalTickets;
+        long totalCents;
+        long damagedAt = -1;
+
+        /**
+         * Adds the sales of a chunk (already limited to the period).
+         */
+        void add(SalesColumns sales) {
+            long[] sums = KERNEL.sum(sales.tickets, sales.priceCents, sales.size);
+            totalTickets += sums[0];
+            totalCents += sums[1];
+            int lastMonth = Integer.MIN_VALUE;
+            long[] month = null;
+            for (int i = 0; i < sales.size; i++) {
+                int id = sales.showtimeId[i];
+                int count = sales.tickets[i];
+                long price = sales.priceCents[i];
+                if (id < 0) {
+                    // Not in any showtime's breakdown, so not in the totals either
+                    totalTickets -= count;
+                    totalCents -= price;
+                    continue;
+                }
+                int showtime = indexOf(id);
+                tickets[showtime] += count;
+                cents[showtime] += price;
+                if (movie[showtime] < 0) {
+                    movie[showtime] = sales.movieId[i];
+                    room[showtime] = sales.roomId[i];
+                }
+                // Sales are in time order, so the month rarely changes within a chunk
+                int monthIndex = SalesColumns.monthOf(sales.purchased[i]);
+                if (monthIndex != lastMonth) {
+                    month = months.computeIfAbsent(monthIndex, k -> new long[2]);
+                    lastMonth = monthIndex;
+                }
+                month[0] += count;
+                month[1] += price;
+            }
+        }
+
+        /**
+         * Adds the partial result of the range right after this one. A damaged
+         * record here ends the ledger, so nothing after it counts.
+         */
+        Partial merge(Partial next) {
+            if (damagedAt >= 0) return this;
+            totalTickets += next.totalTickets;
+            totalCents += next.totalCents;
+            if (next.tickets.length > 0) {
+                // Widen to the next band first; the loop then indexes directly
+                indexOf(next.base);
+                indexOf(next.base + next.tickets.length - 1);
+            }
+            for (int i = 0; i < next.tickets.length; i++) {
+                if (next.tickets[i] == 0 && next.cents[i] == 0) continue;
+                int at = next.base + i - base;
+                tickets[at] += next.tickets[i];
+                cents[at] += next.cents[i];
+                if (movie[at] < 0) {
+                    movie[at] = next.movie[i];
+                    room[at] = next.room[i];
+                }
+            }
+            next.months.forEach((key, sums) -> {
+                long[] month = months.computeIfAbsent(key, k -> new long[2]);
+                month[0] += sums[0];
+                month[1] += sums[1];
+            });
+            damagedAt = next.damagedAt;
+            return this;
+        }
+
+        Report toReport(LocalDateTime start, LocalDateTime end, IntFunction<Room> rooms) {
+            List<SalesAggregator.Totals> byShowtime = new ArrayList<>();
+            Map<Integer, long[]> byMovie = new HashMap<>();
+            Map<Integer, long[]> byRoom = new HashMap<>();
+            int[] sold = new int[tickets.length];
+            int[] capacity = new int[tickets.length];
+            int rated = 0;
+            for (int i = 0; i < tickets.length; i++) {
+                if (tickets[i] == 0) continue;
+                byShowtime.add(new SalesAggregator.Totals(base + i, tickets[i], cents[i], 1));
+                count(byMovie, movie[i], i);
+                count(byRoom, room[i], i);
+                Room found = rooms.apply(room[i]);
+                if (found != null && found.getCapacity() > 0) {
+                    sold[rated] = (int) tickets[i];
+                    capacity[rated] = found.getCapacity();
+                    rated++;
+                }
+            }
+            long[] seats = KERNEL.occupancy(sold, capacity, rated, BUSY_PERCENT);
+            List<SalesAggregator.Period> byMonth = new ArrayList<>();
+            months.keySet().stream().sorted().forEach(key -> {
+                LocalDateTime first = YearMonth.of(key / 12, key % 12 + 1).atDay(1).atStartOfDay();
+                long[] sums = months.get(key);
+                byMonth.add(new SalesAggregator.Period(first, first.plusMonths(1), sums[0], sums[1]));
+            });
+            Occupancy occupancy = new Occupancy(seats[0], seats[1], rated, (int) seats[2], (int) seats[3]);
+            return new Report(start, end, totalTickets, totalCents, byShowtime,
+                    byRevenue(byMovie), byRevenue(byRoom), byMonth, occupancy, damagedAt);
+        }
+
+        private void count(Map<Integer, long[]> view, int key, int index) {
+            long[] sums = view.computeIfAbsent(key, k -> new long[3]);
+            sums[0] += tickets[index];
+            sums[1] += cents[index];
+            sums[2]++;
+        }
+
+        private static List<SalesAggregator.Totals> byRevenue(Map<Integer, long[]> view) {
+            List<SalesAggregator.Totals> totals = new ArrayList<>();
+            view.forEach((key, sums) -> totals.add(new SalesAggregator.Totals(key, sums[0], sums[1], (int) sums[2])));
+            totals.sort(Comparator.comparingLong(SalesAggregator.Totals::revenueCents).reversed());
+            return totals;
+        }
+
+        /**
+         * Returns the array index of a showtime id, widening the band to include it.
+         */
+        private int indexOf(int id) {
+            if (id >= base && id - base < tickets.length) return id - base;
+            int low;
+            int high;
+            if (tickets.length == 0) {
+                low = id;
+                high = id + 1;
+            } else if (id < base) {
+                low = Math.max(0, Math.min(id, base - tickets.length));
+                high = base + tickets.length;
+            } else {
+                low = base;
+                high = (int) Math.min(Integer.MAX_VALUE, Math.max(id + 1L, base + 2L * tickets.length));
+            }
+            int offset = tickets.length == 0 ? 0 : base - low;
+            tickets = widen(tickets, offset, high - low);
+            cents = widen(cents, offset, high - low);
+            movie = widen(movie, offset, high - low);
+            room = widen(room, offset, high - low);
+            base = low;
+            return id - base;
+        }
+
+        private static long[] widen(long[] sums, int offset, int length) {
+            long[] wider = new long[length];
+            System.arraycopy(sums, 0, wider, offset, sums.length);
+            return wider;
+        }
+
+        private static int[] widen(int[] ids, int offset, int length) {
+            int[] wider = new int[length];
+            Arrays.fill(wider, -1);
+            System.arraycopy(ids, 0, wider, offset, ids.length);
+            return wider;
+        }
+    }
+}
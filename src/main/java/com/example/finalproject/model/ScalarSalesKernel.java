@@ -0,0 +1,36 @@
+package com.example.finalproject.model;
+
+/**
+ * {@link SalesKernel} as plain loops: the reference results, and the kernel
+ * used where the Vector API is not available.
+ *
+ * @author Rene
+ */
+final class ScalarSalesKernel implements SalesKernel {
+
+    @Override
+    public long[] sum(int[] tickets, long[] priceCents, int length) {
+        long count = 0;
+        long cents = 0;
+        for (int i = 0; i < length; i++) {
+            count += tickets[i];
+            cents += priceCents[i];
+        }
+        return new long[]{count, cents};
+    }
+
+    @Override
+    public long[] occupancy(int[] sold, int[] capacity, int length, int percent) {
+        long seatsSold = 0;
+        long seatsOffered = 0;
+        long filled = 0;
+        long full = 0;
+        for (int i = 0; i < length; i++) {
+            seatsSold += sold[i];
+            seatsOffered += capacity[i];
+            if (sold[i] * 100L >= capacity[i] * (long) percent) filled++;
+            if (sold[i] >= capacity[i]) full++;
+        }
+        return new long[]{seatsSold, seatsOffered, filled, full};
+    }
+}
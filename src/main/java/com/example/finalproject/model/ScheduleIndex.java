@@ -0,0 +1,150 @@
+package com.example.finalproject.model;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Sorted index of the schedule: showtime ids in (date, start time, id) order,
+ * bucketed by day.
+ * <p>
+ * Each day keeps its showtimes as a small sorted array of packed keys (start
+ * second in the high half, id in the low half), so adding or removing one
+ * showtime only shifts the few entries of its own day. A page of a date range
+ * is found by skipping whole days by their size and reading only the rows of
+ * the page, without materialising the rest of the range.
+ * <p>
+ * Not thread-safe; {@link ShowtimeRepository} updates and queries it while
+ * holding its monitor.
+ *
+ * @author Rene
+ */
+final class ScheduleIndex {
+
+    /**
+     * Start second given to times that are not ISO ("14:00"), so they sort last in their day.
+     */
+    private static final int UNKNOWN_TIME = 24 * 60 * 60;
+
+    /**
+     * date ("2024-12-01") -> packed keys of that day, sorted.
+     */
+    private final NavigableMap<String, Day> days = new TreeMap<>();
+
+    private int size;
+
+    /**
+     * Keys of one day; only the first {@code count} entries of {@code keys} are used.
+     */
+    private static final class Day {
+        long[] keys = new long[4];
+        int count;
+    }
+
+    /**
+     * Adds a showtime.
+     *
+     * @param showtime showtime to index
+     */
+    void add(Showtime showtime) {
+        Day day = days.computeIfAbsent(showtime.getDate(), date -> new Day());
+        long key = keyOf(showtime);
+        int at = Arrays.binarySearch(day.keys, 0, day.count, key);
+        if (at >= 0) return;
+        at = -at - 1;
+        if (day.count == day.keys.length) day.keys = Arrays.copyOf(day.keys, day.count * 2);
+        System.arraycopy(day.keys, at, day.keys, at + 1, day.count - at);
+        day.keys[at] = key;
+        day.count++;
+        size++;
+    }
+
+    /**
+     * Removes a showtime, as it was when it was added.
+     *
+     * @param showtime showtime to drop
+     */
+    void remove(Showtime showtime) {
+        Day day = days.get(showtime.getDate());
+        if (day == null) return;
+        int at = Arrays.binarySearch(day.keys, 0, day.count, keyOf(showtime));
+        if (at < 0) return;
+        System.arraycopy(day.keys, at + 1, day.keys, at, day.count - at - 1);
+        day.count--;
+        size--;
+        if (day.count == 0) days.remove(showtime.getDate());
+    }
+
+    /**
+     * Empties the index.
+     */
+    void clear() {
+        days.clear();
+        size = 0;
+    }
+
+    /**
+     * Counts the showtimes between two dates.
+     *
+     * @param from first date, inclusive, or null for no lower bound
+     * @param to   last date, inclusive, or null for no upper bound
+     * @return number of showtimes in the range
+     */
+    int count(String from, String to) {
+        if (from == null && to == null) return size;
+        int count = 0;
+        for (Day day : range(from, to).values()) count += day.count;
+        return count;
+    }
+
+    /**
+     * Returns the ids of one window of a date range, in schedule order.
+     *
+     * @param from   first date, inclusive, or null for no lower bound
+     * @param to     last date, inclusive, or null for no upper bound
+     * @param offset rows of the range to skip
+     * @param limit  maximum number of ids to return
+     * @return ids of the window (fewer than {@code limit} at the end of the range)
+     */
+    int[] window(String from, String to, int offset, int limit) {
+        int[] ids = new int[limit];
+        int found = 0;
+        int skip = offset;
+        for (Day day : range(from, to).values()) {
+            if (skip >= day.count) {
+                skip -= day.count; // the whole day lies before the window
+                continue;
+            }
+            for (int i = skip; i < day.count && found < limit; i++) {
+                ids[found++] = (int) day.keys[i];
+            }
+            skip = 0;
+            if (found == limit) break;
+        }
+        return found == limit ? ids : Arrays.copyOf(ids, found);
+    }
+
+    private NavigableMap<String, Day> range(String from, String to) {
+        if (from != null && to != null) {
+            if (from.compareTo(to) > 0) return new TreeMap<>();
+            return days.subMap(from, true, to, true);
+        }
+        if (from != null) return days.tailMap(from, true);
+        if (to != null) return days.headMap(to, true);
+        return days;
+    }
+
+    private static long keyOf(Showtime showtime) {
+        return ((long) secondOfDay(showtime.getTime()) << 32) | (showtime.getShowtimeID() & 0xFFFFFFFFL);
+    }
+
+    private static int secondOfDay(String time) {
+        try {
+            return LocalTime.parse(time).toSecondOfDay();
+        } catch (DateTimeParseException | NullPointerException e) {
+            return UNKNOWN_TIME;
+        }
+    }
+}
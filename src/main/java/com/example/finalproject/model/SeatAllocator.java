@@ -0,0 +1,89 @@
+package com.example.finalproject.model;
+
+/**
+ * Best-available search: finds the best block of adjacent free seats in one
+ * row for a group.
+ * <p>
+ * Each row is read from the {@link SeatMap} as one word of taken bits, so the
+ * search never looks at seats one by one: for a group of {@code n}, ANDing
+ * the free bits with themselves shifted right (doubling the shift each step)
+ * leaves a bit set exactly where {@code n} free seats start. The candidates of
+ * every row are then ranked with the layout's prefix sums.
+ * <p>
+ * The search reads a snapshot; the seats are then taken with
+ * {@link SeatMap#reserveAll}, and if another sale got one of them first the
+ * search simply runs again on the new state.
+ *
+ * @author Rene
+ */
+public final class SeatAllocator {
+
+    private SeatAllocator() {
+    }
+
+    /**
+     * Finds the best block of free adjacent seats, without taking them.
+     *
+     * @param seats  seats of the showtime
+     * @param layout layout of its room
+     * @param count  size of the group
+     * @return first seat number of the block, or -1 if no row has that many adjacent free seats
+     */
+    public static int findBest(SeatMap seats, SeatLayout layout, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Group size must be positive.");
+        }
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int row = 0; row < layout.getRows(); row++) {
+            int inRow = layout.seatsInRow(row);
+            if (inRow < count) continue;
+            long rowMask = inRow == 64 ? -1L : (1L << inRow) - 1;
+            long free = ~seats.takenBits(layout.seatAt(row, 0), inRow) & rowMask;
+            long starts = runStarts(free, count);
+            while (starts != 0) {
+                int column = Long.numberOfTrailingZeros(starts);
+                starts &= starts - 1;
+                double score = layout.blockScore(row, column, count);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = layout.seatAt(row, column);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds and takes the best block of adjacent free seats.
+     *
+     * @param seats  seats of the showtime
+     * @param layout layout of its room
+     * @param count  size of the group
+     * @return the seat numbers taken, or null if no block is free
+     */
+    public static int[] reserveBest(SeatMap seats, SeatLayout layout, int count) {
+        while (true) {
+            int first = findBest(seats, layout, count);
+            if (first < 0) return null;
+            int[] block = new int[count];
+            for (int i = 0; i < count; i++) block[i] = first + i;
+            if (seats.reserveAll(block)) return block;
+            // Another sale took one of them between the search and the CAS; search again
+        }
+    }
+
+    /**
+     * Returns the bits where a run of {@code count} set bits starts.
+     */
+    private static long runStarts(long free, int count) {
+        long starts = free;
+        int covered = 1;
+        while (covered < count) {
+            int step = Math.min(covered, count - covered);
+            starts &= starts >>> step;
+            covered += step;
+        }
+        return starts;
+    }
+}
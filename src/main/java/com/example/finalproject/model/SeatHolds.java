@@ -0,0 +1,201 @@
+package com.example.finalproject.model;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide seat holds: seats kept aside while a customer checks out,
+ * and given back automatically if the checkout is abandoned.
+ * <p>
+ * A hold takes its seats in the {@link SeatInventory} right away, so no one
+ * else can buy them meanwhile. {@link #confirm} turns it into a sale (the
+ * seats stay taken, and each ticket is recorded with
+ * {@link SeatInventory#sell}); {@link #cancel} or the deadline frees them.
+ * <p>
+ * EXPIRY: Deadlines are kept in a {@link TimingWheel} instead of one timer
+ * per hold or a periodic scan of all holds: recording a hold is O(1) and
+ * lock-free, and expiry runs on the wheel's own thread, never on the sales
+ * path. Each hold moves from held to confirmed, cancelled or expired with a
+ * single CAS, so a payment racing the deadline either wins or loses cleanly.
+ *
+ * @author Rene
+ */
+public class SeatHolds {
+
+    /**
+     * How long seats are held when the screen does not say otherwise.
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    /**
+     * Expiry precision; 512 ticks of 100 ms make one turn of the wheel (51.2 s).
+     */
+    private static final long TICK_MILLIS = 100;
+    private static final int WHEEL_SIZE = 512;
+
+    /**
+     * States of a hold; it only ever leaves HELD, once.
+     */
+    private static final int HELD = 0;
+    private static final int CONFIRMED = 1;
+    private static final int CANCELLED = 2;
+    private static final int EXPIRED = 3;
+
+    /**
+     * SINGLETON: One set of holds in front of the shared inventory.
+     */
+    private static final SeatHolds INSTANCE = new SeatHolds();
+
+    private final SeatInventory inventory = SeatInventory.getInstance();
+    private final TimingWheel wheel = new TimingWheel(TICK_MILLIS, TimeUnit.MILLISECONDS, WHEEL_SIZE, "seat-holds");
+
+    /**
+     * Seats of one showtime held for one checkout.
+     */
+    public static final class Hold {
+        private final int showtimeId;
+        private final int[] seats;
+        private final SeatMap seatMap;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(HELD);
+
+        private Hold(int showtimeId, int[] seats, SeatMap seatMap, long deadline) {
+            this.showtimeId = showtimeId;
+            this.seats = seats;
+            this.seatMap = seatMap;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Returns the id of the showtime the seats belong to.
+         *
+         * @return showtime id
+         */
+        public int getShowtimeId() {
+            return showtimeId;
+        }
+
+        /**
+         * Returns the held seat numbers.
+         *
+         * @return copy of the seat numbers, from 0
+         */
+        public int[] getSeats() {
+            return seats.clone();
+        }
+
+        /**
+         * Returns true while the seats are still held (not confirmed, cancelled or expired).
+         *
+         * @return true if held
+         */
+        public boolean isHeld() {
+            return state.get() == HELD;
+        }
+
+        /**
+         * Returns the time left before the hold expires.
+         *
+         * @return remaining time, zero once due
+         */
+        public Duration getRemaining() {
+            return Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+        }
+
+        /**
+         * Leaves the held state; the seats are given back unless the hold is confirmed.
+         *
+         * @return true if this call ended the hold
+         */
+        private boolean end(int outcome) {
+            if (!state.compareAndSet(HELD, outcome)) return false;
+            if (outcome != CONFIRMED) {
+                for (int seat : seats) seatMap.release(seat);
+            }
+            return true;
+        }
+    }
+
+    private SeatHolds() {
+    }
+
+    /**
+     * Returns the shared seat holds.
+     *
+     * @return holds instance
+     */
+    public static SeatHolds getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Holds seats of a showtime for {@link #DEFAULT_TTL}.
+     *
+     * @param showtime showtime being sold
+     * @param seats    seat numbers, from 0, without duplicates
+     * @return the hold, or null if one of the seats is not free
+     */
+    public Hold hold(Showtime showtime, int[] seats) {
+        return hold(showtime, seats, DEFAULT_TTL);
+    }
+
+    /**
+     * Holds seats of a showtime, all or none, until a deadline.
+     *
+     * @param showtime showtime being sold
+     * @param seats    seat numbers, from 0, without duplicates
+     * @param ttl      how long to hold them
+     * @return the hold, or null if one of the seats is not free
+     */
+    public Hold hold(Showtime showtime, int[] seats, Duration ttl) {
+        int[] held = seats.clone();
+        if (!inventory.reserveAll(showtime, held)) return null;
+        return track(showtime, held, inventory.seatsOf(showtime), ttl);
+    }
+
+    /**
+     * Holds the best block of adjacent free seats of a showtime for a group.
+     *
+     * @param showtime showtime being sold
+     * @param count    size of the group
+     * @param ttl      how long to hold them
+     * @return the hold, or null if no row has that many adjacent free seats
+     */
+    public Hold holdBest(Showtime showtime, int count, Duration ttl) {
+        int[] held = inventory.reserveBest(showtime, count);
+        if (held == null) return null;
+        return track(showtime, held, inventory.seatsOf(showtime), ttl);
+    }
+
+    private Hold track(Showtime showtime, int[] held, SeatMap seatMap, Duration ttl) {
+        Hold hold = new Hold(showtime.getShowtimeID(), held, seatMap, System.nanoTime() + ttl.toNanos());
+        wheel.schedule(hold.deadline, () -> hold.end(EXPIRED));
+        return hold;
+    }
+
+    /**
+     * Turns a hold into a sale: its seats stay taken for good.
+     *
+     * @param hold hold being paid
+     * @return true if the seats were still held; false if the hold expired or was cancelled
+     */
+    public boolean confirm(Hold hold) {
+        // The wheel may run up to a tick late; a hold past its deadline is never sold
+        if (hold.deadline - System.nanoTime() <= 0) {
+            hold.end(EXPIRED);
+            return false;
+        }
+        return hold.end(CONFIRMED);
+    }
+
+    /**
+     * Gives the seats of a hold back, e.g. when the customer leaves checkout.
+     *
+     * @param hold hold to drop
+     * @return true if the seats were still held and are free again
+     */
+    public boolean cancel(Hold hold) {
+        return hold.end(CANCELLED);
+    }
+}
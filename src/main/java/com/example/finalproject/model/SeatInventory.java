@@ -0,0 +1,273 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Process-wide seat inventory: one {@link SeatMap} per showtime, sized from
+ * the capacity of its room.
+ * <p>
+ * Built lazily on the first sale of a showtime. Reserving a seat is one CAS
+ * on that showtime's bitmap; no lock is held, so any number of threads can
+ * sell the same opening night at once without overbooking it.
+ * <p>
+ * SEED: A map starts with the seats sold in the {@link TicketLedger} and not
+ * cancelled taken, so seats sold before a restart are never sold again. The
+ * ledger is read once, then only what was appended since; the seats sold in
+ * it are kept as one small bitmap per showtime.
+ * <p>
+ * TERMINALS: Before each reservation the inventory reads what other terminals
+ * appended to the ledger since, so a seat they sold is taken here too. Two
+ * terminals can still reserve the same free seat at the same moment, each in
+ * its own map; {@link #sell} settles it: the ledger writer checks, under the
+ * ledger's exclusive lock and after catching up once more, that no other sale
+ * of the seat was recorded, so only the first sale of a seat is written and
+ * the other fails with a {@link StaleRecordException}.
+ * <p>
+ * LOCK ORDER: The ledger is read before the monitor is taken, never inside it,
+ * because the ledger writer reads it back (through {@link #sell}) while it
+ * holds the ledger lock.
+ *
+ * @author Rene
+ */
+public class SeatInventory {
+
+    /**
+     * SINGLETON: One inventory so every sale checks the same seats.
+     */
+    private static final SeatInventory INSTANCE = new SeatInventory(TicketLedger.getInstance(),
+            id -> RoomRepository.getInstance().findById(id));
+
+    private final TicketLedger ledger;
+
+    /**
+     * room id -> room, or null if it does not exist.
+     */
+    private final IntFunction<Room> rooms;
+
+    /**
+     * showtime id -> its seats.
+     */
+    private final Map<Integer, SeatMap> seatsByShowtime = new ConcurrentHashMap<>();
+
+    /**
+     * showtime id -> seats sold in the ledger and not cancelled. Guarded by the monitor.
+     */
+    private final Map<Integer, BitSet> soldSeats = new HashMap<>();
+
+    /**
+     * Ledger offset read up to. Written with the monitor held.
+     */
+    private volatile long ledgerOffset;
+
+    /**
+     * Creates an inventory over a ledger. The application shares
+     * {@link #getInstance()}; tests give each terminal an inventory of its own.
+     *
+     * @param ledger ledger of the sales
+     * @param rooms  looks up a room by id
+     */
+    SeatInventory(TicketLedger ledger, IntFunction<Room> rooms) {
+        this.ledger = ledger;
+        this.rooms = rooms;
+    }
+
+    /**
+     * Returns the shared seat inventory.
+     *
+     * @return inventory instance
+     */
+    public static SeatInventory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the seats of a showtime, building its map on first use with the
+     * seats already sold in the ledger taken.
+     *
+     * @param showtime showtime being sold
+     * @return its seat map
+     * @throws IllegalArgumentException if the room of the showtime does not exist
+     * @throws UncheckedIOException     if the ledger could not be read
+     */
+    public SeatMap seatsOf(Showtime showtime) {
+        SeatMap seats = seatsByShowtime.get(showtime.getShowtimeID());
+        return seats != null ? seats : build(showtime);
+    }
+
+    /**
+     * Takes a seat of a showtime if it is free, here and in the ledger.
+     *
+     * @param showtime showtime being sold
+     * @param seat     seat number, from 0
+     * @return true if the seat was taken by this call
+     * @throws UncheckedIOException if the ledger could not be read
+     */
+    public boolean reserve(Showtime showtime, int seat) {
+        return current(showtime).reserve(seat);
+    }
+
+    /**
+     * Takes several seats of a showtime together, or none of them.
+     *
+     * @param showtime showtime being sold
+     * @param seats    seat numbers, from 0, without duplicates
+     * @return true if all seats were taken by this call
+     * @throws UncheckedIOException if the ledger could not be read
+     */
+    public boolean reserveAll(Showtime showtime, int[] seats) {
+        return current(showtime).reserveAll(seats);
+    }
+
+    /**
+     * Takes the best block of adjacent free seats of a showtime for a group.
+     *
+     * @param showtime showtime being sold
+     * @param count    size of the group
+     * @return the seat numbers taken, or null if no row has that many adjacent free seats
+     * @throws UncheckedIOException if the ledger could not be read
+     */
+    public int[] reserveBest(Showtime showtime, int count) {
+        SeatMap seats = current(showtime);
+        return SeatAllocator.reserveBest(seats, SeatLayout.forCapacity(seats.getCapacity()), count);
+    }
+
+    /**
+     * Records the sale of a seat reserved (or held) here. The sale is only
+     * written if no other sale of its seat reached the ledger first.
+     *
+     * @param ticket ticket sold, with the label of its seat
+     * @return completed once the sale is on disk, or exceptionally with a
+     *         {@link StaleRecordException} if another terminal sold the seat
+     */
+    public CompletableFuture<Void> sell(Ticket ticket) {
+        Showtime showtime = ticket.getShowtime();
+        int seat = seatNumber(showtime.getRoomID(), ticket.getSeatNumber());
+        if (seat < 0) return ledger.appendAsync(ticket); // no seat map to check against
+        return ledger.appendAsync(ticket, () -> {
+            catchUp();
+            if (soldInLedger(showtime.getShowtimeID(), seat)) {
+                throw new StaleRecordException("Seat " + ticket.getSeatNumber() + " of this showtime was just sold by another terminal.");
+            }
+        });
+    }
+
+    /**
+     * Frees a seat of a showtime.
+     *
+     * @param showtime showtime of the seat
+     * @param seat     seat number, from 0
+     * @return true if the seat was taken and is now free
+     */
+    public boolean release(Showtime showtime, int seat) {
+        return seatsOf(showtime).release(seat);
+    }
+
+    /**
+     * Forgets the seats of a showtime, e.g. once it was deleted.
+     *
+     * @param showtimeId showtime id
+     */
+    public synchronized void forget(int showtimeId) {
+        seatsByShowtime.remove(showtimeId);
+        soldSeats.remove(showtimeId);
+    }
+
+    /**
+     * Returns the seats of a showtime after reading the sales other terminals made since.
+     */
+    private SeatMap current(Showtime showtime) {
+        SeatMap seats = seatsByShowtime.get(showtime.getShowtimeID());
+        if (seats == null) return build(showtime);
+        try {
+            catchUp();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the sold seats from the ticket ledger", e);
+        }
+        return seats;
+    }
+
+    /**
+     * Builds the map of a showtime from its sold seats, so two first sales never build two maps.
+     */
+    private SeatMap build(Showtime showtime) {
+        Room room = rooms.apply(showtime.getRoomID());
+        if (room == null) {
+            throw new IllegalArgumentException("Room " + showtime.getRoomID() + " of showtime "
+                    + showtime.getShowtimeID() + " does not exist.");
+        }
+        try {
+            catchUp();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the sold seats from the ticket ledger", e);
+        }
+        synchronized (this) {
+            SeatMap seats = seatsByShowtime.get(showtime.getShowtimeID());
+            if (seats != null) return seats;
+            SeatMap built = new SeatMap(room.getCapacity());
+            BitSet sold = soldSeats.get(showtime.getShowtimeID());
+            if (sold != null) {
+                for (int seat = sold.nextSetBit(0); seat >= 0 && seat < built.getCapacity(); seat = sold.nextSetBit(seat + 1)) {
+                    built.reserve(seat);
+                }
+            }
+            seatsByShowtime.put(showtime.getShowtimeID(), built);
+            return built;
+        }
+    }
+
+    /**
+     * Reads the sales appended to the ledger since the last read. Several
+     * threads may read the same sales; each is applied once, in ledger order.
+     */
+    private void catchUp() throws IOException {
+        long from = ledgerOffset;
+        if (from > 0 && Files.size(ledger.getPath()) == from) return; // nothing new: no lock, no read
+        ledger.replayFrom(from, this::addSold);
+    }
+
+    private synchronized boolean soldInLedger(int showtimeId, int seat) {
+        BitSet sold = soldSeats.get(showtimeId);
+        return sold != null && sold.get(seat);
+    }
+
+    /**
+     * Takes the seat of a sale read from the ledger, in the showtime's bitmap
+     * and in its map if built (a no-op for sales of this terminal). A
+     * cancellation frees the seat in the bitmap only: the map of this terminal
+     * may already have sold it again, so there the seat stays taken until the
+     * map is built anew, and is never sold twice.
+     */
+    private synchronized void addSold(TicketLedger.Entry sale, long end) {
+        if (end <= ledgerOffset) return; // already applied by another thread
+        ledgerOffset = end;
+        int seat = seatNumber(sale.roomId(), sale.seat());
+        if (seat < 0) return;
+        if (sale.cancellation()) {
+            BitSet sold = soldSeats.get(sale.showtimeId());
+            if (sold != null) sold.clear(seat);
+            return;
+        }
+        soldSeats.computeIfAbsent(sale.showtimeId(), id -> new BitSet()).set(seat);
+        SeatMap seats = seatsByShowtime.get(sale.showtimeId());
+        if (seats != null && seat < seats.getCapacity()) seats.reserve(seat);
+    }
+
+    /**
+     * Returns the number of a seat label in its room, or -1 for no seat, an
+     * unknown room or a free-text seat from before the seat maps.
+     */
+    private int seatNumber(int roomId, String label) {
+        if (label == null || label.isEmpty()) return -1;
+        Room room = rooms.apply(roomId);
+        if (room == null) return -1; // no layout to read the label with
+        return SeatLayout.forCapacity(room.getCapacity()).seatOf(label);
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.finalproject.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rows and seats of a room, with a quality score for every seat.
+ * <p>
+ * Rooms only store a capacity, so the layout is derived from it: rows of
+ * about {@code sqrt(2 * capacity)} seats (preferring a width that fills
+ * every row), never more than 64 seats wide so a row fits one bitmap word.
+ * Seat {@code n} of the {@link SeatMap} is row {@code n / width}, column
+ * {@code n % width}; the last row may be shorter.
+ * <p>
+ * SCORES: Computed once per layout. A seat scores higher the closer it is to
+ * the middle of its row and to the row two thirds of the way back. Per-row
+ * prefix sums give the score of any block of seats in O(1).
+ *
+ * @author Rene
+ */
+public final class SeatLayout {
+
+    /**
+     * A row must fit in one long of the seat bitmap.
+     */
+    public static final int MAX_ROW_WIDTH = 64;
+
+    /**
+     * Layouts already built, by capacity; rooms of the same size share one.
+     */
+    private static final Map<Integer, SeatLayout> LAYOUTS = new ConcurrentHashMap<>();
+
+    private final int capacity;
+    private final int width;
+    private final int rows;
+    private final double[] scores;
+
+    /**
+     * Score of the first {@code c} seats of each row: rowPrefix[row][c].
+     */
+    private final double[][] rowPrefix;
+
+    private SeatLayout(int capacity) {
+        this.capacity = capacity;
+        this.width = widthFor(capacity);
+        this.rows = capacity == 0 ? 0 : (capacity + width - 1) / width;
+        this.scores = new double[capacity];
+        this.rowPrefix = new double[rows][];
+        double idealRow = (rows - 1) * 2 / 3.0;
+        for (int row = 0; row < rows; row++) {
+            int seats = seatsInRow(row);
+            double center = (seats - 1) / 2.0;
+            rowPrefix[row] = new double[seats + 1];
+            for (int column = 0; column < seats; column++) {
+                double rowScore = 1 - Math.abs(row - idealRow) / Math.max(1, rows);
+                double columnScore = 1 - Math.abs(column - center) / Math.max(1, width);
+                double score = 0.6 * rowScore + 0.4 * columnScore;
+                scores[row * width + column] = score;
+                rowPrefix[row][column + 1] = rowPrefix[row][column] + score;
+            }
+        }
+    }
+
+    /**
+     * Returns the layout of a room.
+     *
+     * @param room room to lay out
+     * @return its layout
+     */
+    public static SeatLayout of(Room room) {
+        return forCapacity(room.getCapacity());
+    }
+
+    /**
+     * Returns the layout used for a number of seats.
+     *
+     * @param capacity number of seats, must be >= 0
+     * @return the layout
+     */
+    public static SeatLayout forCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative.");
+        }
+        return LAYOUTS.computeIfAbsent(capacity, SeatLayout::new);
+    }
+
+    /**
+     * Returns the number of seats.
+     *
+     * @return capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return rows, front to back
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of seats of a full row.
+     *
+     * @return row width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the number of seats in a row (only the last one can be shorter).
+     *
+     * @param row row, from 0 (front)
+     * @return seats in the row
+     */
+    public int seatsInRow(int row) {
+        return Math.min(width, capacity - row * width);
+    }
+
+    /**
+     * Returns the seat number of a row and column.
+     *
+     * @param row    row, from 0 (front)
+     * @param column column, from 0
+     * @return seat number, from 0
+     */
+    public int seatAt(int row, int column) {
+        return row * width + column;
+    }
+
+    /**
+     * Returns the quality score of a seat, between 0 and 1.
+     *
+     * @param seat seat number, from 0
+     * @return score; higher is better
+     */
+    public double score(int seat) {
+        return scores[seat];
+    }
+
+    /**
+     * Returns the total score of a block of seats in one row.
+     *
+     * @param row    row, from 0
+     * @param column first column of the block
+     * @param count  seats in the block
+     * @return sum of the seat scores
+     */
+    public double blockScore(int row, int column, int count) {
+        return rowPrefix[row][column + count] - rowPrefix[row][column];
+    }
+
+    /**
+     * Returns the printed name of a seat: row letter(s) and seat number, e.g. "C7".
+     *
+     * @param seat seat number, from 0
+     * @return seat label
+     */
+    public String label(int seat) {
+        int row = seat / width;
+        StringBuilder letters = new StringBuilder();
+        for (int r = row; r >= 0; r = r / 26 - 1) letters.insert(0, (char) ('A' + r % 26));
+        return letters.toString() + (seat % width + 1);
+    }
+
+    /**
+     * Reads a printed seat name back into its seat number; the inverse of {@link #label}.
+     *
+     * @param label seat label, e.g. "C7" (case does not matter)
+     * @return seat number, from 0, or -1 if it names no seat of this layout
+     */
+    public int seatOf(String label) {
+        int at = 0;
+        long row = 0;
+        while (at < label.length() && Character.isLetter(label.charAt(at))) {
+            int letter = Character.toUpperCase(label.charAt(at++)) - 'A';
+            if (letter < 0 || letter >= 26 || row > rows) return -1;
+            row = row * 26 + letter + 1;
+        }
+        if (at == 0 || at == label.length() || label.length() - at > 9 || !Character.isDigit(label.charAt(at))) {
+            return -1;
+        }
+        int column;
+        try {
+            column = Integer.parseInt(label, at, label.length(), 10) - 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        row--; // letters count from "A" = row 0, like spreadsheet columns
+        if (row >= rows || column < 0 || column >= seatsInRow((int) row)) return -1;
+        return seatAt((int) row, column);
+    }
+
+    /**
+     * Picks a row width near sqrt(2 * capacity), preferring one that divides the capacity.
+     */
+    private static int widthFor(int capacity) {
+        if (capacity == 0) return 1;
+        int target = Math.min(MAX_ROW_WIDTH, Math.max(1, (int) Math.round(Math.sqrt(2.0 * capacity))));
+        for (int distance = 0; distance <= 3; distance++) {
+            int wider = target + distance;
+            int narrower = target - distance;
+            if (wider <= MAX_ROW_WIDTH && capacity % wider == 0) return wider;
+            if (narrower >= 1 && capacity % narrower == 0) return narrower;
+        }
+        return target;
+    }
+}
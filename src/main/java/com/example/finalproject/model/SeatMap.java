@@ -0,0 +1,150 @@
+package com.example.finalproject.model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Seats of one showtime as a bitmap: bit {@code n} is set while seat
+ * {@code n} (0-based) is taken.
+ * <p>
+ * LOCK-FREE: A seat is taken with a compare-and-set on the 64-seat word
+ * holding it, so two sales of the same seat can never both succeed, and sales
+ * of different seats never wait for each other (at most they retry the CAS
+ * when they share a word). A 300-seat room is five longs.
+ *
+ * @author Rene
+ */
+public final class SeatMap {
+
+    private final int capacity;
+    private final AtomicLongArray words;
+
+    /**
+     * Creates an empty seat map.
+     *
+     * @param capacity number of seats, must be >= 0
+     */
+    public SeatMap(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative.");
+        }
+        this.capacity = capacity;
+        this.words = new AtomicLongArray((capacity + 63) >>> 6);
+    }
+
+    /**
+     * Returns the number of seats.
+     *
+     * @return capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Takes a seat if it is free.
+     *
+     * @param seat seat number, from 0
+     * @return true if this call took the seat, false if it was already taken
+     */
+    public boolean reserve(int seat) {
+        checkSeat(seat);
+        int word = seat >>> 6;
+        long bit = 1L << seat; // shifts use the low 6 bits
+        while (true) {
+            long seen = words.get(word);
+            if ((seen & bit) != 0) return false;
+            if (words.compareAndSet(word, seen, seen | bit)) return true;
+        }
+    }
+
+    /**
+     * Takes every given seat, or none of them.
+     *
+     * @param seats seat numbers, from 0, without duplicates
+     * @return true if all were taken, false (and nothing taken) if one was not free
+     */
+    public boolean reserveAll(int[] seats) {
+        for (int i = 0; i < seats.length; i++) {
+            if (!reserve(seats[i])) {
+                // Give back the ones this call took; another buyer may have them next
+                for (int j = 0; j < i; j++) release(seats[j]);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Frees a seat, e.g. after a refund.
+     *
+     * @param seat seat number, from 0
+     * @return true if the seat was taken and is now free
+     */
+    public boolean release(int seat) {
+        checkSeat(seat);
+        int word = seat >>> 6;
+        long bit = 1L << seat;
+        while (true) {
+            long seen = words.get(word);
+            if ((seen & bit) == 0) return false;
+            if (words.compareAndSet(word, seen, seen & ~bit)) return true;
+        }
+    }
+
+    /**
+     * Returns true if a seat is taken.
+     *
+     * @param seat seat number, from 0
+     * @return true if taken
+     */
+    public boolean isReserved(int seat) {
+        checkSeat(seat);
+        return (words.get(seat >>> 6) & (1L << seat)) != 0;
+    }
+
+    /**
+     * Reads up to 64 consecutive seats at once, e.g. one row.
+     *
+     * @param from  first seat number
+     * @param count number of seats, 1 to 64
+     * @return bit {@code i} set if seat {@code from + i} is taken
+     */
+    public long takenBits(int from, int count) {
+        checkSeat(from);
+        checkSeat(from + count - 1);
+        if (count > 64) {
+            throw new IllegalArgumentException("At most 64 seats can be read at once.");
+        }
+        int word = from >>> 6;
+        int shift = from & 63;
+        long bits = words.get(word) >>> shift;
+        if (shift + count > 64) bits |= words.get(word + 1) << (64 - shift); // the run spans two words
+        return count == 64 ? bits : bits & ((1L << count) - 1);
+    }
+
+    /**
+     * Counts the taken seats. Exact when no sale is running, a close snapshot otherwise.
+     *
+     * @return seats taken
+     */
+    public int getReservedCount() {
+        int count = 0;
+        for (int i = 0; i < words.length(); i++) count += Long.bitCount(words.get(i));
+        return count;
+    }
+
+    /**
+     * Counts the free seats.
+     *
+     * @return seats left
+     */
+    public int getAvailableCount() {
+        return capacity - getReservedCount();
+    }
+
+    private void checkSeat(int seat) {
+        if (seat < 0 || seat >= capacity) {
+            throw new IllegalArgumentException("Seat " + seat + " is not in this room (" + capacity + " seats).");
+        }
+    }
+}
@@ -7,13 +7,15 @@ package com.example.finalproject.model;
 // I also added a new folder data in resources which contain all data we gonna use
 
 // ENCAPSULATION: I created this class to represent when and where a movie is shown
-public class Showtime {
+public class Showtime implements Versioned {
     // ENCAPSULATION: I used private fields to protect showtime data
     private int showtimeID;
     private String date;
     private String time;
     private int movieID;
     private int roomID;
+    // CONCURRENCY: I keep a version stamp so two terminals can't overwrite each other's edits
+    private int version;
 
     // CONSTRUCTOR: I created a constructor to set up all showtime properties
     public Showtime(int showtimeID, String date, String time, int movieID, int roomID) {
@@ -25,6 +27,12 @@ public class Showtime {
         this.roomID = roomID;
     }
 
+    // CONSTRUCTOR: I use this one when the version stamp is known (loading, editing)
+    public Showtime(int showtimeID, String date, String time, int movieID, int roomID, int version) {
+        this(showtimeID, date, time, movieID, roomID);
+        this.version = version;
+    }
+
     // ENCAPSULATION: I provide getters for controlled access to showtime data
     public int getShowtimeID() {
         // I return the showtimeID for unique identification
@@ -76,10 +84,20 @@ public class Showtime {
         this.roomID = roomID;
     }
 
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     // DATA PERSISTENCE: I provide a method to convert showtime to CSV format
     public String toCSV() {
-        // I format as CSV: showtimeID,date,time,movieID,roomID
+        // I format as CSV: showtimeID,date,time,movieID,roomID,version
         // Using IDs instead of objects makes CSV export much simpler and safer
-        return showtimeID + "," + date + "," + time + "," + movieID + "," + roomID;
+        return showtimeID + "," + date + "," + time + "," + movieID + "," + roomID + "," + version;
     }
 }
\ No newline at end of file
@@ -0,0 +1,224 @@
+package com.example.finalproject.model;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Paged, lazily loaded view of the schedule for the schedule screen.
+ * <p>
+ * The table shows {@link #getRows()}, which only ever holds the page being
+ * viewed. Pages are fetched from the {@link ShowtimeRepository} on a background
+ * thread by date range and page number, and the last few are kept so paging
+ * back and forth does not fetch again; older pages are evicted. When the
+ * schedule changes (a save, a delete, another terminal) the kept pages are
+ * dropped and the current page is fetched again.
+ * <p>
+ * Used from the JavaFX thread only.
+ *
+ * @author Rene
+ */
+public class ShowtimePager {
+
+    /**
+     * Showtimes per page unless the screen asks for another size.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Pages kept besides the one being viewed.
+     */
+    private static final int KEPT_PAGES = 4;
+
+    private final ShowtimeRepository repository;
+    private final int pageSize;
+
+    /**
+     * Rows of the page being viewed; the table's items.
+     */
+    private final ObservableList<Showtime> rows = FXCollections.observableArrayList();
+
+    /**
+     * EVICTION: Recently viewed pages in access order; the least recently used goes first.
+     */
+    private final Map<Integer, ShowtimeRepository.Page> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ShowtimeRepository.Page> eldest) {
+            return size() > KEPT_PAGES + 1;
+        }
+    };
+
+    /**
+     * Strongly held here because the repository only keeps a weak reference.
+     */
+    private final Runnable onScheduleChanged = this::refresh;
+
+    private String from;
+    private String to;
+    private ShowtimeRepository.Page current = new ShowtimeRepository.Page(List.of(), 0, 1, 0);
+
+    /**
+     * Number of the latest page request; answers to older requests are dropped.
+     */
+    private long latestRequest;
+
+    /**
+     * True while the latest request is being fetched.
+     */
+    private boolean fetching;
+
+    /**
+     * Bumped when the schedule changes; a page read before the change is shown but fetched again.
+     */
+    private long dataGeneration;
+
+    private Runnable onPageShown = () -> { };
+    private Runnable onFailed = () -> { };
+
+    /**
+     * Creates a pager over the whole schedule. Nothing is fetched until {@link #setRange} is called.
+     *
+     * @param repository showtimes to page through
+     * @param pageSize   showtimes per page
+     */
+    public ShowtimePager(ShowtimeRepository repository, int pageSize) {
+        this.repository = repository;
+        this.pageSize = pageSize;
+        repository.addChangeListener(onScheduleChanged);
+    }
+
+    /**
+     * Returns the rows of the page being viewed. The same list is refilled on every page change.
+     *
+     * @return rows of the current page
+     */
+    public ObservableList<Showtime> getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the page being viewed.
+     *
+     * @return current page (rows, position, page count and total)
+     */
+    public ShowtimeRepository.Page getCurrent() {
+        return current;
+    }
+
+    /**
+     * Sets code to run after a page was shown, e.g. to update the page label.
+     *
+     * @param onPageShown callback
+     */
+    public void setOnPageShown(Runnable onPageShown) {
+        this.onPageShown = onPageShown;
+    }
+
+    /**
+     * Sets code to run when a page could not be fetched.
+     *
+     * @param onFailed callback
+     */
+    public void setOnFailed(Runnable onFailed) {
+        this.onFailed = onFailed;
+    }
+
+    /**
+     * Restricts the schedule to a date range and shows the page containing a given date.
+     *
+     * @param from first date, inclusive, or null for no lower bound
+     * @param to   last date, inclusive, or null for no upper bound
+     * @param at   date to open at (its first showtime, or the next one); null for the first page
+     */
+    public void setRange(LocalDate from, LocalDate to, LocalDate at) {
+        String rangeFrom = from == null ? null : from.toString();
+        String rangeTo = to == null ? null : to.toString();
+        String before = at == null ? null : at.minusDays(1).toString();
+        this.from = rangeFrom;
+        this.to = rangeTo;
+        pages.clear();
+        fetch(() -> {
+            // Position of the date inside the range decides the page
+            int index = before == null ? 0 : repository.countBetween(rangeFrom, before) / pageSize;
+            return repository.page(rangeFrom, rangeTo, index, pageSize);
+        });
+    }
+
+    /**
+     * Shows the next page, if there is one.
+     */
+    public void next() {
+        if (current.index() + 1 < current.count()) show(current.index() + 1);
+    }
+
+    /**
+     * Shows the previous page, if there is one.
+     */
+    public void previous() {
+        if (current.index() > 0) show(current.index() - 1);
+    }
+
+    /**
+     * Shows a page, from the kept pages or fetched in the background.
+     *
+     * @param index page to show, from 0
+     */
+    public void show(int index) {
+        ShowtimeRepository.Page kept = pages.get(index);
+        if (kept != null) {
+            latestRequest++; // supersedes a fetch still running
+            fetching = false;
+            display(kept);
+            return;
+        }
+        String rangeFrom = from;
+        String rangeTo = to;
+        fetch(() -> repository.page(rangeFrom, rangeTo, index, pageSize));
+    }
+
+    /**
+     * Drops the kept pages and fetches the current page again.
+     */
+    public void refresh() {
+        pages.clear();
+        dataGeneration++;
+        if (!fetching) show(current.index()); // otherwise the running fetch is repeated when it ends
+    }
+
+    private void fetch(Callable<ShowtimeRepository.Page> query) {
+        long request = ++latestRequest;
+        long data = dataGeneration;
+        fetching = true;
+        Task<ShowtimeRepository.Page> task = AsyncData.submit(query);
+        task.setOnSucceeded(e -> {
+            if (request != latestRequest) return; // a newer page or range was asked for meanwhile
+            fetching = false;
+            ShowtimeRepository.Page page = task.getValue();
+            display(page);
+            if (data == dataGeneration) {
+                pages.put(page.index(), page);
+            } else {
+                show(page.index()); // read before the latest change
+            }
+        });
+        task.setOnFailed(e -> {
+            System.err.println("SCHEDULE: Could not fetch a page of showtimes");
+            task.getException().printStackTrace();
+            if (request != latestRequest) return;
+            fetching = false;
+            onFailed.run();
+        });
+    }
+
+    private void display(ShowtimeRepository.Page page) {
+        current = page;
+        rows.setAll(page.rows());
+        onPageShown.run();
+    }
+}
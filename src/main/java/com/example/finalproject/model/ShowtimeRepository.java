@@ -0,0 +1,217 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-wide repository of scheduled showtimes, backed by one CSV file per
+ * month in the "showtimes" folder ("showtimes/2024-12.csv").
+ * CSV format: showtimeID,date,time,movieID,roomID,version (files without the version column load as version 0)
+ * <p>
+ * PARTITIONS: Only the active months are read at startup. Finished months are
+ * archived in the background as compressed, read-only files and read again
+ * only when a date range reaches them ({@link #page}, {@link #findByDateRange}).
+ * An older data directory with a single "showtimes.csv" (and its journal
+ * "showtimes.log") is split into months on first load. Queries by room and
+ * movie cover the months held in memory.
+ * <p>
+ * Showtimes can be queried by date range, room and movie; with the JDBC
+ * backend these queries use the indexes of the SHOWTIMES table.
+ * <p>
+ * PAGING: A {@link ScheduleIndex} keeps the showtimes in schedule order, so
+ * the schedule screen fetches one page of a date range at a time
+ * ({@link #page}) instead of listing the whole history.
+ * <p>
+ * OCCUPANCY: Every showtime entering, changing in or leaving the cache is
+ * also handed to {@link RoomOccupancy}, which counts it in its room's heatmap.
+ *
+ * @author Rene
+ */
+public class ShowtimeRepository extends CsvRepository<Showtime> {
+
+    /**
+     * SINGLETON: One shared instance so every screen sees the same cached list.
+     */
+    private static final ShowtimeRepository INSTANCE = new ShowtimeRepository();
+
+    private static final String DATE_COLUMN = "SHOW_DATE";
+    private static final String MOVIE_COLUMN = "MOVIE_ID";
+    private static final String ROOM_COLUMN = "ROOM_ID";
+
+    /**
+     * One page of the schedule.
+     *
+     * @param rows  showtimes of the page, in schedule order
+     * @param index position of the page, from 0
+     * @param count number of pages in the range (at least 1)
+     * @param total number of showtimes in the range
+     */
+    public record Page(List<Showtime> rows, int index, int count, int total) {
+    }
+
+    /**
+     * Schedule order of the cached showtimes, kept up to date by the index hooks.
+     */
+    private final ScheduleIndex schedule = new ScheduleIndex();
+
+    private ShowtimeRepository() {
+        super("showtimes.csv");
+    }
+
+    /**
+     * Returns the shared showtime repository.
+     *
+     * @return repository instance
+     */
+    public static ShowtimeRepository getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the showtimes scheduled between two dates, reading only the months of the range.
+     *
+     * @param from first date, inclusive ("2024-12-01")
+     * @param to   last date, inclusive
+     * @return matching showtimes
+     */
+    public synchronized List<Showtime> findByDateRange(String from, String to) {
+        loadRange(from, to);
+        return findWhere(DATE_COLUMN, from, to,
+                showtime -> showtime.getDate().compareTo(from) >= 0 && showtime.getDate().compareTo(to) <= 0);
+    }
+
+    /**
+     * Returns the showtimes of one movie.
+     *
+     * @param movieId movie id
+     * @return matching showtimes
+     */
+    public List<Showtime> findByMovie(int movieId) {
+        return findWhere(MOVIE_COLUMN, movieId, movieId, showtime -> showtime.getMovieID() == movieId);
+    }
+
+    /**
+     * Returns the showtimes scheduled in one room.
+     *
+     * @param roomId room id
+     * @return matching showtimes
+     */
+    public List<Showtime> findByRoom(int roomId) {
+        return findWhere(ROOM_COLUMN, roomId, roomId, showtime -> showtime.getRoomID() == roomId);
+    }
+
+    /**
+     * Returns one page of the showtimes scheduled between two dates, in date and start time order.
+     * Only the showtimes of the page are looked up.
+     *
+     * @param from      first date, inclusive ("2024-12-01"), or null for no lower bound
+     * @param to        last date, inclusive, or null for no upper bound
+     * @param pageIndex page to return, from 0; a page past the end returns the last page
+     * @param pageSize  showtimes per page
+     * @return the page
+     */
+    public synchronized Page page(String from, String to, int pageIndex, int pageSize) {
+        loadRange(from, to);
+        int total = schedule.count(from, to);
+        int count = Math.max(1, (total + pageSize - 1) / pageSize);
+        int index = Math.min(Math.max(pageIndex, 0), count - 1);
+        List<Showtime> rows = new ArrayList<>(pageSize);
+        for (int id : schedule.window(from, to, index * pageSize, pageSize)) {
+            rows.add(findById(id));
+        }
+        return new Page(rows, index, count, total);
+    }
+
+    /**
+     * Counts the showtimes scheduled between two dates.
+     *
+     * @param from first date, inclusive, or null for no lower bound
+     * @param to   last date, inclusive, or null for no upper bound
+     * @return number of showtimes
+     */
+    public synchronized int countBetween(String from, String to) {
+        loadRange(from, to);
+        return schedule.count(from, to);
+    }
+
+    @Override
+    protected StorageBackend<Showtime> fileBackend(String fileName) {
+        return new PartitionedCsvStorage<>(this, "showtimes", fileName, "showtimes.log", Showtime::getDate);
+    }
+
+    @Override
+    protected void cacheChanged(Showtime before, Showtime after) {
+        if (before != null) schedule.remove(before);
+        if (after != null) schedule.add(after);
+        RoomOccupancy.getInstance().showtimeChanged(before, after);
+    }
+
+    @Override
+    protected void cacheCleared() {
+        schedule.clear();
+        RoomOccupancy.getInstance().scheduleCleared();
+    }
+
+    @Override
+    protected Showtime parse(CsvRow row) {
+        return new Showtime(row.getInt(0), row.getString(1), row.getString(2), row.getInt(3), row.getInt(4), versionAt(row, 5));
+    }
+
+    @Override
+    protected int idOf(Showtime showtime) {
+        return showtime.getShowtimeID();
+    }
+
+    @Override
+    protected String toCSV(Showtime showtime) {
+        return showtime.toCSV();
+    }
+
+    @Override
+    protected void writeColumns(BinarySnapshot.Writer out, List<Showtime> showtimes) throws IOException {
+        int[] ids = new int[showtimes.size()];
+        String[] dates = new String[showtimes.size()];
+        String[] times = new String[showtimes.size()];
+        int[] movieIds = new int[showtimes.size()];
+        int[] roomIds = new int[showtimes.size()];
+        int[] versions = new int[showtimes.size()];
+        for (int i = 0; i < showtimes.size(); i++) {
+            Showtime showtime = showtimes.get(i);
+            ids[i] = showtime.getShowtimeID();
+            dates[i] = showtime.getDate();
+            times[i] = showtime.getTime();
+            movieIds[i] = showtime.getMovieID();
+            roomIds[i] = showtime.getRoomID();
+            versions[i] = showtime.getVersion();
+        }
+        out.intColumn(ids).dateColumn(dates).timeColumn(times).intColumn(movieIds).intColumn(roomIds).intColumn(versions);
+    }
+
+    @Override
+    protected List<Showtime> readColumns(BinarySnapshot.Reader in) throws IOException {
+        int[] ids = in.intColumn();
+        String[] dates = in.dateColumn();
+        String[] times = in.timeColumn();
+        int[] movieIds = in.intColumn();
+        int[] roomIds = in.intColumn();
+        int[] versions = in.intColumn();
+        List<Showtime> showtimes = new ArrayList<>(in.rows());
+        for (int i = 0; i < in.rows(); i++) {
+            showtimes.add(new Showtime(ids[i], dates[i], times[i], movieIds[i], roomIds[i], versions[i]));
+        }
+        return showtimes;
+    }
+
+    @Override
+    protected JdbcStorage.Column[] columns() {
+        return new JdbcStorage.Column[]{
+                new JdbcStorage.Column("SHOWTIME_ID", true, false),
+                new JdbcStorage.Column(DATE_COLUMN, false, true),
+                new JdbcStorage.Column("SHOW_TIME", false, false),
+                new JdbcStorage.Column(MOVIE_COLUMN, true, true),
+                new JdbcStorage.Column(ROOM_COLUMN, true, true),
+                new JdbcStorage.Column("VERSION", true, false)
+        };
+    }
+}
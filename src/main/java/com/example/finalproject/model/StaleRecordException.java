@@ -0,0 +1,23 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a record is saved from an outdated copy, i.e. another terminal
+ * saved or deleted it after this edit was started.
+ *
+ * @author Rene
+ */
+public class StaleRecordException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates the exception.
+     *
+     * @param message description of the conflict, shown to the user
+     */
+    public StaleRecordException(String message) {
+        super(message);
+    }
+}
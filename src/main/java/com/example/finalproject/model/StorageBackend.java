@@ -0,0 +1,169 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Where a {@link CsvRepository} keeps its records on disk.
+ * <p>
+ * The repository owns the in-memory cache and the shared list; a backend only
+ * loads, stores and (when it can) queries the records. Three backends exist:
+ * <ul>
+ *     <li>{@link CsvStorage}: the CSV files of the data directory (default)</li>
+ *     <li>{@link PartitionedCsvStorage}: one CSV file per month, with finished
+ *     months archived; used by the showtimes in place of {@link CsvStorage}</li>
+ *     <li>{@link JdbcStorage}: one table per entity in an embedded database file,
+ *     with real indexes for range queries</li>
+ * </ul>
+ * The backend is chosen once at startup with the system property
+ * {@value #PROPERTY} ({@code csv} or {@code jdbc}), e.g.
+ * {@code -Dgrandview.storage=jdbc}.
+ *
+ * @param <T> type of record stored
+ * @author Rene
+ */
+public interface StorageBackend<T> {
+
+    /**
+     * System property selecting the backend.
+     */
+    String PROPERTY = "grandview.storage";
+
+    /**
+     * Returns true if the application was started with the JDBC backend.
+     *
+     * @return true for {@code -Dgrandview.storage=jdbc}
+     */
+    static boolean jdbcSelected() {
+        return "jdbc".equalsIgnoreCase(System.getProperty(PROPERTY, "csv").trim());
+    }
+
+    /**
+     * Reads every record at startup, or every active record for a partitioned
+     * backend (see {@link #loadRange}). May rebuild derived files (indexes, snapshots).
+     *
+     * @param target map receiving the records by id, in storage order
+     * @throws IOException if the storage could not be read
+     */
+    void load(Map<Integer, T> target) throws IOException;
+
+    /**
+     * Reads every record again after another process changed the storage.
+     * Must not write anything.
+     *
+     * @param target map receiving the records by id, in storage order
+     * @throws IOException if the storage could not be read
+     */
+    void reload(Map<Integer, T> target) throws IOException;
+
+    /**
+     * Inserts a record, or replaces the record with the same id.
+     *
+     * @param item record to store
+     * @throws IOException if the record could not be written
+     */
+    void upsert(T item) throws IOException;
+
+    /**
+     * Removes a record.
+     *
+     * @param id primary key
+     * @throws IOException if the record could not be removed
+     */
+    void delete(int id) throws IOException;
+
+    /**
+     * Returns true when {@link #compact} should run right after a write.
+     *
+     * @return true if enough space can be reclaimed
+     */
+    boolean needsCompaction();
+
+    /**
+     * Folds pending changes into the main storage and reclaims dead space.
+     *
+     * @param records every current record, in order
+     * @return true if anything was written
+     * @throws IOException if the storage could not be written
+     */
+    boolean compact(Collection<T> records) throws IOException;
+
+    /**
+     * Returns the names of the files inside the repository's data directory that
+     * change when a record is written, for the {@link DataDirectoryWatcher}.
+     *
+     * @return watched file names
+     */
+    List<String> watchedFiles();
+
+    /**
+     * Drops any state that depends on the files after another process changed them.
+     */
+    void reopen();
+
+    /**
+     * Returns true if {@link #compact} should also run periodically in the background
+     * (e.g. to archive finished partitions).
+     *
+     * @return true to schedule background compaction
+     */
+    default boolean compactsInBackground() {
+        return false;
+    }
+
+    /**
+     * PRUNING: Reads the records dated in {@code [from, to]} that {@link #load}
+     * left out, e.g. archived months. Backends that load everything do nothing.
+     *
+     * @param from   first ISO date, inclusive, or null for no lower bound
+     * @param to     last ISO date, inclusive, or null for no upper bound
+     * @param target map receiving the records that were not loaded yet
+     * @throws IOException if the storage could not be read
+     */
+    default void loadRange(String from, String to, Map<Integer, T> target) throws IOException {
+    }
+
+    /**
+     * Hands over the records that {@link #load} left out and no {@link #loadRange}
+     * has read since, without loading them, for views over the whole history.
+     * Backends that load everything do nothing.
+     *
+     * @param action receives each record
+     * @throws IOException if the storage could not be read
+     */
+    default void forEachUnloaded(Consumer<T> action) throws IOException {
+    }
+
+    /**
+     * Returns the highest id among the records {@link #load} left out, so that
+     * new ids never reuse one of them.
+     *
+     * @return highest id not loaded, or 0
+     */
+    default int highestUnloadedId() {
+        return 0;
+    }
+
+    /**
+     * Returns the first ISO date that {@link #load} covers, or null if it loads every record.
+     *
+     * @return first date of the active records, or null
+     */
+    default String activeFrom() {
+        return null;
+    }
+
+    /**
+     * INDEXED QUERY: Returns the ids of the records whose column lies in {@code [from, to]}.
+     *
+     * @param column column name as declared in the repository's {@link JdbcStorage.Column}s
+     * @param from   lowest value, inclusive
+     * @param to     highest value, inclusive
+     * @return matching ids in id order, or null if this backend has no index and the caller must scan
+     * @throws IOException if the query failed
+     */
+    List<Integer> findIds(String column, Object from, Object to) throws IOException;
+}
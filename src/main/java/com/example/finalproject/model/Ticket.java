@@ -41,7 +41,12 @@ public class Ticket {
     private String eTicketCode;
 
     /**
-     * Creates a new Ticket instance.
+     * Price paid for this ticket.
+     */
+    private double price;
+
+    /**
+     * Creates a new Ticket instance with no price recorded.
      *
      * @param id               unique identifier, must be non-negative
      * @param client           purchasing client, cannot be null
@@ -64,6 +69,29 @@ public class Ticket {
         setETicketCode(eTicketCode);
     }
 
+    /**
+     * Creates a new Ticket instance sold at a given price.
+     *
+     * @param id               unique identifier, must be non-negative
+     * @param client           purchasing client, cannot be null
+     * @param showtime         associated showtime, cannot be null
+     * @param purchaseDateTime purchase date/time, cannot be null
+     * @param seatNumber       seat number (optional, can be null or blank)
+     * @param eTicketCode      unique e-ticket code, cannot be null or blank
+     * @param price            price paid, must be >= 0
+     * @throws IllegalArgumentException if any required argument is invalid
+     */
+    public Ticket(long id,
+                  Client client,
+                  Showtime showtime,
+                  LocalDateTime purchaseDateTime,
+                  String seatNumber,
+                  String eTicketCode,
+                  double price) {
+        this(id, client, showtime, purchaseDateTime, seatNumber, eTicketCode);
+        setPrice(price);
+    }
+
     /**
      * Returns the client who purchased this ticket.
      *
@@ -170,6 +198,28 @@ public class Ticket {
         this.eTicketCode = eTicketCode.trim();
     }
 
+    /**
+     * Returns the price paid for this ticket.
+     *
+     * @return price
+     */
+    public double getPrice() {
+        return price;
+    }
+
+    /**
+     * Sets the price paid for this ticket.
+     *
+     * @param price price, must be >= 0
+     * @throws IllegalArgumentException if price is negative
+     */
+    public void setPrice(double price) {
+        if (price < 0) {
+            throw new IllegalArgumentException("Price cannot be negative.");
+        }
+        this.price = price;
+    }
+
     /**
      * Returns the type of this ticket.
      * For this implementation, the ticket type is always "Regular".
@@ -0,0 +1,581 @@
+package com.example.finalproject.model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable, append-only log of every ticket sold or cancelled, in "tickets.ledger".
+ * <p>
+ * FORMAT: Each sale or cancellation is one binary record: a 4-byte payload
+ * length, a 4-byte CRC32C of the payload, then the payload (record kind,
+ * client id, showtime id, movie and room of the showtime, seat, purchase
+ * time, e-ticket code and price in cents). A crash in the middle of an
+ * append leaves a torn last record; its length or checksum does not match,
+ * so it is cut off before the next batch is appended and every complete
+ * record before it is kept. Another terminal may crash mid-append
+ * while this one keeps its file open, so the tail is checked again before
+ * each batch, whenever the file no longer ends where the last batch did.
+ * <p>
+ * CANCELLATIONS: A cancelled ticket is never removed; a cancellation record
+ * with the fields of the sale it takes back is appended instead. Every reader
+ * replays it as minus one ticket and minus its price, so totals, occupancy,
+ * seat maps and door lists all return to what they were before the sale.
+ * <p>
+ * GROUP COMMIT: Sales are encoded on the caller's thread and queued; a
+ * single writer thread takes everything queued so far, writes it in one go
+ * and fsyncs once for the whole batch. Sales arriving during an fsync wait
+ * for the next batch, so the number of fsyncs follows the disk's speed, not
+ * the number of sales. The queue is bounded: if the disk falls behind,
+ * sellers wait instead of piling up memory.
+ * <p>
+ * GUARDS: A sale may carry a {@link Guard}, checked by the writer under the
+ * exclusive lock once every record queued before it is written, so it sees the
+ * ledger exactly as the sale will follow it. A guard that throws refuses its
+ * sale alone; the rest of the batch is written as usual. This is how a seat
+ * sold by two terminals at once ends up in the ledger only once
+ * ({@link SeatInventory#sell}).
+ * <p>
+ * Terminals sharing the data directory append under the exclusive side of
+ * the ledger's {@link DataLock}; readers take the shared side. Readers that
+ * keep up with the ledger (the {@link SalesAggregator}) remember the offset
+ * they read up to and only read what was appended since. Reports over the
+ * whole history ({@link SalesReport}) read it in parallel segments through a
+ * {@link LedgerScanner} instead.
+ *
+ * @author Rene
+ */
+public class TicketLedger {
+
+    /**
+     * Kind of a record, first byte of every payload: a sale...
+     */
+    static final byte SALE = 1;
+
+    /**
+     * ...or the cancellation of one, with the same layout.
+     */
+    static final byte CANCELLATION = 2;
+
+    /**
+     * Length field + checksum field.
+     */
+    static final int HEADER_BYTES = 8;
+
+    /**
+     * Anything longer is not a record but garbage after a torn write.
+     */
+    static final int MAX_PAYLOAD_BYTES = 64 * 1024;
+
+    /**
+     * Sales waiting for the writer before sellers have to wait.
+     */
+    private static final int MAX_QUEUED = 16 * 1024;
+
+    /**
+     * Most sales written with one fsync.
+     */
+    private static final int MAX_BATCH = 4096;
+
+    /**
+     * SINGLETON: One writer per process for the shared ledger file.
+     */
+    private static final TicketLedger INSTANCE = new TicketLedger(CsvRepository.DATA_DIR + "tickets.ledger");
+
+    /**
+     * One ticket as stored in the ledger: ids instead of objects, price in cents.
+     *
+     * @param clientId     id of the buying client
+     * @param showtimeId   id of the showtime
+     * @param movieId      id of the movie shown, as scheduled at the sale
+     * @param roomId       id of the room, as scheduled at the sale
+     * @param seat         seat label, or an empty string
+     * @param purchased    time of the sale (of the sale taken back, for a cancellation)
+     * @param eTicketCode  e-ticket code
+     * @param priceCents   price paid, in cents
+     * @param cancellation true if this takes the sale of the ticket back
+     */
+    public record Entry(int clientId, int showtimeId, int movieId, int roomId, String seat,
+                        LocalDateTime purchased, String eTicketCode, long priceCents, boolean cancellation) {
+
+        /**
+         * Returns the ledger entry of a ticket sold.
+         *
+         * @param ticket ticket sold
+         * @return its entry
+         */
+        public static Entry of(Ticket ticket) {
+            return of(ticket, false);
+        }
+
+        /**
+         * Returns the ledger entry of a ticket sold or cancelled.
+         *
+         * @param ticket       the ticket
+         * @param cancellation true for its cancellation
+         * @return its entry
+         */
+        public static Entry of(Ticket ticket, boolean cancellation) {
+            Showtime showtime = ticket.getShowtime();
+            return new Entry(ticket.getClient().getUserID(), showtime.getShowtimeID(),
+                    showtime.getMovieID(), showtime.getRoomID(), ticket.getSeatNumber(), ticket.getPurchaseDateTime(), ticket.getETicketCode(),
+                    Math.round(ticket.getPrice() * 100), cancellation);
+        }
+
+        /**
+         * Returns the change in tickets sold: 1 for a sale, -1 for a cancellation.
+         *
+         * @return +1 or -1
+         */
+        public int tickets() {
+            return cancellation ? -1 : 1;
+        }
+
+        /**
+         * Returns the change in revenue: the price, negated for a cancellation.
+         *
+         * @return cents gained or refunded
+         */
+        public long revenueCents() {
+            return cancellation ? -priceCents : priceCents;
+        }
+
+        /**
+         * Returns the price paid.
+         *
+         * @return price in currency units
+         */
+        public double price() {
+            return priceCents / 100.0;
+        }
+    }
+
+    /**
+     * Last check of a sale before it is written.
+     */
+    @FunctionalInterface
+    public interface Guard {
+        /**
+         * Checks the sale against the ledger. Runs on the writer thread with
+         * the exclusive lock held; it may read the ledger, but must not wait
+         * for anything else.
+         *
+         * @throws IOException to refuse the sale, typically a {@link StaleRecordException}
+         */
+        void check() throws IOException;
+    }
+
+    /**
+     * A record waiting for the writer, its guard (or null), and the caller waiting for it to be durable.
+     */
+    private record Pending(byte[] record, Guard guard, CompletableFuture<Void> durable) {
+    }
+
+    private final Path path;
+    private final DataLock lock;
+    private final BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(MAX_QUEUED);
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private Thread writer;
+
+    /**
+     * Owned by the writer thread.
+     */
+    private FileChannel channel;
+
+    /**
+     * Size of the ledger after the last batch of the writer thread, checked before the next one.
+     */
+    private long expectedEnd;
+
+    /**
+     * Creates a ledger stored at a given path. The application shares
+     * {@link #getInstance()}; tests point a ledger of their own at a temporary file.
+     *
+     * @param path path of the ledger file; its lock file sits next to it
+     */
+    TicketLedger(String path) {
+        this.path = Paths.get(path);
+        this.lock = new DataLock(path + ".lock");
+    }
+
+    /**
+     * Returns the shared ticket ledger.
+     *
+     * @return ledger instance
+     */
+    public static TicketLedger getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records a sale and waits until it is on disk.
+     *
+     * @param ticket ticket sold
+     * @throws IOException if the batch holding the sale could not be written
+     */
+    public void append(Ticket ticket) throws IOException {
+        try {
+            appendAsync(ticket).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            throw new IOException("Could not record the sale", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while recording the sale");
+        }
+    }
+
+    /**
+     * Queues a sale for the next batch.
+     *
+     * @param ticket ticket sold
+     * @return completed once the sale is on disk, or exceptionally if the batch failed
+     */
+    public CompletableFuture<Void> appendAsync(Ticket ticket) {
+        return enqueue(Entry.of(ticket, false), null);
+    }
+
+    /**
+     * Queues a sale that is only written if its guard still passes when its turn comes.
+     *
+     * @param ticket ticket sold
+     * @param guard  check run just before the sale is written
+     * @return completed once the sale is on disk, or exceptionally with what the guard threw
+     */
+    public CompletableFuture<Void> appendAsync(Ticket ticket, Guard guard) {
+        return enqueue(Entry.of(ticket, false), guard);
+    }
+
+    /**
+     * Records the cancellation of a ticket sold before and waits until it is on disk.
+     *
+     * @param ticket ticket cancelled, as it was sold
+     * @throws IOException if the batch holding the cancellation could not be written
+     */
+    public void cancel(Ticket ticket) throws IOException {
+        try {
+            cancelAsync(ticket).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            throw new IOException("Could not record the cancellation", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while recording the cancellation");
+        }
+    }
+
+    /**
+     * Queues the cancellation of a ticket for the next batch.
+     *
+     * @param ticket ticket cancelled, as it was sold
+     * @return completed once the cancellation is on disk, or exceptionally if the batch failed
+     */
+    public CompletableFuture<Void> cancelAsync(Ticket ticket) {
+        return enqueue(Entry.of(ticket, true), null);
+    }
+
+    private CompletableFuture<Void> enqueue(Entry entry, Guard guard) {
+        Pending pending = new Pending(encode(entry), guard, new CompletableFuture<>());
+        start();
+        try {
+            queue.put(pending); // waits only when the disk is far behind
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.durable().completeExceptionally(new InterruptedIOException("Interrupted while queueing the record"));
+        }
+        return pending.durable();
+    }
+
+    /**
+     * Reads every complete sale and cancellation of the ledger, oldest first.
+     * A torn record at the end is skipped.
+     *
+     * @param onEntry receives each sale
+     * @throws IOException if the ledger exists but could not be read
+     */
+    public void replay(Consumer<Entry> onEntry) throws IOException {
+        replayFrom(0, onEntry);
+    }
+
+    /**
+     * Reads the complete sales appended after a given offset, oldest first.
+     *
+     * @param offset  where to start: 0, or a value returned by an earlier call
+     * @param onEntry receives each sale
+     * @return offset just after the last complete sale, to continue from next time
+     * @throws IOException if the ledger exists but could not be read
+     */
+    public long replayFrom(long offset, Consumer<Entry> onEntry) throws IOException {
+        return replayFrom(offset, (entry, end) -> onEntry.accept(entry));
+    }
+
+    /**
+     * Reads the complete sales appended after a given offset, oldest first,
+     * with the offset just after each one. A reader that stores that offset
+     * along with what it made of the sale stays consistent even if the read
+     * fails halfway.
+     *
+     * @param offset  where to start: 0, or an offset handed out before
+     * @param onEntry receives each sale and the offset after it
+     * @return offset just after the last complete sale, to continue from next time
+     * @throws IOException if the ledger exists but could not be read
+     */
+    public long replayFrom(long offset, ObjLongConsumer<Entry> onEntry) throws IOException {
+        return lock.shared(() -> {
+            if (!Files.exists(path)) return 0L;
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+                in.skipNBytes(offset);
+                return scan(new DataInputStream(in), offset, onEntry);
+            } catch (EOFException e) {
+                throw new IOException(path + " is shorter than the offset " + offset + " read before");
+            }
+        });
+    }
+
+    /**
+     * Returns the current size of the ledger, i.e. the offset after the last sale written.
+     * Taken under the shared lock, so it never ends inside a batch being appended.
+     *
+     * @return size in bytes, 0 if nothing was sold yet
+     * @throws IOException if the size could not be read
+     */
+    public long size() throws IOException {
+        return lock.shared(() -> Files.exists(path) ? Files.size(path) : 0L);
+    }
+
+    /**
+     * Returns the ledger file, for readers that scan it themselves.
+     *
+     * @return path of "tickets.ledger"
+     */
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Registers code to run after each batch of sales of this terminal is on disk.
+     * It runs on the writer thread, so it must only hand the work off.
+     *
+     * @param listener code to run
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    private synchronized void start() {
+        if (writer != null) return;
+        writer = Thread.ofPlatform().daemon().name("ticket-ledger").start(this::writeLoop);
+    }
+
+    /**
+     * SINGLE WRITER: Takes whatever is queued, writes it with one fsync, repeats.
+     */
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        Map<Pending, IOException> refused = new IdentityHashMap<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            try {
+                write(batch, refused);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("LEDGER: Could not write " + batch.size() + " sales to " + path);
+                closeChannel();
+                for (Pending pending : batch) pending.durable().completeExceptionally(e);
+                batch.clear();
+                refused.clear();
+                continue;
+            }
+            // Completed outside the lock: the callers' follow-ups may read the ledger
+            for (Map.Entry<Pending, IOException> refusal : refused.entrySet()) {
+                refusal.getKey().durable().completeExceptionally(refusal.getValue());
+            }
+            for (Pending pending : batch) pending.durable().complete(null); // no-op for the refused
+            for (Runnable listener : listeners) listener.run();
+            batch.clear();
+            refused.clear();
+        }
+    }
+
+    /**
+     * Writes a batch with one fsync, leaving out the sales whose guard refuses them.
+     *
+     * @param batch   records to write, in order
+     * @param refused receives the refused sales and why
+     */
+    private void write(List<Pending> batch, Map<Pending, IOException> refused) throws IOException {
+        int size = 0;
+        for (Pending pending : batch) size += pending.record().length;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        lock.exclusive(() -> {
+            FileChannel out = channel();
+            if (out.size() != expectedEnd) {
+                // Other terminals appended since, and one may have crashed mid-record
+                expectedEnd = repairTail(out, out.size() > expectedEnd ? expectedEnd : 0);
+            }
+            for (Pending pending : batch) {
+                if (pending.guard() != null) {
+                    // What came before is written (not yet synced) so the guard reads it too
+                    drain(out, buffer);
+                    try {
+                        pending.guard().check();
+                    } catch (IOException e) {
+                        refused.put(pending, e);
+                        continue;
+                    }
+                }
+                buffer.put(pending.record());
+            }
+            drain(out, buffer);
+            out.force(false);
+            return null;
+        });
+    }
+
+    /**
+     * Writes what the buffer holds and empties it.
+     */
+    private void drain(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) out.write(buffer);
+        expectedEnd += buffer.limit();
+        buffer.clear();
+    }
+
+    /**
+     * Opens the ledger for appending, first cutting off a torn record left by a crash.
+     */
+    private FileChannel channel() throws IOException {
+        if (channel != null) return channel;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        expectedEnd = repairTail(channel, 0);
+        return channel;
+    }
+
+    /**
+     * Reads the records after a known good offset and cuts off a torn one at the end.
+     * Caller holds the exclusive lock.
+     *
+     * @param out  the open ledger
+     * @param from offset of a record boundary, 0 to check the whole ledger
+     * @return size of the ledger once repaired
+     */
+    private long repairTail(FileChannel out, long from) throws IOException {
+        long valid;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            in.skipNBytes(from);
+            valid = scan(new DataInputStream(in), from, (entry, end) -> { });
+        }
+        if (out.size() > valid) {
+            System.out.println("LEDGER: Dropping " + (out.size() - valid) + " bytes of a torn record in " + path);
+            out.truncate(valid);
+            out.force(true);
+        }
+        return valid;
+    }
+
+    private void closeChannel() {
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException ignored) {
+            // Reopened (and checked again) by the next batch
+        }
+        channel = null;
+    }
+
+    /**
+     * Reads records until the end or the first torn one.
+     *
+     * @param from offset of the first record in the stream
+     * @return offset just after the last complete record
+     */
+    private static long scan(DataInputStream in, long from, ObjLongConsumer<Entry> onEntry) throws IOException {
+        long valid = from;
+        CRC32C crc = new CRC32C();
+        while (true) {
+            int length;
+            int checksum;
+            byte[] payload;
+            try {
+                length = in.readInt();
+                checksum = in.readInt();
+                if (length <= 0 || length > MAX_PAYLOAD_BYTES) return valid;
+                payload = new byte[length];
+                in.readFully(payload);
+            } catch (EOFException e) {
+                return valid;
+            }
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) return valid;
+            valid += HEADER_BYTES + length;
+            onEntry.accept(decode(payload), valid);
+        }
+    }
+
+    private static byte[] encode(Entry entry) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(entry.cancellation() ? CANCELLATION : SALE);
+            out.writeInt(entry.clientId());
+            out.writeInt(entry.showtimeId());
+            out.writeInt(entry.movieId());
+            out.writeInt(entry.roomId());
+            out.writeUTF(entry.seat());
+            out.writeUTF(entry.purchased().toString());
+            out.writeUTF(entry.eTicketCode());
+            out.writeLong(entry.priceCents());
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in-memory stream
+        }
+        byte[] payload = bytes.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .array();
+    }
+
+    private static Entry decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte kind = in.readByte();
+        if (kind != SALE && kind != CANCELLATION) {
+            throw new IOException("Unknown ticket ledger record kind " + kind);
+        }
+        return new Entry(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readUTF(),
+                LocalDateTime.parse(in.readUTF()), in.readUTF(), in.readLong(), kind == CANCELLATION);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.finalproject.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel: runs short actions once their deadline passes.
+ * <p>
+ * The wheel is a ring of buckets, one per tick. An action due in {@code n}
+ * ticks goes in bucket {@code (now + n) % size} with {@code n / size} full
+ * turns left to wait, so scheduling is O(1) whatever the delay, and each tick
+ * only looks at its own bucket instead of every pending action.
+ * <p>
+ * Callers never touch the buckets: {@link #schedule} only adds to a lock-free
+ * queue, and the single wheel thread moves new entries into their bucket at
+ * the next tick. Actions run on that thread, so they must be quick; an action
+ * made pointless before its deadline (e.g. a hold already paid) simply does
+ * nothing when it runs.
+ *
+ * @author Rene
+ */
+final class TimingWheel {
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<List<Entry>> buckets;
+    private final Queue<Entry> incoming = new ConcurrentLinkedQueue<>();
+    private final String threadName;
+
+    private volatile long startNanos;
+
+    /**
+     * Set once; volatile so that {@link #schedule} only locks before the wheel runs.
+     */
+    private volatile Thread worker;
+    private long tick;
+
+    private static final class Entry {
+        final long deadline;
+        final Runnable action;
+        long rounds;
+
+        Entry(long deadline, Runnable action) {
+            this.deadline = deadline;
+            this.action = action;
+        }
+    }
+
+    /**
+     * Creates a stopped wheel; its thread starts with the first {@link #schedule}.
+     *
+     * @param tick       length of one tick; deadlines are rounded up to it
+     * @param unit       unit of {@code tick}
+     * @param size       number of buckets, rounded up to a power of two
+     * @param threadName name of the wheel thread
+     */
+    TimingWheel(long tick, TimeUnit unit, int size, String threadName) {
+        this.tickNanos = unit.toNanos(tick);
+        int buckets = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        this.mask = buckets - 1;
+        this.buckets = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) this.buckets.add(new ArrayList<>());
+        this.threadName = threadName;
+    }
+
+    /**
+     * Runs an action on the wheel thread once a deadline has passed.
+     *
+     * @param deadline {@link System#nanoTime()} value to wait for
+     * @param action   quick action to run
+     */
+    void schedule(long deadline, Runnable action) {
+        if (worker == null) start();
+        incoming.add(new Entry(deadline, action));
+    }
+
+    private synchronized void start() {
+        if (worker != null) return;
+        startNanos = System.nanoTime();
+        worker = Thread.ofPlatform().daemon().name(threadName).start(this::run);
+    }
+
+    private void run() {
+        while (true) {
+            long wakeAt = startNanos + (tick + 1) * tickNanos;
+            long sleep;
+            while ((sleep = wakeAt - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            transferIncoming();
+            expire(buckets.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    /**
+     * Puts the entries scheduled since the last tick in their bucket.
+     */
+    private void transferIncoming() {
+        Entry entry;
+        while ((entry = incoming.poll()) != null) {
+            // Ticks are counted from the start; anything already due goes in the current bucket
+            long due = Math.max(tick, Math.ceilDiv(entry.deadline - startNanos, tickNanos));
+            entry.rounds = (due - tick) / buckets.size();
+            buckets.get((int) (due & mask)).add(entry);
+        }
+    }
+
+    private void expire(List<Entry> bucket) {
+        int kept = 0;
+        for (Entry entry : bucket) {
+            if (entry.rounds > 0) {
+                entry.rounds--;
+                bucket.set(kept++, entry);
+                continue;
+            }
+            try {
+                entry.action.run();
+            } catch (RuntimeException e) {
+                System.err.println("WHEEL: A timed action failed on " + threadName);
+                e.printStackTrace();
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.finalproject.model;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link SalesKernel} on SIMD lanes, with the incubating Vector API
+ * ({@code --add-modules jdk.incubator.vector}).
+ * <p>
+ * SIMD: Each step reads a whole register of rows (4 longs or 8 ints with
+ * AVX2) and adds or compares them at once; the lanes are summed at the end
+ * and the rows left over are read one by one. Int columns are summed in long
+ * lanes, so they never overflow where the {@link ScalarSalesKernel} does not.
+ * <p>
+ * Only created by {@link SalesKernel#load()}, which falls back to the scalar
+ * kernel when this class cannot be loaded.
+ *
+ * @author Rene
+ */
+final class VectorSalesKernel implements SalesKernel {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    /**
+     * Long lanes holding one register of ints, for sums that must not overflow.
+     */
+    private static final VectorSpecies<Long> WIDE = VectorSpecies.of(long.class, INTS.vectorShape());
+
+    VectorSalesKernel() {
+        // With a single lane the API emulates vectors, far slower than the plain loop
+        if (LONGS.length() < 2) throw new UnsupportedOperationException("no SIMD lanes");
+    }
+
+    @Override
+    public long[] sum(int[] tickets, long[] priceCents, int length) {
+        LongVector count = LongVector.zero(WIDE);
+        int i = 0;
+        for (int upper = INTS.loopBound(length); i < upper; i += INTS.length()) {
+            IntVector t = IntVector.fromArray(INTS, tickets, i);
+            count = count.add(widen(t, 0)).add(widen(t, 1));
+        }
+        long totalCount = count.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) totalCount += tickets[i];
+
+        LongVector cents = LongVector.zero(LONGS);
+        i = 0;
+        for (int upper = LONGS.loopBound(length); i < upper; i += LONGS.length()) {
+            cents = cents.add(LongVector.fromArray(LONGS, priceCents, i));
+        }
+        long totalCents = cents.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) totalCents += priceCents[i];
+        return new long[]{totalCount, totalCents};
+    }
+
+    @Override
+    public long[] occupancy(int[] sold, int[] capacity, int length, int percent) {
+        LongVector seatsSold = LongVector.zero(WIDE);
+        LongVector seatsOffered = LongVector.zero(WIDE);
+        long filled = 0;
+        long full = 0;
+        int i = 0;
+        for (int upper = INTS.loopBound(length); i < upper; i += INTS.length()) {
+            IntVector s = IntVector.fromArray(INTS, sold, i);
+            IntVector c = IntVector.fromArray(INTS, capacity, i);
+            LongVector lowSold = widen(s, 0);
+            LongVector highSold = widen(s, 1);
+            LongVector lowCapacity = widen(c, 0);
+            LongVector highCapacity = widen(c, 1);
+            seatsSold = seatsSold.add(lowSold).add(highSold);
+            seatsOffered = seatsOffered.add(lowCapacity).add(highCapacity);
+            // sold * 100 >= capacity * percent, in long lanes like the scalar loop
+            VectorMask<Long> low = lowSold.mul(100).compare(VectorOperators.GE, lowCapacity.mul(percent));
+            VectorMask<Long> high = highSold.mul(100).compare(VectorOperators.GE, highCapacity.mul(percent));
+            filled += low.trueCount() + high.trueCount();
+            full += s.compare(VectorOperators.GE, c).trueCount();
+        }
+        long totalSold = seatsSold.reduceLanes(VectorOperators.ADD);
+        long totalOffered = seatsOffered.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            totalSold += sold[i];
+            totalOffered += capacity[i];
+            if (sold[i] * 100L >= capacity[i] * (long) percent) filled++;
+            if (sold[i] >= capacity[i]) full++;
+        }
+        return new long[]{totalSold, totalOffered, filled, full};
+    }
+
+    /**
+     * Returns half of the int lanes as longs: the low half for part 0, the high one for part 1.
+     */
+    private static LongVector widen(IntVector ints, int part) {
+        return (LongVector) ints.convertShape(VectorOperators.I2L, WIDE, part);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.finalproject.model;
+
+/**
+ * A record carrying an optimistic version stamp.
+ * <p>
+ * The stamp is stored as the last CSV column and goes up by one on every save.
+ * An edit is saved with the stamp of the record it started from; if another
+ * terminal saved the record in the meantime the stamps differ and the
+ * repository rejects the edit with a {@link StaleRecordException} instead of
+ * silently overwriting the other change.
+ *
+ * @author Rene
+ */
+public interface Versioned {
+
+    /**
+     * Returns the version stamp (0 for a record never saved with a stamp).
+     *
+     * @return version stamp
+     */
+    int getVersion();
+
+    /**
+     * Sets the version stamp. Called by the repository when the record is saved.
+     *
+     * @param version new version stamp
+     */
+    void setVersion(int version);
+}
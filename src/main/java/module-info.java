@@ -4,6 +4,7 @@ module com.example.finalproject {
     requires javafx.graphics;
     requires javafx.base;
     requires java.sql;
+    requires static jdk.incubator.vector;
 
 
     opens com.example.finalproject to javafx.fxml;
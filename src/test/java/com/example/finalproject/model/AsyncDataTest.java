@@ -0,0 +1,101 @@
+package com.example.finalproject.model;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests of {@link AsyncData}: the JavaFX thread hands the work off and never
+ * waits for it, and the outcome comes back on the JavaFX thread.
+ * <p>
+ * Needs the JavaFX toolkit, so it is skipped on machines without a display.
+ *
+ * @author Rene
+ */
+class AsyncDataTest {
+
+    private static boolean toolkit;
+
+    @BeforeAll
+    static void startToolkit() {
+        try {
+            Platform.startup(() -> { });
+            toolkit = true;
+        } catch (IllegalStateException alreadyStarted) {
+            toolkit = true;
+        } catch (RuntimeException | UnsatisfiedLinkError noDisplay) {
+            toolkit = false;
+        }
+    }
+
+    @Test
+    void theFxThreadDoesNotWaitForTheWork() throws Exception {
+        assumeTrue(toolkit, "no JavaFX toolkit");
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> workThread = new CompletableFuture<>();
+        CompletableFuture<String> succeededOn = new CompletableFuture<>();
+
+        CompletableFuture<Boolean> submitted = onFxThread(() -> {
+            Task<String> task = AsyncData.submit(() -> {
+                workThread.complete(Thread.currentThread().isVirtual() && !Platform.isFxApplicationThread());
+                release.await(); // a slow file
+                return "loaded";
+            });
+            task.setOnSucceeded(event -> succeededOn.complete(
+                    Platform.isFxApplicationThread() ? task.getValue() : "wrong thread"));
+            return task.isDone();
+        });
+
+        assertFalse(submitted.get(5, TimeUnit.SECONDS), "submit returned before the work was done");
+        assertTrue(workThread.get(5, TimeUnit.SECONDS), "work runs on a virtual thread");
+        assertFalse(succeededOn.isDone());
+        release.countDown();
+        assertEquals("loaded", succeededOn.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void aFailureIsReportedOnTheFxThread() throws Exception {
+        assumeTrue(toolkit, "no JavaFX toolkit");
+        CompletableFuture<Throwable> failedWith = new CompletableFuture<>();
+        onFxThread(() -> {
+            Task<Void> task = AsyncData.submit(() -> {
+                throw new IOException("disk full");
+            });
+            task.setOnFailed(event -> failedWith.complete(
+                    Platform.isFxApplicationThread() ? task.getException() : new AssertionError("wrong thread")));
+            return null;
+        }).get(5, TimeUnit.SECONDS);
+
+        Throwable failure = failedWith.get(5, TimeUnit.SECONDS);
+        assertInstanceOf(IOException.class, failure);
+        assertEquals("disk full", failure.getMessage());
+    }
+
+    private interface FxAction<V> {
+        V run() throws Exception;
+    }
+
+    private static <V> CompletableFuture<V> onFxThread(FxAction<V> action) {
+        CompletableFuture<V> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(action.run());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.finalproject.model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Startup cost of a season's schedule: building the showtimes from the CSV
+ * file (through the {@link MappedCsvReader}) against building them from its
+ * {@link BinarySnapshot}, with the columns {@link ShowtimeRepository} uses.
+ * <p>
+ * Not a unit test (timings depend on the machine); run it by hand after
+ * {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.finalproject.model.BinarySnapshotBenchmark [rows]
+ * </pre>
+ * The first load of each is what a fresh start pays (nothing compiled yet;
+ * the snapshot goes first, so it also pays for what both paths share); the
+ * best of the runs after that is what a reload pays.
+ *
+ * @author Rene
+ */
+final class BinarySnapshotBenchmark {
+
+    private static final int RUNS = 10;
+
+    private BinarySnapshotBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Path dir = Files.createTempDirectory("snapshot");
+        try {
+            Path csv = dir.resolve("showtimes.csv");
+            List<Showtime> season = season(rows);
+            write(csv, season);
+            Path snapshot = BinarySnapshot.snapshotPathFor(csv);
+            writeSnapshot(snapshot, csv, season);
+            System.out.printf("%,d showtimes: CSV %,d bytes, snapshot %,d bytes%n",
+                    rows, Files.size(csv), Files.size(snapshot));
+
+            long start = System.nanoTime();
+            int loaded = fromSnapshot(snapshot, csv).size();
+            long firstSnapshot = System.nanoTime() - start;
+            start = System.nanoTime();
+            loaded += fromCsv(csv).size();
+            long firstCsv = System.nanoTime() - start;
+            System.out.printf("first load:  CSV %,.1f ms, snapshot %,.1f ms%n", firstCsv / 1e6, firstSnapshot / 1e6);
+
+            long bestCsv = Long.MAX_VALUE;
+            long bestSnapshot = Long.MAX_VALUE;
+            for (int i = 0; i < RUNS; i++) {
+                start = System.nanoTime();
+                loaded += fromCsv(csv).size();
+                bestCsv = Math.min(bestCsv, System.nanoTime() - start);
+                start = System.nanoTime();
+                loaded += fromSnapshot(snapshot, csv).size();
+                bestSnapshot = Math.min(bestSnapshot, System.nanoTime() - start);
+            }
+            System.out.printf("warm reload: CSV %,.1f ms, snapshot %,.1f ms (%,d rows read)%n",
+                    bestCsv / 1e6, bestSnapshot / 1e6, loaded);
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static List<Showtime> fromCsv(Path csv) throws IOException {
+        List<Showtime> showtimes = new ArrayList<>();
+        MappedCsvReader.read(csv, row -> showtimes.add(new Showtime(row.getInt(0), row.getString(1),
+                row.getString(2), row.getInt(3), row.getInt(4), row.getInt(5))));
+        return showtimes;
+    }
+
+    private static List<Showtime> fromSnapshot(Path snapshot, Path csv) throws IOException {
+        BinarySnapshot.Reader in = BinarySnapshot.read(snapshot, csv);
+        if (in == null) throw new IllegalStateException("Snapshot is stale");
+        int[] ids = in.intColumn();
+        String[] dates = in.dateColumn();
+        String[] times = in.timeColumn();
+        int[] movieIds = in.intColumn();
+        int[] roomIds = in.intColumn();
+        int[] versions = in.intColumn();
+        List<Showtime> showtimes = new ArrayList<>(in.rows());
+        for (int i = 0; i < in.rows(); i++) {
+            showtimes.add(new Showtime(ids[i], dates[i], times[i], movieIds[i], roomIds[i], versions[i]));
+        }
+        return showtimes;
+    }
+
+    private static void writeSnapshot(Path snapshot, Path csv, List<Showtime> showtimes) throws IOException {
+        int rows = showtimes.size();
+        int[] ids = new int[rows];
+        String[] dates = new String[rows];
+        String[] times = new String[rows];
+        int[] movieIds = new int[rows];
+        int[] roomIds = new int[rows];
+        int[] versions = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            Showtime showtime = showtimes.get(i);
+            ids[i] = showtime.getShowtimeID();
+            dates[i] = showtime.getDate();
+            times[i] = showtime.getTime();
+            movieIds[i] = showtime.getMovieID();
+            roomIds[i] = showtime.getRoomID();
+            versions[i] = showtime.getVersion();
+        }
+        BinarySnapshot.write(snapshot, csv, new BinarySnapshot.Writer(rows).intColumn(ids).dateColumn(dates)
+                .timeColumn(times).intColumn(movieIds).intColumn(roomIds).intColumn(versions));
+    }
+
+    private static List<Showtime> season(int rows) {
+        Random random = new Random(1);
+        List<Showtime> showtimes = new ArrayList<>(rows);
+        for (int id = 1; id <= rows; id++) {
+            showtimes.add(new Showtime(id, "2025-" + two(1 + random.nextInt(12)) + "-" + two(1 + random.nextInt(28)),
+                    two(10 + random.nextInt(13)) + ":" + (random.nextBoolean() ? "00" : "30"),
+                    1 + random.nextInt(40), 1 + random.nextInt(6), 1));
+        }
+        return showtimes;
+    }
+
+    private static void write(Path csv, List<Showtime> showtimes) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(csv)) {
+            for (Showtime showtime : showtimes) {
+                out.write(showtime.getShowtimeID() + "," + showtime.getDate() + "," + showtime.getTime() + ","
+                        + showtime.getMovieID() + "," + showtime.getRoomID() + "," + showtime.getVersion() + "\n");
+            }
+        }
+    }
+
+    private static String two(int value) {
+        return value < 10 ? "0" + value : String.valueOf(value);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the {@link BinarySnapshot} format: every column reads back as
+ * written, and a snapshot that no longer matches its CSV file is ignored.
+ *
+ * @author Rene
+ */
+class BinarySnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void everyColumnReadsBackAsWritten() throws IOException {
+        Path csv = csv("showtimes.csv", "whatever the rows were\n");
+        int[] ids = {1, 2, 3, Integer.MAX_VALUE};
+        String[] titles = {"Dune", "Amélie", "Dune", ""};
+        // Free text and non-canonical values must come back exactly as typed
+        String[] dates = {"2024-12-01", "tomorrow", "2024-1-5", "1970-01-01"};
+        String[] times = {"14:00", "14:00:00", "2pm", "00:00"};
+        Path snapshot = BinarySnapshot.snapshotPathFor(csv);
+        BinarySnapshot.write(snapshot, csv, new BinarySnapshot.Writer(4)
+                .intColumn(ids).stringColumn(titles).dateColumn(dates).timeColumn(times));
+
+        BinarySnapshot.Reader in = BinarySnapshot.read(snapshot, csv);
+        assertNotNull(in);
+        assertEquals(4, in.rows());
+        assertArrayEquals(ids, in.intColumn());
+        String[] readTitles = in.stringColumn();
+        assertEquals(String.join("|", titles), String.join("|", readTitles));
+        assertSame(readTitles[0], readTitles[2]); // one dictionary entry
+        assertEquals(String.join("|", dates), String.join("|", in.dateColumn()));
+        assertEquals(String.join("|", times), String.join("|", in.timeColumn()));
+    }
+
+    @Test
+    void snapshotIsNamedAfterItsFile() {
+        assertEquals(dir.resolve("movies.bin"), BinarySnapshot.snapshotPathFor(dir.resolve("movies.csv")));
+        assertEquals(dir.resolve("rooms.bin"), BinarySnapshot.snapshotPathFor(dir.resolve("rooms")));
+    }
+
+    @Test
+    void aChangedCsvFileMakesTheSnapshotStale() throws IOException {
+        Path csv = csv("rooms.csv", "1,Room A,100\n");
+        Path snapshot = BinarySnapshot.snapshotPathFor(csv);
+        BinarySnapshot.write(snapshot, csv, new BinarySnapshot.Writer(1).intColumn(new int[]{1}));
+        assertNotNull(BinarySnapshot.read(snapshot, csv));
+
+        Files.writeString(csv, "2,Room B,80\n", StandardOpenOption.APPEND);
+        assertNull(BinarySnapshot.read(snapshot, csv), "grown");
+
+        BinarySnapshot.write(snapshot, csv, new BinarySnapshot.Writer(1).intColumn(new int[]{1}));
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(Files.getLastModifiedTime(csv).toMillis() + 5000));
+        assertNull(BinarySnapshot.read(snapshot, csv), "same size, rewritten later");
+    }
+
+    @Test
+    void aMissingOrDamagedSnapshotIsIgnored() throws IOException {
+        Path csv = csv("movies.csv", "1,Dune,Sci-Fi,166\n");
+        Path snapshot = BinarySnapshot.snapshotPathFor(csv);
+        assertNull(BinarySnapshot.read(snapshot, csv));
+        Files.write(snapshot, new byte[]{'G', 'V'});
+        assertNull(BinarySnapshot.read(snapshot, csv));
+        Files.write(snapshot, new byte[64]);
+        assertNull(BinarySnapshot.read(snapshot, csv));
+    }
+
+    @Test
+    void aTruncatedColumnIsAnError() throws IOException {
+        Path csv = csv("rooms.csv", "1,Room A,100\n");
+        Path snapshot = BinarySnapshot.snapshotPathFor(csv);
+        BinarySnapshot.write(snapshot, csv, new BinarySnapshot.Writer(3).intColumn(new int[]{1, 2, 3}));
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 1));
+        Files.setLastModifiedTime(csv, Files.getLastModifiedTime(csv)); // keep the snapshot fresh
+        BinarySnapshot.Reader in = BinarySnapshot.read(snapshot, csv);
+        assertNotNull(in);
+        assertThrows(IOException.class, in::intColumn);
+    }
+
+    @Test
+    void columnsMustBeReadInTheirOrder() throws IOException {
+        Path csv = csv("movies.csv", "1,Dune\n");
+        Path snapshot = BinarySnapshot.snapshotPathFor(csv);
+        BinarySnapshot.write(snapshot, csv, new BinarySnapshot.Writer(1)
+                .intColumn(new int[]{1}).stringColumn(new String[]{"Dune"}));
+        BinarySnapshot.Reader in = BinarySnapshot.read(snapshot, csv);
+        assertNotNull(in);
+        assertThrows(IOException.class, in::stringColumn);
+    }
+
+    @Test
+    void everyColumnHasOneValuePerRow() {
+        BinarySnapshot.Writer writer = new BinarySnapshot.Writer(3);
+        assertThrows(IllegalArgumentException.class, () -> writer.intColumn(new int[]{1, 2}));
+    }
+
+    private Path csv(String name, String content) throws IOException {
+        Path csv = dir.resolve(name);
+        Files.writeString(csv, content);
+        return csv;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link CsvRepository} cache on a temporary data directory:
+ * the file is read once, saves and deletes go through to it, and the shared
+ * list receives the changes of one frame as one batch.
+ * <p>
+ * The JavaFX thread is played by a queue the test drains by hand.
+ *
+ * @author Rene
+ */
+class CsvRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    private final Queue<Runnable> fxThread = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicInteger reloads = new AtomicInteger();
+    private DataDirectoryWatcher watcher;
+    private RoomRepository rooms;
+
+    @BeforeEach
+    void createRepository() throws IOException {
+        Files.write(dir.resolve("rooms.csv"), List.of("1,Room 1,60,0", "2,Room 2,40,0", "3,Room 3,80,0"));
+        watcher = new DataDirectoryWatcher(dir);
+        rooms = open();
+    }
+
+    @AfterEach
+    void stopWatching() {
+        watcher.close();
+    }
+
+    @Test
+    void aWarmCacheNeverReadsTheFileAgain() throws IOException, InterruptedException {
+        assertEquals("Room 2", rooms.findById(2).getRoomName());
+        for (int i = 0; i < 100; i++) rooms.findById(1 + i % 3);
+        rooms.save(new Room(4, "Room 4", 120));
+        rooms.delete(1);
+        Thread.sleep(300); // the watcher sees our own writes and must let them pass
+
+        assertEquals(1, loads.get(), "one load");
+        assertEquals(0, reloads.get(), "no reload after our own writes");
+        assertNull(rooms.findById(1));
+        assertEquals(120, rooms.findById(4).getCapacity());
+    }
+
+    @Test
+    void savesAndDeletesAreWrittenThrough() throws IOException {
+        rooms.save(new Room(2, "Room 2 (IMAX)", 90, 0));
+        rooms.save(new Room(4, "Room 4", 120));
+        rooms.delete(3);
+
+        RoomRepository reopened = new RoomRepository(dir + "/", watcher, fxThread::add);
+        assertEquals("Room 2 (IMAX)", reopened.findById(2).getRoomName());
+        assertEquals(1, reopened.findById(2).getVersion());
+        assertEquals(120, reopened.findById(4).getCapacity());
+        assertNull(reopened.findById(3));
+        assertEquals(60, reopened.findById(1).getCapacity());
+    }
+
+    @Test
+    void changesOfOneFrameArePublishedAsOneBatch() throws IOException {
+        rooms.findById(1);
+        List<Room> items = rooms.getItems();
+        runFxThread();
+        assertEquals(List.of(1, 2, 3), ids(items));
+        Room unchanged = items.get(2);
+        AtomicInteger batches = new AtomicInteger();
+        Runnable listener = batches::incrementAndGet;
+        rooms.addChangeListener(listener);
+
+        rooms.save(new Room(2, "Room 2 (IMAX)", 90, 0));
+        rooms.save(new Room(4, "Room 4", 120));
+        rooms.delete(1);
+        assertEquals(1, fxThread.size(), "one publication queued for three changes");
+        runFxThread();
+
+        assertEquals(1, batches.get());
+        assertEquals(List.of(2, 3, 4), ids(items));
+        assertEquals("Room 2 (IMAX)", items.get(0).getRoomName(), "edited in place");
+        assertSame(unchanged, items.get(1), "untouched rows keep their instance");
+    }
+
+    @Test
+    void aListNobodyShowsIsFilledWhenAsked() throws IOException {
+        rooms.save(new Room(4, "Room 4", 120));
+        runFxThread();
+
+        Map<Integer, String> names = Map.of(1, "Room 1", 2, "Room 2", 3, "Room 3", 4, "Room 4");
+        List<Room> items = rooms.getItems();
+        assertTrue(items.isEmpty(), "not kept before a screen asked for it");
+        runFxThread();
+        assertEquals(List.of(1, 2, 3, 4), ids(items));
+        for (Room room : items) assertEquals(names.get(room.getRoomID()), room.getRoomName());
+    }
+
+    /**
+     * A room repository on the temporary directory whose storage counts how often it reads the file.
+     */
+    private RoomRepository open() {
+        return new RoomRepository(dir + "/", watcher, fxThread::add) {
+            @Override
+            protected StorageBackend<Room> fileBackend(String fileName) {
+                return new CsvStorage<>(this, fileName) {
+                    @Override
+                    public void load(Map<Integer, Room> target) throws IOException {
+                        loads.incrementAndGet();
+                        super.load(target);
+                    }
+
+                    @Override
+                    public void reload(Map<Integer, Room> target) {
+                        reloads.incrementAndGet();
+                        super.reload(target);
+                    }
+                };
+            }
+        };
+    }
+
+    private void runFxThread() {
+        Runnable task;
+        while ((task = fxThread.poll()) != null) task.run();
+    }
+
+    private static List<Integer> ids(List<Room> rooms) {
+        return rooms.stream().map(Room::getRoomID).toList();
+    }
+}
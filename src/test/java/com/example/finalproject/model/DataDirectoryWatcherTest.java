@@ -0,0 +1,134 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link DataDirectoryWatcher} on a temporary data directory,
+ * and of the live reload it drives: a file edited by hand reaches the shared
+ * list of its repository as the rows that changed, not as a new list.
+ *
+ * @author Rene
+ */
+class DataDirectoryWatcherTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @TempDir
+    Path dir;
+
+    private DataDirectoryWatcher watcher;
+
+    @BeforeEach
+    void startWatcher() {
+        watcher = new DataDirectoryWatcher(dir);
+    }
+
+    @AfterEach
+    void stopWatcher() {
+        watcher.close();
+    }
+
+    @Test
+    void aBurstOfWritesIsOneNotification() throws IOException, InterruptedException {
+        AtomicInteger movies = new AtomicInteger();
+        AtomicInteger rooms = new AtomicInteger();
+        watcher.watch("movies.csv", movies::incrementAndGet);
+        watcher.watch("rooms.csv", rooms::incrementAndGet);
+
+        // An atomic replace, then an appended line: what one save does to a file
+        DurableWriter.getInstance().replace(dir.resolve("movies.csv"), List.of("1,Alien,117"));
+        Files.write(dir.resolve("movies.csv"), List.of("2,Brazil,142"), StandardOpenOption.APPEND);
+        eventually(() -> movies.get() > 0);
+        Thread.sleep(300); // a second notification would have come by now
+
+        assertEquals(1, movies.get());
+        assertEquals(0, rooms.get(), "other files are not reported");
+    }
+
+    @Test
+    void aSubdirectoryCreatedLaterIsWatched() throws IOException {
+        AtomicInteger showtimes = new AtomicInteger();
+        watcher.watch("showtimes/", showtimes::incrementAndGet);
+
+        Files.createDirectory(dir.resolve("showtimes"));
+        eventually(() -> showtimes.get() > 0);
+        int created = showtimes.get();
+        Files.write(dir.resolve("showtimes").resolve("2025-06.csv"), List.of("1,2025-06-20,20:30,3,1,0"));
+        eventually(() -> showtimes.get() > created);
+    }
+
+    @Test
+    void anEditByHandReachesTheListAsChangedRows() throws IOException {
+        Queue<Runnable> fxThread = new ConcurrentLinkedQueue<>();
+        Files.write(dir.resolve("rooms.csv"), List.of("1,Room 1,60,0", "2,Room 2,40,0", "3,Room 3,80,0"));
+        RoomRepository rooms = new RoomRepository(dir + "/", watcher, fxThread::add);
+        rooms.findById(1);
+        List<Room> items = rooms.getItems();
+        runAll(fxThread);
+        Room untouched = items.get(0);
+
+        // Room 2 edited, room 3 deleted and room 4 added, by another program
+        Files.write(dir.resolve("rooms.csv"), List.of("1,Room 1,60,0", "2,Room 2 (IMAX),90,1", "4,Room 4,120,0"));
+        eventually(() -> {
+            runAll(fxThread);
+            return items.stream().map(Room::getRoomID).toList().equals(List.of(1, 2, 4));
+        });
+
+        assertSame(untouched, items.get(0), "an unchanged row is not replaced");
+        assertEquals("Room 2 (IMAX)", items.get(1).getRoomName(), "a changed row keeps its place");
+        assertEquals(90, rooms.findById(2).getCapacity());
+        assertEquals(5, rooms.nextId(), "ids continue after the rows added by hand");
+    }
+
+    @Test
+    void anEditByHandIsNotOverwrittenByTheNextSave() throws IOException {
+        Files.write(dir.resolve("rooms.csv"), List.of("1,Room 1,60,0", "2,Room 2,40,0"));
+        RoomRepository rooms = new RoomRepository(dir + "/", watcher, Runnable::run);
+        rooms.findById(1);
+
+        Files.write(dir.resolve("rooms.csv"), List.of("1,Room 1,60,0", "2,Room 2,40,0", "3,Room 3,80,0"));
+        rooms.save(new Room(4, "Room 4", 120)); // catches up before it writes, watcher or not
+
+        RoomRepository reopened = new RoomRepository(dir + "/", watcher, Runnable::run);
+        assertEquals(80, reopened.findById(3).getCapacity());
+        assertEquals(120, reopened.findById(4).getCapacity());
+    }
+
+    private static void runAll(Queue<Runnable> fxThread) {
+        Runnable task;
+        while ((task = fxThread.poll()) != null) task.run();
+    }
+
+    /**
+     * Waits for something the watcher thread does.
+     */
+    private static void eventually(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out waiting for the watcher");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link DataLock}, within one process and against a second
+ * terminal: a child JVM holding the same lock file, as another box-office
+ * window would.
+ *
+ * @author Rene
+ */
+class DataLockTest {
+
+    /**
+     * How long a section that should be blocked is given to get in anyway.
+     */
+    private static final long BLOCKED_MILLIS = 300;
+
+    @TempDir
+    Path dir;
+
+    private String lockPath;
+    private Process other;
+
+    @BeforeEach
+    void locate() {
+        lockPath = dir.resolve("movies.csv.lock").toString();
+    }
+
+    @AfterEach
+    void stopOtherTerminal() throws InterruptedException {
+        if (other != null) {
+            other.destroy();
+            other.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void readersDoNotBlockEachOther() throws Exception {
+        DataLock lock = new DataLock(lockPath);
+        CountDownLatch bothInside = new CountDownLatch(2);
+        List<CompletableFuture<Boolean>> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return lock.shared(() -> {
+                        bothInside.countDown();
+                        try {
+                            return bothInside.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                    });
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }));
+        }
+        for (CompletableFuture<Boolean> reader : readers) assertTrue(reader.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void aWriterShutsOutReadersUntilItsCommitIsDone() throws Exception {
+        DataLock lock = new DataLock(lockPath);
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            try {
+                lock.exclusive(() -> {
+                    committing.countDown();
+                    try {
+                        finish.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    return null;
+                });
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+        assertTrue(committing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> reader = readAsync(lock);
+        Thread.sleep(BLOCKED_MILLIS);
+        assertFalse(reader.isDone(), "read during a commit");
+
+        finish.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+        reader.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void aReaderCannotUpgradeButAWriterMayRead() throws IOException {
+        DataLock lock = new DataLock(lockPath);
+        assertThrows(IllegalStateException.class, () -> lock.shared(() -> lock.exclusive(() -> null)));
+        assertEquals("read", lock.exclusive(() -> lock.shared(() -> "read")));
+        // Both sections above released their locks
+        assertEquals("again", lock.exclusive(() -> "again"));
+    }
+
+    @Test
+    void anotherTerminalCommittingBlocksThisOnesReads() throws Exception {
+        Writer release = startOtherTerminal("exclusive");
+        DataLock lock = new DataLock(lockPath);
+        CompletableFuture<Void> reader = readAsync(lock);
+        Thread.sleep(BLOCKED_MILLIS);
+        assertFalse(reader.isDone(), "read while another terminal commits");
+
+        release.write("\n");
+        release.flush();
+        reader.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void anotherTerminalReadingBlocksThisOnesCommitButNotItsReads() throws Exception {
+        Writer release = startOtherTerminal("shared");
+        DataLock lock = new DataLock(lockPath);
+        assertEquals("read", lock.shared(() -> "read"));
+
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            try {
+                lock.exclusive(() -> null);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+        Thread.sleep(BLOCKED_MILLIS);
+        assertFalse(writer.isDone(), "commit while another terminal reads");
+
+        release.write("\n");
+        release.flush();
+        writer.get(10, TimeUnit.SECONDS);
+    }
+
+    private static CompletableFuture<Void> readAsync(DataLock lock) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                lock.shared(() -> null);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+    }
+
+    /**
+     * Starts a second JVM that takes the lock and holds it until a line is written to it.
+     *
+     * @return input of the other terminal; a newline makes it release the lock
+     */
+    private Writer startOtherTerminal(String mode) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+        String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null) classPath += File.pathSeparator + modulePath;
+        other = new ProcessBuilder(java, "-cp", classPath, Terminal.class.getName(), lockPath, mode)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        BufferedReader out = new BufferedReader(new InputStreamReader(other.getInputStream(), StandardCharsets.UTF_8));
+        assertEquals("held", out.readLine(), "the other terminal took the lock");
+        return new OutputStreamWriter(other.getOutputStream(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The other terminal: takes a lock file shared or exclusive, says "held",
+     * and releases it when a line arrives on its input.
+     */
+    static final class Terminal {
+
+        private Terminal() {
+        }
+
+        public static void main(String[] args) throws IOException {
+            DataLock lock = new DataLock(args[0]);
+            DataLock.Section<Void> hold = () -> {
+                System.out.println("held");
+                System.out.flush();
+                new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)).readLine();
+                return null;
+            };
+            if (args[1].equals("exclusive")) {
+                lock.exclusive(hold);
+            } else {
+                lock.shared(hold);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.finalproject.model;
+
+/**
+ * Door scans on a sold-out night: time of one {@link DoorScanIndex#scan} for
+ * a ticket let in, a ticket shown twice and a code not sold here, and how
+ * much the Java heap grows while scanning.
+ * <p>
+ * Not a unit test (timings depend on the machine); run it by hand after
+ * {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.finalproject.model.DoorScanIndexBenchmark [tickets]
+ * </pre>
+ * The codes are minted before the clock starts, as they are printed before
+ * the doors open. Heap growth is read from {@link Runtime} around each pass,
+ * so it is only meaningful when no collection ran during the pass.
+ *
+ * @author Rene
+ */
+final class DoorScanIndexBenchmark {
+
+    private DoorScanIndexBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int tickets = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        ETicketCodes sold = new ETicketCodes(1);
+        ETicketCodes elsewhere = new ETicketCodes(2);
+        String[] codes = new String[tickets];
+        String[] unknown = new String[tickets];
+        for (int i = 0; i < tickets; i++) {
+            codes[i] = sold.next();
+            unknown[i] = elsewhere.next();
+        }
+        for (int round = 1; round <= 3; round++) {
+            try (DoorScanIndex index = new DoorScanIndex(tickets)) {
+                for (String code : codes) index.add(code);
+                System.out.printf("round %d, %,d tickets: admit %s, twice %s, not sold %s%n", round, tickets,
+                        pass(index, codes, DoorScanIndex.Result.ADMITTED),
+                        pass(index, codes, DoorScanIndex.Result.ALREADY_USED),
+                        pass(index, unknown, DoorScanIndex.Result.UNKNOWN));
+            }
+        }
+    }
+
+    private static String pass(DoorScanIndex index, String[] codes, DoorScanIndex.Result expected) {
+        Runtime runtime = Runtime.getRuntime();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        for (String code : codes) {
+            if (index.scan(code) != expected) throw new IllegalStateException(code + " was not " + expected);
+        }
+        long nanos = System.nanoTime() - start;
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        return String.format("%,4.0f ns (%,d B/scan)", (double) nanos / codes.length,
+                Math.max(0, heapAfter - heapBefore) / codes.length);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link DoorScanIndex}: every ticket sold gets in once, and
+ * only once, however many doors scan it.
+ *
+ * @author Rene
+ */
+class DoorScanIndexTest {
+
+    private final ETicketCodes codes = new ETicketCodes(9);
+
+    @Test
+    void aTicketGetsInOnce() {
+        try (DoorScanIndex index = new DoorScanIndex(10)) {
+            String code = codes.next();
+            assertTrue(index.add(code));
+            assertNull(index.usedAt(code));
+            assertEquals(DoorScanIndex.Result.ADMITTED, index.scan(code));
+            assertNotNull(index.usedAt(code));
+            assertEquals(DoorScanIndex.Result.ALREADY_USED, index.scan(code));
+        }
+    }
+
+    @Test
+    void aCodeTypedByHandIsTheSameTicket() {
+        try (DoorScanIndex index = new DoorScanIndex(10)) {
+            String code = codes.next();
+            index.add(code);
+            assertFalse(index.add(code.toLowerCase().replace("-", "")), "already in the index");
+            assertEquals(DoorScanIndex.Result.ADMITTED, index.scan(" " + code.toLowerCase().replace("-", "") + " "));
+            assertEquals(DoorScanIndex.Result.ALREADY_USED, index.scan(code));
+        }
+    }
+
+    @Test
+    void aMistypedCodeIsUnknown() {
+        try (DoorScanIndex index = new DoorScanIndex(10)) {
+            String code = codes.next();
+            index.add(code);
+            char wrong = code.charAt(3) == 'X' ? 'Y' : 'X';
+            String mistyped = code.substring(0, 3) + wrong + code.substring(4);
+            assertEquals(DoorScanIndex.Result.UNKNOWN, index.scan(mistyped));
+            assertEquals(DoorScanIndex.Result.UNKNOWN, index.scan(""));
+            assertEquals(DoorScanIndex.Result.UNKNOWN, index.scan(null));
+            assertEquals(DoorScanIndex.Result.ADMITTED, index.scan(code), "the real ticket still gets in");
+        }
+    }
+
+    @Test
+    void codesFromBeforeTheGeneratorAreAdmittedToo() {
+        try (DoorScanIndex index = new DoorScanIndex(10)) {
+            index.add("TKT-2024-0042");
+            index.add("ABCDE-FGHJK-MNPQR"); // 15 characters but fails the check: kept as text
+            assertEquals(DoorScanIndex.Result.ADMITTED, index.scan("TKT-2024-0042"));
+            assertEquals(DoorScanIndex.Result.UNKNOWN, index.scan("TKT-2024-0043"));
+            assertEquals(DoorScanIndex.Result.ADMITTED, index.scan("ABCDE-FGHJK-MNPQR"));
+            assertThrows(IllegalArgumentException.class, () -> index.add("  "));
+        }
+    }
+
+    @Test
+    void ticketsNotSoldHereAreRejected() {
+        try (DoorScanIndex index = new DoorScanIndex(50_000)) {
+            for (int i = 0; i < 50_000; i++) index.add(codes.next());
+            ETicketCodes otherTerminal = new ETicketCodes(10);
+            for (int i = 0; i < 100_000; i++) {
+                assertEquals(DoorScanIndex.Result.UNKNOWN, index.scan(otherTerminal.next()));
+            }
+        }
+    }
+
+    @Test
+    void aFullIndexSaysSo() {
+        try (DoorScanIndex index = new DoorScanIndex(4)) {
+            List<String> added = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                String code = codes.next();
+                assertTrue(index.add(code));
+                added.add(code);
+            }
+            assertThrows(IllegalStateException.class, () -> index.add(codes.next()));
+            assertFalse(index.add(added.get(0)), "a ticket already in is not a fifth one");
+            for (String code : added) assertEquals(DoorScanIndex.Result.ADMITTED, index.scan(code));
+        }
+    }
+
+    @Test
+    void racingDoorsLetEachTicketInOnce() throws InterruptedException {
+        int tickets = 2000;
+        try (DoorScanIndex index = new DoorScanIndex(tickets)) {
+            List<String> sold = new ArrayList<>();
+            for (int i = 0; i < tickets; i++) sold.add(codes.next());
+            index.addAll(sold);
+
+            AtomicInteger admitted = new AtomicInteger();
+            AtomicInteger refused = new AtomicInteger();
+            Thread[] doors = new Thread[6];
+            for (int d = 0; d < doors.length; d++) {
+                doors[d] = Thread.ofPlatform().start(() -> {
+                    for (String code : sold) {
+                        switch (index.scan(code)) {
+                            case ADMITTED -> admitted.incrementAndGet();
+                            case ALREADY_USED -> refused.incrementAndGet();
+                            case UNKNOWN -> throw new AssertionError(code + " was sold");
+                        }
+                    }
+                });
+            }
+            for (Thread door : doors) door.join();
+
+            assertEquals(tickets, admitted.get());
+            assertEquals(tickets * (doors.length - 1), refused.get());
+        }
+    }
+
+    @Test
+    void ticketsSoldAtTheDoorRaceWithScans() throws InterruptedException {
+        try (DoorScanIndex index = new DoorScanIndex(4000)) {
+            List<String> sold = new ArrayList<>();
+            for (int i = 0; i < 4000; i++) sold.add(codes.next());
+            AtomicInteger admitted = new AtomicInteger();
+            Thread[] sellers = new Thread[4];
+            for (int s = 0; s < sellers.length; s++) {
+                List<String> mine = sold.subList(s * 1000, (s + 1) * 1000);
+                sellers[s] = Thread.ofPlatform().start(() -> {
+                    for (String code : mine) {
+                        index.add(code);
+                        if (index.scan(code) == DoorScanIndex.Result.ADMITTED) admitted.incrementAndGet();
+                    }
+                });
+            }
+            for (Thread seller : sellers) seller.join();
+            assertEquals(4000, admitted.get(), "each found right after it was added");
+            for (String code : sold) assertEquals(DoorScanIndex.Result.ALREADY_USED, index.scan(code));
+        }
+    }
+}
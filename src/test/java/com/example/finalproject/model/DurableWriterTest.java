@@ -0,0 +1,140 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link DurableWriter}: a file is only ever replaced whole, a
+ * temporary file left by a crash does no harm, and writes committed together
+ * keep their order and fail one file at a time.
+ *
+ * @author Rene
+ */
+class DurableWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private final DurableWriter writer = DurableWriter.getInstance();
+
+    @Test
+    void aReplaceSwapsInTheWholeFile() throws IOException {
+        Path file = dir.resolve("movies.csv");
+        writer.replace(file, List.of("1,Alien", "2,Brazil"));
+        writer.replace(file, List.of("1,Alien", "2,Brazil", "3,Cube"));
+        assertEquals(List.of("1,Alien", "2,Brazil", "3,Cube"), Files.readAllLines(file));
+        assertFalse(Files.exists(dir.resolve("movies.csv.tmp")));
+    }
+
+    @Test
+    void aTruncatedTempFileFromACrashLeavesTheFileIntact() throws IOException {
+        Path file = dir.resolve("rooms.csv");
+        writer.replace(file, List.of("1,Room 1,60", "2,Room 2,40"));
+        // A crash while the next version was written: half of it in the temp file, never renamed
+        Path temp = dir.resolve("rooms.csv.tmp");
+        Files.write(temp, "1,Room 1,60\n2,Ro".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(List.of("1,Room 1,60", "2,Room 2,40"), Files.readAllLines(file));
+
+        // The next save writes over the leftover instead of tripping on it
+        writer.replace(file, List.of("1,Room 1,60", "2,Room 2,40", "3,Room 3,80"));
+        assertEquals(List.of("1,Room 1,60", "2,Room 2,40", "3,Room 3,80"), Files.readAllLines(file));
+        assertFalse(Files.exists(temp));
+    }
+
+    @Test
+    void aLongerLeftoverTempFileIsNotMixedIn() throws IOException {
+        Path file = dir.resolve("showtimes.csv");
+        Files.write(dir.resolve("showtimes.csv.tmp"), "x".repeat(10_000).getBytes(StandardCharsets.UTF_8));
+        writer.replace(file, List.of("1,2025-06-20,20:30,3,1"));
+        assertEquals(List.of("1,2025-06-20,20:30,3,1"), Files.readAllLines(file));
+    }
+
+    @Test
+    void concurrentSavesOfOneFileEndWithACompleteVersion() throws InterruptedException, IOException {
+        Path file = dir.resolve("catalog.csv");
+        int savers = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        Set<List<String>> versions = new HashSet<>();
+        for (int s = 0; s < savers; s++) {
+            List<String> version = new ArrayList<>();
+            for (int line = 0; line < 200; line++) version.add(s + "," + line);
+            versions.add(version);
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                    writer.replace(file, version);
+                } catch (InterruptedException | IOException e) {
+                    throw new AssertionError(e);
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+        assertTrue(versions.contains(Files.readAllLines(file)), "one saver's version, whole");
+    }
+
+    @Test
+    void concurrentAppendsAreAllKeptWhole() throws IOException {
+        Path log = dir.resolve("changes.log");
+        List<CompletableFuture<Void>> appends = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            appends.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        writer.append(log, "change " + thread + "-" + i);
+                    } catch (IOException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            }));
+        }
+        CompletableFuture.allOf(appends.toArray(CompletableFuture[]::new)).join();
+        List<String> lines = Files.readAllLines(log);
+        assertEquals(400, lines.size());
+        assertEquals(400, new HashSet<>(lines).size());
+    }
+
+    @Test
+    void anAppendAfterAReplaceIsNotLostUnderIt() throws IOException {
+        Path file = dir.resolve("tickets.csv");
+        writer.replace(file, List.of("header"));
+        writer.append(file, "row 1");
+        writer.append(file, "row 2");
+        assertEquals(List.of("header", "row 1", "row 2"), Files.readAllLines(file));
+    }
+
+    @Test
+    void aFailedWriteOnlyFailsItsOwnFile() throws IOException {
+        Path missing = dir.resolve("no such folder").resolve("movies.csv");
+        Path fine = dir.resolve("rooms.csv");
+        CompletableFuture<Void> good = CompletableFuture.runAsync(() -> {
+            try {
+                writer.replace(fine, List.of("1,Room 1,60"));
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+        assertThrows(IOException.class, () -> writer.replace(missing, List.of("1,Alien")));
+        good.join();
+        assertEquals(List.of("1,Room 1,60"), Files.readAllLines(fine));
+    }
+}
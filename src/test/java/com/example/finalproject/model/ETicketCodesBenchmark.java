@@ -0,0 +1,64 @@
+package com.example.finalproject.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minting rate of {@link ETicketCodes}, per thread, with one thread and with
+ * one thread per core all minting at once.
+ * <p>
+ * Not a unit test (timings depend on the machine); run it by hand after
+ * {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.finalproject.model.ETicketCodesBenchmark
+ * </pre>
+ * "ids" is {@link ETicketCodes#nextId()} alone; "codes" adds the text with
+ * its check characters, as printed on a ticket.
+ *
+ * @author Rene
+ */
+final class ETicketCodesBenchmark {
+
+    private static final long MILLIS = 1000;
+
+    private ETicketCodesBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ETicketCodes codes = new ETicketCodes(0);
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int round = 1; round <= 3; round++) {
+            for (int threads : cores > 1 ? new int[]{1, cores} : new int[]{1}) {
+                double ids = perThread(threads, () -> codes.nextId());
+                double text = perThread(threads, () -> codes.next().length());
+                System.out.printf("round %d, %2d threads: %,6.1f M ids/s, %,5.1f M codes/s per thread%n",
+                        round, threads, ids / 1e6, text / 1e6);
+            }
+        }
+    }
+
+    private interface Mint {
+        long once();
+    }
+
+    private static double perThread(int threads, Mint mint) throws InterruptedException {
+        AtomicLong minted = new AtomicLong();
+        AtomicLong sink = new AtomicLong();
+        Thread[] minters = new Thread[threads];
+        long stopAt = System.nanoTime() + MILLIS * 1_000_000;
+        for (int t = 0; t < threads; t++) {
+            minters[t] = Thread.ofPlatform().start(() -> {
+                long count = 0;
+                long sum = 0;
+                while ((count & 1023) != 0 || System.nanoTime() < stopAt) {
+                    sum += mint.once();
+                    count++;
+                }
+                minted.addAndGet(count);
+                sink.addAndGet(sum);
+            });
+        }
+        for (Thread minter : minters) minter.join();
+        if (sink.get() == 42) System.out.println(); // keeps the results alive
+        return minted.get() * 1000.0 / MILLIS / threads;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link ETicketCodes}: codes never repeat, whatever thread or
+ * terminal mints them, and a mistyped code fails its check.
+ * <p>
+ * Generators are created with a terminal id of their own, so no test claims
+ * a terminal in the data directory.
+ *
+ * @author Rene
+ */
+class ETicketCodesTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+    @Test
+    void codesFromManyThreadsNeverRepeat() throws InterruptedException {
+        ETicketCodes codes = new ETicketCodes(3);
+        int threads = 8;
+        int perThread = 100_000;
+        long[][] minted = new long[threads][perThread];
+        Thread[] sellers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long[] mine = minted[t];
+            sellers[t] = Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < mine.length; i++) mine[i] = codes.nextId();
+            });
+        }
+        for (Thread seller : sellers) seller.join();
+
+        long[] all = Arrays.stream(minted).flatMapToLong(Arrays::stream).sorted().toArray();
+        for (int i = 1; i < all.length; i++) assertNotEquals(all[i - 1], all[i], "code minted twice");
+        assertTrue(all[0] > 0);
+        for (long id : all) assertEquals(3, ETicketCodes.terminalOf(id));
+    }
+
+    @Test
+    void eachThreadMintsIncreasingCodes() {
+        ETicketCodes codes = new ETicketCodes(0);
+        long last = codes.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            long next = codes.nextId();
+            assertTrue(next > last);
+            last = next;
+        }
+    }
+
+    @Test
+    void twoTerminalsNeverMintTheSameCode() {
+        ETicketCodes first = new ETicketCodes(1);
+        ETicketCodes second = new ETicketCodes(2);
+        for (int i = 0; i < 10_000; i++) assertNotEquals(first.nextId(), second.nextId());
+    }
+
+    @Test
+    void aCodeCarriesWhenAndWhereItWasMinted() {
+        Instant before = Instant.now().minusMillis(1);
+        long id = new ETicketCodes(255).nextId();
+        assertEquals(255, ETicketCodes.terminalOf(id));
+        Instant issued = ETicketCodes.issuedAt(id);
+        assertFalse(issued.isBefore(before));
+        assertTrue(Duration.between(before, issued).toSeconds() < 5);
+        assertThrows(IllegalArgumentException.class, () -> new ETicketCodes(256));
+    }
+
+    @Test
+    void aCodeReadsBackAsTypedByHand() {
+        Random random = new Random(18);
+        for (int i = 0; i < 10_000; i++) {
+            long id = random.nextLong() >>> 1;
+            String code = ETicketCodes.format(id);
+            assertEquals(17, code.length());
+            assertEquals(id, ETicketCodes.parse(code));
+            assertEquals(id, ETicketCodes.parse(code.toLowerCase().replace("-", "")));
+            assertEquals(id, ETicketCodes.parse(code.replace('-', ' ')));
+        }
+        String code = ETicketCodes.format(0);
+        assertEquals("00000-00000-00000", code);
+        assertEquals(0, ETicketCodes.parse("OOOOO-ooooo-00000"), "O is read as zero");
+        long one = ETicketCodes.parse(ETicketCodes.format(1));
+        assertEquals(one, ETicketCodes.parse(ETicketCodes.format(1).replace('1', 'L')), "L is read as one");
+    }
+
+    @Test
+    void everySingleWrongCharacterFailsTheCheck() {
+        Random random = new Random(18);
+        for (int n = 0; n < 200; n++) {
+            char[] code = ETicketCodes.format(random.nextLong() >>> 1).replace("-", "").toCharArray();
+            for (int i = 0; i < code.length; i++) {
+                char typed = code[i];
+                for (char wrong : ALPHABET.toCharArray()) {
+                    if (wrong == typed) continue;
+                    code[i] = wrong;
+                    assertFalse(ETicketCodes.isValid(new String(code)), new String(code));
+                }
+                code[i] = typed;
+            }
+        }
+    }
+
+    @Test
+    void swappedNeighboursFailTheCheck() {
+        Random random = new Random(18);
+        for (int n = 0; n < 2000; n++) {
+            char[] code = ETicketCodes.format(random.nextLong() >>> 1).replace("-", "").toCharArray();
+            for (int i = 0; i + 1 < code.length; i++) {
+                if (code[i] == code[i + 1]) continue;
+                char[] swapped = code.clone();
+                swapped[i] = code[i + 1];
+                swapped[i + 1] = code[i];
+                assertFalse(ETicketCodes.isValid(new String(swapped)), new String(swapped));
+            }
+        }
+    }
+
+    @Test
+    void textThatIsNotACodeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ETicketCodes.parse(null));
+        assertFalse(ETicketCodes.isValid(""));
+        assertFalse(ETicketCodes.isValid("0K3XN-4D2QW-8ZRJ"), "too short");
+        assertFalse(ETicketCodes.isValid("0K3XN-4D2QW-8ZRJ7-0"), "too long");
+        assertFalse(ETicketCodes.isValid("0K3XN-4D2QW-8ZRJU"), "U is not in the alphabet");
+        assertFalse(ETicketCodes.isValid("ZZZZZ-ZZZZZ-ZZZZZ"), "more than 63 bits");
+    }
+}
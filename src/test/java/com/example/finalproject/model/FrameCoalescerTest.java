@@ -0,0 +1,148 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link FrameCoalescer}, with frames stepped by hand instead of
+ * by the JavaFX pulse: updates between two frames are applied once, with the
+ * latest value of each key, and the pulse only runs while there is work.
+ *
+ * @author Rene
+ */
+class FrameCoalescerTest {
+
+    private final List<Map<String, Integer>> applied = new ArrayList<>();
+    private final ManualPulse pulse = new ManualPulse();
+    private final FrameCoalescer<String, Integer> coalescer = new FrameCoalescer<>(applied::add, pulse::drive);
+
+    @Test
+    void manyUpdatesOfOneKeyAreAppliedOnceWithTheLatestValue() {
+        for (int i = 0; i < 1000; i++) coalescer.put("row 1", i);
+        coalescer.put("row 2", 7);
+        pulse.frame();
+
+        assertEquals(List.of(Map.of("row 1", 999, "row 2", 7)), applied);
+        pulse.frame();
+        assertEquals(1, applied.size(), "nothing new, nothing applied");
+    }
+
+    @Test
+    void thePulseRunsOnlyWhileThereIsWork() {
+        coalescer.put("row 1", 1);
+        coalescer.put("row 1", 2);
+        coalescer.put("row 2", 1);
+        assertEquals(1, pulse.startsAsked.get(), "started once, not per update");
+        assertTrue(pulse.started());
+
+        pulse.frame();
+        assertTrue(pulse.started(), "stops only after a quiet frame");
+        pulse.frame();
+        assertFalse(pulse.started());
+
+        coalescer.put("row 1", 3);
+        assertEquals(2, pulse.startsAsked.get());
+        pulse.frame();
+        assertEquals(Map.of("row 1", 3), applied.get(applied.size() - 1));
+    }
+
+    @Test
+    void outOfOrderUpdatesKeepTheNewerValue() {
+        coalescer.put("row 1", 5, Math::max);
+        coalescer.put("row 1", 3, Math::max);
+        coalescer.put("row 2", 1, Math::max);
+        pulse.frame();
+        assertEquals(List.of(Map.of("row 1", 5, "row 2", 1)), applied);
+    }
+
+    @Test
+    void aStoppedCoalescerDropsItsPendingValues() {
+        coalescer.put("row 1", 1); // its start is still on its way to the frame thread
+        coalescer.stop();
+        coalescer.put("row 1", 2);
+        pulse.frame();
+        pulse.frame();
+        assertTrue(applied.isEmpty());
+        assertFalse(pulse.started());
+    }
+
+    @Test
+    void updatesFromManyThreadsEndWithEachKeysLastValue() throws InterruptedException {
+        int threads = 8;
+        int updates = 20_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> posters = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String key = "row " + t;
+            posters.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 1; i <= updates; i++) coalescer.put(key, i);
+            }));
+        }
+        start.countDown();
+        // The "JavaFX thread": frames keep running while the posters post
+        while (posters.stream().anyMatch(Thread::isAlive)) pulse.frame();
+        for (Thread poster : posters) poster.join();
+        pulse.frame();
+        pulse.frame();
+
+        Map<String, Integer> last = new HashMap<>();
+        for (Map<String, Integer> batch : applied) last.putAll(batch);
+        assertEquals(threads, last.size());
+        last.forEach((key, value) -> assertEquals(updates, (int) value, key));
+        assertTrue(applied.size() < threads * updates, "updates were coalesced");
+        assertFalse(pulse.started());
+    }
+
+    /**
+     * Frames on demand. As with {@code Platform.runLater}, a start asked for
+     * on any thread takes effect on the frame thread, before the next frame;
+     * {@link #frame()} calls the handler only while started.
+     */
+    private static final class ManualPulse {
+        private final AtomicInteger startsAsked = new AtomicInteger();
+        private final AtomicBoolean startPending = new AtomicBoolean();
+        private Runnable handler;
+        private boolean running;
+
+        FrameCoalescer.Pulse drive(Runnable frame) {
+            handler = frame;
+            return new FrameCoalescer.Pulse() {
+                @Override
+                public void start() {
+                    startsAsked.incrementAndGet();
+                    startPending.set(true);
+                }
+
+                @Override
+                public void stop() {
+                    running = false;
+                }
+            };
+        }
+
+        void frame() {
+            if (startPending.getAndSet(false)) running = true;
+            if (running) handler.run();
+        }
+
+        boolean started() {
+            return running || startPending.get();
+        }
+    }
+}
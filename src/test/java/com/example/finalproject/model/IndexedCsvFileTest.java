@@ -0,0 +1,152 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link IndexedCsvFile}: edits and deletes touch one line and
+ * the index log, the file stays a valid CSV, and a reopened store trusts its
+ * ".idx" only while it matches the CSV file.
+ *
+ * @author Rene
+ */
+class IndexedCsvFileTest {
+
+    @TempDir
+    Path dir;
+
+    private Path csv;
+    private Path idx;
+    private IndexedCsvFile store;
+
+    @BeforeEach
+    void createStore() throws IOException {
+        csv = dir.resolve("movies.csv");
+        idx = dir.resolve("movies.csv.idx");
+        Files.write(csv, List.of("1,Alien,117", "2,Brazil,142", "3,Cube,90"));
+        store = new IndexedCsvFile(csv.toString());
+    }
+
+    @Test
+    void aRecordIsReadFromItsOffset() throws IOException {
+        assertEquals("2,Brazil,142", store.read(2));
+        assertEquals("3,Cube,90", store.read(3));
+        assertNull(store.read(4));
+        assertTrue(Files.exists(idx));
+    }
+
+    @Test
+    void anEditAppendsTheNewLineAndBlanksTheOldOne() throws IOException {
+        long size = Files.size(csv);
+        store.put(2, "2,Brazil (Director's Cut),143");
+
+        assertEquals("2,Brazil (Director's Cut),143", store.read(2));
+        List<String> lines = Files.readAllLines(csv);
+        assertEquals(List.of("1,Alien,117", " ".repeat("2,Brazil,142".length()), "3,Cube,90",
+                "2,Brazil (Director's Cut),143"), lines);
+        assertEquals(size + "2,Brazil (Director's Cut),143\n".length(), Files.size(csv));
+    }
+
+    @Test
+    void aDeleteBlanksTheLineInPlace() throws IOException {
+        long size = Files.size(csv);
+        assertTrue(store.remove(1));
+        assertFalse(store.remove(1));
+
+        assertNull(store.read(1));
+        assertFalse(store.contains(1));
+        assertEquals(size, Files.size(csv));
+        assertEquals(List.of(List.of("2", "Brazil", "142"), List.of("3", "Cube", "90")), rows(),
+                "blank lines are skipped by the CSV reader");
+    }
+
+    @Test
+    void aReopenedStoreReplaysItsIndexLog() throws IOException {
+        store.put(2, "2,Brazil,143");
+        store.remove(3);
+        store.put(4, "4,Dune,155");
+        List<String> log = Files.readAllLines(idx);
+
+        IndexedCsvFile reopened = new IndexedCsvFile(csv.toString());
+        assertEquals("1,Alien,117", reopened.read(1));
+        assertEquals("2,Brazil,143", reopened.read(2));
+        assertNull(reopened.read(3));
+        assertEquals("4,Dune,155", reopened.read(4));
+        assertEquals(log, Files.readAllLines(idx), "the log matched the file, so it was not rebuilt");
+
+        reopened.put(1, "1,Alien,116");
+        assertEquals("1,Alien,116", new IndexedCsvFile(csv.toString()).read(1));
+    }
+
+    @Test
+    void aFileEditedByHandGetsItsIndexRebuilt() throws IOException {
+        store.put(2, "2,Brazil,143");
+        Files.write(csv, List.of("7,Eraserhead,89"), StandardOpenOption.APPEND);
+
+        IndexedCsvFile reopened = new IndexedCsvFile(csv.toString());
+        assertEquals("7,Eraserhead,89", reopened.read(7));
+        assertEquals("2,Brazil,143", reopened.read(2));
+        List<String> log = Files.readAllLines(idx);
+        assertEquals("-1,-1,0," + Files.size(csv), log.get(log.size() - 1), "a fresh index for the new size");
+    }
+
+    @Test
+    void aCrashBetweenAppendAndBlankKeepsTheLaterLine() throws IOException {
+        // The new version was appended, but neither the old one blanked nor the index written
+        Files.write(csv, List.of("2,Brazil,143"), StandardOpenOption.APPEND);
+        Files.deleteIfExists(idx);
+
+        IndexedCsvFile reopened = new IndexedCsvFile(csv.toString());
+        assertEquals("2,Brazil,143", reopened.read(2));
+    }
+
+    @Test
+    void aDamagedIndexIsRebuilt() throws IOException {
+        store.open();
+        Files.write(idx, List.of("1,0,11", "garbage"), StandardOpenOption.APPEND);
+
+        IndexedCsvFile reopened = new IndexedCsvFile(csv.toString());
+        assertEquals("1,Alien,117", reopened.read(1));
+        assertEquals("3,Cube,90", reopened.read(3));
+    }
+
+    @Test
+    void blankedBytesAskForACompaction() throws IOException {
+        List<String> live = new ArrayList<>();
+        for (int round = 0; round < 40; round++) {
+            store.put(1, "1,Alien," + "x".repeat(200) + round);
+        }
+        assertTrue(store.needsCompaction());
+
+        live.add(store.read(1));
+        live.add(store.read(2));
+        live.add(store.read(3));
+        store.rewrite(live);
+        assertFalse(store.needsCompaction());
+        assertEquals(live, Files.readAllLines(csv));
+        assertEquals(live.get(0), new IndexedCsvFile(csv.toString()).read(1));
+    }
+
+    private List<List<String>> rows() throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        MappedCsvReader.read(csv, row -> {
+            List<String> fields = new ArrayList<>();
+            for (int i = 0; i < 3; i++) fields.add(row.getString(i));
+            rows.add(fields);
+        });
+        return rows;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests of the {@link JdbcStorage} behind a repository, on an in-memory H2
+ * database: a new table is filled once from the CSV file of a temporary data
+ * directory, and from then on records are read from and written to the table.
+ *
+ * @author Rene
+ */
+class JdbcStorageTest {
+
+    private static final String URL = "jdbc:h2:mem:jdbc-storage-test;DB_CLOSE_DELAY=-1";
+
+    private static final List<String> ROOMS = List.of("1,Room 1,60,0", "2,Room 2,40,2", "3,Room 3,80");
+
+    @TempDir
+    Path dir;
+
+    private DataDirectoryWatcher watcher;
+
+    @BeforeAll
+    static void useMemoryDatabase() {
+        // Read once, when the storage opens its shared connection
+        System.setProperty("grandview.jdbc.url", URL);
+    }
+
+    @AfterAll
+    static void restoreDatabase() {
+        System.clearProperty("grandview.jdbc.url");
+    }
+
+    @BeforeEach
+    void selectJdbc() throws IOException {
+        System.setProperty(StorageBackend.PROPERTY, "jdbc");
+        Files.write(dir.resolve("rooms.csv"), ROOMS);
+        watcher = new DataDirectoryWatcher(dir);
+    }
+
+    @AfterEach
+    void dropTable() throws SQLException {
+        System.clearProperty(StorageBackend.PROPERTY);
+        watcher.close();
+        try (Connection db = DriverManager.getConnection(URL); Statement statement = db.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS ROOMS");
+        }
+    }
+
+    @Test
+    void aNewTableIsFilledFromTheCsvFile() throws SQLException {
+        RoomRepository rooms = open();
+        assertEquals("Room 2", rooms.findById(2).getRoomName());
+        assertEquals(2, rooms.findById(2).getVersion());
+        assertEquals(0, rooms.findById(3).getVersion(), "a line without the version column");
+        assertEquals(3, count("SELECT COUNT(*) FROM ROOMS"));
+        assertEquals(180, count("SELECT SUM(CAPACITY) FROM ROOMS"));
+    }
+
+    @Test
+    void writesGoToTheTableAndOutliveTheRepository() throws IOException {
+        RoomRepository rooms = open();
+        rooms.save(new Room(2, "Room 2 (IMAX)", 90, 2));
+        rooms.save(new Room(4, "Room 4", 120));
+        rooms.delete(1);
+        assertEquals(ROOMS, Files.readAllLines(dir.resolve("rooms.csv")), "the CSV file is left alone");
+
+        RoomRepository reopened = open();
+        assertNull(reopened.findById(1));
+        assertEquals("Room 2 (IMAX)", reopened.findById(2).getRoomName());
+        assertEquals(3, reopened.findById(2).getVersion());
+        assertEquals(120, reopened.findById(4).getCapacity());
+    }
+
+    @Test
+    void theCsvFileIsImportedOnlyOnce() throws IOException {
+        open().delete(3);
+        Files.write(dir.resolve("rooms.csv"), List.of("5,Room 5,30,0"));
+
+        RoomRepository reopened = open();
+        assertNull(reopened.findById(3), "not imported again");
+        assertNull(reopened.findById(5), "the table is the storage now");
+        assertEquals(60, reopened.findById(1).getCapacity());
+    }
+
+    @Test
+    void aRangeQueryIsAnsweredByTheTable() throws IOException {
+        RoomRepository rooms = open();
+        JdbcStorage<Room> table = new JdbcStorage<>(rooms, "rooms.csv", rooms.columns(), new CsvStorage<>(rooms, "rooms.csv"));
+        rooms.save(new Room(4, "Room 4", 55));
+
+        assertEquals(List.of(1, 3, 4), table.findIds("CAPACITY", 50, 100));
+        assertEquals(List.of(2), table.findIds("ROOM_ID", 2, 2));
+        assertEquals(List.of(), table.findIds("CAPACITY", 500, 900));
+    }
+
+    private RoomRepository open() {
+        return new RoomRepository(dir + "/", watcher, Runnable::run);
+    }
+
+    private static long count(String query) throws SQLException {
+        try (Connection db = DriverManager.getConnection(URL);
+             Statement statement = db.createStatement();
+             ResultSet rs = statement.executeQuery(query)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Reading a year of sales from the {@link TicketLedger} for a report: the
+ * {@link LedgerScanner} into {@link SalesColumns}, in one range and in one
+ * range per core, against replaying the ledger into entries.
+ * <p>
+ * Not a unit test (timings depend on the machine); run it by hand after
+ * {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.finalproject.model.LedgerScannerBenchmark [sales]
+ * </pre>
+ * The ledger is written to a temporary file first and deleted at the end.
+ * "sums only" is adding up columns already decoded, to show how little of
+ * a scan the arithmetic is.
+ *
+ * @author Rene
+ */
+final class LedgerScannerBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int YEAR_MINUTES = 365 * 24 * 60;
+
+    private LedgerScannerBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path file = Files.createTempFile("tickets", ".ledger");
+        try {
+            TicketLedger ledger = new TicketLedger(file.toString());
+            write(ledger, count);
+            long size = Files.size(file);
+            int cores = Runtime.getRuntime().availableProcessors();
+            System.out.printf("%,d sales, %,d MB, %d cores%n", count, size >> 20, cores);
+
+            for (int round = 1; round <= 3; round++) {
+                long sink = 0;
+                long start = System.nanoTime();
+                long[] replayed = new long[1];
+                ledger.replay(entry -> replayed[0] += entry.revenueCents());
+                long replay = System.nanoTime() - start;
+                sink += replayed[0];
+
+                start = System.nanoTime();
+                sink += scan(file, size, 1);
+                long one = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                sink += scan(file, size, cores * 4);
+                long split = System.nanoTime() - start;
+
+                List<SalesColumns> decoded = new ArrayList<>();
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    new LedgerScanner(channel, size).scan(0, size, Long.MIN_VALUE, Long.MAX_VALUE,
+                            new SalesColumns(), columns -> decoded.add(copy(columns)));
+                }
+                start = System.nanoTime();
+                for (SalesColumns columns : decoded) sink += sum(columns);
+                long sums = System.nanoTime() - start;
+
+                if (sink == 42) System.out.println(); // keeps the sums alive
+                System.out.printf("round %d: replay %,5d ms, scan %,5d ms, %d ranges %,5d ms, sums only %,4d ms%n",
+                        round, replay / 1_000_000, one / 1_000_000, cores * 4, split / 1_000_000,
+                        sums / 1_000_000);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void write(TicketLedger ledger, int count) {
+        Random random = new Random(24);
+        Client client = new Client(1, "secret", "Bench", "bench@example.com");
+        List<CompletableFuture<Void>> durable = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int movie = 1 + random.nextInt(40);
+            Showtime showtime = new Showtime(i / 50, "2025-01-01", "20:00", movie, 1 + random.nextInt(6));
+            Ticket ticket = new Ticket(i, client, showtime, START.plusMinutes((long) i * YEAR_MINUTES / count),
+                    "R" + (1 + random.nextInt(200)), "CODE-" + Integer.toString(i, 36), 8 + random.nextInt(12));
+            durable.add(random.nextInt(50) == 0 ? ledger.cancelAsync(ticket) : ledger.appendAsync(ticket));
+            if (durable.size() == 4096) {
+                CompletableFuture.allOf(durable.toArray(CompletableFuture[]::new)).join();
+                durable.clear();
+            }
+        }
+        CompletableFuture.allOf(durable.toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * Scans the ledger in {@code ranges} equal byte ranges on the common pool.
+     */
+    private static long scan(Path file, long size, int ranges) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Future<Long>> parts = new ArrayList<>();
+            for (int r = 0; r < ranges; r++) {
+                long from = size * r / ranges;
+                long to = size * (r + 1) / ranges;
+                parts.add(ForkJoinPool.commonPool().submit(() -> {
+                    long[] total = new long[1];
+                    new LedgerScanner(channel, size).scan(from, to, Long.MIN_VALUE, Long.MAX_VALUE,
+                            new SalesColumns(), columns -> total[0] += sum(columns));
+                    return total[0];
+                }));
+            }
+            long total = 0;
+            for (Future<Long> part : parts) total += part.get();
+            return total;
+        }
+    }
+
+    /**
+     * Revenue, tickets and per-month revenue, as a report adds them up.
+     */
+    private static long sum(SalesColumns columns) {
+        long tickets = 0;
+        long cents = 0;
+        long[] months = new long[12];
+        for (int i = 0; i < columns.size; i++) {
+            tickets += columns.tickets[i];
+            cents += columns.priceCents[i];
+            months[SalesColumns.monthOf(columns.purchased[i]) % 12] += columns.priceCents[i];
+        }
+        return tickets + cents + months[5];
+    }
+
+    private static SalesColumns copy(SalesColumns columns) {
+        SalesColumns copy = new SalesColumns();
+        for (int i = 0; i < columns.size; i++) {
+            copy.showtimeId[i] = columns.showtimeId[i];
+            copy.tickets[i] = columns.tickets[i];
+            copy.priceCents[i] = columns.priceCents[i];
+            copy.purchased[i] = columns.purchased[i];
+        }
+        copy.size = columns.size;
+        return copy;
+    }
+}
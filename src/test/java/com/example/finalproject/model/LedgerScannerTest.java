@@ -0,0 +1,202 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link LedgerScanner}: however the ledger is cut into byte
+ * ranges, the ranges together read every record exactly once.
+ * <p>
+ * Each sale of the test ledger has its own showtime id, so a record read
+ * twice or missed shows up in the ids read back.
+ *
+ * @author Rene
+ */
+class LedgerScannerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 1, 10, 0);
+    private static final int SALES = 3000;
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private final List<TicketLedger.Entry> written = new ArrayList<>();
+
+    @BeforeEach
+    void writeLedger() throws IOException {
+        file = dir.resolve("tickets.ledger");
+        TicketLedger ledger = new TicketLedger(file.toString());
+        Client client = new Client(1, "secret", "Scan", "scan@example.com");
+        Random random = new Random(24);
+        List<CompletableFuture<Void>> durable = new ArrayList<>();
+        for (int i = 0; i < SALES; i++) {
+            Showtime showtime = new Showtime(i, "2025-05-01", "20:00", 1 + i % 7, 1 + i % 5);
+            // Seats and codes of varying length, so records are not all the same size
+            Ticket ticket = new Ticket(i, client, showtime, START.plusMinutes(i),
+                    i % 3 == 0 ? "" : "R" + (1 + random.nextInt(200)), "CODE-" + Integer.toString(i, 36),
+                    5 + random.nextInt(20));
+            boolean cancellation = i % 10 == 9;
+            durable.add(cancellation ? ledger.cancelAsync(ticket) : ledger.appendAsync(ticket));
+            written.add(TicketLedger.Entry.of(ticket, cancellation));
+        }
+        CompletableFuture.allOf(durable.toArray(CompletableFuture[]::new)).join();
+    }
+
+    @Test
+    void anyCutReadsEveryRecordOnce() throws IOException {
+        long size = Files.size(file);
+        Random random = new Random(24);
+        for (int trial = 0; trial < 20; trial++) {
+            int pieces = 1 + random.nextInt(12);
+            long[] cuts = new long[pieces + 1];
+            for (int p = 1; p < pieces; p++) cuts[p] = 1 + (long) (random.nextDouble() * (size - 1));
+            cuts[pieces] = size;
+            Arrays.sort(cuts);
+
+            int[] seen = new int[SALES];
+            long cents = 0;
+            for (int p = 0; p < pieces; p++) {
+                Scanned scanned = scan(cuts[p], cuts[p + 1], Long.MIN_VALUE, Long.MAX_VALUE);
+                assertEquals(-1, scanned.damagedAt);
+                for (int id : scanned.showtimeIds) seen[id]++;
+                cents += scanned.cents;
+            }
+            for (int id = 0; id < SALES; id++) assertEquals(1, seen[id], "showtime " + id + ", cuts " + Arrays.toString(cuts));
+            assertEquals(expectedCents(Long.MIN_VALUE, Long.MAX_VALUE), cents);
+        }
+    }
+
+    @Test
+    void aCutAtEveryByteOfTheFirstRecordsFindsTheNextBoundary() throws IOException {
+        long size = Files.size(file);
+        for (long cut = 1; cut < 400; cut++) {
+            Scanned head = scan(0, cut, Long.MIN_VALUE, Long.MAX_VALUE);
+            Scanned tail = scan(cut, size, Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(SALES, head.showtimeIds.size() + tail.showtimeIds.size(), "cut at " + cut);
+        }
+    }
+
+    @Test
+    void onlySalesMadeInThePeriodAreKept() throws IOException {
+        long from = SalesColumns.pack(2025, 5, 1, 12, 0);  // sale 120 on
+        long to = SalesColumns.pack(2025, 5, 2, 9, 30);    // up to sale 1409
+        Scanned scanned = scan(0, Files.size(file), from, to);
+        assertEquals(1290, scanned.showtimeIds.size());
+        assertEquals(120, (int) scanned.showtimeIds.get(0));
+        assertEquals(1409, (int) scanned.showtimeIds.get(scanned.showtimeIds.size() - 1));
+        assertEquals(expectedCents(from, to), scanned.cents);
+    }
+
+    @Test
+    void cancellationsCountAsRefunds() throws IOException {
+        Scanned scanned = scan(0, Files.size(file), Long.MIN_VALUE, Long.MAX_VALUE);
+        int cancelled = SALES / 10;
+        assertEquals(SALES - 2L * cancelled, scanned.tickets);
+        assertTrue(scanned.cents < written.stream().mapToLong(TicketLedger.Entry::priceCents).sum());
+    }
+
+    @Test
+    void aDamagedRecordEndsTheReadableLedger() throws IOException {
+        long size = Files.size(file);
+        long middle = recordOffset(SALES / 2);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), middle + TicketLedger.HEADER_BYTES + 3);
+        }
+        Scanned scanned = scan(0, size, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(SALES / 2, scanned.showtimeIds.size());
+        assertEquals(middle, scanned.damagedAt);
+        // A range starting inside it cannot tell it from the middle of a record, and moves on
+        Scanned after = scan(middle, size, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(SALES / 2 + 1, (int) after.showtimeIds.get(0));
+    }
+
+    @Test
+    void aTornLastRecordIsNotRead() throws IOException {
+        long last = recordOffset(SALES - 1);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 5);
+        }
+        Scanned scanned = scan(0, Files.size(file), Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(SALES - 1, scanned.showtimeIds.size());
+        assertEquals(last, scanned.damagedAt);
+    }
+
+    @Test
+    void fullColumnsAreHandedOverAsTheyFill() throws IOException {
+        TicketLedger ledger = new TicketLedger(file.toString());
+        Client client = new Client(2, "secret", "More", "more@example.com");
+        int more = 2 * SalesColumns.CAPACITY;
+        List<CompletableFuture<Void>> durable = new ArrayList<>();
+        for (int i = 0; i < more; i++) {
+            Showtime showtime = new Showtime(SALES + i, "2025-05-03", "20:00", 1, 1);
+            durable.add(ledger.appendAsync(new Ticket(SALES + i, client, showtime, START.plusDays(2),
+                    "A1", "MORE-" + i, 10)));
+        }
+        CompletableFuture.allOf(durable.toArray(CompletableFuture[]::new)).join();
+
+        List<Integer> sizes = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            new LedgerScanner(channel, Files.size(file)).scan(0, Files.size(file), Long.MIN_VALUE, Long.MAX_VALUE,
+                    new SalesColumns(), columns -> sizes.add(columns.size));
+        }
+        assertEquals(List.of(SalesColumns.CAPACITY, SalesColumns.CAPACITY, SALES), sizes);
+    }
+
+    private record Scanned(List<Integer> showtimeIds, long tickets, long cents, long damagedAt) {
+    }
+
+    private Scanned scan(long from, long to, long fromTime, long toTime) throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        long[] sums = new long[2];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long damagedAt = new LedgerScanner(channel, Files.size(file))
+                    .scan(from, to, fromTime, toTime, new SalesColumns(), columns -> {
+                        for (int i = 0; i < columns.size; i++) {
+                            ids.add(columns.showtimeId[i]);
+                            sums[0] += columns.tickets[i];
+                            sums[1] += columns.priceCents[i];
+                        }
+                    });
+            return new Scanned(ids, sums[0], sums[1], damagedAt);
+        }
+    }
+
+    private long expectedCents(long fromTime, long toTime) {
+        long cents = 0;
+        for (TicketLedger.Entry entry : written) {
+            LocalDateTime time = entry.purchased();
+            long packed = SalesColumns.pack(time.getYear(), time.getMonthValue(), time.getDayOfMonth(),
+                    time.getHour(), time.getMinute());
+            if (packed >= fromTime && packed < toTime) cents += entry.revenueCents();
+        }
+        return cents;
+    }
+
+    /**
+     * Returns the offset of the n-th record, from the ledger's own replay.
+     */
+    private long recordOffset(int n) throws IOException {
+        long[] offsets = new long[SALES + 1];
+        int[] count = {0};
+        new TicketLedger(file.toString()).replayFrom(0, (entry, end) -> offsets[++count[0]] = end);
+        return offsets[n];
+    }
+}
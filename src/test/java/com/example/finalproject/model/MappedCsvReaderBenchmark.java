@@ -0,0 +1,101 @@
+package com.example.finalproject.model;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Cold-ish load of a showtime file of a million rows: the Scanner and
+ * split(",") path the loaders used before, against the {@link MappedCsvReader}.
+ * <p>
+ * Not a unit test (timings depend on the machine); run it by hand after
+ * {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.finalproject.model.MappedCsvReaderBenchmark [rows]
+ * </pre>
+ * Each path runs a few times to warm up, then the best of the measured runs
+ * is printed. Both sum the same fields, so neither can skip work.
+ *
+ * @author Rene
+ */
+final class MappedCsvReaderBenchmark {
+
+    private static final int WARM_UP = 3;
+    private static final int RUNS = 5;
+
+    private MappedCsvReaderBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path file = Files.createTempFile("showtimes", ".csv");
+        try {
+            write(file, rows);
+            System.out.printf("%,d rows, %,d bytes%n", rows, Files.size(file));
+            long scanner = best(() -> scannerPath(file.toFile()));
+            long mapped = best(() -> mappedPath(file));
+            System.out.printf("Scanner + split: %,d ms%n", scanner / 1_000_000);
+            System.out.printf("MappedCsvReader: %,d ms (%.1fx)%n", mapped / 1_000_000, (double) scanner / mapped);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private interface Load {
+        long run() throws IOException;
+    }
+
+    private static long best(Load load) throws IOException {
+        long checksum = 0;
+        for (int i = 0; i < WARM_UP; i++) checksum += load.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            checksum += load.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        if (checksum == 42) System.out.println(); // keeps the sums alive
+        return best;
+    }
+
+    private static long scannerPath(File file) throws IOException {
+        long sum = 0;
+        try (Scanner scanner = new Scanner(file)) {
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                if (line.isEmpty()) continue;
+                String[] parts = line.split(",");
+                sum += Integer.parseInt(parts[0].trim()) + Integer.parseInt(parts[3].trim())
+                        + Integer.parseInt(parts[4].trim()) + parts[1].trim().length();
+            }
+        }
+        return sum;
+    }
+
+    private static long mappedPath(Path file) throws IOException {
+        long[] sum = {0};
+        MappedCsvReader.read(file, row -> sum[0] += row.getInt(0) + row.getInt(3) + row.getInt(4)
+                + row.getString(1).length());
+        return sum[0];
+    }
+
+    private static void write(Path file, int rows) throws IOException {
+        Random random = new Random(1);
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            for (int id = 1; id <= rows; id++) {
+                out.write(id + "," + (2024 + random.nextInt(2)) + "-" + two(1 + random.nextInt(12)) + "-"
+                        + two(1 + random.nextInt(28)) + "," + two(10 + random.nextInt(13)) + ":"
+                        + (random.nextBoolean() ? "00" : "30") + "," + (1 + random.nextInt(40)) + ","
+                        + (1 + random.nextInt(6)) + "\n");
+            }
+        }
+    }
+
+    private static String two(int value) {
+        return value < 10 ? "0" + value : String.valueOf(value);
+    }
+}
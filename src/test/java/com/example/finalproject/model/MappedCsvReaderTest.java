@@ -0,0 +1,103 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link MappedCsvReader}: it must read every data file exactly
+ * as the Scanner and split(",") loaders it replaced did.
+ *
+ * @author Rene
+ */
+class MappedCsvReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsTheSameFieldsAsTheScannerPath() throws IOException {
+        Path file = dir.resolve("movies.csv");
+        Files.writeString(file, "1,Inception ,Sci-Fi,148\r\n"
+                + "\n"
+                + "   \n"
+                + "2, Amélie,Romance, 122\n"
+                + "3,,Documentary,90\n"
+                + "4,Dune: Part Two,Sci-Fi,166", StandardCharsets.UTF_8);
+
+        List<List<String>> mapped = new ArrayList<>();
+        MappedCsvReader.read(file, row -> {
+            List<String> fields = new ArrayList<>();
+            for (int i = 0; i < row.fieldCount(); i++) fields.add(row.getString(i));
+            mapped.add(fields);
+        });
+        assertEquals(scannerFields(file.toFile()), mapped);
+    }
+
+    @Test
+    void parsesNumbersInPlace() throws IOException {
+        Path file = dir.resolve("showtimes.csv");
+        Files.writeString(file, "7, 2024-12-01,14:30,-3 ,2147483647\n");
+        List<long[]> numbers = new ArrayList<>();
+        MappedCsvReader.read(file, row -> numbers.add(new long[]{row.getInt(0), row.getInt(3), row.getLong(4)}));
+        assertEquals(1, numbers.size());
+        assertEquals(7, numbers.get(0)[0]);
+        assertEquals(-3, numbers.get(0)[1]);
+        assertEquals(Integer.MAX_VALUE, numbers.get(0)[2]);
+    }
+
+    @Test
+    void rejectsFieldsThatAreNotNumbers() {
+        assertThrows(NumberFormatException.class, () -> CsvRow.of("1x,2").getInt(0));
+        assertThrows(NumberFormatException.class, () -> CsvRow.of(" ,2").getInt(0));
+        assertThrows(NumberFormatException.class, () -> CsvRow.of("-,2").getInt(0));
+        assertThrows(NumberFormatException.class, () -> CsvRow.of("2147483648").getInt(0));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> CsvRow.of("1,2").getInt(2));
+    }
+
+    @Test
+    void reportsWhereEachLineStarts() throws IOException {
+        Path file = dir.resolve("rooms.csv");
+        String text = "1,Room A,100\n\n2,Room B,80\r\n3,IMAX,300";
+        Files.writeString(file, text);
+        List<Long> offsets = new ArrayList<>();
+        MappedCsvReader.read(file, row -> offsets.add(row.offset()));
+        assertEquals(List.of(0L, (long) text.indexOf("2,"), (long) text.indexOf("3,")), offsets);
+    }
+
+    @Test
+    void aMissingFileIsEmpty() throws IOException {
+        List<String> lines = new ArrayList<>();
+        MappedCsvReader.read(dir.resolve("clients.csv"), row -> lines.add(row.getString(0)));
+        assertTrue(lines.isEmpty());
+    }
+
+    /**
+     * The loaders before the mapped reader: Scanner, trim, skip blank lines, split on commas.
+     */
+    private static List<List<String>> scannerFields(File file) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (Scanner scanner = new Scanner(file, StandardCharsets.UTF_8)) {
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                if (line.isEmpty()) continue;
+                List<String> fields = new ArrayList<>();
+                for (String part : line.split(",", -1)) fields.add(part.trim());
+                rows.add(fields);
+            }
+        }
+        return rows;
+    }
+}
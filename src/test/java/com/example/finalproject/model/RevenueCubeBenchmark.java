@@ -0,0 +1,78 @@
+package com.example.finalproject.model;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * A year of sales in the {@link RevenueCube}: cost of adding a sale, and of
+ * the tickets and revenue of a day, a month and the year for one movie,
+ * against adding up the sales one by one.
+ * <p>
+ * Not a unit test (timings depend on the machine); run it by hand after
+ * {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.finalproject.model.RevenueCubeBenchmark [sales]
+ * </pre>
+ * Sales arrive in time order, as they are sold, with one in a hundred
+ * entered late (dated up to a week earlier).
+ *
+ * @author Rene
+ */
+final class RevenueCubeBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int YEAR_MINUTES = 365 * 24 * 60;
+    private static final int QUERIES = 100_000;
+
+    private RevenueCubeBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(20);
+        LocalDateTime[] purchased = new LocalDateTime[count];
+        int[] hours = new int[count];
+        int[] movies = new int[count];
+        int[] rooms = new int[count];
+        long[] cents = new long[count];
+        for (int i = 0; i < count; i++) {
+            long minute = (long) i * YEAR_MINUTES / count;
+            if (random.nextInt(100) == 0) minute = Math.max(0, minute - random.nextInt(7 * 24 * 60));
+            purchased[i] = START.plusMinutes(minute);
+            hours[i] = RevenueCube.hourOf(purchased[i], false);
+            movies[i] = 1 + random.nextInt(40);
+            rooms[i] = 1 + random.nextInt(6);
+            cents[i] = 800 + random.nextInt(1200);
+        }
+
+        for (int round = 1; round <= 3; round++) {
+            RevenueCube cube = new RevenueCube();
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) cube.add(purchased[i], movies[i], rooms[i], 1, cents[i]);
+            long add = System.nanoTime() - start;
+            System.out.printf("round %d, %,d sales: %,.0f ns per sale added%n", round, count, (double) add / count);
+            for (int hoursLong : new int[]{24, 30 * 24, 365 * 24}) {
+                long sink = 0;
+                start = System.nanoTime();
+                for (int q = 0; q < QUERIES; q++) {
+                    int from = hours[0] + random.nextInt(365 * 24 - hoursLong + 1);
+                    sink += cube.sum(from, from + hoursLong, 1 + q % 40, RevenueCube.ANY)[1];
+                }
+                double cubeNanos = (double) (System.nanoTime() - start) / QUERIES;
+                int scans = 20;
+                start = System.nanoTime();
+                for (int q = 0; q < scans; q++) {
+                    int from = hours[0] + random.nextInt(365 * 24 - hoursLong + 1);
+                    int movie = 1 + q % 40;
+                    for (int i = 0; i < count; i++) {
+                        if (movies[i] == movie && hours[i] >= from && hours[i] < from + hoursLong) sink += cents[i];
+                    }
+                }
+                double scanNanos = (double) (System.nanoTime() - start) / scans;
+                if (sink == 42) System.out.println(); // keeps the sums alive
+                System.out.printf("  %4d hours of one movie: cube %,6.0f ns, sale by sale %,12.0f ns%n",
+                        hoursLong, cubeNanos, scanNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the {@link RevenueCube}: every period, movie and room adds up to
+ * what summing the sales one by one gives, whatever order they came in.
+ *
+ * @author Rene
+ */
+class RevenueCubeTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int DAYS = 60;
+    private static final int[] MOVIES = {RevenueCube.ANY, 1, 2, 3, 4};
+    private static final int[] ROOMS = {RevenueCube.ANY, 1, 2, 3};
+
+    private record Sale(LocalDateTime purchased, int movieId, int roomId, int tickets, long cents) {
+    }
+
+    @Test
+    void sumsMatchTheSalesOneByOne() {
+        Random random = new Random(20);
+        RevenueCube cube = new RevenueCube();
+        List<Sale> sales = sell(cube, random, 5000);
+        for (int q = 0; q < 2000; q++) {
+            int from = RevenueCube.hourOf(START.plusMinutes(random.nextInt(DAYS * 24 * 60)), false);
+            int to = from + random.nextInt(DAYS * 24);
+            int movie = MOVIES[random.nextInt(MOVIES.length)];
+            int room = ROOMS[random.nextInt(ROOMS.length)];
+            assertArrayEquals(bruteForce(sales, from, to, movie, room), cube.sum(from, to, movie, room),
+                    "hours " + from + "-" + to + ", movie " + movie + ", room " + room);
+        }
+    }
+
+    @Test
+    void openEndedPeriodsCoverEverything() {
+        Random random = new Random(20);
+        RevenueCube cube = new RevenueCube();
+        List<Sale> sales = sell(cube, random, 1000);
+        int all = RevenueCube.hourOf(null, false);
+        int end = RevenueCube.hourOf(null, true);
+        for (int movie : MOVIES) {
+            for (int room : ROOMS) {
+                assertArrayEquals(bruteForce(sales, all, end, movie, room), cube.sum(all, end, movie, room));
+            }
+        }
+        assertArrayEquals(new long[2], cube.sum(all, end, 99, RevenueCube.ANY), "a movie with no sales");
+        assertArrayEquals(new long[2], cube.sum(10, 10, RevenueCube.ANY, RevenueCube.ANY), "an empty period");
+    }
+
+    @Test
+    void aCancelledSaleLeavesNoTrace() {
+        RevenueCube cube = new RevenueCube();
+        LocalDateTime evening = START.plusDays(3).plusHours(19);
+        cube.add(evening, 1, 2, 1, 1250);
+        cube.add(evening.plusDays(1), 1, 2, 1, 900);
+        cube.add(evening, 1, 2, -1, -1250); // arrives a day later, dated like its sale
+        int day = RevenueCube.hourOf(evening, false);
+        assertArrayEquals(new long[2], cube.sum(day, day + 1, 1, 2));
+        assertArrayEquals(new long[]{1, 900}, cube.sum(day, day + 48, RevenueCube.ANY, RevenueCube.ANY));
+    }
+
+    @Test
+    void aSavedCubeReadsBackTheSame() throws IOException {
+        Random random = new Random(20);
+        RevenueCube cube = new RevenueCube();
+        List<Sale> sales = sell(cube, random, 3000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            cube.write(out);
+        }
+        RevenueCube copy = new RevenueCube();
+        copy.add(START, 1, 1, 1, 100); // replaced by what is read
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy.read(in);
+        }
+
+        for (int q = 0; q < 1000; q++) {
+            int from = RevenueCube.hourOf(START.plusMinutes(random.nextInt(DAYS * 24 * 60)), false);
+            int to = from + random.nextInt(DAYS * 24);
+            int movie = MOVIES[random.nextInt(MOVIES.length)];
+            int room = ROOMS[random.nextInt(ROOMS.length)];
+            assertArrayEquals(cube.sum(from, to, movie, room), copy.sum(from, to, movie, room));
+        }
+        // Sales after the checkpoint go on from the saved totals
+        cube.add(START.plusDays(DAYS), 2, 3, 1, 700);
+        copy.add(START.plusDays(DAYS), 2, 3, 1, 700);
+        sales.add(new Sale(START.plusDays(DAYS), 2, 3, 1, 700));
+        int all = RevenueCube.hourOf(null, false);
+        int end = RevenueCube.hourOf(null, true);
+        assertArrayEquals(bruteForce(sales, all, end, 2, RevenueCube.ANY), copy.sum(all, end, 2, RevenueCube.ANY));
+    }
+
+    @Test
+    void clearForgetsEverySale() {
+        RevenueCube cube = new RevenueCube();
+        cube.add(START, 1, 1, 1, 100);
+        cube.clear();
+        assertEquals(0, cube.sum(RevenueCube.hourOf(null, false), RevenueCube.hourOf(null, true),
+                RevenueCube.ANY, RevenueCube.ANY)[0]);
+    }
+
+    /**
+     * Sales in no particular order (late entries, earlier days), with some cancelled later.
+     */
+    private static List<Sale> sell(RevenueCube cube, Random random, int count) {
+        List<Sale> sales = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Sale sale;
+            if (!sales.isEmpty() && random.nextInt(10) == 0) {
+                Sale sold = sales.get(random.nextInt(sales.size()));
+                sale = new Sale(sold.purchased(), sold.movieId(), sold.roomId(), -1, -sold.cents());
+            } else {
+                int movie = random.nextInt(20) == 0 ? RevenueCube.ANY : 1 + random.nextInt(4);
+                int room = random.nextInt(20) == 0 ? RevenueCube.ANY : 1 + random.nextInt(3);
+                sale = new Sale(START.plusMinutes(random.nextInt(DAYS * 24 * 60)), movie, room, 1,
+                        500 + random.nextInt(1500));
+            }
+            cube.add(sale.purchased(), sale.movieId(), sale.roomId(), sale.tickets(), sale.cents());
+            sales.add(sale);
+        }
+        return sales;
+    }
+
+    private static long[] bruteForce(List<Sale> sales, int fromHour, int toHour, int movieId, int roomId) {
+        long[] total = new long[2];
+        for (Sale sale : sales) {
+            int hour = RevenueCube.hourOf(sale.purchased(), false);
+            if (hour < fromHour || hour >= toHour) continue;
+            if (movieId != RevenueCube.ANY && sale.movieId() != movieId) continue;
+            if (roomId != RevenueCube.ANY && sale.roomId() != roomId) continue;
+            total[0] += sale.tickets();
+            total[1] += sale.cents();
+        }
+        return total;
+    }
+}
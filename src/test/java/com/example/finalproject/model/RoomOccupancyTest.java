@@ -0,0 +1,193 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the {@link RoomOccupancy} counters, fed by a {@link SalesAggregator}
+ * reading a temporary ledger: sales and cancellations move the load factors
+ * of the cells, and showtimes of archived or earlier months count like the
+ * others.
+ * <p>
+ * The schedule and the rooms are handed in through the same hooks the
+ * repositories call.
+ *
+ * @author Rene
+ */
+class RoomOccupancyTest {
+
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Monday 20:00, the hour of week of {@link #monday} and {@link #archivedMonday}.
+     */
+    private static final int MONDAY_EVENING = 20;
+
+    /**
+     * Saturday 14:00, the hour of week of {@link #saturday}.
+     */
+    private static final int SATURDAY_AFTERNOON = 5 * 24 + 14;
+
+    @TempDir
+    Path dir;
+
+    private TicketLedger ledger;
+    private SalesAggregator aggregator;
+    private RoomOccupancy occupancy;
+    private final Room big = new Room(1, "Room 1", 10);
+    private final Room small = new Room(2, "Room 2", 4);
+    private final Showtime monday = new Showtime(1, "2025-06-16", "20:30", 1, 1);
+    private final Showtime archivedMonday = new Showtime(2, "2024-01-01", "20:15", 1, 1);
+    private final Showtime saturday = new Showtime(3, "2025-06-21", "14:00", 2, 2);
+    private final Client client = new Client(1, "secret", "Load", "load@example.com");
+    private long ticketIds;
+
+    @BeforeEach
+    void openCounters() {
+        ledger = new TicketLedger(dir.resolve("tickets.ledger").toString());
+        aggregator = new SalesAggregator(ledger, dir.resolve("sales-views.bin").toString());
+        occupancy = new RoomOccupancy(() -> aggregator);
+        occupancy.roomChanged(null, big);
+        occupancy.roomChanged(null, small);
+        occupancy.showtimeChanged(null, monday);
+        occupancy.showtimeChanged(null, saturday);
+        occupancy.showtimeArchived(archivedMonday);
+    }
+
+    @Test
+    void salesAndCancellationsSetTheLoadFactors() throws IOException, InterruptedException {
+        sell(monday, 5);
+        sell(archivedMonday, 10);
+        List<Ticket> saturdaySales = sell(saturday, 4);
+        ledger.cancel(saturdaySales.get(0));
+        occupancy.followSales();
+
+        RoomOccupancy.Cell evening = occupancy.heatmap(big.getRoomID()).get(MONDAY_EVENING);
+        assertEquals(2, evening.showtimes());
+        assertEquals(15, evening.seatsSold());
+        assertEquals(20, evening.seatsOffered());
+        assertEquals(0.75, evening.loadFactor(), EPSILON);
+        assertEquals(0.75, evening.meanLoad(), EPSILON);   // half full and full
+        assertEquals(0.25, evening.loadSpread(), EPSILON);
+        assertEquals(1, evening.soldOut());
+
+        RoomOccupancy.Cell afternoon = occupancy.heatmap(small.getRoomID()).get(SATURDAY_AFTERNOON);
+        assertEquals(3, afternoon.seatsSold());
+        assertEquals(0, afternoon.soldOut());
+
+        RoomOccupancy.Cell week = occupancy.week(RoomOccupancy.ALL_ROOMS);
+        assertEquals(3, week.showtimes());
+        assertEquals(18, week.seatsSold());
+        assertEquals(24, week.seatsOffered());
+
+        // Followed from now on without another refresh
+        sell(saturday, 1);
+        List<Ticket> more = sell(monday, 2);
+        ledger.cancel(more.get(1));
+        eventually(() -> {
+            RoomOccupancy.Cell full = occupancy.heatmap(small.getRoomID()).get(SATURDAY_AFTERNOON);
+            assertEquals(4, full.seatsSold());
+            assertEquals(1, full.soldOut());
+            assertEquals(16, occupancy.heatmap(big.getRoomID()).get(MONDAY_EVENING).seatsSold());
+        });
+    }
+
+    @Test
+    void aCancelledSoldOutShowtimeIsNoLongerSoldOut() throws IOException, InterruptedException {
+        List<Ticket> sold = sell(saturday, 4);
+        occupancy.followSales();
+        assertEquals(1, occupancy.week(small.getRoomID()).soldOut());
+
+        ledger.cancel(sold.get(3));
+        eventually(() -> {
+            RoomOccupancy.Cell week = occupancy.week(small.getRoomID());
+            assertEquals(0, week.soldOut());
+            assertEquals(0.75, week.loadFactor(), EPSILON);
+        });
+    }
+
+    @Test
+    void archivedShowtimesOutliveAReloadOfTheSchedule() throws IOException {
+        sell(monday, 5);
+        sell(archivedMonday, 10);
+        occupancy.followSales();
+
+        occupancy.scheduleCleared();
+        RoomOccupancy.Cell evening = occupancy.heatmap(big.getRoomID()).get(MONDAY_EVENING);
+        assertEquals(1, evening.showtimes(), "the cached showtime waits for the reload");
+        assertEquals(10, evening.seatsSold());
+
+        occupancy.showtimeChanged(null, monday);
+        assertEquals(15, occupancy.heatmap(big.getRoomID()).get(MONDAY_EVENING).seatsSold());
+    }
+
+    @Test
+    void anArchivedShowtimeAlsoCachedCountsOnce() throws IOException {
+        sell(archivedMonday, 10);
+        occupancy.followSales();
+        occupancy.showtimeChanged(null, archivedMonday); // a report read its month into the cache
+        occupancy.showtimeArchived(archivedMonday);
+
+        RoomOccupancy.Cell evening = occupancy.heatmap(big.getRoomID()).get(MONDAY_EVENING);
+        assertEquals(2, evening.showtimes());
+        assertEquals(10, evening.seatsSold());
+    }
+
+    @Test
+    void reschedulingAndResizingMoveTheCounts() throws IOException {
+        sell(monday, 5);
+        occupancy.followSales();
+
+        occupancy.showtimeChanged(monday, new Showtime(1, "2025-06-21", "14:45", 1, 2));
+        assertEquals(0, occupancy.heatmap(big.getRoomID()).get(MONDAY_EVENING).seatsSold());
+        RoomOccupancy.Cell moved = occupancy.heatmap(small.getRoomID()).get(SATURDAY_AFTERNOON);
+        assertEquals(2, moved.showtimes());
+        assertEquals(1, moved.soldOut(), "5 tickets in a room of 4");
+
+        occupancy.roomChanged(small, new Room(2, "Room 2", 8));
+        RoomOccupancy.Cell resized = occupancy.heatmap(small.getRoomID()).get(SATURDAY_AFTERNOON);
+        assertEquals(16, resized.seatsOffered());
+        assertEquals(0, resized.soldOut());
+    }
+
+    private List<Ticket> sell(Showtime showtime, int count) {
+        List<Ticket> tickets = new ArrayList<>();
+        List<CompletableFuture<Void>> durable = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long id = ++ticketIds;
+            Ticket ticket = new Ticket(id, client, showtime, LocalDateTime.of(2025, 6, 1, 12, 0).plusMinutes(id),
+                    "A" + id, "LOAD-" + id, 10);
+            tickets.add(ticket);
+            durable.add(ledger.appendAsync(ticket));
+        }
+        CompletableFuture.allOf(durable.toArray(CompletableFuture[]::new)).join();
+        return tickets;
+    }
+
+    /**
+     * Retries an assertion until it holds: sales written after the first
+     * refresh reach the counters on the aggregator's own thread.
+     */
+    private static void eventually(Runnable assertion) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (true) {
+            try {
+                assertion.run();
+                return;
+            } catch (AssertionError e) {
+                if (System.nanoTime() > deadline) throw e;
+                Thread.sleep(10);
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link SalesAggregator} on a temporary ledger: after a first
+ * read, a catch-up from its offset or a restart from its checkpoint, every
+ * view equals the sum of the sales and cancellations written, one by one.
+ *
+ * @author Rene
+ */
+class SalesAggregatorTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final int SHOWTIMES = 300;
+
+    @TempDir
+    Path dir;
+
+    private TicketLedger ledger;
+    private Path checkpoint;
+    private final List<TicketLedger.Entry> written = new ArrayList<>();
+    private final Showtime[] showtimes = new Showtime[SHOWTIMES];
+    private final Client client = new Client(1, "secret", "Sum", "sum@example.com");
+    private final Random random = new Random(20);
+
+    @BeforeEach
+    void openLedger() {
+        ledger = new TicketLedger(dir.resolve("tickets.ledger").toString());
+        checkpoint = dir.resolve("sales-views.bin");
+        for (int id = 0; id < SHOWTIMES; id++) {
+            showtimes[id] = new Showtime(id, "2025-03-01", "20:00", 1 + id % 13, 1 + id % 5);
+        }
+    }
+
+    @Test
+    void viewsEqualTheSumOfTheSales() throws IOException {
+        write(3000);
+        SalesAggregator aggregator = new SalesAggregator(ledger, checkpoint.toString());
+        aggregator.refresh();
+        assertViews(aggregator);
+    }
+
+    @Test
+    void cancellationsTakeTheirSalesBack() throws IOException {
+        List<Ticket> sold = write(200);
+        SalesAggregator aggregator = new SalesAggregator(ledger, checkpoint.toString());
+        aggregator.refresh();
+        long unmatched = written.stream().filter(TicketLedger.Entry::cancellation).count();
+        for (Ticket ticket : sold) {
+            ledger.cancel(ticket);
+            written.add(TicketLedger.Entry.of(ticket, true));
+        }
+        aggregator.refresh();
+        assertViews(aggregator);
+        // Every sale is taken back; only the cancellations written without a sale remain
+        assertEquals(-unmatched, aggregator.byShowtime().stream().mapToLong(SalesAggregator.Totals::tickets).sum());
+    }
+
+    @Test
+    void aRefreshReadsOnlyWhatWasAppended() throws IOException, InterruptedException {
+        write(1500);
+        SalesAggregator aggregator = new SalesAggregator(ledger, checkpoint.toString());
+        aggregator.refresh();
+        // Also filled on the aggregator's thread, which follows each batch written
+        List<SalesAggregator.Changes> received = Collections.synchronizedList(new ArrayList<>());
+        Consumer<SalesAggregator.Changes> listener = received::add;
+        aggregator.addChangeListener(listener);
+
+        int before = written.size();
+        write(700);
+        Set<Integer> touched = new HashSet<>();
+        for (TicketLedger.Entry entry : written.subList(before, written.size())) touched.add(entry.showtimeId());
+        aggregator.refresh();
+
+        long end = ledger.size();
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (received.stream().mapToLong(SalesAggregator.Changes::offset).max().orElse(0) < end
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10); // a notification still on its way
+        }
+        Set<Integer> changed = new HashSet<>();
+        long offset = 0;
+        synchronized (received) {
+            for (SalesAggregator.Changes changes : received) {
+                changes.showtimes().forEach(totals -> changed.add(totals.key()));
+                offset = Math.max(offset, changes.offset());
+            }
+        }
+        assertEquals(touched, changed);
+        assertEquals(end, offset);
+        assertEquals(ledger.size(), aggregator.current().offset());
+        assertViews(aggregator);
+    }
+
+    @Test
+    void aRestartContinuesFromTheCheckpoint() throws IOException {
+        write(16_000); // past the checkpoint interval
+        SalesAggregator first = new SalesAggregator(ledger, checkpoint.toString());
+        first.refresh();
+        assertTrue(Files.exists(checkpoint));
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(checkpoint))) {
+            assertEquals(0x53414c32, in.readInt()); // "SAL2"
+            long saved = in.readLong();
+            assertTrue(saved > 0 && saved <= ledger.size());
+        }
+
+        write(500);
+        SalesAggregator restarted = new SalesAggregator(ledger, checkpoint.toString());
+        restarted.refresh();
+        assertViews(restarted);
+        assertEquals(ledger.size(), restarted.current().offset());
+    }
+
+    @Test
+    void anUnreadableCheckpointCostsOneFullRead() throws IOException {
+        write(1000);
+        Files.write(checkpoint, new byte[]{0x53, 0x41, 0x4c, 0x32, 0, 0}); // cut short
+        SalesAggregator damaged = new SalesAggregator(ledger, checkpoint.toString());
+        damaged.refresh();
+        assertViews(damaged);
+
+        Files.write(checkpoint, new byte[]{0x53, 0x41, 0x4c, 0x31, 0, 0, 0, 0, 0, 0, 0, 1}); // "SAL1"
+        SalesAggregator older = new SalesAggregator(ledger, checkpoint.toString());
+        older.refresh();
+        assertViews(older);
+    }
+
+    /**
+     * Writes sales (one in 15 a cancellation) spread over the showtimes and a year.
+     */
+    private List<Ticket> write(int count) {
+        List<Ticket> sold = new ArrayList<>();
+        List<CompletableFuture<Void>> durable = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int n = written.size();
+            Showtime showtime = showtimes[random.nextInt(SHOWTIMES)];
+            Ticket ticket = new Ticket(n, client, showtime, START.plusMinutes(n * 37L),
+                    "B" + (1 + random.nextInt(90)), "SUM-" + n, 6 + random.nextInt(10) + random.nextInt(100) / 100.0);
+            boolean cancellation = random.nextInt(15) == 0;
+            durable.add(cancellation ? ledger.cancelAsync(ticket) : ledger.appendAsync(ticket));
+            written.add(TicketLedger.Entry.of(ticket, cancellation));
+            if (!cancellation) sold.add(ticket);
+        }
+        CompletableFuture.allOf(durable.toArray(CompletableFuture[]::new)).join();
+        return sold;
+    }
+
+    /**
+     * Checks every view, and the cube for whole months, against a sum over the entries written.
+     */
+    private void assertViews(SalesAggregator aggregator) {
+        Map<Integer, long[]> byShowtime = new HashMap<>();
+        Map<Integer, long[]> byRoom = new HashMap<>();
+        Map<Integer, long[]> byMovie = new HashMap<>();
+        Set<Integer> seen = new HashSet<>();
+        for (TicketLedger.Entry entry : written) {
+            boolean first = seen.add(entry.showtimeId());
+            add(byShowtime, entry.showtimeId(), entry, first);
+            add(byRoom, entry.roomId(), entry, first);
+            add(byMovie, entry.movieId(), entry, first);
+        }
+        assertEquals(expected(byShowtime), actual(aggregator.byShowtime()), "by showtime");
+        assertEquals(expected(byRoom), actual(aggregator.byRoom()), "by room");
+        assertEquals(expected(byMovie), actual(aggregator.byMovie()), "by movie");
+
+        for (int month = 1; month <= 12; month++) {
+            LocalDateTime from = START.withDayOfMonth(1).withHour(0).withMonth(month);
+            LocalDateTime to = from.plusMonths(1);
+            long tickets = 0;
+            long cents = 0;
+            for (TicketLedger.Entry entry : written) {
+                if (entry.purchased().isBefore(from) || !entry.purchased().isBefore(to)) continue;
+                tickets += entry.tickets();
+                cents += entry.revenueCents();
+            }
+            SalesAggregator.Period period = aggregator.between(from, to, SalesAggregator.ANY, SalesAggregator.ANY);
+            assertEquals(tickets, period.tickets(), "tickets of month " + month);
+            assertEquals(cents, period.revenueCents(), "revenue of month " + month);
+        }
+    }
+
+    private static void add(Map<Integer, long[]> view, int key, TicketLedger.Entry entry, boolean firstSale) {
+        long[] sums = view.computeIfAbsent(key, k -> new long[3]);
+        sums[0] += entry.tickets();
+        sums[1] += entry.revenueCents();
+        if (firstSale) sums[2]++;
+    }
+
+    private static Map<Integer, SalesAggregator.Totals> expected(Map<Integer, long[]> view) {
+        Map<Integer, SalesAggregator.Totals> totals = new HashMap<>();
+        view.forEach((key, sums) -> totals.put(key, new SalesAggregator.Totals(key, sums[0], sums[1], (int) sums[2])));
+        return totals;
+    }
+
+    private static Map<Integer, SalesAggregator.Totals> actual(List<SalesAggregator.Totals> view) {
+        Map<Integer, SalesAggregator.Totals> totals = new HashMap<>();
+        for (SalesAggregator.Totals entry : view) totals.put(entry.key(), entry);
+        return totals;
+    }
+}
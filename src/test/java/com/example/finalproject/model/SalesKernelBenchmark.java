@@ -0,0 +1,85 @@
+package com.example.finalproject.model;
+
+import java.util.Random;
+
+/**
+ * The {@link ScalarSalesKernel} against the {@link VectorSalesKernel} on a
+ * year of sales already decoded into {@link SalesColumns}, and on the
+ * occupancy of the showtimes of that year.
+ * <p>
+ * Not a unit test (timings depend on the machine); run it by hand after
+ * {@code mvn test-compile}:
+ * <pre>
+ * java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes com.example.finalproject.model.SalesKernelBenchmark [sales]
+ * </pre>
+ * Without the module only the scalar kernel is timed. Each round repeats
+ * both reductions a number of times, so the JIT has compiled both kernels by
+ * the later rounds; compare those. To see how much of a whole report the
+ * sums are, compare with "sums only" of the LedgerScannerBenchmark.
+ *
+ * @author Rene
+ */
+final class SalesKernelBenchmark {
+
+    private static final int REPEATS = 20;
+
+    private SalesKernelBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(24);
+        SalesColumns[] chunks = new SalesColumns[(count + SalesColumns.CAPACITY - 1) / SalesColumns.CAPACITY];
+        for (int c = 0; c < chunks.length; c++) {
+            SalesColumns chunk = new SalesColumns();
+            chunk.size = Math.min(SalesColumns.CAPACITY, count - c * SalesColumns.CAPACITY);
+            for (int i = 0; i < chunk.size; i++) {
+                boolean cancellation = random.nextInt(50) == 0;
+                long price = 800 + random.nextInt(1200);
+                chunk.tickets[i] = cancellation ? -1 : 1;
+                chunk.priceCents[i] = cancellation ? -price : price;
+            }
+            chunks[c] = chunk;
+        }
+        int showtimes = Math.max(1, count / 50);
+        int[] sold = new int[showtimes];
+        int[] capacity = new int[showtimes];
+        for (int i = 0; i < showtimes; i++) {
+            capacity[i] = 40 + random.nextInt(160);
+            sold[i] = random.nextInt(capacity[i] + 1);
+        }
+
+        SalesKernel loaded = SalesKernel.load();
+        SalesKernel[] kernels = loaded instanceof ScalarSalesKernel
+                ? new SalesKernel[]{loaded}
+                : new SalesKernel[]{new ScalarSalesKernel(), loaded};
+        System.out.printf("%,d sales in %d chunks, %,d showtimes, %d repeats%n",
+                count, chunks.length, showtimes, REPEATS);
+
+        for (int round = 1; round <= 12; round++) {
+            StringBuilder line = new StringBuilder("round " + round + ":");
+            for (SalesKernel kernel : kernels) {
+                long sink = 0;
+                long start = System.nanoTime();
+                for (int r = 0; r < REPEATS; r++) {
+                    for (SalesColumns chunk : chunks) {
+                        sink += kernel.sum(chunk.tickets, chunk.priceCents, chunk.size)[1];
+                    }
+                }
+                long sums = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int r = 0; r < REPEATS; r++) {
+                    sink += kernel.occupancy(sold, capacity, showtimes, 80)[2];
+                }
+                long occupancy = System.nanoTime() - start;
+
+                if (sink == 42) System.out.println(); // keeps the sums alive
+                String name = kernel instanceof ScalarSalesKernel ? "scalar" : "vector";
+                line.append(String.format(" %s sums %,4d ms, occupancy %,4d ms;",
+                        name, sums / 1_000_000, occupancy / 1_000_000));
+            }
+            System.out.println(line);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * Tests that the {@link VectorSalesKernel} gives exactly the results of the
+ * {@link ScalarSalesKernel}, for lengths that fill the vector lanes, leave a
+ * tail of rows, or are shorter than one register.
+ * <p>
+ * Skipped when the JVM runs without {@code --add-modules jdk.incubator.vector}
+ * or the CPU has no SIMD lanes, as the report then uses the scalar kernel.
+ *
+ * @author Rene
+ */
+class SalesKernelTest {
+
+    private static final int[] LENGTHS = {0, 1, 3, 7, 8, 9, 15, 16, 17, 63, 100, 1023, SalesColumns.CAPACITY};
+
+    private static SalesKernel vector;
+    private final SalesKernel scalar = new ScalarSalesKernel();
+
+    @BeforeAll
+    static void loadKernel() {
+        vector = SalesKernel.load();
+        assumeFalse(vector instanceof ScalarSalesKernel, "Vector API not available");
+    }
+
+    @Test
+    void sumsEqualTheScalarSums() {
+        Random random = new Random(24);
+        for (int length : LENGTHS) {
+            int[] tickets = new int[length + 5];
+            long[] priceCents = new long[length + 5];
+            for (int i = 0; i < tickets.length; i++) {
+                boolean cancellation = random.nextInt(10) == 0;
+                long price = 500 + random.nextInt(2000);
+                tickets[i] = cancellation ? -1 : 1;
+                priceCents[i] = cancellation ? -price : price;
+            }
+            // Rows past the length must not be read
+            assertArrayEquals(scalar.sum(tickets, priceCents, length),
+                    vector.sum(tickets, priceCents, length), "length " + length);
+        }
+    }
+
+    @Test
+    void sumsDoNotOverflowIntLanes() {
+        int length = 37;
+        int[] tickets = new int[length];
+        long[] priceCents = new long[length];
+        Arrays.fill(tickets, Integer.MAX_VALUE);
+        Arrays.fill(priceCents, Long.MAX_VALUE / 64);
+        assertArrayEquals(scalar.sum(tickets, priceCents, length), vector.sum(tickets, priceCents, length));
+    }
+
+    @Test
+    void occupancyEqualsTheScalarOccupancy() {
+        Random random = new Random(24);
+        for (int length : LENGTHS) {
+            int[] sold = new int[length + 5];
+            int[] capacity = new int[length + 5];
+            for (int i = 0; i < sold.length; i++) {
+                capacity[i] = 20 + random.nextInt(200);
+                // Some empty, some exactly at 80% or full, a few net negative after refunds
+                sold[i] = switch (random.nextInt(5)) {
+                    case 0 -> capacity[i];
+                    case 1 -> capacity[i] * 4 / 5;
+                    case 2 -> -random.nextInt(3);
+                    default -> random.nextInt(capacity[i] + 1);
+                };
+            }
+            for (int percent : new int[]{0, 80, 100}) {
+                assertArrayEquals(scalar.occupancy(sold, capacity, length, percent),
+                        vector.occupancy(sold, capacity, length, percent), "length " + length + ", " + percent + "%");
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link SalesReport}: read in parallel ranges of any size, a
+ * ledger gives the same report as read in one range, which in turn adds up
+ * to the sales written.
+ *
+ * @author Rene
+ */
+class SalesReportTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 10, 0);
+    private static final int SALES = 6000;
+    private static final long ONE_RANGE = Long.MAX_VALUE;
+    private static final long[] SPLITS = {512, 4096, 50_000};
+
+    @TempDir
+    Path dir;
+
+    private TicketLedger ledger;
+    private final List<TicketLedger.Entry> written = new ArrayList<>();
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    /**
+     * Rooms 1 to 5 of 40 seats; room 6 is unknown, so its showtimes are left out of the occupancy.
+     */
+    private final IntFunction<Room> rooms = id -> id <= 5 ? new Room(id, "Room " + id, 40) : null;
+
+    @BeforeEach
+    void writeLedger() {
+        ledger = new TicketLedger(dir.resolve("tickets.ledger").toString());
+        Client client = new Client(1, "secret", "Report", "report@example.com");
+        Random random = new Random(22);
+        List<CompletableFuture<Void>> durable = new ArrayList<>();
+        for (int i = 0; i < SALES; i++) {
+            // Showtimes follow the sales through the year, as a real schedule does
+            int showtimeId = i / 40 + random.nextInt(6);
+            Showtime showtime = new Showtime(showtimeId, "2025-01-01", "20:00", 1 + showtimeId % 9, 1 + showtimeId % 6);
+            Ticket ticket = new Ticket(i, client, showtime, START.plusMinutes(i * 83L),
+                    "C" + (1 + random.nextInt(40)), "REP-" + i, 7 + random.nextInt(9));
+            boolean cancellation = random.nextInt(12) == 0;
+            durable.add(cancellation ? ledger.cancelAsync(ticket) : ledger.appendAsync(ticket));
+            written.add(TicketLedger.Entry.of(ticket, cancellation));
+        }
+        CompletableFuture.allOf(durable.toArray(CompletableFuture[]::new)).join();
+    }
+
+    @AfterEach
+    void closePool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void parallelRangesGiveTheReportOfOneRange() throws IOException {
+        SalesReport.Report whole = report(null, null, ONE_RANGE);
+        for (long split : SPLITS) {
+            assertEquals(whole, report(null, null, split), "ranges of " + split + " bytes");
+        }
+    }
+
+    @Test
+    void aPeriodGivesTheSameReportHoweverItIsRead() throws IOException {
+        LocalDateTime from = LocalDateTime.of(2025, 3, 14, 12, 30);
+        LocalDateTime to = LocalDateTime.of(2025, 6, 2, 8, 0);
+        SalesReport.Report whole = report(from, to, ONE_RANGE);
+        for (long split : SPLITS) {
+            assertEquals(whole, report(from, to, split), "ranges of " + split + " bytes");
+        }
+        long tickets = 0;
+        long cents = 0;
+        for (TicketLedger.Entry entry : written) {
+            if (entry.purchased().isBefore(from) || !entry.purchased().isBefore(to)) continue;
+            tickets += entry.tickets();
+            cents += entry.revenueCents();
+        }
+        assertEquals(tickets, whole.tickets());
+        assertEquals(cents, whole.revenueCents());
+    }
+
+    @Test
+    void theReportAddsUpToTheSalesWritten() throws IOException {
+        SalesReport.Report report = report(null, null, 4096);
+        assertEquals(written.stream().mapToLong(TicketLedger.Entry::tickets).sum(), report.tickets());
+        assertEquals(written.stream().mapToLong(TicketLedger.Entry::revenueCents).sum(), report.revenueCents());
+        assertEquals(report.tickets(), report.byShowtime().stream().mapToLong(SalesAggregator.Totals::tickets).sum());
+        assertEquals(report.revenueCents(), report.byMonth().stream().mapToLong(SalesAggregator.Period::revenueCents).sum());
+        assertEquals(report.revenueCents(), report.byRoom().stream().mapToLong(SalesAggregator.Totals::revenueCents).sum());
+
+        SalesReport.Occupancy occupancy = report.occupancy();
+        long rated = report.byShowtime().stream()
+                .filter(showtime -> written.stream().anyMatch(e -> e.showtimeId() == showtime.key() && e.roomId() <= 5))
+                .count();
+        assertEquals(rated, occupancy.showtimes());
+        assertEquals(40L * rated, occupancy.seatsOffered());
+        assertEquals(-1, report.damagedAt());
+    }
+
+    @Test
+    void aDamagedRecordEndsEveryReadAtTheSamePlace() throws IOException {
+        long[] ends = new long[SALES + 1];
+        int[] count = {0};
+        ledger.replayFrom(0, (entry, end) -> ends[++count[0]] = end);
+        long middle = ends[SALES / 3];
+        try (FileChannel channel = FileChannel.open(ledger.getPath(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), middle + TicketLedger.HEADER_BYTES + 3);
+        }
+
+        SalesReport.Report whole = report(null, null, ONE_RANGE);
+        assertEquals(middle, whole.damagedAt());
+        assertTrue(whole.tickets() < written.stream().mapToLong(TicketLedger.Entry::tickets).sum());
+        for (long split : SPLITS) {
+            assertEquals(whole, report(null, null, split), "ranges of " + split + " bytes");
+        }
+    }
+
+    @Test
+    void aMissingLedgerGivesAnEmptyReport() throws IOException {
+        Files.delete(ledger.getPath());
+        SalesReport.Report report = report(null, null, 4096);
+        assertEquals(0, report.tickets());
+        assertTrue(report.byShowtime().isEmpty());
+    }
+
+    private SalesReport.Report report(LocalDateTime from, LocalDateTime to, long segmentBytes) throws IOException {
+        return SalesReport.compute(ledger, rooms, from, to, pool, segmentBytes);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Tests of the {@link ScheduleIndex}: every page of a date range, cut at any
+ * size, holds exactly the rows of a sorted list of the range at that place,
+ * including pages that start or end on a day boundary and the last, short one.
+ *
+ * @author Rene
+ */
+class ScheduleIndexTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 5, 1);
+    private static final String[] TIMES = {"10:00", "12:30", "15:00", "17:45", "20:30", "22:00"};
+    private static final int[] PAGE_SIZES = {1, 3, 7, 50, 500};
+
+    private final ScheduleIndex index = new ScheduleIndex();
+    private final List<Showtime> scheduled = new ArrayList<>();
+
+    @BeforeEach
+    void schedule() {
+        Random random = new Random(12);
+        int id = 1;
+        for (int day = 0; day < 40; day++) {
+            // Days of 0 to 8 showtimes, so pages end inside days, on their edges and across empty ones
+            int shows = random.nextInt(9);
+            for (int s = 0; s < shows; s++) {
+                Showtime showtime = new Showtime(id++, FIRST_DAY.plusDays(day).toString(),
+                        TIMES[random.nextInt(TIMES.length)], 1, 1 + random.nextInt(4));
+                scheduled.add(showtime);
+                index.add(showtime);
+            }
+        }
+    }
+
+    @Test
+    void everyPageHoldsTheRowsOfItsPlace() {
+        String[][] ranges = {
+                {null, null},
+                {"2025-05-03", "2025-05-20"},
+                {"2025-05-10", null},
+                {null, "2025-05-09"},
+                {"2025-05-07", "2025-05-07"}
+        };
+        for (String[] range : ranges) {
+            List<Integer> expected = sorted(range[0], range[1]);
+            assertEquals(expected.size(), index.count(range[0], range[1]), "count of " + range[0] + ".." + range[1]);
+            for (int pageSize : PAGE_SIZES) {
+                assertPages(range[0], range[1], pageSize, expected);
+            }
+        }
+    }
+
+    @Test
+    void aPageStartingOnADayBoundaryStartsWithThatDay() {
+        List<Integer> all = sorted(null, null);
+        int firstDayShows = (int) scheduled.stream().filter(s -> s.getDate().equals(dateOf(all.get(0)))).count();
+        int[] next = index.window(null, null, firstDayShows, 1);
+        assertEquals(1, next.length);
+        assertEquals((int) all.get(firstDayShows), next[0]);
+        assertNotEquals(dateOf(all.get(0)), dateOf(next[0]), "the first row of the second day");
+    }
+
+    @Test
+    void aWindowPastTheEndIsEmptyAndTheLastPageIsShort() {
+        int total = index.count(null, null);
+        assertEquals(0, index.window(null, null, total, 10).length);
+        assertEquals(0, index.window(null, null, total + 25, 10).length);
+        assertEquals(total % 7 == 0 ? 7 : total % 7, index.window(null, null, (total - 1) / 7 * 7, 7).length);
+    }
+
+    @Test
+    void anEmptyOrBackwardRangeHasNoRows() {
+        assertEquals(0, index.count("2025-05-20", "2025-05-03"));
+        assertEquals(0, index.window("2025-05-20", "2025-05-03", 0, 10).length);
+        assertEquals(0, index.count("2026-01-01", null));
+        assertEquals(0, index.window("2026-01-01", null, 0, 10).length);
+    }
+
+    @Test
+    void editsMoveAShowtimeToItsNewPlace() {
+        Showtime moved = scheduled.get(scheduled.size() / 2);
+        Showtime edited = new Showtime(moved.getShowtimeID(), "2025-05-02", "09:00", moved.getMovieID(), moved.getRoomID());
+        index.remove(moved);
+        index.add(edited);
+        scheduled.set(scheduled.indexOf(moved), edited);
+        Showtime dropped = scheduled.remove(0);
+        index.remove(dropped);
+        index.remove(dropped); // a second remove changes nothing
+        index.add(scheduled.get(0)); // nor does adding one twice
+
+        List<Integer> expected = sorted(null, null);
+        assertEquals(expected.size(), index.count(null, null));
+        for (int pageSize : PAGE_SIZES) {
+            assertPages(null, null, pageSize, expected);
+        }
+    }
+
+    @Test
+    void timesThatAreNotIsoSortLastInTheirDay() {
+        ScheduleIndex day = new ScheduleIndex();
+        day.add(new Showtime(3, "2025-05-01", "late", 1, 1));
+        day.add(new Showtime(2, "2025-05-01", "21:00", 1, 1));
+        day.add(new Showtime(1, "2025-05-01", "09:00", 1, 1));
+        day.add(new Showtime(4, "2025-05-02", "08:00", 1, 1));
+        assertArrayEquals(new int[]{1, 2, 3, 4}, day.window(null, null, 0, 10));
+    }
+
+    private void assertPages(String from, String to, int pageSize, List<Integer> expected) {
+        List<Integer> paged = new ArrayList<>();
+        for (int offset = 0; offset < expected.size(); offset += pageSize) {
+            int[] page = index.window(from, to, offset, pageSize);
+            int rows = Math.min(pageSize, expected.size() - offset);
+            assertEquals(rows, page.length, "rows of the page at " + offset + " by " + pageSize);
+            for (int id : page) paged.add(id);
+        }
+        assertEquals(expected, paged, "pages of " + pageSize + " in " + from + ".." + to);
+    }
+
+    /**
+     * The schedule order the index should keep: date, start time, id.
+     */
+    private List<Integer> sorted(String from, String to) {
+        return scheduled.stream()
+                .filter(s -> from == null || s.getDate().compareTo(from) >= 0)
+                .filter(s -> to == null || s.getDate().compareTo(to) <= 0)
+                .sorted(Comparator.comparing(Showtime::getDate)
+                        .thenComparing(Showtime::getTime)
+                        .thenComparingInt(Showtime::getShowtimeID))
+                .map(Showtime::getShowtimeID)
+                .toList();
+    }
+
+    private String dateOf(int id) {
+        return scheduled.stream().filter(s -> s.getShowtimeID() == id).findFirst().orElseThrow().getDate();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.finalproject.model;
+
+import java.util.Random;
+
+/**
+ * A 10-seat group in the 300-seat IMAX room (rooms.csv id 4): time of one
+ * best-available search, on an empty, a half-sold and a three-quarters-sold
+ * room.
+ * <p>
+ * Not a unit test (timings depend on the machine); run it by hand after
+ * {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.finalproject.model.SeatAllocatorBenchmark
+ * </pre>
+ *
+ * @author Rene
+ */
+final class SeatAllocatorBenchmark {
+
+    private static final int CAPACITY = 300;
+    private static final int GROUP = 10;
+    private static final int SEARCHES = 1_000_000;
+
+    private SeatAllocatorBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        SeatLayout layout = SeatLayout.forCapacity(CAPACITY);
+        System.out.printf("%d seats in %d rows of %d, group of %d%n",
+                CAPACITY, layout.getRows(), layout.getWidth(), GROUP);
+        for (double sold : new double[]{0, 0.5, 0.75}) {
+            SeatMap seats = new SeatMap(CAPACITY);
+            Random random = new Random(16);
+            // Sold the way the box office sells: best available, couples and small families
+            while (seats.getReservedCount() < sold * CAPACITY) {
+                SeatAllocator.reserveBest(seats, layout, 1 + random.nextInt(4));
+            }
+            long best = Long.MAX_VALUE;
+            long found = 0;
+            for (int run = 0; run < 5; run++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < SEARCHES; i++) found += SeatAllocator.findBest(seats, layout, GROUP);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%3.0f%% sold: %,6.0f ns per search (first seat %d)%n",
+                    sold * 100, (double) best / SEARCHES, found / (5L * SEARCHES));
+        }
+    }
+}
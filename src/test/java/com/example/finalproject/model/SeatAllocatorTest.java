@@ -0,0 +1,147 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link SeatAllocator}: the word-at-a-time search must find a
+ * block as good as checking every seat one by one would.
+ *
+ * @author Rene
+ */
+class SeatAllocatorTest {
+
+    /**
+     * Room sizes with short last rows, rows spanning two bitmap words and full 64-seat rows.
+     */
+    private static final int[] CAPACITIES = {1, 7, 40, 63, 64, 65, 100, 150, 300, 301, 2048, 4100};
+
+    @Test
+    void findsABlockAsGoodAsTheSeatBySeatSearch() {
+        Random random = new Random(16);
+        for (int capacity : CAPACITIES) {
+            SeatLayout layout = SeatLayout.forCapacity(capacity);
+            for (int trial = 0; trial < 50; trial++) {
+                SeatMap seats = new SeatMap(capacity);
+                double taken = random.nextDouble();
+                for (int seat = 0; seat < capacity; seat++) {
+                    if (random.nextDouble() < taken) seats.reserve(seat);
+                }
+                int count = 1 + random.nextInt(Math.min(layout.getWidth(), 16) + 1); // sometimes wider than a row
+                int expected = bruteForce(seats, layout, count);
+                int found = SeatAllocator.findBest(seats, layout, count);
+                String where = capacity + " seats, group of " + count;
+                if (expected < 0) {
+                    assertEquals(-1, found, where);
+                    continue;
+                }
+                assertTrue(found >= 0, where + ": a block exists");
+                int row = found / layout.getWidth();
+                int column = found % layout.getWidth();
+                assertTrue(column + count <= layout.seatsInRow(row), where + ": block stays in its row");
+                for (int seat = found; seat < found + count; seat++) assertFalse(seats.isReserved(seat), where);
+                assertEquals(blockScore(layout, expected, count), blockScore(layout, found, count), 1e-9, where);
+            }
+        }
+    }
+
+    @Test
+    void aGroupWiderThanEveryGapFindsNothing() {
+        SeatLayout layout = SeatLayout.forCapacity(300);
+        SeatMap seats = new SeatMap(300);
+        for (int seat = 0; seat < 300; seat += 4) seats.reserve(seat); // gaps of three
+        assertEquals(-1, SeatAllocator.findBest(seats, layout, 4));
+        assertTrue(SeatAllocator.findBest(seats, layout, 3) >= 0);
+        assertEquals(-1, SeatAllocator.findBest(new SeatMap(300), layout, layout.getWidth() + 1));
+    }
+
+    @Test
+    void aGroupMustHaveSomeone() {
+        SeatLayout layout = SeatLayout.forCapacity(100);
+        assertThrows(IllegalArgumentException.class, () -> SeatAllocator.findBest(new SeatMap(100), layout, 0));
+    }
+
+    @Test
+    void reserveBestTakesTheBlockItFound() {
+        SeatLayout layout = SeatLayout.forCapacity(300);
+        SeatMap seats = new SeatMap(300);
+        int first = SeatAllocator.findBest(seats, layout, 10);
+        int[] block = SeatAllocator.reserveBest(seats, layout, 10);
+        assertNotNull(block);
+        assertEquals(first, block[0]);
+        assertEquals(10, block.length);
+        for (int seat : block) assertTrue(seats.isReserved(seat));
+        assertEquals(10, seats.getReservedCount());
+    }
+
+    @Test
+    void racingGroupsNeverShareASeat() throws InterruptedException {
+        SeatLayout layout = SeatLayout.forCapacity(300);
+        SeatMap seats = new SeatMap(300);
+        List<List<int[]>> taken = new ArrayList<>();
+        Thread[] sellers = new Thread[8];
+        for (int t = 0; t < sellers.length; t++) {
+            List<int[]> mine = new ArrayList<>();
+            taken.add(mine);
+            int group = 2 + t % 4;
+            sellers[t] = Thread.ofPlatform().start(() -> {
+                int[] block;
+                while ((block = SeatAllocator.reserveBest(seats, layout, group)) != null) mine.add(block);
+            });
+        }
+        for (Thread seller : sellers) seller.join();
+
+        BitSet sold = new BitSet();
+        int total = 0;
+        for (List<int[]> blocks : taken) {
+            for (int[] block : blocks) {
+                for (int seat : block) {
+                    assertFalse(sold.get(seat), "seat " + seat + " sold twice");
+                    sold.set(seat);
+                    total++;
+                }
+            }
+        }
+        assertEquals(total, seats.getReservedCount());
+        assertNull(SeatAllocator.reserveBest(seats, layout, 2), "every pair of seats is gone");
+    }
+
+    /**
+     * The obvious search: every start in every row, every seat of the block checked.
+     */
+    private static int bruteForce(SeatMap seats, SeatLayout layout, int count) {
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int row = 0; row < layout.getRows(); row++) {
+            for (int column = 0; column + count <= layout.seatsInRow(row); column++) {
+                int first = layout.seatAt(row, column);
+                boolean free = true;
+                for (int seat = first; seat < first + count && free; seat++) free = !seats.isReserved(seat);
+                if (!free) continue;
+                double score = blockScore(layout, first, count);
+                if (score > bestScore + 1e-12) {
+                    bestScore = score;
+                    best = first;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static double blockScore(SeatLayout layout, int first, int count) {
+        double score = 0;
+        for (int seat = first; seat < first + count; seat++) score += layout.score(seat);
+        return score;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link SeatInventory} with two terminals selling the same
+ * showtime: each terminal has an inventory of its own, and both record their
+ * sales in one ledger file, as terminals sharing a data directory do.
+ *
+ * @author Rene
+ */
+class SeatInventoryTest {
+
+    private static final int CAPACITY = 60;
+    private static final LocalDateTime EVENING = LocalDateTime.of(2025, 6, 20, 20, 0);
+
+    @TempDir
+    Path dir;
+
+    private TicketLedger ledger;
+    private SeatInventory first;
+    private SeatInventory second;
+    private final Room room = new Room(1, "Room 1", CAPACITY);
+    private final Showtime showtime = new Showtime(7, "2025-06-20", "20:30", 3, 1);
+    private final Client client = new Client(1, "secret", "Seat", "seat@example.com");
+    private final SeatLayout layout = SeatLayout.forCapacity(CAPACITY);
+    private final AtomicLong ticketIds = new AtomicLong();
+
+    @BeforeEach
+    void openTerminals() {
+        ledger = new TicketLedger(dir.resolve("tickets.ledger").toString());
+        first = terminal();
+        second = terminal();
+    }
+
+    @Test
+    void aSeatSoldByAnotherTerminalIsTakenHere() {
+        first.seatsOf(showtime);
+        second.seatsOf(showtime); // both maps built before the sale
+
+        assertTrue(first.reserve(showtime, 5));
+        first.sell(ticket(5)).join();
+
+        assertFalse(second.reserve(showtime, 5));
+        assertTrue(second.seatsOf(showtime).isReserved(5));
+        assertTrue(second.reserve(showtime, 6));
+    }
+
+    @Test
+    void aSeatReservedByBothTerminalsIsSoldOnce() {
+        assertTrue(first.reserve(showtime, 5));
+        assertTrue(second.reserve(showtime, 5)); // neither sold yet: both maps take it
+
+        CompletableFuture<Void> sale = first.sell(ticket(5));
+        CompletableFuture<Void> late = second.sell(ticket(5));
+        sale.join();
+        CompletionException refused = assertThrows(CompletionException.class, late::join);
+        assertInstanceOf(StaleRecordException.class, refused.getCause());
+        assertEquals(Map.of(layout.label(5), 1), soldPerSeat());
+    }
+
+    @Test
+    void racingTerminalsSellEverySeatOnce() throws InterruptedException {
+        AtomicInteger sold = new AtomicInteger();
+        List<Thread> sellers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            SeatInventory inventory = t % 2 == 0 ? first : second;
+            Random random = new Random(t);
+            sellers.add(Thread.ofPlatform().start(() -> {
+                List<Integer> seats = new ArrayList<>();
+                for (int seat = 0; seat < CAPACITY; seat++) seats.add(seat);
+                Collections.shuffle(seats, random);
+                for (int seat : seats) {
+                    if (!inventory.reserve(showtime, seat)) continue;
+                    try {
+                        inventory.sell(ticket(seat)).join();
+                        sold.incrementAndGet();
+                    } catch (CompletionException e) {
+                        if (!(e.getCause() instanceof StaleRecordException)) throw e;
+                    }
+                }
+            }));
+        }
+        for (Thread seller : sellers) seller.join();
+
+        Map<String, Integer> perSeat = soldPerSeat();
+        assertEquals(CAPACITY, sold.get());
+        assertEquals(CAPACITY, perSeat.size());
+        for (int count : perSeat.values()) assertEquals(1, count);
+    }
+
+    @Test
+    void aNewTerminalStartsFromTheLedger() throws IOException {
+        first.reserve(showtime, 1);
+        first.sell(ticket(1)).join();
+        first.reserve(showtime, 2);
+        Ticket cancelled = ticket(2);
+        first.sell(cancelled).join();
+        ledger.cancel(cancelled);
+
+        SeatMap seats = terminal().seatsOf(showtime);
+        assertTrue(seats.isReserved(1));
+        assertFalse(seats.isReserved(2), "a cancelled seat can be sold again");
+        assertEquals(1, seats.getReservedCount());
+    }
+
+    private SeatInventory terminal() {
+        return new SeatInventory(ledger, id -> id == room.getRoomID() ? room : null);
+    }
+
+    private Ticket ticket(int seat) {
+        long id = ticketIds.incrementAndGet();
+        return new Ticket(id, client, showtime, EVENING, layout.label(seat), "SEAT-" + id, 9.5);
+    }
+
+    private Map<String, Integer> soldPerSeat() {
+        Map<String, Integer> perSeat = new HashMap<>();
+        try {
+            ledger.replay(entry -> perSeat.merge(entry.seat(), entry.tickets(), Integer::sum));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        perSeat.values().removeIf(count -> count == 0);
+        return perSeat;
+    }
+}
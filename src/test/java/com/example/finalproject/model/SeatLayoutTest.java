@@ -0,0 +1,37 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the seat labels the {@link SeatInventory} reads back from the ledger.
+ *
+ * @author Rene
+ */
+class SeatLayoutTest {
+
+    @Test
+    void everyLabelReadsBackToItsSeat() {
+        for (int capacity : new int[]{1, 7, 50, 300, 1000, 5000}) {
+            SeatLayout layout = SeatLayout.forCapacity(capacity);
+            for (int seat = 0; seat < capacity; seat++) {
+                assertEquals(seat, layout.seatOf(layout.label(seat)), layout.label(seat) + " of " + capacity);
+            }
+        }
+    }
+
+    @Test
+    void foreignLabelsNameNoSeat() {
+        SeatLayout layout = SeatLayout.forCapacity(100);
+        assertEquals(-1, layout.seatOf(""));
+        assertEquals(-1, layout.seatOf("12"));
+        assertEquals(-1, layout.seatOf("A"));
+        assertEquals(-1, layout.seatOf("A0"));
+        assertEquals(-1, layout.seatOf("A+1"));
+        assertEquals(-1, layout.seatOf("Z1"));
+        assertEquals(-1, layout.seatOf("A999999999999"));
+        assertEquals(-1, layout.seatOf("Balcony 3"));
+        assertEquals(layout.seatOf("C7"), layout.seatOf("c7"));
+    }
+}
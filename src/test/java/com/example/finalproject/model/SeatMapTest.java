@@ -0,0 +1,113 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress tests of the lock-free {@link SeatMap}: however many sellers race
+ * for the same seats, each seat is sold exactly once.
+ *
+ * @author Rene
+ */
+class SeatMapTest {
+
+    private static final int SELLERS = 16;
+    private static final int ROUNDS = 200;
+    private static final int CAPACITY = 300;
+
+    @Test
+    void everySeatIsSoldOnceWhenAllSellersWantEverySeat() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(SELLERS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                SeatMap seats = new SeatMap(CAPACITY);
+                AtomicIntegerArray wins = new AtomicIntegerArray(CAPACITY);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> sellers = new ArrayList<>();
+                for (int s = 0; s < SELLERS; s++) {
+                    int offset = s * 37; // sellers start at different seats, so they collide on every word
+                    sellers.add(pool.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < CAPACITY; i++) {
+                            int seat = (offset + i) % CAPACITY;
+                            if (seats.reserve(seat)) wins.incrementAndGet(seat);
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> seller : sellers) seller.get();
+
+                for (int seat = 0; seat < CAPACITY; seat++) {
+                    assertEquals(1, wins.get(seat), "seat " + seat + " in round " + round);
+                }
+                assertEquals(CAPACITY, seats.getReservedCount());
+                assertEquals(0, seats.getAvailableCount());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void groupsNeverShareASeat() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(SELLERS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                SeatMap seats = new SeatMap(CAPACITY);
+                AtomicIntegerArray owner = new AtomicIntegerArray(CAPACITY);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> sellers = new ArrayList<>();
+                for (int s = 1; s <= SELLERS; s++) {
+                    int seller = s;
+                    sellers.add(pool.submit(() -> {
+                        start.await();
+                        // Overlapping blocks of four: a block is only sold if none of its seats is
+                        for (int first = seller % 4; first + 4 <= CAPACITY; first += 2) {
+                            int[] block = {first, first + 1, first + 2, first + 3};
+                            if (!seats.reserveAll(block)) continue;
+                            for (int seat : block) {
+                                assertTrue(owner.compareAndSet(seat, 0, seller), "seat " + seat + " sold twice");
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> seller : sellers) seller.get();
+
+                int owned = 0;
+                for (int seat = 0; seat < CAPACITY; seat++) {
+                    if (owner.get(seat) != 0) owned++;
+                    assertEquals(owner.get(seat) != 0, seats.isReserved(seat), "seat " + seat);
+                }
+                assertEquals(owned, seats.getReservedCount());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void releasedSeatCanBeSoldAgain() {
+        SeatMap seats = new SeatMap(CAPACITY);
+        assertTrue(seats.reserve(63));
+        assertTrue(seats.reserve(64));
+        assertFalse(seats.reserve(64));
+        assertTrue(seats.release(64));
+        assertFalse(seats.release(64));
+        assertTrue(seats.reserve(64));
+        assertEquals(0b11, seats.takenBits(63, 2));
+    }
+}
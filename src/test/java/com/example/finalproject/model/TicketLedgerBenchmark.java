@@ -0,0 +1,72 @@
+package com.example.finalproject.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Peak box-office load on the {@link TicketLedger}: sellers each record one
+ * sale at a time and wait until it is on disk, as the sales screens do.
+ * Shows how many sales per second the group commit sustains and how many
+ * sales share each fsync.
+ * <p>
+ * Not a unit test (timings depend on the machine and its disk); run it by
+ * hand after {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.finalproject.model.TicketLedgerBenchmark [seconds]
+ * </pre>
+ *
+ * @author Rene
+ */
+final class TicketLedgerBenchmark {
+
+    private TicketLedgerBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long millis = (args.length > 0 ? Long.parseLong(args[0]) : 2) * 1000;
+        Path dir = Files.createTempDirectory("ledger");
+        Client client = new Client(1, "secret", "Bench", "bench@example.com");
+        Showtime showtime = new Showtime(1, "2025-03-14", "20:00", 1, 4);
+        try {
+            for (int sellers : new int[]{1, 4, 16, 64}) {
+                Path file = dir.resolve("tickets-" + sellers + ".ledger");
+                TicketLedger ledger = new TicketLedger(file.toString());
+                AtomicInteger batches = new AtomicInteger();
+                ledger.addListener(batches::incrementAndGet);
+                AtomicLong sold = new AtomicLong();
+                long stopAt = System.currentTimeMillis() + millis;
+                List<Thread> threads = new ArrayList<>();
+                for (int s = 0; s < sellers; s++) {
+                    int seller = s;
+                    threads.add(Thread.ofPlatform().start(() -> {
+                        for (int i = 0; System.currentTimeMillis() < stopAt; i++) {
+                            try {
+                                ledger.append(new Ticket(0, client, showtime, LocalDateTime.now(),
+                                        "A" + (i % 20 + 1), "S" + seller + "-" + i, 12.50));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            sold.incrementAndGet();
+                        }
+                    }));
+                }
+                for (Thread thread : threads) thread.join();
+                System.out.printf("%2d sellers: %,7.0f sales/s, %,5.1f sales per fsync, %,d bytes%n",
+                        sellers, sold.get() * 1000.0 / millis, (double) sold.get() / Math.max(1, batches.get()),
+                        Files.size(file));
+            }
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : files.toList()) Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link TicketLedger} on a ledger file of their own: what is
+ * appended is replayed as written, a torn last record is dropped, and sales
+ * from many threads all end up on disk.
+ *
+ * @author Rene
+ */
+class TicketLedgerTest {
+
+    private static final LocalDateTime EVENING = LocalDateTime.of(2025, 3, 14, 19, 45);
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private TicketLedger ledger;
+    private Client client;
+    private Showtime showtime;
+
+    @BeforeEach
+    void openLedger() {
+        file = dir.resolve("tickets.ledger");
+        ledger = new TicketLedger(file.toString());
+        client = new Client(7, "secret", "Ada", "ada@example.com");
+        showtime = new Showtime(12, "2025-03-14", "20:00", 3, 4);
+    }
+
+    @Test
+    void salesAreReplayedAsWritten() throws IOException {
+        ledger.append(ticket("AAAA-0001", "C7", 12.50));
+        ledger.append(ticket("AAAA-0002", "", 9.99));
+
+        List<TicketLedger.Entry> entries = replay(ledger);
+        assertEquals(2, entries.size());
+        TicketLedger.Entry first = entries.get(0);
+        assertEquals(new TicketLedger.Entry(7, 12, 3, 4, "C7", EVENING, "AAAA-0001", 1250, false), first);
+        assertEquals(999, entries.get(1).priceCents());
+        assertEquals(1, first.tickets());
+        assertEquals(12.50, first.price(), 1e-9);
+        assertEquals(Files.size(file), ledger.size());
+    }
+
+    @Test
+    void aCancellationTakesTheSaleBack() throws IOException {
+        Ticket ticket = ticket("AAAA-0003", "D2", 11.00);
+        ledger.append(ticket);
+        ledger.cancel(ticket);
+
+        List<TicketLedger.Entry> entries = replay(ledger);
+        assertEquals(2, entries.size());
+        assertTrue(entries.get(1).cancellation());
+        assertEquals(EVENING, entries.get(1).purchased(), "keeps the time of the sale");
+        assertEquals(0, entries.get(0).tickets() + entries.get(1).tickets());
+        assertEquals(0, entries.get(0).revenueCents() + entries.get(1).revenueCents());
+    }
+
+    @Test
+    void replayContinuesFromTheOffsetItReturned() throws IOException {
+        ledger.append(ticket("AAAA-0004", "A1", 10));
+        List<String> codes = new ArrayList<>();
+        long offset = ledger.replayFrom(0, (TicketLedger.Entry entry) -> codes.add(entry.eTicketCode()));
+        ledger.append(ticket("AAAA-0005", "A2", 10));
+        ledger.append(ticket("AAAA-0006", "A3", 10));
+
+        List<Long> ends = new ArrayList<>();
+        long end = ledger.replayFrom(offset, (entry, after) -> {
+            codes.add(entry.eTicketCode());
+            ends.add(after);
+        });
+        assertEquals(List.of("AAAA-0004", "AAAA-0005", "AAAA-0006"), codes);
+        assertEquals(Files.size(file), end);
+        assertEquals(end, (long) ends.get(ends.size() - 1));
+        assertEquals(end, ledger.replayFrom(end, (TicketLedger.Entry entry) -> codes.add("again")));
+        assertEquals(3, codes.size());
+    }
+
+    @Test
+    void aTornRecordLeftByACrashIsDroppedOnRestart() throws IOException {
+        ledger.append(ticket("AAAA-0007", "B1", 10));
+        ledger.append(ticket("AAAA-0008", "B2", 10));
+        long good = Files.size(file);
+        tearTail();
+        assertEquals(2, replay(ledger).size(), "readers stop before the torn record");
+
+        TicketLedger restarted = new TicketLedger(file.toString());
+        restarted.append(ticket("AAAA-0009", "B3", 10));
+        List<TicketLedger.Entry> entries = replay(restarted);
+        assertEquals(3, entries.size());
+        assertEquals("AAAA-0009", entries.get(2).eTicketCode());
+        assertTrue(Files.size(file) > good);
+    }
+
+    @Test
+    void aTornRecordFromAnotherTerminalIsDroppedBeforeTheNextBatch() throws IOException {
+        ledger.append(ticket("AAAA-0010", "E1", 10));
+        tearTail(); // another terminal died mid-append while this one kept the file open
+        ledger.append(ticket("AAAA-0011", "E2", 10));
+
+        List<TicketLedger.Entry> entries = replay(ledger);
+        assertEquals(2, entries.size());
+        assertEquals("AAAA-0011", entries.get(1).eTicketCode());
+    }
+
+    @Test
+    void salesFromManyThreadsAreAllDurable() throws Exception {
+        int threads = 8;
+        int perThread = 500;
+        List<Thread> sellers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seller = t;
+            List<CompletableFuture<Void>> mine = new ArrayList<>();
+            sellers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    mine.add(ledger.appendAsync(ticket(String.format("T%d-%04d", seller, i), "", 10)));
+                }
+                CompletableFuture.allOf(mine.toArray(CompletableFuture[]::new)).join();
+            }));
+        }
+        for (Thread seller : sellers) seller.join();
+
+        List<TicketLedger.Entry> entries = replay(new TicketLedger(file.toString()));
+        assertEquals(threads * perThread, entries.size());
+        Set<String> codes = new HashSet<>();
+        for (TicketLedger.Entry entry : entries) assertTrue(codes.add(entry.eTicketCode()), entry.eTicketCode());
+    }
+
+    private Ticket ticket(String code, String seat, double price) {
+        return new Ticket(0, client, showtime, EVENING, seat, code, price);
+    }
+
+    /**
+     * Appends the first half of a valid record, as a crash mid-append would leave it.
+     */
+    private void tearTail() throws IOException {
+        TicketLedger scratch = new TicketLedger(dir.resolve("scratch.ledger").toString());
+        scratch.append(ticket("ZZZZ-9999", "Z9", 99));
+        byte[] record = Files.readAllBytes(dir.resolve("scratch.ledger"));
+        Files.write(file, Arrays.copyOf(record, record.length / 2), StandardOpenOption.APPEND);
+    }
+
+    private static List<TicketLedger.Entry> replay(TicketLedger ledger) throws IOException {
+        List<TicketLedger.Entry> entries = new ArrayList<>();
+        ledger.replay(entries::add);
+        return entries;
+    }
+}
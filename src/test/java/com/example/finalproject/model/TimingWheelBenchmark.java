@@ -0,0 +1,62 @@
+package com.example.finalproject.model;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Premiere-night load on the hold expiry: a few hundred thousand short holds
+ * placed from the sales path, with the {@link TimingWheel} against one
+ * timer per hold on a {@link ScheduledThreadPoolExecutor}.
+ * <p>
+ * Not a unit test (timings depend on the machine); run it by hand after
+ * {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.finalproject.model.TimingWheelBenchmark [holds]
+ * </pre>
+ * "place" is what the selling thread pays per hold; "drain" is how long
+ * after the last deadline every hold has expired.
+ *
+ * @author Rene
+ */
+final class TimingWheelBenchmark {
+
+    private static final long HOLD_MILLIS = 200;
+    private static final int ROUNDS = 5;
+
+    private TimingWheelBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int holds = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        TimingWheel wheel = new TimingWheel(10, TimeUnit.MILLISECONDS, 512, "hold-expiry");
+        ScheduledThreadPoolExecutor timers = new ScheduledThreadPoolExecutor(1);
+        System.out.printf("%,d holds of %d ms%n", holds, HOLD_MILLIS);
+        for (int round = 1; round <= ROUNDS; round++) {
+            String wheelResult = run(holds, (deadline, action) -> wheel.schedule(deadline, action));
+            String timerResult = run(holds, (deadline, action) ->
+                    timers.schedule(action, deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+            System.out.printf("round %d  wheel: %s  per-hold timers: %s%n", round, wheelResult, timerResult);
+        }
+        timers.shutdown();
+    }
+
+    private interface Scheduler {
+        void schedule(long deadline, Runnable action);
+    }
+
+    private static String run(int holds, Scheduler scheduler) throws InterruptedException {
+        CountDownLatch expired = new CountDownLatch(holds);
+        Runnable release = expired::countDown;
+        long start = System.nanoTime();
+        long lastDeadline = 0;
+        for (int i = 0; i < holds; i++) {
+            lastDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(HOLD_MILLIS);
+            scheduler.schedule(lastDeadline, release);
+        }
+        long place = System.nanoTime() - start;
+        expired.await();
+        long drain = Math.max(0, System.nanoTime() - lastDeadline);
+        return String.format("place %4.0f ns/hold, drain %3d ms", (double) place / holds, drain / 1_000_000);
+    }
+}
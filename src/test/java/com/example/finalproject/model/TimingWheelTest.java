@@ -0,0 +1,112 @@
+package com.example.finalproject.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link TimingWheel} behind seat holds: no action runs before
+ * its deadline, every action runs once, and a flood of holds all expire.
+ *
+ * @author Rene
+ */
+class TimingWheelTest {
+
+    private static final long TICK_MILLIS = 5;
+
+    @Test
+    void nothingRunsBeforeItsDeadline() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(TICK_MILLIS, TimeUnit.MILLISECONDS, 16, "test-wheel");
+        int count = 500;
+        Random random = new Random(15);
+        long[] deadlines = new long[count];
+        AtomicLongArray ranAt = new AtomicLongArray(count);
+        CountDownLatch done = new CountDownLatch(count);
+        long now = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            // Up to three turns of the wheel (16 buckets of 5 ms), some already due
+            deadlines[i] = now + TimeUnit.MILLISECONDS.toNanos(random.nextInt(240) - 10);
+            int hold = i;
+            wheel.schedule(deadlines[i], () -> {
+                ranAt.set(hold, System.nanoTime());
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "every action ran");
+        for (int i = 0; i < count; i++) {
+            assertTrue(ranAt.get(i) >= deadlines[i], "action " + i + " ran early");
+        }
+    }
+
+    @Test
+    void anActionRunsOnTheWheelThreadSoonAfterItsDeadline() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(TICK_MILLIS, TimeUnit.MILLISECONDS, 8, "hold-expiry-test");
+        AtomicReference<String> thread = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100); // more than two turns
+        wheel.schedule(deadline, () -> {
+            thread.set(Thread.currentThread().getName());
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        long late = System.nanoTime() - deadline;
+        assertEquals("hold-expiry-test", thread.get());
+        assertTrue(late < TimeUnit.MILLISECONDS.toNanos(500), "ran " + late / 1_000_000 + " ms late");
+    }
+
+    @Test
+    void aFloodOfHoldsAllExpireExactlyOnce() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(TICK_MILLIS, TimeUnit.MILLISECONDS, 64, "test-wheel");
+        int threads = 4;
+        int perThread = 50_000;
+        AtomicIntegerArray runs = new AtomicIntegerArray(threads * perThread);
+        CountDownLatch done = new CountDownLatch(threads * perThread);
+        Thread[] sellers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t * perThread;
+            sellers[t] = Thread.ofPlatform().start(() -> {
+                for (int i = first; i < first + perThread; i++) {
+                    int hold = i;
+                    wheel.schedule(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(hold % 50), () -> {
+                        runs.incrementAndGet(hold);
+                        done.countDown();
+                    });
+                }
+            });
+        }
+        for (Thread seller : sellers) seller.join();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS), done.getCount() + " holds never expired");
+        Thread.sleep(20 * TICK_MILLIS); // a few more ticks: nothing runs twice
+        for (int i = 0; i < runs.length(); i++) assertEquals(1, runs.get(i), "hold " + i);
+    }
+
+    @Test
+    void aFailingActionDoesNotStopTheWheel() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(TICK_MILLIS, TimeUnit.MILLISECONDS, 8, "test-wheel");
+        AtomicInteger ran = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        long now = System.nanoTime();
+        wheel.schedule(now, () -> {
+            throw new IllegalStateException("expected by the test");
+        });
+        wheel.schedule(now + TimeUnit.MILLISECONDS.toNanos(20), () -> {
+            ran.incrementAndGet();
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, ran.get());
+    }
+}